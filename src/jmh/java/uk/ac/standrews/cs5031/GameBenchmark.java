@@ -0,0 +1,113 @@
+package uk.ac.standrews.cs5031;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures playing games: whole scripted games through {@link Game},
+ * the letter check path of {@link GameSession} and rendering turns.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+    /**
+     * The input of a scripted game: a category, then every letter from
+     * the most to the least common in English, which ends any game.
+     */
+    private static final String SCRIPT =
+            "1\ne\nt\na\no\ni\nn\ns\nr\nh\nl\nd\nc\nu\nm\nw\nf\ng\ny\np\nb\n"
+                    + "v\nk\nj\nx\nq\nz\n";
+
+    /** The guesses of {@link #SCRIPT}. */
+    private static final String[] GUESSES =
+            SCRIPT.substring(2).split("\n");
+
+    /** The phrase guessed and rendered. */
+    private static final String PHRASE = "Dumfries and Galloway";
+
+    /** The letter mask of {@link #PHRASE}. */
+    private static final long MASK = LetterSet.maskOf(LetterSet.of(PHRASE));
+
+    /** The console output before it was silenced. */
+    private PrintStream console;
+
+    /** The screen turns are rendered into. */
+    private final Screen screen = new Screen();
+
+    /** A game half way through, for rendering. */
+    private final GameSession halfWay = new GameSession(1, PHRASE, MASK,
+            OptionsParser.DEFAULT_LIVES, OptionsParser.DEFAULT_MAX_HINTS);
+
+    /** Silences the console and plays half of {@link #halfWay}. */
+    @Setup(Level.Trial)
+    public void setUp() {
+        OptionsParser.parseAndValidate(new String[]{});
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        for (int i = 0; i < GUESSES.length / 2; i++) {
+            halfWay.checkGuess(GUESSES[i]);
+        }
+    }
+
+    /** Restores the console. */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    /** Plays a whole scripted game on the silenced console. */
+    @Benchmark
+    public void scriptedGame() {
+        Game.play(new LineReader(SCRIPT));
+    }
+
+    /**
+     * Guesses letters until a game is over.
+     *
+     * @return the state of the game over
+     */
+    @Benchmark
+    public GameSession checkLetters() {
+        GameSession session = new GameSession(1, PHRASE, MASK,
+                OptionsParser.DEFAULT_LIVES, OptionsParser.DEFAULT_MAX_HINTS);
+        for (int i = 0; !session.isOver(); i++) {
+            session.checkGuess(GUESSES[i]);
+        }
+        return session;
+    }
+
+    /**
+     * Renders a turn and encodes it for writing.
+     *
+     * @return the encoded turn
+     */
+    @Benchmark
+    public ByteBuffer renderTurn() {
+        Renderer.appendTurn(screen.text(), halfWay);
+        return screen.encode();
+    }
+
+}
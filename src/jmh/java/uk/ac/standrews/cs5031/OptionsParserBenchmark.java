@@ -0,0 +1,45 @@
+package uk.ac.standrews.cs5031;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing the command line.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OptionsParserBenchmark {
+
+    /** A command line using most options. */
+    private static final String[] ARGS = {
+            OptionsParser.LIVES_OPTION, "7",
+            OptionsParser.MAX_HINTS_OPTION, "3",
+            OptionsParser.SEED_OPTION, "42",
+            OptionsParser.PHRASE_INDEX_OPTION,
+            "phrases.txt"};
+
+    /**
+     * Parses and validates {@link #ARGS}.
+     *
+     * @return the parsed amount of lives
+     */
+    @Benchmark
+    public int parseAndValidate() {
+        OptionsParser.parseAndValidate(ARGS);
+        return OptionsParser.getLives();
+    }
+
+}
@@ -0,0 +1,138 @@
+package uk.ac.standrews.cs5031;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Measures choosing phrases and loading custom phrase sources.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhrasesBenchmark {
+
+    /** A custom phrase source of a given size. */
+    @State(Scope.Benchmark)
+    public static class Source {
+
+        /** The amount of lines in the source. */
+        @Param({"1000", "100000", "1000000"})
+        private int lines;
+
+        /** Whether the source is loaded as text or through its index. */
+        @Param({"text", "index"})
+        private String format;
+
+        /** The source file. */
+        private Path file;
+
+        /**
+         * Writes a source of random phrases and selects it in the options.
+         *
+         * @throws IOException if the source cannot be written
+         */
+        @Setup(Level.Trial)
+        public void write() throws IOException {
+            file = Files.createTempFile("phrases", ".txt");
+            SplittableRandom random = new SplittableRandom(lines);
+            try (PrintWriter out = new PrintWriter(
+                    Files.newBufferedWriter(file, UTF_8))) {
+                for (int i = 0; i < lines; i++) {
+                    out.println(randomPhrase(random));
+                }
+            }
+            if (format.equals("index")) {
+                OptionsParser.parseAndValidate(new String[]{
+                        OptionsParser.PHRASE_INDEX_OPTION, file.toString()});
+            } else {
+                OptionsParser.parseAndValidate(new String[]{file.toString()});
+            }
+        }
+
+        /**
+         * Deletes the source and its index.
+         *
+         * @throws IOException if they cannot be deleted
+         */
+        @TearDown(Level.Trial)
+        public void delete() throws IOException {
+            Files.deleteIfExists(PhraseIndex.indexOf(file));
+            Files.deleteIfExists(file);
+        }
+
+        /**
+         * Makes up a phrase of one to three words.
+         *
+         * @param random the generator of the letters
+         * @return the phrase
+         */
+        private static String randomPhrase(final SplittableRandom random) {
+            StringBuilder phrase = new StringBuilder();
+            int words = 1 + random.nextInt(3);
+            for (int w = 0; w < words; w++) {
+                if (w > 0) {
+                    phrase.append(' ');
+                }
+                phrase.append((char) ('A' + random.nextInt(26)));
+                int length = 2 + random.nextInt(8);
+                for (int c = 0; c < length; c++) {
+                    phrase.append((char) ('a' + random.nextInt(26)));
+                }
+            }
+            return phrase.toString();
+        }
+
+    }
+
+    /**
+     * Picks a random phrase from a built-in category.
+     *
+     * @return the phrase
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String getRandomPhrase() {
+        return Phrases.getRandomPhrase(Phrases.CITIES_ID);
+    }
+
+    /**
+     * Loads a custom phrase source.
+     *
+     * @param source the source to load
+     * @return the amount of phrases loaded
+     * @throws FileNotFoundException if the source is invalid
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int loadCustom(final Source source) throws FileNotFoundException {
+        Phrases.loadCustom();
+        return Phrases.getCategory(Phrases.CUSTOM_ID).size();
+    }
+
+}
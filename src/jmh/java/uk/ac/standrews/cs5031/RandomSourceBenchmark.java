@@ -0,0 +1,120 @@
+package uk.ac.standrews.cs5031;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares how picking phrases scales with the amount of threads,
+ * for a single shared {@link Random}, as used before {@link RandomSource},
+ * and for the default and seeded sources.
+ * Each source is measured on one thread and on every core.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RandomSourceBenchmark {
+
+    /** The category phrases are picked from. */
+    private final PhraseCategory category =
+            Phrases.getCategory(Phrases.COUNTRIES_ID);
+
+    /** The generator shared by all threads. */
+    private final Random shared = new Random();
+
+    /** The source of a single player, owned by one thread. */
+    @State(Scope.Thread)
+    public static class Player {
+
+        /** The seeded source of this player. */
+        private final RandomSource seeded =
+                RandomSource.seeded(ThreadLocalRandom.current().nextLong());
+
+    }
+
+    /**
+     * Picks a phrase with the shared generator on one thread.
+     *
+     * @return the index of the phrase
+     */
+    @Benchmark
+    @Threads(1)
+    public int sharedRandomOneThread() {
+        return shared.nextInt(category.size());
+    }
+
+    /**
+     * Picks a phrase with the shared generator on every core.
+     *
+     * @return the index of the phrase
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int sharedRandomAllCores() {
+        return shared.nextInt(category.size());
+    }
+
+    /**
+     * Picks a phrase with the default source on one thread.
+     *
+     * @return the index of the phrase
+     */
+    @Benchmark
+    @Threads(1)
+    public int threadLocalOneThread() {
+        return Phrases.getRandomIndex(category, RandomSource.threadLocal());
+    }
+
+    /**
+     * Picks a phrase with the default source on every core.
+     *
+     * @return the index of the phrase
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int threadLocalAllCores() {
+        return Phrases.getRandomIndex(category, RandomSource.threadLocal());
+    }
+
+    /**
+     * Picks a phrase with a seeded source per player on one thread.
+     *
+     * @param player the player picking the phrase
+     * @return the index of the phrase
+     */
+    @Benchmark
+    @Threads(1)
+    public int seededOneThread(final Player player) {
+        return Phrases.getRandomIndex(category, player.seeded);
+    }
+
+    /**
+     * Picks a phrase with a seeded source per player on every core.
+     *
+     * @param player the player picking the phrase
+     * @return the index of the phrase
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int seededAllCores(final Player player) {
+        return Phrases.getRandomIndex(category, player.seeded);
+    }
+
+}
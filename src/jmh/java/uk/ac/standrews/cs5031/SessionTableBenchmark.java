@@ -0,0 +1,156 @@
+package uk.ac.standrews.cs5031;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how processing guesses scales with the amount of threads,
+ * as when many connections guess at once: each guess looks its session
+ * up in a shared {@link SessionRegistry} and applies a letter to it.
+ *
+ * Each thread owns the sessions whose index matches its own, as a
+ * {@link SessionOwners} owner would, so the sessions are never locked
+ * and only the look up is shared. The registry has a single shard, or
+ * a shard per core.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionTableBenchmark {
+
+    /** The amount of sessions in the registry. */
+    private static final int SESSIONS = 1 << 16;
+
+    /** The amount of shards, where 0 stands for one per core. */
+    @Param({"1", "0"})
+    private int shards;
+
+    /** The registry shared by all threads. */
+    private SessionRegistry registry;
+
+    /** The ids of the sessions. */
+    private long[] ids;
+
+    /** Fills the registry with sessions. */
+    @Setup
+    public void createSessions() {
+        int count = shards == 0
+                ? Runtime.getRuntime().availableProcessors() : shards;
+        registry = new SessionRegistry(SESSIONS, count);
+        ids = new long[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            ids[i] = registry.create("Hangman", 10, 2).getId();
+        }
+    }
+
+    /** The sessions owned by a single thread. */
+    @State(Scope.Thread)
+    public static class Owner {
+
+        /** The index of the next session of the thread. */
+        private int next;
+
+        /** The distance between the sessions of the thread. */
+        private int step;
+
+        /** The letter guessed next. */
+        private char letter = 'a';
+
+        /**
+         * Picks the sessions of the thread.
+         *
+         * @param thread the parameters of the thread
+         */
+        @Setup
+        public void pickSessions(final ThreadParams thread) {
+            next = thread.getThreadIndex();
+            step = thread.getThreadCount();
+        }
+
+    }
+
+    /**
+     * Guesses the next letter in the next session of the given owner.
+     *
+     * @param owner the owner guessing
+     * @return the result of the guess
+     */
+    private GameSession.Guess guess(final Owner owner) {
+        long id = ids[owner.next];
+        owner.next += owner.step;
+        if (owner.next >= SESSIONS) {
+            owner.next -= SESSIONS;
+            owner.letter = owner.letter == 'z'
+                    ? 'a' : (char) (owner.letter + 1);
+        }
+        return registry.get(id).checkLetter(owner.letter);
+    }
+
+    /**
+     * Processes guesses on one thread.
+     *
+     * @param owner the owner guessing
+     * @return the result of the guess
+     */
+    @Benchmark
+    @Threads(1)
+    public GameSession.Guess guessOneThread(final Owner owner) {
+        return guess(owner);
+    }
+
+    /**
+     * Processes guesses on 4 threads.
+     *
+     * @param owner the owner guessing
+     * @return the result of the guess
+     */
+    @Benchmark
+    @Threads(4)
+    public GameSession.Guess guessFourThreads(final Owner owner) {
+        return guess(owner);
+    }
+
+    /**
+     * Processes guesses on 16 threads.
+     *
+     * @param owner the owner guessing
+     * @return the result of the guess
+     */
+    @Benchmark
+    @Threads(16)
+    public GameSession.Guess guessSixteenThreads(final Owner owner) {
+        return guess(owner);
+    }
+
+    /**
+     * Processes guesses on 64 threads.
+     *
+     * @param owner the owner guessing
+     * @return the result of the guess
+     */
+    @Benchmark
+    @Threads(64)
+    public GameSession.Guess guessSixtyFourThreads(final Owner owner) {
+        return guess(owner);
+    }
+
+}
@@ -0,0 +1,54 @@
+package uk.ac.standrews.cs5031;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many games the {@link Simulator} plays per second,
+ * on all cores.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SimulatorBenchmark {
+
+    /** The amount of games simulated per invocation. */
+    private static final int GAMES = 100000;
+
+    /** The simulator, with the default rules. */
+    private final Simulator simulator = new Simulator(
+            FrequencyStrategy.INSTANCE, OptionsParser.DEFAULT_LIVES,
+            OptionsParser.DEFAULT_MAX_HINTS, 42);
+
+    /** The category games are played in. */
+    private final PhraseCategory counties =
+            Phrases.getCategory(Phrases.COUNTIES_ID);
+
+    /**
+     * Simulates games with the frequency strategy.
+     *
+     * @return the result of the games
+     */
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public Simulator.Result simulate() {
+        return simulator.simulate(counties, GAMES);
+    }
+
+}
@@ -0,0 +1,83 @@
+package uk.ac.standrews.cs5031;
+
+/**
+ * A {@link PhraseCategory} held in memory as parallel arrays.
+ * The metadata and difficulty of every phrase are computed once,
+ * on construction.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+final class ArrayPhraseCategory implements PhraseCategory {
+
+    /** The name of the category. */
+    private final String name;
+
+    /** The phrases of the category. */
+    private final String[] phrases;
+
+    /** The letter mask of each phrase. */
+    private final long[] masks;
+
+    /** The amount of distinct letters of each phrase. */
+    private final int[] distinctLetters;
+
+    /** The phrases bucketed by difficulty. */
+    private final Difficulties difficulties;
+
+    /**
+     * Creates a category of the given phrases and computes their metadata.
+     * The array is copied, so later changes to it do not affect the category.
+     *
+     * @param name    the name of the category
+     * @param phrases the phrases of the category
+     */
+    ArrayPhraseCategory(final String name, final String[] phrases) {
+        this.name = name;
+        this.phrases = phrases.clone();
+        masks = new long[phrases.length];
+        distinctLetters = new int[phrases.length];
+        for (int i = 0; i < phrases.length; i++) {
+            LetterSet letters = LetterSet.of(phrases[i]);
+            masks[i] = LetterSet.maskOf(letters);
+            distinctLetters[i] = letters.size();
+        }
+        difficulties = Difficulties.rate(this);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int size() {
+        return phrases.length;
+    }
+
+    @Override
+    public String getPhrase(final int index) {
+        return phrases[index];
+    }
+
+    @Override
+    public long getLetterMask(final int index) {
+        return masks[index];
+    }
+
+    @Override
+    public int getLength(final int index) {
+        return phrases[index].length();
+    }
+
+    @Override
+    public int getDistinctLetters(final int index) {
+        return distinctLetters[index];
+    }
+
+    @Override
+    public Difficulties getDifficulties() {
+        return difficulties;
+    }
+
+}
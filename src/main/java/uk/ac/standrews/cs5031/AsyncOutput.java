@@ -0,0 +1,167 @@
+package uk.ac.standrews.cs5031;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A {@link GameOutput} handing each turn to a writer thread through a
+ * bounded queue. The writer takes every turn queued so far, writes them
+ * and flushes the stream once, so a player who is ahead of the stream
+ * costs one flush per batch of turns rather than one per turn.
+ * A player who gets {@link #DEFAULT_CAPACITY} turns ahead waits.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+final class AsyncOutput implements GameOutput {
+
+    /** The amount of turns that may be queued by default. */
+    static final int DEFAULT_CAPACITY = 64;
+
+    /** Queued to stop the writer, compared by identity. */
+    private static final byte[] END = new byte[0];
+
+    /** The stream written to. */
+    private final PrintStream out;
+
+    /** The turns waiting to be written. */
+    private final BlockingQueue<byte[]> queue;
+
+    /** The thread writing the turns. */
+    private final Thread writer;
+
+    /** The amount of turns queued, guarded by this output. */
+    private long queued;
+
+    /** The amount of turns written and flushed, guarded by this output. */
+    private long written;
+
+    /** Whether the output is closed, guarded by this output. */
+    private boolean closed;
+
+    /**
+     * Creates an output and starts its writer.
+     *
+     * @param out      the stream to write to
+     * @param capacity the amount of turns that may be queued
+     */
+    AsyncOutput(final PrintStream out, final int capacity) {
+        this.out = out;
+        queue = new ArrayBlockingQueue<>(capacity);
+        writer = Thread.ofPlatform()
+                .name("hangman-output-writer")
+                .daemon()
+                .start(this::drain);
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset,
+                      final int length) {
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("The output is closed.");
+            }
+            queued++;
+        }
+        enqueue(Arrays.copyOfRange(bytes, offset, offset + length));
+    }
+
+    @Override
+    public void flush() {
+        boolean interrupted = false;
+        synchronized (this) {
+            long target = queued;
+            while (written < target && writer.isAlive()) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        enqueue(END);
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean checkError() {
+        flush();
+        return out.checkError();
+    }
+
+    /**
+     * Queues a turn, waiting for room if the writer is behind.
+     * Interrupts do not lose the turn, they are kept for the caller.
+     *
+     * @param turn the turn to queue
+     */
+    private void enqueue(final byte[] turn) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(turn);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Writes turns as they are queued, until the output is closed. */
+    private void drain() {
+        List<byte[]> batch = new ArrayList<>();
+        boolean ended = false;
+        while (!ended) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(batch);
+            for (byte[] turn : batch) {
+                if (turn == END) {
+                    ended = true;
+                } else {
+                    out.write(turn, 0, turn.length);
+                }
+            }
+            out.flush();
+            synchronized (this) {
+                written += ended ? batch.size() - 1 : batch.size();
+                notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+}
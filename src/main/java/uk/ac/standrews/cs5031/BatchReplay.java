@@ -0,0 +1,153 @@
+package uk.ac.standrews.cs5031;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Replays recorded games as fast as possible, for load replay and
+ * regression against known outputs.
+ *
+ * The transcripts file holds the input of many players, one after the
+ * other, separated by lines consisting only of {@link #DELIMITER}.
+ * Each transcript is played through a {@link BlockingGame}, exactly as
+ * if it had been typed on the console, until its input runs out.
+ * The output of each transcript is written in turn, followed by a
+ * delimiter line, so that outputs can be compared one by one.
+ *
+ * Transcripts are read one at a time, and output is buffered and only
+ * written to the file when the buffer fills up, see
+ * {@link GameOutput#buffered}.
+ *
+ * @author 150009974
+ * @version 1.2
+ */
+final class BatchReplay {
+
+    /** The line separating two transcripts, in input and output alike. */
+    static final String DELIMITER = "%%";
+
+    /** The size of the output buffer, in bytes. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** The delimiter line, encoded. */
+    private static final byte[] DELIMITER_LINE =
+            (DELIMITER + "\n").getBytes(UTF_8);
+
+    /** The source each player's source is split from. */
+    private final RandomSource random;
+
+    /** The registry hosting the sessions of the replayed games. */
+    private final SessionRegistry registry = new SessionRegistry(1);
+
+    /** Counts the games and lines replayed. */
+    private final ServerMetrics metrics = new ServerMetrics();
+
+    /** The amount of transcripts replayed. */
+    private long transcripts;
+
+    /**
+     * Creates a replay in which each transcript picks its phrases and
+     * hints with its own source, split from the given one in order.
+     *
+     * @param random the source to split each player's source from
+     */
+    BatchReplay(final RandomSource random) {
+        this.random = random;
+    }
+
+    /**
+     * Replays every transcript of the given file and writes their output
+     * to the given file, replacing it.
+     *
+     * @param source the transcripts file
+     * @param target the output file
+     * @throws IOException if a file cannot be read or written
+     */
+    void replay(final Path source, final Path target) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(source, UTF_8);
+             PrintStream stream = new PrintStream(new BufferedOutputStream(
+                     Files.newOutputStream(target), BUFFER_SIZE),
+                     false, UTF_8);
+             GameOutput out = GameOutput.buffered(stream)) {
+            replay(in, out);
+            if (out.checkError()) {
+                throw new IOException("Could not write to " + target);
+            }
+        }
+    }
+
+    /**
+     * Replays every transcript read from the given reader.
+     *
+     * @param in  the reader of the transcripts
+     * @param out the output to write to
+     * @throws IOException if the transcripts cannot be read
+     */
+    void replay(final BufferedReader in, final GameOutput out)
+            throws IOException {
+        StringBuilder transcript = new StringBuilder();
+        boolean pending = false;
+        for (String line = in.readLine(); line != null;
+             line = in.readLine()) {
+            if (line.equals(DELIMITER)) {
+                play(transcript, out);
+                transcript.setLength(0);
+                pending = false;
+            } else {
+                transcript.append(line).append('\n');
+                pending = true;
+            }
+        }
+        if (pending) {
+            play(transcript, out);
+        }
+    }
+
+    /**
+     * Plays a single transcript until its input runs out,
+     * and prints a delimiter line after its output.
+     *
+     * @param transcript the input lines of the player
+     * @param out        the output to write to
+     */
+    private void play(final CharSequence transcript, final GameOutput out) {
+        LineReader reader = new LineReader(transcript.toString());
+        BlockingGame game = new BlockingGame(reader, out, registry, metrics,
+                random.split());
+        try {
+            game.playGamesUntilQuit();
+        } catch (NoSuchElementException ignored) {
+            // The transcript ended, possibly in the middle of a game.
+        } finally {
+            game.close();
+        }
+        out.write(DELIMITER_LINE, 0, DELIMITER_LINE.length);
+        transcripts++;
+    }
+
+    /**
+     * Retrieves the amount of transcripts replayed so far.
+     *
+     * @return the amount of transcripts
+     */
+    long getTranscripts() {
+        return transcripts;
+    }
+
+    /**
+     * Retrieves the amount of games played to the end so far.
+     *
+     * @return the amount of finished games
+     */
+    long getGamesFinished() {
+        return metrics.getGamesFinished();
+    }
+
+}
@@ -0,0 +1,286 @@
+package uk.ac.standrews.cs5031;
+
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * Plays games of Hangman with a single player over a blocking reader
+ * and a {@link GameOutput}. This is the flow used on the console, and by the
+ * server engine that dedicates a thread to each connection.
+ * While waiting for a guess, only the id of the session is kept,
+ * so that the registry may park the session while the player is idle.
+ *
+ * @author Edwin Brady, 150009974
+ * @version 1.8
+ */
+final class BlockingGame {
+
+    /** The {@link LineReader} used to read the player's input. */
+    private final LineReader reader;
+
+    /** The output shown to the player. */
+    private final GameOutput out;
+
+    /** The registry hosting the session of the game being played. */
+    private final SessionRegistry registry;
+
+    /** The metrics to update as games are played. */
+    private final ServerMetrics metrics;
+
+    /** The source used to pick phrases and hints for this player. */
+    private final RandomSource random;
+
+    /** The buffer in which output is rendered before being printed. */
+    private final Screen screen = new Screen();
+
+    /** The text of {@link #screen}, which output is rendered into. */
+    private final StringBuilder text = screen.text();
+
+    /**
+     * The session holding the state of the current game,
+     * or null while waiting for a guess.
+     */
+    private GameSession session;
+
+    /**
+     * The id of the session of the current game,
+     * or {@link SessionRegistry#NO_ID}.
+     */
+    private long sessionId = SessionRegistry.NO_ID;
+
+    /**
+     * The name of the category of the current game,
+     * or {@link EngineMetrics#RESUMED}.
+     */
+    private String categoryName = EngineMetrics.RESUMED;
+
+    /**
+     * Creates a flow hosting its own games, as on the console.
+     *
+     * @param reader the reader of the player's input
+     * @param out    the output to show the player
+     */
+    BlockingGame(final LineReader reader, final GameOutput out) {
+        this(reader, out, RandomSource.threadLocal());
+    }
+
+    /**
+     * Creates a flow hosting its own games, as on the console,
+     * picking phrases and hints with the given source.
+     *
+     * @param reader the reader of the player's input
+     * @param out    the output to show the player
+     * @param random the source to pick phrases and hints with
+     */
+    BlockingGame(final LineReader reader, final GameOutput out,
+                 final RandomSource random) {
+        this(reader, out, new SessionRegistry(1), new ServerMetrics(),
+                random);
+    }
+
+    /**
+     * Creates a flow hosting its games in the given registry.
+     *
+     * @param reader   the reader of the player's input
+     * @param out      the output to show the player
+     * @param registry the registry in which to create sessions
+     * @param metrics  the metrics to update
+     * @param random   the source to pick phrases and hints with
+     */
+    BlockingGame(final LineReader reader, final GameOutput out,
+                 final SessionRegistry registry,
+                 final ServerMetrics metrics,
+                 final RandomSource random) {
+        this.reader = reader;
+        this.out = out;
+        this.registry = registry;
+        this.metrics = metrics;
+        this.random = random;
+    }
+
+    /**
+     * Plays games until the player quits.
+     * Specifically, in a loop, calls
+     * {@link BlockingGame#play()},
+     * {@link BlockingGame#printGameOverMessage()}, and
+     * {@link BlockingGame#doesPlayerWantAnotherGame()}
+     * until the player responds with no, or the reader reaches end of input.
+     *
+     * @throws NoSuchElementException on end of input
+     */
+    void playGamesUntilQuit() throws NoSuchElementException {
+        boolean playAgain;
+        do {
+            play();
+            printGameOverMessage();
+            playAgain = doesPlayerWantAnotherGame();
+        } while (playAgain);
+    }
+
+    /**
+     * Sets up and plays through a game of Hangman.
+     *
+     * @throws NoSuchElementException on end of input
+     */
+    void play() throws NoSuchElementException {
+        setUp();
+        mainLoop();
+    }
+
+    /**
+     * Releases the session of the last game, whether it is over or not.
+     * Should be called once the player is gone.
+     */
+    void close() {
+        if (sessionId != SessionRegistry.NO_ID) {
+            registry.remove(sessionId);
+        }
+    }
+
+    /**
+     * Prints a Game over message.
+     * Congratulates if the game was won.
+     * Reveals the phrase if the game was lost.
+     */
+    void printGameOverMessage() {
+        if (session == null) {
+            return;
+        }
+        Renderer.appendGameOver(text, session);
+        printScreen();
+    }
+
+    /**
+     * Returns true if and only if the player wants to play another game.
+     * The question is printed and the player's answer is read.
+     * If parsing of the argument fails, the player is asked again.
+     * Once an answer is successfully parsed, the method returns
+     * true if the player answer yes
+     * false if the player answered no.
+     *
+     * @return true iff the player answers yes, false iff the player answers no
+     * @throws NoSuchElementException on end of input
+     * @see Hangman#isYes(String)
+     * @see Hangman#isNo(String)
+     */
+    boolean doesPlayerWantAnotherGame() throws NoSuchElementException {
+        Renderer.appendLine(text, Renderer.PLAY_AGAIN);
+        printScreen();
+        do {
+            String answer = next().toLowerCase();
+            if (Hangman.isYes(answer)) {
+                return true;
+            }
+            if (Hangman.isNo(answer)) {
+                return false;
+            }
+            Renderer.appendLine(text, Renderer.ANSWER_NOT_PARSED);
+            printScreen();
+        } while (true);
+    }
+
+    /** Writes the rendered output as one turn and clears it. */
+    private void printScreen() {
+        screen.flushTo(out);
+    }
+
+    /**
+     * Reads the next line of input.
+     *
+     * @return the line, without the line terminator
+     * @throws NoSuchElementException on end of input
+     */
+    private String next() throws NoSuchElementException {
+        String line = reader.next();
+        metrics.lineProcessed();
+        return line;
+    }
+
+    /**
+     * Initialises the session for this game.
+     * Resets guesses, lives, hints, and chooses a new phrase.
+     *
+     * @see BlockingGame#determineTarget()
+     */
+    private void setUp() {
+        close();
+        session = null;
+        sessionId = SessionRegistry.NO_ID;
+        categoryName = EngineMetrics.RESUMED;
+        PhraseCategory category = determineTarget();
+        if (category != null) {
+            categoryName = category.getName();
+            int index = Phrases.getRandomIndex(category, random);
+            session = registry.create(category.getPhrase(index),
+                    category.getLetterMask(index),
+                    OptionsParser.getLives(), OptionsParser.getMaxHints());
+            sessionId = session.getId();
+            if (registry.isJournaled()) {
+                Renderer.appendResumable(text, session);
+            }
+        }
+        metrics.gameStarted();
+    }
+
+    /**
+     * Determines the category of the target phrase for the Hangman game.
+     * Asks the player to enter a number corresponding to a category ID
+     * until {@link Phrases#getCategory(int)} recognizes it.
+     * If the registry is journaled, the player may instead resume a game
+     * restored after a restart, which becomes the current session.
+     *
+     * @return the player-selected category, or null if a game was resumed
+     */
+    private PhraseCategory determineTarget() {
+        Renderer.appendMenu(text);
+        printScreen();
+        do {
+            try {
+                int category = reader.nextInt();
+                metrics.lineProcessed();
+                return Phrases.getCategory(category);
+            } catch (IllegalArgumentException e) {
+                Renderer.appendLine(text, Renderer.CATEGORY_NOT_RECOGNIZED);
+            } catch (InputMismatchException e) {
+                String line = next();
+                if (registry.isJournaled()
+                        && line.startsWith(Renderer.RESUME_PREFIX)) {
+                    session = registry.claim(line);
+                    if (session != null) {
+                        sessionId = session.getId();
+                        return null;
+                    }
+                    Renderer.appendLine(text, Renderer.GAME_NOT_FOUND);
+                } else {
+                    Renderer.appendLine(text,
+                            Renderer.CATEGORY_NOT_RECOGNIZED);
+                }
+            }
+            printScreen();
+        } while (true);
+    }
+
+    /**
+     * In a loop:
+     * prints the phrase and waits for a guess.
+     * The response to a guess is printed together with the next phrase,
+     * so each turn takes a single write.
+     * The loop ends when the game is either won or lost.
+     * The time taken to process each guess is recorded in the
+     * {@link EngineMetrics}.
+     */
+    private void mainLoop() {
+        while (!session.isOver()) {
+            Renderer.appendTurn(text, session);
+            printScreen();
+            session = null;
+            String input = next();
+            session = registry.get(sessionId);
+            Turns.play(session, input, random, text);
+        }
+        printScreen();
+        metrics.gameFinished(session.hasWon());
+        EngineMetrics.INSTANCE.gameFinished(categoryName, session.hasWon());
+    }
+
+}
@@ -0,0 +1,220 @@
+package uk.ac.standrews.cs5031;
+
+/**
+ * The line protocol spoken with a single remote player.
+ * It follows the same flow as {@link Hangman} on the console:
+ * pick a category, guess letters or phrases (? for a hint),
+ * then answer whether to play again. If the registry is journaled,
+ * a game restored after a restart may be picked by id instead.
+ *
+ * Unlike the console, input is pushed into the conversation one line
+ * at a time, so that a server can interleave many conversations on
+ * the same thread. Between lines, only the id of the session is kept,
+ * so that the registry may park the session while the player is idle.
+ *
+ * @author 150009974
+ * @version 1.5
+ */
+final class Conversation {
+
+    /** The stages of the conversation. */
+    private enum Stage {
+        /** Waiting for a category id. */
+        CATEGORY,
+        /** Waiting for a guess or a hint request. */
+        GUESS,
+        /** Waiting for a yes or no answer. */
+        PLAY_AGAIN,
+        /** The player does not want to play any more. */
+        FINISHED
+    }
+
+    /** The registry hosting the session of the game being played. */
+    private final SessionRegistry registry;
+
+    /** The metrics to update as games are played. */
+    private final ServerMetrics metrics;
+
+    /** The source used to pick phrases and hints for this player. */
+    private final RandomSource random;
+
+    /** The stage the conversation is at. */
+    private Stage stage = Stage.CATEGORY;
+
+    /**
+     * The id of the session of the game being played,
+     * or {@link SessionRegistry#NO_ID}.
+     */
+    private long sessionId = SessionRegistry.NO_ID;
+
+    /**
+     * The name of the category of the game being played,
+     * or {@link EngineMetrics#RESUMED}.
+     */
+    private String categoryName = EngineMetrics.RESUMED;
+
+    /**
+     * Creates a conversation that hosts its games in the given registry.
+     *
+     * @param registry the registry in which to create sessions
+     * @param metrics  the metrics to update
+     * @param random   the source to pick phrases and hints with
+     */
+    Conversation(final SessionRegistry registry,
+                 final ServerMetrics metrics,
+                 final RandomSource random) {
+        this.registry = registry;
+        this.metrics = metrics;
+        this.random = random;
+    }
+
+    /**
+     * Appends the output shown upon connecting, that is the category menu.
+     *
+     * @param out the buffer to append to
+     */
+    void start(final StringBuilder out) {
+        Renderer.appendMenu(out);
+    }
+
+    /**
+     * Tells whether the player has chosen not to play again.
+     * The connection should be closed once any pending output is sent.
+     *
+     * @return true iff the conversation is over
+     */
+    boolean isFinished() {
+        return stage == Stage.FINISHED;
+    }
+
+    /**
+     * Releases the session of an unfinished game.
+     * Should be called when the connection is closed.
+     */
+    void close() {
+        if (sessionId != SessionRegistry.NO_ID) {
+            registry.remove(sessionId);
+        }
+    }
+
+    /**
+     * Processes a line of input and appends the response.
+     *
+     * @param line the line of input, without the line terminator
+     * @param out  the buffer to append to
+     */
+    void accept(final String line, final StringBuilder out) {
+        metrics.lineProcessed();
+        switch (stage) {
+            case CATEGORY:
+                pickCategory(line, out);
+                break;
+            case GUESS:
+                guess(line, out);
+                break;
+            case PLAY_AGAIN:
+                answer(line, out);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Starts a game in the category with the given id.
+     * If the line is not a recognized category id, the player is told so.
+     *
+     * @param line the line containing the category id
+     * @param out  the buffer to append to
+     */
+    private void pickCategory(final String line, final StringBuilder out) {
+        if (registry.isJournaled()
+                && line.startsWith(Renderer.RESUME_PREFIX)) {
+            resume(line, out);
+            return;
+        }
+        PhraseCategory category;
+        try {
+            category = Phrases.getCategory(Integer.parseInt(line));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException is also an IllegalArgumentException.
+            Renderer.appendLine(out, Renderer.CATEGORY_NOT_RECOGNIZED);
+            return;
+        }
+        int index = Phrases.getRandomIndex(category, random);
+        GameSession session = registry.create(category.getPhrase(index),
+                category.getLetterMask(index),
+                OptionsParser.getLives(), OptionsParser.getMaxHints());
+        sessionId = session.getId();
+        categoryName = category.getName();
+        metrics.gameStarted();
+        stage = Stage.GUESS;
+        if (registry.isJournaled()) {
+            Renderer.appendResumable(out, session);
+        }
+        Renderer.appendTurn(out, session);
+    }
+
+    /**
+     * Carries on a game restored from the journal.
+     * If the line is not the id of such a game, the player is told so.
+     *
+     * @param line the line containing the game id
+     * @param out  the buffer to append to
+     */
+    private void resume(final String line, final StringBuilder out) {
+        GameSession claimed = registry.claim(line);
+        if (claimed == null) {
+            Renderer.appendLine(out, Renderer.GAME_NOT_FOUND);
+            return;
+        }
+        sessionId = claimed.getId();
+        categoryName = EngineMetrics.RESUMED;
+        metrics.gameStarted();
+        stage = Stage.GUESS;
+        Renderer.appendTurn(out, claimed);
+    }
+
+    /**
+     * Applies a guess, hint request or batch to the current game.
+     * Once the game is over, asks whether to play again.
+     *
+     * @param line the guess, {@link Turns#HINT} or a batch
+     * @param out  the buffer to append to
+     * @see Turns#playLine
+     */
+    private void guess(final String line, final StringBuilder out) {
+        GameSession session = registry.get(sessionId);
+        Turns.playLine(session, line, random, out);
+        if (!session.isOver()) {
+            Renderer.appendTurn(out, session);
+            return;
+        }
+        metrics.gameFinished(session.hasWon());
+        EngineMetrics.INSTANCE.gameFinished(categoryName, session.hasWon());
+        registry.remove(sessionId);
+        sessionId = SessionRegistry.NO_ID;
+        Renderer.appendGameOver(out, session);
+        Renderer.appendLine(out, Renderer.PLAY_AGAIN);
+        stage = Stage.PLAY_AGAIN;
+    }
+
+    /**
+     * Handles the answer to whether the player wants another game.
+     *
+     * @param line the answer
+     * @param out  the buffer to append to
+     */
+    private void answer(final String line, final StringBuilder out) {
+        String answer = line.toLowerCase();
+        if (Hangman.isYes(answer)) {
+            stage = Stage.CATEGORY;
+            Renderer.appendMenu(out);
+        } else if (Hangman.isNo(answer)) {
+            stage = Stage.FINISHED;
+        } else {
+            Renderer.appendLine(out, Renderer.ANSWER_NOT_PARSED);
+        }
+    }
+
+}
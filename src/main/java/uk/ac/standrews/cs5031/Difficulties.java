@@ -0,0 +1,209 @@
+package uk.ac.standrews.cs5031;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * The phrases of a category bucketed by difficulty, so that a phrase of a
+ * given {@link Difficulty} is picked in constant time.
+ *
+ * Each phrase gets a score from its length, its distinct letters, how
+ * rare its letters are in English, and how many wrong guesses a player
+ * is estimated to make. The estimate comes from playing the phrase with
+ * a {@link Solver} in categories of up to {@link #SOLVER_LIMIT} phrases,
+ * and from guessing in {@link FrequencyStrategy} order in larger ones.
+ * Phrases are then sorted by score and split into thirds.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+final class Difficulties {
+
+    /** The difficulties with a bucket, from the easiest to the hardest. */
+    static final Difficulty[] RANKED =
+            {Difficulty.EASY, Difficulty.MEDIUM, Difficulty.HARD};
+
+    /** The largest category whose phrases are played with a solver. */
+    static final int SOLVER_LIMIT = 4096;
+
+    /** The weight of each estimated wrong guess in a score. */
+    private static final float WRONG_WEIGHT = 2f;
+
+    /** The weight of each distinct letter in a score. */
+    private static final float DISTINCT_WEIGHT = 1f;
+
+    /** The weight of the average rarity of the letters in a score. */
+    private static final float RARITY_WEIGHT = 4f;
+
+    /** The weight of each character in a score. */
+    private static final float LENGTH_WEIGHT = 0.1f;
+
+    /** Enough lives for any phrase to be played to the end. */
+    private static final int UNLIMITED_LIVES = LetterSet.ALPHABET_SIZE + 1;
+
+    /** The indexes of the phrases of each difficulty but ANY. */
+    private final IntBuffer[] buckets;
+
+    /**
+     * Creates the buckets of a category from the indexes of its phrases
+     * sorted from the easiest to the hardest.
+     *
+     * @param ranked the indexes of all phrases, from easiest to hardest
+     */
+    Difficulties(final IntBuffer ranked) {
+        int size = ranked.limit();
+        int third = size / 3;
+        buckets = new IntBuffer[]{ranked.slice(0, third),
+                ranked.slice(third, size - 2 * third),
+                ranked.slice(size - third, third)};
+    }
+
+    /**
+     * Scores every phrase of the given category, in parallel,
+     * and buckets them by difficulty.
+     *
+     * @param category the category
+     * @return the buckets of the category
+     */
+    static Difficulties rate(final PhraseCategory category) {
+        int size = category.size();
+        Solver solver = size <= SOLVER_LIMIT ? new Solver(category) : null;
+        long[] keys = new long[size];
+        IntStream.range(0, size).parallel().forEach(i -> {
+            // Non-negative floats sort as their bits do.
+            long bits = Float.floatToIntBits(score(category, i, solver));
+            keys[i] = bits << Integer.SIZE | i;
+        });
+        Arrays.parallelSort(keys);
+        int[] sorted = new int[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = (int) keys[i];
+        }
+        return new Difficulties(IntBuffer.wrap(sorted));
+    }
+
+    /**
+     * Scores the difficulty of a phrase. Higher scores are harder.
+     *
+     * @param category the category of the phrase
+     * @param index    the index of the phrase
+     * @param solver   the solver of the category, or null to estimate
+     *                 wrong guesses from letter frequencies
+     * @return the non-negative score
+     */
+    static float score(final PhraseCategory category, final int index,
+                       final Solver solver) {
+        long mask = category.getLetterMask(index);
+        float wrong = solver == null ? frequencyWrongGuesses(mask)
+                : solverWrongGuesses(category, index, solver);
+        return WRONG_WEIGHT * wrong
+                + DISTINCT_WEIGHT * category.getDistinctLetters(index)
+                + RARITY_WEIGHT * rarity(mask)
+                + LENGTH_WEIGHT * category.getLength(index);
+    }
+
+    /**
+     * Averages the rank of the given letters in {@link FrequencyStrategy}
+     * order, from 0 for the most common letter to 1 for the least common.
+     *
+     * @param mask the letter mask of a phrase
+     * @return the average rarity, or 0 if there are no letters a to z
+     */
+    private static float rarity(final long mask) {
+        String order = FrequencyStrategy.LETTERS_BY_FREQUENCY;
+        int letters = 0;
+        int ranks = 0;
+        for (int rank = 0; rank < order.length(); rank++) {
+            if ((mask & LetterSet.bit(order.charAt(rank))) != 0) {
+                letters++;
+                ranks += rank;
+            }
+        }
+        if (letters == 0) {
+            return 0;
+        }
+        return (float) ranks / letters / (order.length() - 1);
+    }
+
+    /**
+     * Counts the wrong guesses made guessing letters in
+     * {@link FrequencyStrategy} order until the phrase is solved.
+     *
+     * @param mask the letter mask of a phrase
+     * @return the amount of wrong guesses
+     */
+    private static int frequencyWrongGuesses(final long mask) {
+        String order = FrequencyStrategy.LETTERS_BY_FREQUENCY;
+        long letters = mask & ~LetterSet.OTHERS_FLAG;
+        int wrong = 0;
+        for (int i = 0; i < order.length() && letters != 0; i++) {
+            long bit = LetterSet.bit(order.charAt(i));
+            if ((letters & bit) == 0) {
+                wrong++;
+            }
+            letters &= ~bit;
+        }
+        return wrong;
+    }
+
+    /**
+     * Counts the wrong guesses made by a {@link SolverStrategy}
+     * playing the phrase with unlimited lives and no hints.
+     *
+     * @param category the category of the phrase
+     * @param index    the index of the phrase
+     * @param solver   the solver of the category
+     * @return the amount of wrong guesses
+     */
+    private static int solverWrongGuesses(final PhraseCategory category,
+                                          final int index,
+                                          final Solver solver) {
+        GameSession session = new GameSession(index,
+                category.getPhrase(index), category.getLetterMask(index),
+                UNLIMITED_LIVES, 0);
+        GuessStrategy strategy = new SolverStrategy(solver);
+        while (!session.isOver()) {
+            char guess = strategy.nextGuess(session,
+                    RandomSource.threadLocal());
+            if (guess == GuessStrategy.GIVE_UP) {
+                break;
+            }
+            session.checkLetter(guess);
+        }
+        return UNLIMITED_LIVES - session.getLives();
+    }
+
+    /**
+     * Retrieves the indexes of the phrases of the given difficulty.
+     *
+     * @param difficulty the difficulty, other than ANY
+     * @return the indexes, from the easiest to the hardest
+     */
+    IntBuffer get(final Difficulty difficulty) {
+        return buckets[difficulty.ordinal()].duplicate();
+    }
+
+    /**
+     * Picks the index of a random phrase of the given difficulty.
+     * If the category is too small to have phrases of that difficulty,
+     * any phrase is picked.
+     *
+     * @param category   the category these are the buckets of
+     * @param difficulty the difficulty
+     * @param random     the source to pick the phrase with
+     * @return the index of the phrase in the category
+     */
+    int pick(final PhraseCategory category, final Difficulty difficulty,
+             final RandomSource random) {
+        if (difficulty == Difficulty.ANY) {
+            return random.nextInt(category.size());
+        }
+        IntBuffer bucket = buckets[difficulty.ordinal()];
+        if (bucket.limit() == 0) {
+            return random.nextInt(category.size());
+        }
+        return bucket.get(random.nextInt(bucket.limit()));
+    }
+
+}
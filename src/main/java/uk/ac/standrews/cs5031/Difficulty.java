@@ -0,0 +1,31 @@
+package uk.ac.standrews.cs5031;
+
+import java.util.Locale;
+
+/**
+ * The difficulty of the phrases to pick, see {@link Difficulties}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public enum Difficulty {
+
+    /** The easiest third of a category. */
+    EASY,
+    /** The middle third of a category. */
+    MEDIUM,
+    /** The hardest third of a category. */
+    HARD,
+    /** Any phrase of a category. */
+    ANY;
+
+    /**
+     * Retrieves the name of this difficulty, as given on the command line.
+     *
+     * @return the lower case name
+     */
+    public String getOptionName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+}
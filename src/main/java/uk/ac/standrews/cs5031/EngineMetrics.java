@@ -0,0 +1,235 @@
+package uk.ac.standrews.cs5031;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters and latency histograms of the game engine, shared by every
+ * game played in this process, whether on the console or on a server.
+ * Unlike {@link ServerMetrics}, they describe the engine rather than the
+ * connections.
+ *
+ * Recording never allocates, so it is done on the hot paths: every turn,
+ * every phrase picked and every hint. The metrics are read through JMX,
+ * see {@link EngineMetricsMXBean}, and may also be dumped periodically.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+final class EngineMetrics implements EngineMetricsMXBean {
+
+    /** The metrics of this process. */
+    static final EngineMetrics INSTANCE = new EngineMetrics();
+
+    /** The name the metrics are registered under in JMX. */
+    static final String OBJECT_NAME =
+            "uk.ac.standrews.cs5031:type=EngineMetrics";
+
+    /** The category name of games resumed after a restart. */
+    static final String RESUMED = "Resumed";
+
+    /** The outcomes of the games finished in a category. */
+    private static final class Outcomes {
+
+        /** The amount of games won. */
+        private final LongAdder won = new LongAdder();
+
+        /** The amount of games lost. */
+        private final LongAdder lost = new LongAdder();
+
+    }
+
+    /** The durations of turns. */
+    private final LatencyHistogram turns = new LatencyHistogram();
+
+    /** The durations of phrase selections. */
+    private final LatencyHistogram phraseSelections = new LatencyHistogram();
+
+    /** The durations of phrase loads. */
+    private final LatencyHistogram phraseLoads = new LatencyHistogram();
+
+    /** The amount of hints given. */
+    private final LongAdder hintsTaken = new LongAdder();
+
+    /** The amount of hints asked for when none remained. */
+    private final LongAdder hintsRefused = new LongAdder();
+
+    /** The outcomes of the games finished, by category name. */
+    private final Map<String, Outcomes> categories =
+            new ConcurrentHashMap<>();
+
+    /** Hides the constructor, see {@link #INSTANCE}. */
+    private EngineMetrics() {
+    }
+
+    /**
+     * Records the time taken by a turn.
+     *
+     * @param nanos the duration of the turn, in nanoseconds
+     */
+    void turnProcessed(final long nanos) {
+        turns.record(nanos);
+    }
+
+    /**
+     * Records the time taken to pick a phrase.
+     *
+     * @param nanos the duration of the selection, in nanoseconds
+     */
+    void phraseSelected(final long nanos) {
+        phraseSelections.record(nanos);
+    }
+
+    /**
+     * Records the time taken to load the custom phrases.
+     *
+     * @param nanos the duration of the load, in nanoseconds
+     */
+    void phrasesLoaded(final long nanos) {
+        phraseLoads.record(nanos);
+    }
+
+    /**
+     * Records that a player asked for a hint.
+     *
+     * @param hint the hint given, or {@link GameSession#NO_HINT}
+     */
+    void hintRequested(final char hint) {
+        if (hint == GameSession.NO_HINT) {
+            hintsRefused.increment();
+        } else {
+            hintsTaken.increment();
+        }
+    }
+
+    /**
+     * Records that a game has ended.
+     *
+     * @param category the name of the category of the game,
+     *                 or {@link #RESUMED}
+     * @param hasWon   true iff the player won the game
+     */
+    void gameFinished(final String category, final boolean hasWon) {
+        // The lambda captures nothing, so known categories allocate nothing.
+        Outcomes outcomes = categories.computeIfAbsent(category,
+                name -> new Outcomes());
+        if (hasWon) {
+            outcomes.won.increment();
+        } else {
+            outcomes.lost.increment();
+        }
+    }
+
+    @Override
+    public Map<String, Long> getTurnNanos() {
+        return turns.summary();
+    }
+
+    @Override
+    public Map<String, Long> getPhraseSelectionNanos() {
+        return phraseSelections.summary();
+    }
+
+    @Override
+    public Map<String, Long> getPhraseLoadNanos() {
+        return phraseLoads.summary();
+    }
+
+    @Override
+    public long getHintsTaken() {
+        return hintsTaken.sum();
+    }
+
+    @Override
+    public long getHintsRefused() {
+        return hintsRefused.sum();
+    }
+
+    @Override
+    public Map<String, Long> getGamesFinished() {
+        Map<String, Long> finished = new TreeMap<>();
+        categories.forEach((name, outcomes) ->
+                finished.put(name, outcomes.won.sum() + outcomes.lost.sum()));
+        return finished;
+    }
+
+    @Override
+    public Map<String, Double> getWinRates() {
+        Map<String, Double> rates = new TreeMap<>();
+        categories.forEach((name, outcomes) -> {
+            long won = outcomes.won.sum();
+            long games = won + outcomes.lost.sum();
+            rates.put(name, games == 0 ? 0 : (double) won / games);
+        });
+        return rates;
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "turns: %s%n"
+                        + "phrase selection: %s%n"
+                        + "phrase loads: %s%n"
+                        + "hints: taken=%d refused=%d%n",
+                turns.report(), phraseSelections.report(),
+                phraseLoads.report(), getHintsTaken(), getHintsRefused()));
+        new TreeMap<>(categories).forEach((name, outcomes) -> {
+            long won = outcomes.won.sum();
+            long games = won + outcomes.lost.sum();
+            out.append(String.format(Locale.ROOT,
+                    "%s: games=%d won=%.1f%%%n", name, games,
+                    games == 0 ? 0 : 100.0 * won / games));
+        });
+        return out.toString();
+    }
+
+    /**
+     * Registers the metrics in the platform MBean server under
+     * {@link #OBJECT_NAME}, unless they already are.
+     * A failure to register is printed, since the engine works without.
+     */
+    static void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Metrics are not exposed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts a daemon thread printing the report of the metrics to the
+     * given stream every given period, for as long as the process runs.
+     *
+     * @param periodMillis the period, in milliseconds
+     * @param out          the stream to print to
+     */
+    void startDump(final long periodMillis, final PrintStream out) {
+        Thread.ofPlatform()
+                .name("hangman-metrics-dump")
+                .daemon()
+                .start(() -> {
+                    try {
+                        while (true) {
+                            Thread.sleep(periodMillis);
+                            out.print(getReport());
+                            out.flush();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+    }
+
+}
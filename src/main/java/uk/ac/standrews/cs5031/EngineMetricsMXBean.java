@@ -0,0 +1,72 @@
+package uk.ac.standrews.cs5031;
+
+import java.util.Map;
+
+/**
+ * The view of {@link EngineMetrics} exposed through JMX, under
+ * {@link EngineMetrics#OBJECT_NAME}.
+ * Durations are summarized by their count, percentiles and maximum,
+ * in nanoseconds, see {@link LatencyHistogram#summary()}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public interface EngineMetricsMXBean {
+
+    /**
+     * Summarizes the time taken to process a guess and render its turn.
+     *
+     * @return the summary of turn durations
+     */
+    Map<String, Long> getTurnNanos();
+
+    /**
+     * Summarizes the time taken to pick a random phrase.
+     *
+     * @return the summary of phrase selection durations
+     */
+    Map<String, Long> getPhraseSelectionNanos();
+
+    /**
+     * Summarizes the time taken to load the custom phrases.
+     *
+     * @return the summary of phrase load durations
+     */
+    Map<String, Long> getPhraseLoadNanos();
+
+    /**
+     * Retrieves the amount of hints given to players.
+     *
+     * @return the amount of hints taken
+     */
+    long getHintsTaken();
+
+    /**
+     * Retrieves the amount of hints asked for when none remained.
+     *
+     * @return the amount of hints refused
+     */
+    long getHintsRefused();
+
+    /**
+     * Retrieves the amount of games finished in each category.
+     *
+     * @return the amount of games won or lost, by category name
+     */
+    Map<String, Long> getGamesFinished();
+
+    /**
+     * Retrieves the fraction of games won in each category.
+     *
+     * @return the win rate, from 0 to 1, by category name
+     */
+    Map<String, Double> getWinRates();
+
+    /**
+     * Formats every metric as text, as in the periodic dump.
+     *
+     * @return the report
+     */
+    String getReport();
+
+}
@@ -0,0 +1,37 @@
+package uk.ac.standrews.cs5031;
+
+/**
+ * A {@link GuessStrategy} guessing letters from the most to the least
+ * common in English, and taking a hint rather than risking its last life.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+final class FrequencyStrategy implements GuessStrategy {
+
+    /** The only instance, as the strategy has no state. */
+    static final FrequencyStrategy INSTANCE = new FrequencyStrategy();
+
+    /** The letters a to z from the most to the least common in English. */
+    static final String LETTERS_BY_FREQUENCY = "etaoinshrdlcumwfgypbvkjxqz";
+
+    /** Hides the constructor, see {@link #INSTANCE}. */
+    private FrequencyStrategy() {
+    }
+
+    @Override
+    public char nextGuess(final GameSession session,
+                          final RandomSource random) {
+        if (session.getLives() == 1 && session.getHints() > 0) {
+            return HINT;
+        }
+        for (int i = 0; i < LETTERS_BY_FREQUENCY.length(); i++) {
+            char letter = LETTERS_BY_FREQUENCY.charAt(i);
+            if (!session.isGuessed(letter)) {
+                return letter;
+            }
+        }
+        return GIVE_UP;
+    }
+
+}
@@ -0,0 +1,140 @@
+package uk.ac.standrews.cs5031;
+
+/**
+ * Something the player does in a game of Hangman: guessing a letter,
+ * guessing the whole phrase, or taking a hint. Events are applied to a
+ * {@link GameState} to give the next state, so a game is the sequence of
+ * its events, and can be replayed from them.
+ *
+ * Events are immutable. The events of the ASCII letters are created once,
+ * so guessing a letter allocates no event.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+final class GameEvent {
+
+    /** The kinds of events. */
+    enum Type {
+        /** A single letter is guessed. */
+        LETTER,
+        /** The whole phrase is guessed. */
+        PHRASE,
+        /** A hint is taken. */
+        HINT
+    }
+
+    /** The amount of characters whose letter events are created once. */
+    private static final int CACHED_LETTERS = 128;
+
+    /** The letter events of the ASCII characters, by character. */
+    private static final GameEvent[] LETTERS = new GameEvent[CACHED_LETTERS];
+
+    static {
+        for (char c = 0; c < CACHED_LETTERS; c++) {
+            LETTERS[c] = new GameEvent(Type.LETTER, c, null, 0);
+        }
+    }
+
+    /** The kind of this event. */
+    private final Type type;
+
+    /** The letter guessed, if this is a letter event. */
+    private final char letter;
+
+    /** The phrase guessed, if this is a phrase event, or null. */
+    private final String phrase;
+
+    /** The position of the hinted letter, if this is a hint event. */
+    private final int draw;
+
+    /**
+     * Creates an event.
+     *
+     * @param type   the kind of event
+     * @param letter the letter guessed, if a letter event
+     * @param phrase the phrase guessed, if a phrase event
+     * @param draw   the position of the hinted letter, if a hint event
+     */
+    private GameEvent(final Type type, final char letter,
+                      final String phrase, final int draw) {
+        this.type = type;
+        this.letter = letter;
+        this.phrase = phrase;
+        this.draw = draw;
+    }
+
+    /**
+     * Retrieves the event of guessing the given letter.
+     *
+     * @param letter the letter, in any case
+     * @return the event
+     */
+    static GameEvent letter(final char letter) {
+        if (letter < CACHED_LETTERS) {
+            return LETTERS[letter];
+        }
+        return new GameEvent(Type.LETTER, letter, null, 0);
+    }
+
+    /**
+     * Retrieves the event of guessing the given phrase.
+     *
+     * @param phrase the phrase, in any case
+     * @return the event
+     */
+    static GameEvent phrase(final String phrase) {
+        return new GameEvent(Type.PHRASE, '\0', phrase, 0);
+    }
+
+    /**
+     * Retrieves the event of taking a hint. The letter hinted is drawn by
+     * the caller, so that applying the event is deterministic.
+     *
+     * @param draw the position of the hinted letter among the remaining
+     *             letters, from 0 to {@link GameState#getRemainingLetters()}
+     *             excluded
+     * @return the event
+     * @see GameState#getRemainingLetter(int)
+     */
+    static GameEvent hint(final int draw) {
+        return new GameEvent(Type.HINT, '\0', null, draw);
+    }
+
+    /**
+     * Retrieves the kind of this event.
+     *
+     * @return the type
+     */
+    Type getType() {
+        return type;
+    }
+
+    /**
+     * Retrieves the letter guessed.
+     *
+     * @return the letter, if this is a letter event
+     */
+    char getLetter() {
+        return letter;
+    }
+
+    /**
+     * Retrieves the phrase guessed.
+     *
+     * @return the phrase, or null if this is not a phrase event
+     */
+    String getPhrase() {
+        return phrase;
+    }
+
+    /**
+     * Retrieves the position of the hinted letter.
+     *
+     * @return the position, if this is a hint event
+     */
+    int getDraw() {
+        return draw;
+    }
+
+}
@@ -0,0 +1,82 @@
+package uk.ac.standrews.cs5031;
+
+import java.io.PrintStream;
+
+/**
+ * Where the output shown to one player goes.
+ * Output is written once per turn, as the encoded text of a
+ * {@link Screen}, and how soon it reaches the underlying stream depends
+ * on the kind of output.
+ *
+ * An output is used by one player at a time. Closing it writes out
+ * anything pending but leaves the underlying stream open.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public interface GameOutput extends AutoCloseable {
+
+    /**
+     * Writes the output of a turn.
+     * The bytes may be reused by the caller once this method returns.
+     *
+     * @param bytes  the encoded output
+     * @param offset where the output starts in the bytes
+     * @param length the amount of bytes of output
+     */
+    void write(byte[] bytes, int offset, int length);
+
+    /**
+     * Waits until everything written so far has reached the underlying
+     * stream, and flushes it.
+     */
+    void flush();
+
+    /** Flushes this output and stops using the underlying stream. */
+    @Override
+    void close();
+
+    /**
+     * Flushes this output and tells whether the underlying stream
+     * has ever failed, as {@link PrintStream#checkError()}.
+     *
+     * @return true iff some output may have been lost
+     */
+    boolean checkError();
+
+    /**
+     * Creates an output flushing the given stream after every turn,
+     * as is best when a player is waiting for each turn.
+     *
+     * @param out the stream to write to
+     * @return the new output
+     */
+    static GameOutput of(final PrintStream out) {
+        return new StreamOutput(out, true);
+    }
+
+    /**
+     * Creates an output that only flushes the given stream when asked to,
+     * as is best when no one is waiting for the output, e.g. for a file.
+     * The stream should be buffered.
+     *
+     * @param out the stream to write to
+     * @return the new output
+     */
+    static GameOutput buffered(final PrintStream out) {
+        return new StreamOutput(out, false);
+    }
+
+    /**
+     * Creates an output handing turns to a writer thread of its own,
+     * so the player never waits for the stream unless the writer falls
+     * behind by {@link AsyncOutput#DEFAULT_CAPACITY} turns.
+     *
+     * @param out the stream to write to
+     * @return the new output
+     */
+    static GameOutput async(final PrintStream out) {
+        return new AsyncOutput(out, AsyncOutput.DEFAULT_CAPACITY);
+    }
+
+}
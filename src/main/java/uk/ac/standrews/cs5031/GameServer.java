@@ -0,0 +1,121 @@
+package uk.ac.standrews.cs5031;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A server engine that serves Hangman over TCP, either with the line
+ * protocol or, see {@link HttpGameServer}, as a JSON API over HTTP.
+ * All engines play by the same rules and report the same metrics,
+ * so they can be compared on the same machine.
+ *
+ * @author 150009974
+ * @version 1.4
+ */
+interface GameServer extends Closeable {
+
+    /**
+     * The longest line accepted on the line protocol, in bytes;
+     * longer lines close the connection.
+     */
+    int MAX_LINE_LENGTH = 4096;
+
+    /**
+     * Opens a server using the given engine and the default
+     * {@link RandomSource}.
+     * The server does not accept connections until it is started.
+     *
+     * @param engine the name of the engine, as given by
+     *               {@link OptionsParser#getEngine()}
+     * @param port   the port to listen on, or 0 for any free port
+     * @return the server
+     * @throws IOException              if the port cannot be bound
+     * @throws IllegalArgumentException if the engine is not recognized
+     */
+    static GameServer open(final String engine, final int port)
+            throws IOException {
+        return open(engine, port, RandomSource.threadLocal());
+    }
+
+    /**
+     * Opens a server using the given engine.
+     * The server does not accept connections until it is started.
+     *
+     * @param engine the name of the engine, as given by
+     *               {@link OptionsParser#getEngine()}
+     * @param port   the port to listen on, or 0 for any free port
+     * @param random the source from which each player's source is split,
+     *               in the order in which players connect
+     * @return the server
+     * @throws IOException              if the port cannot be bound
+     * @throws IllegalArgumentException if the engine is not recognized
+     */
+    static GameServer open(final String engine, final int port,
+                           final RandomSource random) throws IOException {
+        return open(engine, port, random, new SessionRegistry());
+    }
+
+    /**
+     * Opens a server using the given engine, hosting its games in the
+     * given registry, e.g. one restored from a {@link SessionJournal}.
+     * The server does not accept connections until it is started.
+     *
+     * @param engine   the name of the engine, as given by
+     *                 {@link OptionsParser#getEngine()}
+     * @param port     the port to listen on, or 0 for any free port
+     * @param random   the source from which each player's source is split,
+     *                 in the order in which players connect
+     * @param registry the registry to host the games in
+     * @return the server
+     * @throws IOException              if the port cannot be bound
+     * @throws IllegalArgumentException if the engine is not recognized
+     */
+    static GameServer open(final String engine, final int port,
+                           final RandomSource random,
+                           final SessionRegistry registry)
+            throws IOException {
+        switch (engine) {
+            case OptionsParser.SELECTOR_ENGINE:
+                return new SelectorServer(port, random, registry);
+            case OptionsParser.VIRTUAL_THREAD_ENGINE:
+                return new VirtualThreadServer(port, random, registry);
+            case OptionsParser.HTTP_ENGINE:
+                return new HttpGameServer(port, random, registry);
+            default:
+                String message = OptionsParser.INVALID_ENGINE;
+                throw new IllegalArgumentException(message);
+        }
+    }
+
+    /** Starts accepting and serving connections on a background thread. */
+    void start();
+
+    /**
+     * Retrieves the name of this engine, as used in reports.
+     *
+     * @return the engine name
+     */
+    String getEngine();
+
+    /**
+     * Retrieves the port this server is listening on.
+     *
+     * @return the local port
+     */
+    int getPort();
+
+    /**
+     * Retrieves the counters describing the activity of this server.
+     *
+     * @return the metrics
+     */
+    ServerMetrics getMetrics();
+
+    /**
+     * Waits until the server stops accepting connections.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void awaitTermination() throws InterruptedException;
+
+}
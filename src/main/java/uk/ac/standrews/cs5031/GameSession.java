@@ -0,0 +1,365 @@
+package uk.ac.standrews.cs5031;
+
+/**
+ * An instance of this class holds the state of a single game of Hangman.
+ * Any number of sessions can exist at the same time, so a single process
+ * can host many games. The methods of this class only apply the rules of
+ * the game, they do not read input or produce output.
+ *
+ * The rules themselves are applied by the pure {@link GameState}: a
+ * session keeps the current state of its game, replacing it by the next
+ * one as {@link GameEvent}s are applied, and draws the letters hinted.
+ *
+ * A session is not thread-safe, it should be used by one thread at a time.
+ * If the session is journaled, every change to its state is appended to
+ * a {@link SessionJournal}, so that it can be restored after a restart.
+ * A session left idle may be parked outside the heap by its registry,
+ * see {@link SessionCodec}.
+ *
+ * @author 150009974
+ * @version 1.7
+ */
+public final class GameSession {
+
+    /** The result of a guess made by the player. */
+    public enum Guess {
+        /** The guessed letter is in the phrase. */
+        CORRECT,
+        /** The guessed phrase matches the whole phrase. */
+        SOLVED,
+        /** The guess was wrong and cost a life. */
+        WRONG,
+        /** The letter had already been guessed, so nothing changed. */
+        REPEATED,
+        /** The guess was empty, so nothing changed. */
+        IGNORED
+    }
+
+    /** The value returned by {@link GameSession#takeHint()} if none remain. */
+    public static final char NO_HINT = '\0';
+
+    /** The unique identifier of this session. */
+    private final long id;
+
+    /**
+     * The current state of the game. Only the thread using the session
+     * replaces it, but it is volatile so that a session parked by another
+     * thread is parked with the last turn applied.
+     */
+    private volatile GameState state;
+
+    /** The journal changes are appended to, or null if not journaled. */
+    private SessionJournal journal;
+
+    /** When the session was last handed out, as by {@link System#nanoTime}. */
+    private long lastUsed;
+
+    /**
+     * Creates a new session for the given phrase.
+     *
+     * @param id     the unique identifier of the session
+     * @param phrase the phrase to be guessed
+     * @param lives  the amount of lives the player starts with
+     * @param hints  the amount of hints the player starts with
+     */
+    public GameSession(final long id, final String phrase,
+                       final int lives, final int hints) {
+        this(id, phrase, LetterSet.OTHERS_FLAG, lives, hints);
+    }
+
+    /**
+     * Creates a new session for the given phrase, whose letters have been
+     * computed in advance, e.g. by a {@link PhraseCategory}.
+     * The phrase is only scanned if its mask has the
+     * {@link LetterSet#OTHERS_FLAG}.
+     *
+     * @param id         the unique identifier of the session
+     * @param phrase     the phrase to be guessed
+     * @param letterMask the letter mask of the phrase
+     * @param lives      the amount of lives the player starts with
+     * @param hints      the amount of hints the player starts with
+     */
+    public GameSession(final long id, final String phrase,
+                       final long letterMask,
+                       final int lives, final int hints) {
+        this.id = id;
+        state = GameState.start(phrase, letterMask, lives, hints);
+    }
+
+    /**
+     * Restores a session from the state saved in a snapshot.
+     *
+     * @param id          the unique identifier of the session
+     * @param phrase      the phrase to be guessed
+     * @param lives       the amount of lives remaining
+     * @param hints       the amount of hints remaining
+     * @param guessesMade the amount of guesses made so far
+     * @param guessed     the letters guessed so far, as by
+     *                    {@link #getGuessedLetters()}
+     */
+    GameSession(final long id, final String phrase, final int lives,
+                final int hints, final int guessesMade,
+                final CharSequence guessed) {
+        this.id = id;
+        state = GameState.restore(phrase, lives, hints, guessesMade, guessed);
+    }
+
+    /**
+     * Appends every later change to this session to the given journal.
+     *
+     * @param sessionJournal the journal
+     */
+    void journalTo(final SessionJournal sessionJournal) {
+        journal = sessionJournal;
+    }
+
+    /**
+     * Records that the session is being used at the given time.
+     *
+     * @param now the time, as by {@link System#nanoTime}
+     */
+    void touch(final long now) {
+        lastUsed = now;
+    }
+
+    /**
+     * Tells whether the session has not been used for at least the given
+     * time, since it was last touched.
+     *
+     * @param now       the time, as by {@link System#nanoTime}
+     * @param idleNanos the idle time, in nanoseconds
+     * @return true iff the session has been idle that long
+     */
+    boolean isIdle(final long now, final long idleNanos) {
+        return now - lastUsed >= idleNanos;
+    }
+
+    /**
+     * Retrieves the unique identifier of this session.
+     *
+     * @return the session id
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Retrieves the current state of the game, which later changes to
+     * this session do not affect.
+     *
+     * @return the state
+     */
+    GameState getState() {
+        return state;
+    }
+
+    /**
+     * Retrieves the phrase to be guessed.
+     *
+     * @return the phrase
+     */
+    public String getPhrase() {
+        return state.getPhrase();
+    }
+
+    /**
+     * Retrieves the amount of guesses made so far.
+     *
+     * @return the amount of guesses
+     */
+    public int getGuessesMade() {
+        return state.getGuessesMade();
+    }
+
+    /**
+     * Retrieves the amount of lives remaining.
+     *
+     * @return the amount of lives
+     */
+    public int getLives() {
+        return state.getLives();
+    }
+
+    /**
+     * Retrieves the amount of hints remaining.
+     *
+     * @return the amount of hints
+     */
+    public int getHints() {
+        return state.getHints();
+    }
+
+    /**
+     * Retrieves the letters guessed so far, other than spaces, in the
+     * order of {@link LetterSet#get(long, String, int)}.
+     *
+     * @return the guessed letters
+     */
+    String getGuessedLetters() {
+        return state.getGuessedLetters();
+    }
+
+    /**
+     * Retrieves the letters a to z guessed so far.
+     *
+     * @return the bits of the guessed letters, as by {@link LetterSet#bit}
+     */
+    long getGuessedMask() {
+        return state.getGuessedMask();
+    }
+
+    /**
+     * Retrieves the characters guessed so far other than the letters
+     * a to z and spaces, in the order of
+     * {@link LetterSet#get(long, String, int)}.
+     *
+     * @return the other guessed characters
+     */
+    String getGuessedOthers() {
+        return state.getGuessedOthers();
+    }
+
+    /**
+     * Retrieves the amount of distinct letters that are yet to be guessed.
+     *
+     * @return the amount of remaining letters
+     */
+    public int getRemainingLetters() {
+        return state.getRemainingLetters();
+    }
+
+    /**
+     * Tells whether the given lower case letter has been guessed.
+     * Spaces are always considered guessed.
+     *
+     * @param lower the lower case letter
+     * @return true iff the letter has been guessed
+     */
+    public boolean isGuessed(final char lower) {
+        return state.isGuessed(lower);
+    }
+
+    /**
+     * Tells whether the game has been won.
+     * Returns true if and only if there are no remaining letters to be guessed.
+     *
+     * @return true iff all letters have been guessed
+     */
+    public boolean hasWon() {
+        return state.hasWon();
+    }
+
+    /**
+     * Tells whether the game has been lost.
+     * Returns true if and only if there are no lives left.
+     *
+     * @return true iff there are no lives left
+     */
+    public boolean hasLost() {
+        return state.hasLost();
+    }
+
+    /**
+     * Tells whether the game has ended, either won or lost.
+     *
+     * @return true iff the game is over
+     */
+    public boolean isOver() {
+        return state.isOver();
+    }
+
+    /**
+     * Checks the guess made by the player against the phrase.
+     * If the guess contains exactly one letter, the presence of the letter
+     * in the phrase is checked.
+     * If the guess is made of multiple letters, it is compared to the whole
+     * phrase.
+     *
+     * @param guess the guess made by the player
+     * @return the result of the guess
+     */
+    public Guess checkGuess(final String guess) {
+        if (guess.length() > 1) {
+            return checkFullPhrase(guess);
+        } else if (!guess.isEmpty()) {
+            return checkLetter(guess.charAt(0));
+        }
+        return Guess.IGNORED;
+    }
+
+    /**
+     * Checks if the given guess correctly matches the phrase.
+     * This check is case-insensitive.
+     *
+     * @param guess the guess made by the player
+     * @return {@link Guess#SOLVED} or {@link Guess#WRONG}
+     */
+    public Guess checkFullPhrase(final String guess) {
+        return apply(GameEvent.phrase(guess)).getGuess();
+    }
+
+    /**
+     * Checks if the guessed letter is in the phrase.
+     * This check is case-insensitive.
+     *
+     * @param letter the guess made by the player
+     * @return the result of the guess
+     */
+    public Guess checkLetter(final char letter) {
+        return apply(GameEvent.letter(letter)).getGuess();
+    }
+
+    /**
+     * Uses up a hint and picks one of the remaining letters at random,
+     * using the default {@link RandomSource}.
+     *
+     * @return a letter that is yet to be guessed,
+     *         or {@link GameSession#NO_HINT} if no more hints are allowed
+     */
+    public char takeHint() {
+        return takeHint(RandomSource.threadLocal());
+    }
+
+    /**
+     * Uses up a hint and picks one of the remaining letters at random.
+     *
+     * @param random the source to pick the letter with
+     * @return a letter that is yet to be guessed,
+     *         or {@link GameSession#NO_HINT} if no more hints are allowed
+     */
+    public char takeHint(final RandomSource random) {
+        if (state.getHints() == 0) {
+            return NO_HINT;
+        }
+        int draw = random.nextInt(state.getRemainingLetters());
+        return apply(GameEvent.hint(draw)).getHint();
+    }
+
+    /**
+     * Applies the given event to the game, journaling it if it changes
+     * the state of the game.
+     *
+     * @param event the event
+     * @return the outcome of the event
+     */
+    GameState.Transition apply(final GameEvent event) {
+        GameState.Transition transition = state.apply(event);
+        if (journal != null && transition.getState() != state) {
+            switch (event.getType()) {
+                case LETTER:
+                    journal.guessedLetter(id,
+                            Character.toLowerCase(event.getLetter()));
+                    break;
+                case PHRASE:
+                    journal.guessedPhrase(id, event.getPhrase());
+                    break;
+                default:
+                    journal.tookHint(id);
+                    break;
+            }
+        }
+        state = transition.getState();
+        return transition;
+    }
+
+}
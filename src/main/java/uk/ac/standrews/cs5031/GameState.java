@@ -0,0 +1,409 @@
+package uk.ac.standrews.cs5031;
+
+/**
+ * The state of a game of Hangman, as a pure value: applying a
+ * {@link GameEvent} gives a {@link Transition} to the next state and the
+ * outcome of the event, without changing this state, reading input,
+ * writing output or drawing random numbers. The rules of the game are
+ * all here; {@link GameSession} only keeps the current state of a game
+ * hosted by a server, and journals its events.
+ *
+ * The letters are kept as in {@link LetterSet}: the letters a to z as
+ * bits of a {@code long}, and any other characters in sorted strings,
+ * which are empty for most phrases. So a state is a handful of
+ * primitives, and a transition allocates the next state and its
+ * {@link Transition}, plus new strings only when a character other than
+ * a to z is guessed.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+final class GameState {
+
+    /** The outcome of applying an event: the next state, and its output. */
+    static final class Transition {
+
+        /** The state after the event. */
+        private final GameState state;
+
+        /** The result of the guess, or null if the event was a hint. */
+        private final GameSession.Guess guess;
+
+        /** The letter hinted, or {@link GameSession#NO_HINT}. */
+        private final char hint;
+
+        /**
+         * Creates a transition.
+         *
+         * @param state the state after the event
+         * @param guess the result of the guess, or null for a hint
+         * @param hint  the letter hinted, or {@link GameSession#NO_HINT}
+         */
+        private Transition(final GameState state,
+                           final GameSession.Guess guess, final char hint) {
+            this.state = state;
+            this.guess = guess;
+            this.hint = hint;
+        }
+
+        /**
+         * Retrieves the state after the event.
+         *
+         * @return the next state
+         */
+        GameState getState() {
+            return state;
+        }
+
+        /**
+         * Retrieves the result of the guess.
+         *
+         * @return the result, or null if the event was a hint
+         */
+        GameSession.Guess getGuess() {
+            return guess;
+        }
+
+        /**
+         * Retrieves the letter hinted.
+         *
+         * @return the letter, or {@link GameSession#NO_HINT} if the event
+         *         was a guess or no hints remained
+         */
+        char getHint() {
+            return hint;
+        }
+
+    }
+
+    /** The phrase to be guessed. */
+    private final String phrase;
+
+    /** The bits of the letters a to z of the phrase not yet guessed. */
+    private final long remaining;
+
+    /** The other characters of the phrase not yet guessed, sorted. */
+    private final String remainingOthers;
+
+    /** The bits of the letters a to z guessed. */
+    private final long guessed;
+
+    /** The other characters guessed, other than spaces, sorted. */
+    private final String guessedOthers;
+
+    /** The amount of lives remaining. */
+    private final int lives;
+
+    /** The amount of hints remaining. */
+    private final int hints;
+
+    /** The amount of guesses made so far. */
+    private final int guessesMade;
+
+    /**
+     * Creates a state.
+     *
+     * @param phrase          the phrase to be guessed
+     * @param remaining       the bits of the letters not yet guessed
+     * @param remainingOthers the other characters not yet guessed, sorted
+     * @param guessed         the bits of the letters guessed
+     * @param guessedOthers   the other characters guessed, sorted
+     * @param lives           the amount of lives remaining
+     * @param hints           the amount of hints remaining
+     * @param guessesMade     the amount of guesses made so far
+     */
+    private GameState(final String phrase, final long remaining,
+                      final String remainingOthers, final long guessed,
+                      final String guessedOthers, final int lives,
+                      final int hints, final int guessesMade) {
+        this.phrase = phrase;
+        this.remaining = remaining;
+        this.remainingOthers = remainingOthers;
+        this.guessed = guessed;
+        this.guessedOthers = guessedOthers;
+        this.lives = lives;
+        this.hints = hints;
+        this.guessesMade = guessesMade;
+    }
+
+    /**
+     * Creates the state of a new game of the given phrase, whose letters
+     * may have been computed in advance, e.g. by a {@link PhraseCategory}.
+     * The phrase is only scanned if its mask has the
+     * {@link LetterSet#OTHERS_FLAG}.
+     *
+     * @param phrase     the phrase to be guessed
+     * @param letterMask the letter mask of the phrase
+     * @param lives      the amount of lives the player starts with
+     * @param hints      the amount of hints the player starts with
+     * @return the state
+     */
+    static GameState start(final String phrase, final long letterMask,
+                           final int lives, final int hints) {
+        if ((letterMask & LetterSet.OTHERS_FLAG) == 0) {
+            return new GameState(phrase, letterMask, LetterSet.NO_OTHERS, 0,
+                    LetterSet.NO_OTHERS, lives, hints, 0);
+        }
+        LetterSet letters = LetterSet.of(phrase);
+        return new GameState(phrase, letters.getMask(), letters.getOthers(),
+                0, LetterSet.NO_OTHERS, lives, hints, 0);
+    }
+
+    /**
+     * Creates the state of a game in progress, as saved in a snapshot.
+     *
+     * @param phrase      the phrase to be guessed
+     * @param lives       the amount of lives remaining
+     * @param hints       the amount of hints remaining
+     * @param guessesMade the amount of guesses made so far
+     * @param guessed     the lower case characters guessed so far
+     * @return the state
+     */
+    static GameState restore(final String phrase, final int lives,
+                             final int hints, final int guessesMade,
+                             final CharSequence guessed) {
+        GameState start = start(phrase, LetterSet.OTHERS_FLAG, lives, hints);
+        long remaining = start.remaining;
+        String remainingOthers = start.remainingOthers;
+        long guessedLetters = 0;
+        String others = LetterSet.NO_OTHERS;
+        for (int i = 0; i < guessed.length(); i++) {
+            char c = guessed.charAt(i);
+            long bit = LetterSet.bit(c);
+            if (bit != 0) {
+                guessedLetters |= bit;
+                remaining &= ~bit;
+            } else {
+                others = LetterSet.with(others, c);
+                remainingOthers = LetterSet.without(remainingOthers, c);
+            }
+        }
+        return new GameState(phrase, remaining, remainingOthers,
+                guessedLetters, others, lives, hints, guessesMade);
+    }
+
+    /**
+     * Applies the given event.
+     *
+     * @param event the event
+     * @return the next state and the outcome of the event
+     */
+    Transition apply(final GameEvent event) {
+        switch (event.getType()) {
+            case LETTER:
+                return guessLetter(event.getLetter());
+            case PHRASE:
+                return guessPhrase(event.getPhrase());
+            default:
+                return takeHint(event.getDraw());
+        }
+    }
+
+    /**
+     * Guesses a letter, in any case. Guessing a letter again changes
+     * nothing; otherwise the guess is counted, and costs a life if the
+     * letter is not in the phrase.
+     *
+     * @param letter the letter
+     * @return the next state and the result of the guess
+     */
+    Transition guessLetter(final char letter) {
+        char lower = Character.toLowerCase(letter);
+        if (isGuessed(lower)) {
+            return new Transition(this, GameSession.Guess.REPEATED,
+                    GameSession.NO_HINT);
+        }
+        long bit = LetterSet.bit(lower);
+        boolean correct;
+        GameState next;
+        if (bit != 0) {
+            correct = (remaining & bit) != 0;
+            next = new GameState(phrase, remaining & ~bit, remainingOthers,
+                    guessed | bit, guessedOthers,
+                    correct ? lives : lives - 1, hints, guessesMade + 1);
+        } else {
+            correct = remainingOthers.indexOf(lower) >= 0;
+            next = new GameState(phrase, remaining,
+                    LetterSet.without(remainingOthers, lower), guessed,
+                    LetterSet.with(guessedOthers, lower),
+                    correct ? lives : lives - 1, hints, guessesMade + 1);
+        }
+        GameSession.Guess result = correct
+                ? GameSession.Guess.CORRECT : GameSession.Guess.WRONG;
+        return new Transition(next, result, GameSession.NO_HINT);
+    }
+
+    /**
+     * Guesses the whole phrase, in any case. A right guess reveals every
+     * letter, a wrong one costs a life; either is counted.
+     *
+     * @param guess the phrase guessed
+     * @return the next state and the result of the guess
+     */
+    Transition guessPhrase(final String guess) {
+        if (guess.toLowerCase().equals(phrase.toLowerCase())) {
+            GameState solved = new GameState(phrase, 0, LetterSet.NO_OTHERS,
+                    guessed | remaining,
+                    LetterSet.union(guessedOthers, remainingOthers),
+                    lives, hints, guessesMade + 1);
+            return new Transition(solved, GameSession.Guess.SOLVED,
+                    GameSession.NO_HINT);
+        }
+        GameState wrong = new GameState(phrase, remaining, remainingOthers,
+                guessed, guessedOthers, lives - 1, hints, guessesMade + 1);
+        return new Transition(wrong, GameSession.Guess.WRONG,
+                GameSession.NO_HINT);
+    }
+
+    /**
+     * Takes a hint, if any remain, hinting the remaining letter at the
+     * given position. The letter hinted is not counted as guessed.
+     *
+     * @param draw the position of the letter, as by
+     *             {@link #getRemainingLetter(int)}
+     * @return the next state and the letter hinted, or
+     *         {@link GameSession#NO_HINT} if no hints remained
+     */
+    Transition takeHint(final int draw) {
+        if (hints == 0) {
+            return new Transition(this, null, GameSession.NO_HINT);
+        }
+        GameState next = new GameState(phrase, remaining, remainingOthers,
+                guessed, guessedOthers, lives, hints - 1, guessesMade);
+        return new Transition(next, null, getRemainingLetter(draw));
+    }
+
+    /**
+     * Retrieves the phrase to be guessed.
+     *
+     * @return the phrase
+     */
+    String getPhrase() {
+        return phrase;
+    }
+
+    /**
+     * Retrieves the amount of lives remaining.
+     *
+     * @return the amount of lives
+     */
+    int getLives() {
+        return lives;
+    }
+
+    /**
+     * Retrieves the amount of hints remaining.
+     *
+     * @return the amount of hints
+     */
+    int getHints() {
+        return hints;
+    }
+
+    /**
+     * Retrieves the amount of guesses made so far.
+     *
+     * @return the amount of guesses
+     */
+    int getGuessesMade() {
+        return guessesMade;
+    }
+
+    /**
+     * Retrieves the letters a to z guessed so far.
+     *
+     * @return the bits of the guessed letters, as by {@link LetterSet#bit}
+     */
+    long getGuessedMask() {
+        return guessed;
+    }
+
+    /**
+     * Retrieves the characters guessed so far other than the letters
+     * a to z and spaces, sorted.
+     *
+     * @return the other guessed characters
+     */
+    String getGuessedOthers() {
+        return guessedOthers;
+    }
+
+    /**
+     * Retrieves the characters guessed so far, other than spaces,
+     * in alphabetical order for the letters a to z followed by the
+     * other characters, sorted.
+     *
+     * @return the guessed characters
+     */
+    String getGuessedLetters() {
+        StringBuilder letters = new StringBuilder();
+        for (long rest = guessed; rest != 0; rest &= rest - 1) {
+            letters.append((char) ('a' + Long.numberOfTrailingZeros(rest)));
+        }
+        return letters.append(guessedOthers).toString();
+    }
+
+    /**
+     * Retrieves the amount of distinct characters yet to be guessed.
+     *
+     * @return the amount of remaining letters
+     */
+    int getRemainingLetters() {
+        return LetterSet.size(remaining, remainingOthers);
+    }
+
+    /**
+     * Retrieves the remaining letter at the given position, in
+     * alphabetical order for the letters a to z followed by the other
+     * characters, sorted.
+     *
+     * @param index the position, from 0 to getRemainingLetters() - 1
+     * @return the letter at that position
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    char getRemainingLetter(final int index) {
+        return LetterSet.get(remaining, remainingOthers, index);
+    }
+
+    /**
+     * Tells whether the given lower case letter has been guessed.
+     * Spaces are always considered guessed.
+     *
+     * @param lower the lower case letter
+     * @return true iff the letter has been guessed
+     */
+    boolean isGuessed(final char lower) {
+        if (lower == ' ') {
+            return true;
+        }
+        return LetterSet.contains(guessed, guessedOthers, lower);
+    }
+
+    /**
+     * Tells whether the game has been won, every letter being guessed.
+     *
+     * @return true iff no letters remain
+     */
+    boolean hasWon() {
+        return remaining == 0 && remainingOthers.isEmpty();
+    }
+
+    /**
+     * Tells whether the game has been lost, no lives being left.
+     *
+     * @return true iff there are no lives left
+     */
+    boolean hasLost() {
+        return lives == 0;
+    }
+
+    /**
+     * Tells whether the game has ended, either won or lost.
+     *
+     * @return true iff the game is over
+     */
+    boolean isOver() {
+        return hasWon() || hasLost();
+    }
+
+}
@@ -0,0 +1,30 @@
+package uk.ac.standrews.cs5031;
+
+/**
+ * Decides the guesses of a simulated player, see {@link Simulator}.
+ * A strategy may be shared by many threads, so it should keep any state
+ * of its own per game, in the given session.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public interface GuessStrategy {
+
+    /** The guess asking for a hint, as on the console. */
+    char HINT = '?';
+
+    /** The guess giving up the game, which then counts as lost. */
+    char GIVE_UP = '\0';
+
+    /**
+     * Picks the next guess in the given game.
+     *
+     * @param session the game being played, which is not over
+     * @param random  the source of any random choices
+     * @return a lower case letter that has not been guessed yet,
+     *         {@link #HINT} if {@code session.getHints() > 0},
+     *         or {@link #GIVE_UP}
+     */
+    char nextGuess(GameSession session, RandomSource random);
+
+}
@@ -1,24 +1,29 @@
 package uk.ac.standrews.cs5031;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
 import java.util.NoSuchElementException;
-import java.util.Scanner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
- * The only executable. Contains the main game loop.
+ * The only executable. Contains the main game loop
+ * and starts the server when one is requested.
  *
  * @author Edwin Brady, 150009974
- * @version 4.1
+ * @version 4.11
  */
 public final class Hangman {
 
-    /** The {@link Scanner} used to read from standard input. */
-    private static Scanner reader;
+    /** The {@link LineReader} used to read from standard input. */
+    private static LineReader reader;
 
     /** Instantiates the object used to read the standard input. */
     private static void instantiateReader() {
-        reader = new Scanner(System.in, "utf-8");
-        reader.useDelimiter("\n");
+        reader = new LineReader(System.in);
     }
 
     /**
@@ -29,7 +34,7 @@ public final class Hangman {
      * @param line the line to check
      * @return true iff the line is a yes
      */
-    private static boolean isYes(final String line) {
+    static boolean isYes(final String line) {
         return line.equals("yes")
                 || line.equals("yep")
                 || line.equals("y")
@@ -44,7 +49,7 @@ public final class Hangman {
      * @param line the line to check
      * @return true iff the line is a no
      */
-    private static boolean isNo(final String line) {
+    static boolean isNo(final String line) {
         return line.equals("no")
                 || line.equals("nope")
                 || line.equals("n")
@@ -52,76 +57,77 @@ public final class Hangman {
     }
 
     /**
-     * Returns true if and only if the player wants to play another game.
-     * The question is outputted to standard output and
-     * the player's answer is read from standard input.
-     * If parsing of the argument fails, the player is asked again.
-     * Once an answer is successfully parsed, the method returns
-     * true if the player answer yes
-     * false if the player answered no.
+     * Plays games on the console until the player quits.
+     * All output has been written by the time this method returns.
      *
-     * @return true iff the player answers yes, false iff the player answers no
-     * @see Hangman#isYes(String)
-     * @see Hangman#isNo(String)
+     * @throws NoSuchElementException on end of input
+     * @see BlockingGame#playGamesUntilQuit()
      */
-    private static boolean doesPlayerWantAnotherGame() {
-        System.out.println("Would you like to play again?");
-        do {
-            String answer = reader.next().toLowerCase();
-            if (isYes(answer)) {
-                return true;
-            }
-            if (isNo(answer)) {
-                return false;
-            }
-            System.out.println("Failed to parse answer, please type again.");
-        } while (true);
+    private static void playGamesUntilQuit() throws NoSuchElementException {
+        try (GameOutput output = consoleOutput()) {
+            new BlockingGame(reader, output, randomSource())
+                    .playGamesUntilQuit();
+        }
     }
 
     /**
-     * Plays games until the player quits.
-     * Specifically, in a loop, calls
-     * {@link Game#play(Scanner)},
-     * {@link Game#printGameOverMessage()}, and
-     * {@link Hangman#doesPlayerWantAnotherGame()}
-     * until the player responds with no, or the program reaches end of input.
+     * Creates the output of the console, written by a thread of its own
+     * if asked to in the options.
      *
-     * @throws NoSuchElementException on end of input
+     * @return the console output
      */
-    private static void playGamesUntilQuit() throws NoSuchElementException {
-        boolean playAgain;
-        do {
-            Game.play(reader);
-            Game.printGameOverMessage();
-            playAgain = doesPlayerWantAnotherGame();
-        } while (playAgain);
+    private static GameOutput consoleOutput() {
+        if (OptionsParser.isAsyncOutput()) {
+            return GameOutput.async(System.out);
+        }
+        return GameOutput.of(System.out);
     }
 
     /**
      * The runnable method.
      * This method makes the necessary calls to other methods, so as to
      * parse the arguments as game options,
-     * load any custom phrases,
-     * play games.
+     * expose the {@link EngineMetrics},
+     * load any custom phrases and watch them for changes,
+     * simulate games or replay transcripts if asked to,
+     * or otherwise play games on the console,
+     * or serve them over TCP if a port was given.
      *
      * @param args the command line arguments to be parse as game options
      * @see OptionsParser#parseAndValidate(String[])
      * @see Phrases#loadCustom()
      * @see Hangman#playGamesUntilQuit()
+     * @see Hangman#serve()
      */
     public static void main(final String[] args) {
         try {
             OptionsParser.parseAndValidate(args);
-        } catch (NumberFormatException e) {
+        } catch (IllegalArgumentException e) {
             System.out.println(e.getMessage());
             return;
         }
         instantiateReader();
+        exposeMetrics();
         try {
             Phrases.loadCustom();
         } catch (FileNotFoundException e) {
             System.out.println(e.getMessage());
         }
+        if (OptionsParser.isSimulation()) {
+            simulate();
+            return;
+        }
+        if (OptionsParser.isBatch()) {
+            replay();
+            return;
+        }
+        if (OptionsParser.isWatched()) {
+            watchPhrases();
+        }
+        if (OptionsParser.isServerMode()) {
+            serve();
+            return;
+        }
         try {
             playGamesUntilQuit();
         } catch (NoSuchElementException ignored) {
@@ -130,6 +136,148 @@ public final class Hangman {
         }
     }
 
+    /**
+     * Registers the engine metrics in JMX, and prints them to standard
+     * error periodically if asked to in the options.
+     */
+    private static void exposeMetrics() {
+        EngineMetrics.register();
+        if (OptionsParser.isDumpingMetrics()) {
+            EngineMetrics.INSTANCE.startDump(TimeUnit.SECONDS.toMillis(
+                    OptionsParser.getMetricsPeriod()), System.err);
+        }
+    }
+
+    /**
+     * Simulates games in every category with the lives and hints given in
+     * the options, and prints the results.
+     */
+    private static void simulate() {
+        long seed = OptionsParser.isSeeded() ? OptionsParser.getSeed()
+                : ThreadLocalRandom.current().nextLong();
+        Simulator simulator = new Simulator(FrequencyStrategy.INSTANCE,
+                OptionsParser.getLives(), OptionsParser.getMaxHints(), seed);
+        long start = System.nanoTime();
+        List<Simulator.Result> results =
+                simulator.run(OptionsParser.getSimulatedGames());
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.print(Simulator.report(results));
+        long games = (long) OptionsParser.getSimulatedGames() * results.size();
+        System.out.printf(Locale.ROOT, "Simulated %d games in %.2f s.%n",
+                games, seconds);
+    }
+
+    /**
+     * Replays the transcripts given in the options into the output file
+     * given in the options, and prints how fast they were replayed.
+     */
+    private static void replay() {
+        BatchReplay batch = new BatchReplay(randomSource());
+        long start = System.nanoTime();
+        try {
+            batch.replay(Paths.get(OptionsParser.getBatchTranscripts()),
+                    Paths.get(OptionsParser.getBatchOutput()));
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf(Locale.ROOT,
+                "Replayed %d transcripts, %d games in %.2f s"
+                        + " (%.0f games/s).%n",
+                batch.getTranscripts(), batch.getGamesFinished(), seconds,
+                batch.getGamesFinished() / seconds);
+    }
+
+    /**
+     * Creates the source to pick phrases and hints with,
+     * seeded if a seed was given in the options.
+     *
+     * @return the random source
+     */
+    private static RandomSource randomSource() {
+        if (OptionsParser.isSeeded()) {
+            return RandomSource.seeded(OptionsParser.getSeed());
+        }
+        return RandomSource.threadLocal();
+    }
+
+    /**
+     * Reloads the custom phrases in the background whenever their source
+     * changes, for as long as the process runs.
+     */
+    private static void watchPhrases() {
+        if (!OptionsParser.areThereCustomPhrases()) {
+            return;
+        }
+        try {
+            new PhraseWatcher(Paths.get(OptionsParser.getPhraseSource()))
+                    .start();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Serves games over TCP on the port given in the options until the
+     * process is stopped, using the engine given in the options.
+     * If a journal directory was given, the games in progress when the
+     * server last stopped are restored first. Idle games are parked
+     * outside the heap unless parking was turned off.
+     * The server's metrics are printed on shutdown.
+     */
+    private static void serve() {
+        SessionJournal journal = null;
+        SessionRegistry registry = new SessionRegistry();
+        GameServer server;
+        try {
+            if (OptionsParser.isJournaled()) {
+                journal = SessionJournal.open(
+                        Paths.get(OptionsParser.getJournalDirectory()));
+                registry = new SessionRegistry(
+                        SessionRegistry.DEFAULT_CAPACITY, journal);
+                registry.restore(journal.getRecovered());
+                System.out.println("Restored "
+                        + journal.getRecovered().size() + " games.");
+            }
+            if (OptionsParser.isParking()) {
+                registry.startParking(TimeUnit.SECONDS.toNanos(
+                        OptionsParser.getParkAfter()));
+            }
+            server = GameServer.open(OptionsParser.getEngine(),
+                    OptionsParser.getPort(), randomSource(), registry);
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            if (journal != null) {
+                journal.close();
+            }
+            return;
+        }
+        SessionJournal committed = journal;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            // Closing the journal first keeps the games of the players
+            // disconnected below, so that they can resume them.
+            if (committed != null) {
+                committed.close();
+            }
+            try {
+                server.close();
+            } catch (IOException ignored) {
+                // The process is exiting anyway.
+            }
+            System.out.println(server.getMetrics()
+                    .report(server.getEngine()));
+            System.out.print(EngineMetrics.INSTANCE.getReport());
+        }));
+        server.start();
+        System.out.println("Listening on port " + server.getPort());
+        try {
+            server.awaitTermination();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /** Hides the constructor for this utility class. */
     private Hangman() {
     }
@@ -0,0 +1,104 @@
+package uk.ac.standrews.cs5031;
+
+import java.util.Arrays;
+
+/**
+ * Maps session ids to shards by consistent hashing.
+ *
+ * Each shard owns {@link #POINTS_PER_SHARD} points on a ring of 64 bit
+ * hashes, and an id belongs to the shard owning the first point at or
+ * after the hash of the id, wrapping around. Adding a shard only takes
+ * over the ids falling just before its own points, so about one in as
+ * many ids as there are shards changes shard, and every one of them moves
+ * to the new shard.
+ *
+ * A ring is immutable, adding a shard gives a new ring.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+final class HashRing {
+
+    /**
+     * The amount of points of each shard, so that the ids are spread
+     * evenly among the shards.
+     */
+    static final int POINTS_PER_SHARD = 64;
+
+    /** Spreads the points and the ids over the ring. */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** The points of the ring, in ascending order. */
+    private final long[] points;
+
+    /** The shard owning each point. */
+    private final int[] owners;
+
+    /**
+     * Creates a ring of the given amount of shards, numbered from 0.
+     * The points of a shard do not depend on the other shards. They are
+     * the hashes of negative numbers, since session ids are positive.
+     *
+     * @param shards the amount of shards, at least 1
+     */
+    HashRing(final int shards) {
+        int size = shards * POINTS_PER_SHARD;
+        long[][] pairs = new long[size][];
+        for (int i = 0; i < size; i++) {
+            pairs[i] = new long[]{hash(-1L - i), i / POINTS_PER_SHARD};
+        }
+        Arrays.sort(pairs, (a, b) -> Long.compare(a[0], b[0]));
+        points = new long[size];
+        owners = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = pairs[i][0];
+            owners[i] = (int) pairs[i][1];
+        }
+    }
+
+    /**
+     * Creates the ring with one more shard, numbered after the others.
+     *
+     * @return the new ring
+     */
+    HashRing withShard() {
+        return new HashRing(getShards() + 1);
+    }
+
+    /**
+     * Retrieves the amount of shards.
+     *
+     * @return the amount of shards
+     */
+    int getShards() {
+        return points.length / POINTS_PER_SHARD;
+    }
+
+    /**
+     * Finds the shard of the given session id.
+     *
+     * @param id the session id
+     * @return the shard, from 0 to {@link #getShards()} excluded
+     */
+    int shardOf(final long id) {
+        int i = Arrays.binarySearch(points, hash(id));
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return owners[i == points.length ? 0 : i];
+    }
+
+    /**
+     * Spreads the given value over the ring, as SplitMix64 does.
+     *
+     * @param value the value
+     * @return its hash
+     */
+    private static long hash(final long value) {
+        long z = value * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
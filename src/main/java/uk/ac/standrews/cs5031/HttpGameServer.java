@@ -0,0 +1,735 @@
+package uk.ac.standrews.cs5031;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves Hangman as a JSON API over HTTP, for web front ends, on the
+ * JDK's built-in HTTP server. Games follow the same rules as on the
+ * console and the line protocol, see {@link GameSession}.
+ * <pre>
+ * POST   /games            {"category": 1}   creates a game, 201
+ * GET    /games/{id}                         the state of the game
+ * POST   /games/{id}/guess {"guess": "e"}    guesses a letter or phrase
+ * POST   /games/{id}/hint                    takes a hint
+ * POST   /games/{id}/guesses {"guesses": "e,a,?"}
+ *                                            guesses and takes hints in
+ *                                            one step, see {@link Turns}
+ * DELETE /games/{id}                         gives up the game, 204
+ * </pre>
+ * Every response but the last is the state of the game: its id, the
+ * phrase with {@link Solver#HIDDEN} for letters not guessed yet, lives,
+ * hints, guesses made and status, plus the result of a guess, the hint
+ * taken, or the results of a batch, which stops once the game is over.
+ * Once a game is over, its phrase is given as the answer and the game is
+ * removed. A game left without requests for an hour is taken to be
+ * abandoned, as if the player had disconnected on the line protocol, and
+ * is removed too. Errors are objects with an error message.
+ *
+ * Connections are kept alive, and requests pipelined on a connection are
+ * answered in order, as the JDK server reads the next request of a
+ * connection only once the previous exchange is closed. Each request is
+ * handled on a virtual thread, and everything done to a game is done on
+ * its owner, see {@link SessionOwners}, so that requests for the same
+ * game on several connections do not race. Request bodies and responses
+ * go through pooled {@link JsonBuffer}s, so that requests allocate little.
+ *
+ * Requests count as lines in the {@link ServerMetrics}; connections are
+ * not counted, since the JDK server does not report them.
+ *
+ * @author 150009974
+ * @version 1.4
+ */
+final class HttpGameServer implements GameServer {
+
+    /** The name of this engine, as used in reports. */
+    static final String ENGINE = OptionsParser.HTTP_ENGINE;
+
+    /** The path of the games. */
+    static final String GAMES = "/games";
+
+    /** The message when the game of a request does not exist. */
+    static final String NO_SUCH_GAME = "There is no game with that id.";
+
+    /** The message when a new game has no category number. */
+    static final String NO_CATEGORY = "The body must have a category.";
+
+    /** The message when a guess has no guess. */
+    static final String NO_GUESS = "The body must have a guess.";
+
+    /** The message when a batch has no guesses. */
+    static final String NO_GUESSES = "The body must have guesses.";
+
+    /** The message when a path is not recognized. */
+    static final String NO_SUCH_PATH = "There is nothing at that path.";
+
+    /** The message when a method is not allowed on a path. */
+    static final String METHOD_NOT_ALLOWED = "Method not allowed.";
+
+    /** The message when a request body is too large. */
+    static final String BODY_TOO_LARGE = "The body is too large.";
+
+    /** The maximum amount of pending connections. */
+    private static final int BACKLOG = 1024;
+
+    /** The largest request body accepted, in bytes. */
+    private static final int MAX_BODY = 4096;
+
+    /** The amount of buffers kept for reuse. */
+    private static final int POOL_SIZE = 256;
+
+    /** The status of a successful request. */
+    private static final int OK = 200;
+
+    /** The status of a created game. */
+    private static final int CREATED = 201;
+
+    /** The status of a successful request with no response body. */
+    private static final int NO_CONTENT = 204;
+
+    /** The status of a request that is not understood. */
+    private static final int BAD_REQUEST = 400;
+
+    /** The status of a request for something that does not exist. */
+    private static final int NOT_FOUND = 404;
+
+    /** The status of a request with the wrong method. */
+    private static final int NOT_ALLOWED = 405;
+
+    /** The status of a request whose body is too large. */
+    private static final int TOO_LARGE = 413;
+
+    /**
+     * How long a game may be left without requests before it is taken to
+     * be abandoned, in nanoseconds.
+     */
+    static final long ABANDONED_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    /** The response length meaning that there is no body. */
+    private static final int NO_BODY = -1;
+
+    /** The results of guesses, by ordinal, as given in responses. */
+    private static final String[] RESULTS = new String[
+            GameSession.Guess.values().length];
+
+    static {
+        for (GameSession.Guess guess : GameSession.Guess.values()) {
+            RESULTS[guess.ordinal()] = guess.name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /** The HTTP server. */
+    private final HttpServer server;
+
+    /** Runs a virtual thread for each request. */
+    private final ExecutorService requests =
+            Executors.newVirtualThreadPerTaskExecutor();
+
+    /** The owners of the games, which every change to a game is made on. */
+    private final SessionOwners owners = new SessionOwners();
+
+    /** The buffers available for reuse. */
+    private final BlockingQueue<JsonBuffer> buffers =
+            new ArrayBlockingQueue<>(POOL_SIZE);
+
+    /** The registry hosting the games played on this server. */
+    private final SessionRegistry registry;
+
+    /** The games created on this server and still in progress, by id. */
+    private final Map<Long, Hosted> games = new ConcurrentHashMap<>();
+
+    /**
+     * How long a game may be left without requests before it is taken to
+     * be abandoned, in nanoseconds.
+     */
+    private final long abandonedNanos;
+
+    /** Removes the abandoned games, twice per {@link #abandonedNanos}. */
+    private final Thread sweeper;
+
+    /** The counters describing the activity of this server. */
+    private final ServerMetrics metrics = new ServerMetrics();
+
+    /** The source from which the source of each request is split. */
+    private final RandomSource random;
+
+    /** Released once the server is closed. */
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    /** A game created on this server. */
+    private static final class Hosted {
+
+        /** The name of the category of the game. */
+        private final String category;
+
+        /** When the last request for the game was made, in nanoseconds. */
+        private volatile long lastUsed = System.nanoTime();
+
+        /**
+         * Describes a new game.
+         *
+         * @param category the name of the category of the game
+         */
+        private Hosted(final String category) {
+            this.category = category;
+        }
+
+    }
+
+    /**
+     * Opens a server on the given port.
+     * The server does not accept connections until it is started.
+     *
+     * @param port     the port to listen on, or 0 for any free port
+     * @param random   the source from which the source of each request
+     *                 is split
+     * @param registry the registry to host the games in
+     * @throws IOException if the port cannot be bound
+     */
+    HttpGameServer(final int port, final RandomSource random,
+                   final SessionRegistry registry) throws IOException {
+        this(port, random, registry, ABANDONED_NANOS);
+    }
+
+    /**
+     * Opens a server on the given port, which removes the games left
+     * without requests for the given time.
+     * The server does not accept connections until it is started.
+     *
+     * @param port           the port to listen on, or 0 for any free port
+     * @param random         the source from which the source of each
+     *                       request is split
+     * @param registry       the registry to host the games in
+     * @param abandonedNanos how long a game may be left without requests
+     *                       before it is removed, in nanoseconds
+     * @throws IOException if the port cannot be bound
+     */
+    HttpGameServer(final int port, final RandomSource random,
+                   final SessionRegistry registry, final long abandonedNanos)
+            throws IOException {
+        this.random = random;
+        this.registry = registry;
+        this.abandonedNanos = abandonedNanos;
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.createContext(GAMES, this::handle);
+        server.setExecutor(requests);
+        sweeper = Thread.ofPlatform()
+                .name("hangman-http-sweeper")
+                .daemon()
+                .unstarted(this::sweep);
+    }
+
+    @Override
+    public void start() {
+        server.start();
+        sweeper.start();
+    }
+
+    @Override
+    public String getEngine() {
+        return ENGINE;
+    }
+
+    @Override
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void awaitTermination() throws InterruptedException {
+        closed.await();
+    }
+
+    /** Stops accepting connections and closes the open ones. */
+    @Override
+    public void close() {
+        server.stop(0);
+        sweeper.interrupt();
+        requests.shutdown();
+        owners.close();
+        try {
+            requests.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closed.countDown();
+    }
+
+    /**
+     * Answers a request with a pooled buffer.
+     *
+     * @param exchange the request and its response
+     * @throws IOException if the connection fails
+     */
+    private void handle(final HttpExchange exchange) throws IOException {
+        metrics.lineProcessed();
+        JsonBuffer json = buffers.poll();
+        if (json == null) {
+            json = new JsonBuffer();
+        }
+        try (exchange) {
+            int status = route(exchange, json.clear());
+            exchange.getResponseHeaders()
+                    .set("Content-Type", "application/json");
+            if (status == NO_CONTENT) {
+                exchange.sendResponseHeaders(status, NO_BODY);
+                return;
+            }
+            exchange.sendResponseHeaders(status, json.length());
+            try (OutputStream body = exchange.getResponseBody()) {
+                json.writeTo(body);
+            }
+        } finally {
+            buffers.offer(json);
+        }
+    }
+
+    /**
+     * Serves a request, writing the response body into the given buffer.
+     *
+     * @param exchange the request
+     * @param json     the buffer, empty
+     * @return the status of the response
+     * @throws IOException if the request body cannot be read
+     */
+    private int route(final HttpExchange exchange, final JsonBuffer json)
+            throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        if (path.equals(GAMES) || path.equals(GAMES + "/")) {
+            if (!method.equals("POST")) {
+                return error(json, NOT_ALLOWED, METHOD_NOT_ALLOWED);
+            }
+            if (!readBody(exchange, json)) {
+                return error(json.clear(), TOO_LARGE, BODY_TOO_LARGE);
+            }
+            return create(json);
+        }
+        String[] parts = path.substring(GAMES.length()).split("/");
+        long id = parseId(parts);
+        if (id < 0) {
+            return error(json, NOT_FOUND, NO_SUCH_PATH);
+        }
+        if (parts.length == 2) {
+            switch (method) {
+                case "GET":
+                    return owned(id, () -> state(json, id));
+                case "DELETE":
+                    return owned(id, () -> delete(json, id));
+                default:
+                    return error(json, NOT_ALLOWED, METHOD_NOT_ALLOWED);
+            }
+        }
+        if (!method.equals("POST")) {
+            return error(json, NOT_ALLOWED, METHOD_NOT_ALLOWED);
+        }
+        switch (parts[2]) {
+            case "guess":
+                if (!readBody(exchange, json)) {
+                    return error(json.clear(), TOO_LARGE, BODY_TOO_LARGE);
+                }
+                String guess = json.getString("guess");
+                return owned(id, () -> guess(json, id, guess));
+            case "hint":
+                return owned(id, () -> hint(json, id));
+            case "guesses":
+                if (!readBody(exchange, json)) {
+                    return error(json.clear(), TOO_LARGE, BODY_TOO_LARGE);
+                }
+                String guesses = json.getString("guesses");
+                return owned(id, () -> guesses(json, id, guesses));
+            default:
+                return error(json, NOT_FOUND, NO_SUCH_PATH);
+        }
+    }
+
+    /**
+     * Finds the game id in a path below {@link #GAMES}.
+     *
+     * @param parts the parts of the path after {@link #GAMES}, split at
+     *              slashes
+     * @return the game id, or -1 if the path has none
+     */
+    private static long parseId(final String[] parts) {
+        if (parts.length < 2 || parts.length > 3 || !parts[0].isEmpty()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Serves a request on the owner of its game, so that requests for the
+     * same game on different connections are served one at a time.
+     *
+     * @param id   the game id
+     * @param work serves the request and gives the status of the response
+     * @return the status of the response
+     * @throws IOException if interrupted while waiting for the owner
+     */
+    private int owned(final long id, final Callable<Integer> work)
+            throws IOException {
+        Hosted game = games.get(id);
+        if (game != null) {
+            game.lastUsed = System.nanoTime();
+        }
+        try {
+            return owners.call(id, work);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the request body into the given buffer.
+     *
+     * @param exchange the request
+     * @param json     the buffer
+     * @return false iff the body is larger than {@link #MAX_BODY}
+     * @throws IOException if the body cannot be read
+     */
+    private static boolean readBody(final HttpExchange exchange,
+                                    final JsonBuffer json)
+            throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            return json.readFrom(body, MAX_BODY);
+        }
+    }
+
+    /**
+     * Creates a game in the category given in the buffer.
+     * A missing or malformed category is a bad request, while a category
+     * that does not exist is not found.
+     *
+     * @param json the buffer holding the request, and then the response
+     * @return the status of the response
+     */
+    private int create(final JsonBuffer json) {
+        int id;
+        try {
+            id = json.getInt("category");
+        } catch (NumberFormatException e) {
+            return error(json.clear(), BAD_REQUEST, NO_CATEGORY);
+        }
+        PhraseCategory category;
+        try {
+            category = Phrases.getCategory(id);
+        } catch (IllegalArgumentException e) {
+            return error(json.clear(), NOT_FOUND,
+                    Renderer.CATEGORY_NOT_RECOGNIZED);
+        }
+        RandomSource source = split();
+        int index = Phrases.getRandomIndex(category, source);
+        GameSession session = registry.create(category.getPhrase(index),
+                category.getLetterMask(index),
+                OptionsParser.getLives(), OptionsParser.getMaxHints());
+        games.put(session.getId(), new Hosted(category.getName()));
+        metrics.gameStarted();
+        appendState(json.clear().beginObject(), session);
+        json.endObject();
+        return CREATED;
+    }
+
+    /**
+     * Describes the game with the given id.
+     *
+     * @param json the buffer to write the response to
+     * @param id   the game id
+     * @return the status of the response
+     */
+    private int state(final JsonBuffer json, final long id) {
+        GameSession session = registry.get(id);
+        if (session == null) {
+            return error(json, NOT_FOUND, NO_SUCH_GAME);
+        }
+        appendState(json.beginObject(), session);
+        json.endObject();
+        return OK;
+    }
+
+    /**
+     * Gives up the game with the given id.
+     *
+     * @param json the buffer to write any error to
+     * @param id   the game id
+     * @return the status of the response
+     */
+    private int delete(final JsonBuffer json, final long id) {
+        if (registry.remove(id) == null) {
+            return error(json, NOT_FOUND, NO_SUCH_GAME);
+        }
+        games.remove(id);
+        return NO_CONTENT;
+    }
+
+    /**
+     * Applies a guess to the game with the given id. As on the line
+     * protocol, a guess of {@link Turns#HINT} takes a hint.
+     *
+     * @param json  the buffer to write the response to
+     * @param id    the game id
+     * @param guess the guess, or null if the request had none
+     * @return the status of the response
+     */
+    private int guess(final JsonBuffer json, final long id,
+                      final String guess) {
+        json.clear();
+        if (guess == null) {
+            return error(json, BAD_REQUEST, NO_GUESS);
+        }
+        return turn(json, id, guess);
+    }
+
+    /**
+     * Applies a single guess or hint request to the game with the given
+     * id with {@link Turns#turn}.
+     *
+     * @param json  the buffer to write the response to, empty
+     * @param id    the game id
+     * @param guess the guess, or {@link Turns#HINT}
+     * @return the status of the response
+     */
+    private int turn(final JsonBuffer json, final long id,
+                     final String guess) {
+        GameSession session = registry.get(id);
+        if (session == null) {
+            return error(json, NOT_FOUND, NO_SUCH_GAME);
+        }
+        appendTurn(json.beginObject(), Turns.turn(session, guess, split()));
+        appendState(json, session);
+        json.endObject();
+        finishIfOver(session);
+        return OK;
+    }
+
+    /**
+     * Applies a batch of guesses and hint requests to the game with the
+     * given id with {@link Turns#batch}, until the game is over.
+     *
+     * @param json    the buffer to write the response to
+     * @param id      the game id
+     * @param guesses the guesses, as split by {@link Turns#split},
+     *                or null if the request had none
+     * @return the status of the response
+     */
+    private int guesses(final JsonBuffer json, final long id,
+                        final String guesses) {
+        json.clear();
+        if (guesses == null) {
+            return error(json, BAD_REQUEST, NO_GUESSES);
+        }
+        GameSession session = registry.get(id);
+        if (session == null) {
+            return error(json, NOT_FOUND, NO_SUCH_GAME);
+        }
+        json.beginObject().name("results").beginArray();
+        for (Turns.Turn turn
+                : Turns.batch(session, Turns.split(guesses), split())) {
+            json.element().beginObject().name("guess").value(turn.getGuess());
+            appendTurn(json, turn);
+            json.endObject();
+        }
+        json.endArray();
+        appendState(json, session);
+        json.endObject();
+        finishIfOver(session);
+        return OK;
+    }
+
+    /**
+     * Takes a hint in the game with the given id.
+     *
+     * @param json the buffer to write the response to
+     * @param id   the game id
+     * @return the status of the response
+     */
+    private int hint(final JsonBuffer json, final long id) {
+        return turn(json, id, Turns.HINT);
+    }
+
+    /**
+     * Records the outcome of the given game and removes it, if it is over.
+     *
+     * @param session the game
+     */
+    private void finishIfOver(final GameSession session) {
+        if (!session.isOver()) {
+            return;
+        }
+        metrics.gameFinished(session.hasWon());
+        Hosted game = games.remove(session.getId());
+        EngineMetrics.INSTANCE.gameFinished(
+                game == null ? EngineMetrics.RESUMED : game.category,
+                session.hasWon());
+        registry.remove(session.getId());
+    }
+
+    /**
+     * Removes the abandoned games, twice per {@link #abandonedNanos},
+     * until the server is closed. Each game is removed on its owner, so
+     * that a request arriving meanwhile keeps it.
+     */
+    private void sweep() {
+        long period = Math.max(1,
+                TimeUnit.NANOSECONDS.toMillis(abandonedNanos / 2));
+        try {
+            while (true) {
+                Thread.sleep(period);
+                for (Map.Entry<Long, Hosted> entry : games.entrySet()) {
+                    long id = entry.getKey();
+                    Hosted game = entry.getValue();
+                    if (isAbandoned(game)) {
+                        owners.call(id, () -> abandon(id, game));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RejectedExecutionException e) {
+            // The server was closed while sweeping.
+        }
+    }
+
+    /**
+     * Tells whether the given game has been left without requests for at
+     * least {@link #abandonedNanos}.
+     *
+     * @param game the game
+     * @return true iff the game is abandoned
+     */
+    private boolean isAbandoned(final Hosted game) {
+        return System.nanoTime() - game.lastUsed >= abandonedNanos;
+    }
+
+    /**
+     * Removes the game with the given id, unless it has been requested
+     * since it was found to be abandoned.
+     *
+     * @param id   the game id
+     * @param game the game
+     * @return true iff the game was removed
+     */
+    private boolean abandon(final long id, final Hosted game) {
+        if (!isAbandoned(game) || !games.remove(id, game)) {
+            return false;
+        }
+        registry.remove(id);
+        return true;
+    }
+
+    /**
+     * Writes the outcome of a turn: the result of the guess, or the hint
+     * taken.
+     *
+     * @param json the buffer, within an object
+     * @param turn the outcome of the turn
+     */
+    private static void appendTurn(final JsonBuffer json,
+                                   final Turns.Turn turn) {
+        if (turn.isHint()) {
+            appendHint(json, turn.getHint());
+        } else {
+            json.name("result").value(RESULTS[turn.getResult().ordinal()]);
+        }
+    }
+
+    /**
+     * Writes the hint taken.
+     *
+     * @param json the buffer, within an object
+     * @param hint the letter hinted, or {@link GameSession#NO_HINT}
+     */
+    private static void appendHint(final JsonBuffer json, final char hint) {
+        json.name("hint");
+        if (hint == GameSession.NO_HINT) {
+            json.value((CharSequence) null);
+        } else {
+            json.beginString().stringChar(hint).endString();
+        }
+    }
+
+    /**
+     * Writes the members describing the state of the given game.
+     *
+     * @param json    the buffer, within an object
+     * @param session the game
+     */
+    private static void appendState(final JsonBuffer json,
+                                    final GameSession session) {
+        json.name("id").value(session.getId());
+        json.name("phrase").beginString();
+        String phrase = session.getPhrase();
+        for (int i = 0; i < phrase.length(); i++) {
+            char c = phrase.charAt(i);
+            boolean shown = session.isGuessed(Character.toLowerCase(c));
+            json.stringChar(shown ? c : Solver.HIDDEN);
+        }
+        json.endString();
+        json.name("lives").value(session.getLives());
+        json.name("hints").value(session.getHints());
+        json.name("guesses").value(session.getGuessesMade());
+        if (session.hasWon()) {
+            json.name("status").value("won");
+        } else if (session.hasLost()) {
+            json.name("status").value("lost");
+        } else {
+            json.name("status").value("playing");
+        }
+        if (session.isOver()) {
+            json.name("answer").value(phrase);
+        }
+    }
+
+    /**
+     * Writes an error.
+     *
+     * @param json    the buffer, empty
+     * @param status  the status of the response
+     * @param message the error message
+     * @return the status
+     */
+    private static int error(final JsonBuffer json, final int status,
+                             final String message) {
+        json.beginObject().name("error").value(message).endObject();
+        return status;
+    }
+
+    /**
+     * Splits a source for a single request off the server's source,
+     * in the order in which requests need one.
+     *
+     * @return the source of the request
+     */
+    private RandomSource split() {
+        synchronized (random) {
+            return random.split();
+        }
+    }
+
+}
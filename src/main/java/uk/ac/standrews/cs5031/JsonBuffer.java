@@ -0,0 +1,437 @@
+package uk.ac.standrews.cs5031;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A reusable buffer for the flat JSON objects of {@link HttpGameServer}:
+ * responses are written straight into its bytes, and request bodies are
+ * read into them. A buffer is meant to be pooled, so that serving a
+ * request allocates little beyond the strings of the game.
+ *
+ * Written text is plain ASCII: other characters are escaped by their
+ * UTF-16 code units, in hexadecimal. Values are numbers, booleans,
+ * strings, null, or arrays and objects of them, but only flat objects
+ * are read.
+ *
+ * A buffer is not thread-safe, it should be used by one thread at a time.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+final class JsonBuffer {
+
+    /** The initial size of the buffer, in bytes. */
+    private static final int INITIAL_SIZE = 256;
+
+    /** The hexadecimal digits, for escapes. */
+    private static final byte[] HEX = "0123456789abcdef".getBytes(UTF_8);
+
+    /** The literal null. */
+    private static final byte[] NULL = "null".getBytes(UTF_8);
+
+    /** The contents of the buffer. */
+    private byte[] bytes = new byte[INITIAL_SIZE];
+
+    /** The amount of bytes of content. */
+    private int length;
+
+    /** Whether the next member or element needs a comma before it. */
+    private boolean member;
+
+    /**
+     * Empties the buffer, keeping its memory.
+     *
+     * @return this buffer
+     */
+    JsonBuffer clear() {
+        length = 0;
+        member = false;
+        return this;
+    }
+
+    /**
+     * Retrieves the amount of bytes of content.
+     *
+     * @return the length of the content
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Writes the content to the given stream.
+     *
+     * @param out the stream
+     * @throws IOException if the stream cannot be written
+     */
+    void writeTo(final OutputStream out) throws IOException {
+        out.write(bytes, 0, length);
+    }
+
+    /**
+     * Replaces the content with the given stream, up to the given amount
+     * of bytes.
+     *
+     * @param in    the stream, read to its end
+     * @param limit the most bytes to read
+     * @return false iff the stream held more than the limit
+     * @throws IOException if the stream cannot be read
+     */
+    boolean readFrom(final InputStream in, final int limit)
+            throws IOException {
+        clear();
+        while (true) {
+            if (length == bytes.length) {
+                if (length > limit) {
+                    return false;
+                }
+                bytes = Arrays.copyOf(bytes, 2 * bytes.length);
+            }
+            int read = in.read(bytes, length, bytes.length - length);
+            if (read < 0) {
+                return length <= limit;
+            }
+            length += read;
+        }
+    }
+
+    /**
+     * Starts an object.
+     *
+     * @return this buffer
+     */
+    JsonBuffer beginObject() {
+        put('{');
+        member = false;
+        return this;
+    }
+
+    /**
+     * Ends the object.
+     *
+     * @return this buffer
+     */
+    JsonBuffer endObject() {
+        put('}');
+        member = true;
+        return this;
+    }
+
+    /**
+     * Starts an array, whose elements are each started by
+     * {@link #element()}.
+     *
+     * @return this buffer
+     */
+    JsonBuffer beginArray() {
+        put('[');
+        member = false;
+        return this;
+    }
+
+    /**
+     * Ends the array.
+     *
+     * @return this buffer
+     */
+    JsonBuffer endArray() {
+        put(']');
+        member = true;
+        return this;
+    }
+
+    /**
+     * Starts an element of the array, whose value should be written next.
+     *
+     * @return this buffer
+     */
+    JsonBuffer element() {
+        if (member) {
+            put(',');
+        }
+        member = true;
+        return this;
+    }
+
+    /**
+     * Starts a member of the object with the given name, whose value
+     * should be written next.
+     *
+     * @param name the name, in plain ASCII needing no escapes
+     * @return this buffer
+     */
+    JsonBuffer name(final String name) {
+        if (member) {
+            put(',');
+        }
+        put('"');
+        for (int i = 0; i < name.length(); i++) {
+            put(name.charAt(i));
+        }
+        put('"');
+        put(':');
+        member = true;
+        return this;
+    }
+
+    /**
+     * Writes a number.
+     *
+     * @param value the number
+     * @return this buffer
+     */
+    JsonBuffer value(final long value) {
+        if (value == Long.MIN_VALUE) {
+            return raw(Long.toString(value));
+        }
+        long rest = value;
+        if (rest < 0) {
+            put('-');
+            rest = -rest;
+        }
+        int digits = 1;
+        for (long bound = 10; digits < 19 && rest >= bound; bound *= 10) {
+            digits++;
+        }
+        ensure(digits);
+        for (int i = length + digits - 1; i >= length; i--) {
+            bytes[i] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        }
+        length += digits;
+        return this;
+    }
+
+    /**
+     * Writes a boolean.
+     *
+     * @param value the boolean
+     * @return this buffer
+     */
+    JsonBuffer value(final boolean value) {
+        return raw(value ? "true" : "false");
+    }
+
+    /**
+     * Writes a string, or null.
+     *
+     * @param value the string, or null
+     * @return this buffer
+     */
+    JsonBuffer value(final CharSequence value) {
+        if (value == null) {
+            ensure(NULL.length);
+            System.arraycopy(NULL, 0, bytes, length, NULL.length);
+            length += NULL.length;
+            return this;
+        }
+        beginString();
+        for (int i = 0; i < value.length(); i++) {
+            stringChar(value.charAt(i));
+        }
+        return endString();
+    }
+
+    /**
+     * Starts a string, whose characters are written one at a time.
+     *
+     * @return this buffer
+     * @see #stringChar(char)
+     */
+    JsonBuffer beginString() {
+        put('"');
+        return this;
+    }
+
+    /**
+     * Writes a character of a string, escaped as needed.
+     *
+     * @param c the character
+     * @return this buffer
+     */
+    JsonBuffer stringChar(final char c) {
+        if (c == '"' || c == '\\') {
+            put('\\');
+            put(c);
+        } else if (c >= ' ' && c < 0x7f) {
+            put(c);
+        } else {
+            ensure(6);
+            bytes[length++] = '\\';
+            bytes[length++] = 'u';
+            for (int shift = 12; shift >= 0; shift -= 4) {
+                bytes[length++] = HEX[(c >> shift) & 0xf];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Ends the string.
+     *
+     * @return this buffer
+     */
+    JsonBuffer endString() {
+        put('"');
+        return this;
+    }
+
+    /**
+     * Finds the string value of the member with the given name.
+     *
+     * @param name the name
+     * @return the value, or null if there is no such string member
+     */
+    String getString(final String name) {
+        String json = new String(bytes, 0, length, UTF_8);
+        int i = valueStart(json, name);
+        if (i < 0 || i == json.length() || json.charAt(i) != '"') {
+            return null;
+        }
+        StringBuilder value = new StringBuilder();
+        for (i++; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (++i == json.length()) {
+                return null;
+            }
+            char escaped = json.charAt(i);
+            switch (escaped) {
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    if (i + 4 >= json.length()) {
+                        return null;
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(
+                                json.substring(i + 1, i + 5), 16));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    i += 4;
+                    break;
+                default:
+                    value.append(escaped);
+                    break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the integer value of the member with the given name.
+     *
+     * @param name the name
+     * @return the value
+     * @throws NumberFormatException if there is no such integer member
+     */
+    int getInt(final String name) throws NumberFormatException {
+        String json = new String(bytes, 0, length, UTF_8);
+        int start = valueStart(json, name);
+        if (start < 0) {
+            throw new NumberFormatException("No member " + name);
+        }
+        int end = start;
+        while (end < json.length() && (json.charAt(end) == '-'
+                || Character.isDigit(json.charAt(end)))) {
+            end++;
+        }
+        return Integer.parseInt(json.substring(start, end));
+    }
+
+    /**
+     * Finds where the value of the member with the given name starts.
+     *
+     * @param json the text of the object
+     * @param name the name
+     * @return the index of the value, or -1 if there is no such member
+     */
+    private static int valueStart(final String json, final String name) {
+        String key = '"' + name + '"';
+        for (int i = json.indexOf(key); i >= 0;
+             i = json.indexOf(key, i + 1)) {
+            int j = skipSpaces(json, i + key.length());
+            if (j < json.length() && json.charAt(j) == ':') {
+                return skipSpaces(json, j + 1);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Skips white space.
+     *
+     * @param json the text
+     * @param from where to start
+     * @return the index of the next other character, or the length
+     */
+    private static int skipSpaces(final String json, final int from) {
+        int i = from;
+        while (i < json.length() && Character.isWhitespace(json.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Writes the given ASCII text as it is.
+     *
+     * @param text the text
+     * @return this buffer
+     */
+    private JsonBuffer raw(final String text) {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            bytes[length++] = (byte) text.charAt(i);
+        }
+        return this;
+    }
+
+    /**
+     * Writes an ASCII character.
+     *
+     * @param c the character
+     */
+    private void put(final char c) {
+        ensure(1);
+        bytes[length++] = (byte) c;
+    }
+
+    /**
+     * Makes room for the given amount of bytes.
+     *
+     * @param needed the amount of bytes about to be written
+     */
+    private void ensure(final int needed) {
+        if (length + needed > bytes.length) {
+            bytes = Arrays.copyOf(bytes,
+                    Math.max(2 * bytes.length, length + needed));
+        }
+    }
+
+}
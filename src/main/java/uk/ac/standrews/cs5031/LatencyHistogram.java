@@ -0,0 +1,238 @@
+package uk.ac.standrews.cs5031;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts durations in log-linear buckets, as HdrHistogram does, so that
+ * percentiles can be read with a bounded relative error over the whole
+ * range of a long.
+ *
+ * Values below {@link #SUB_BUCKETS} have a bucket each. Above that, every
+ * power of two is split into {@link #SUB_BUCKETS} / 2 buckets of equal
+ * width, so a value is counted in a bucket at most 1 / 32 wider than it.
+ * Percentiles report the highest value of their bucket.
+ *
+ * Recording takes a few atomic updates of preallocated counters and never
+ * allocates, so it can be done on hot paths from any thread. The buckets
+ * are striped, a set per core, and threads count in the set of their id,
+ * so that threads recording similar durations do not contend on the same
+ * counters. The amount of values is the sum of the buckets.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+final class LatencyHistogram {
+
+    /** The percentiles summarized, see {@link #summary()}. */
+    static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    /** The amount of bits of precision of each bucket. */
+    private static final int SUB_BUCKET_BITS = 6;
+
+    /** The amount of values with a bucket each. */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** The amount of buckets each power of two is split into. */
+    private static final int HALF = SUB_BUCKETS / 2;
+
+    /** The amount of buckets needed for every non-negative long. */
+    private static final int BUCKETS =
+            (Long.SIZE - SUB_BUCKET_BITS + 1) * HALF;
+
+    /**
+     * The amount of sets of buckets, a power of two, at least the amount
+     * of cores.
+     */
+    private static final int STRIPES = Integer.highestOneBit(
+            Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    /** The nanoseconds in a microsecond, as durations are reported. */
+    private static final double NANOS_PER_MICRO = 1e3;
+
+    /**
+     * The amount of values counted in each bucket, by stripe: the buckets
+     * of stripe s start at s * {@link #BUCKETS}.
+     */
+    private final AtomicLongArray counts =
+            new AtomicLongArray(STRIPES * BUCKETS);
+
+    /** The sum of the values recorded. */
+    private final LongAdder total = new LongAdder();
+
+    /** The highest value recorded. */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Retrieves the bucket of the given value.
+     *
+     * @param value the non-negative value
+     * @return the index of its bucket
+     */
+    static int indexOf(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value)
+                - SUB_BUCKET_BITS;
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    /**
+     * Retrieves the highest value counted in the given bucket.
+     *
+     * @param index the index of the bucket
+     * @return the highest value of the bucket
+     */
+    static long highestValueOf(final int index) {
+        int shift = Math.max(0, index / HALF - 1);
+        long sub = index - (long) shift * HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    /**
+     * Counts the given duration.
+     *
+     * @param nanos the duration, in nanoseconds, negative ones counting as 0
+     */
+    void record(final long nanos) {
+        long value = Math.max(0, nanos);
+        long thread = Thread.currentThread().threadId();
+        int stripe = (int) thread & (STRIPES - 1);
+        counts.incrementAndGet(stripe * BUCKETS + indexOf(value));
+        total.add(value);
+        long highest = max.get();
+        while (value > highest && !max.compareAndSet(highest, value)) {
+            highest = max.get();
+        }
+    }
+
+    /**
+     * Retrieves the amount of durations counted.
+     *
+     * @return the amount of durations
+     */
+    long getCount() {
+        long recorded = 0;
+        for (long bucket : snapshot()) {
+            recorded += bucket;
+        }
+        return recorded;
+    }
+
+    /**
+     * Retrieves the longest duration counted.
+     *
+     * @return the duration, in nanoseconds, or 0 if there is none
+     */
+    long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Retrieves the mean of the durations counted.
+     *
+     * @return the mean, in nanoseconds, or 0 if there are none
+     */
+    double getMean() {
+        long recorded = getCount();
+        return recorded == 0 ? 0 : (double) total.sum() / recorded;
+    }
+
+    /**
+     * Retrieves the duration that the given percentage of durations
+     * counted are at most, up to the width of its bucket.
+     *
+     * @param percentile the percentage, from 0 to 100
+     * @return the duration, in nanoseconds, or 0 if there are none
+     */
+    long getValueAtPercentile(final double percentile) {
+        long[] snapshot = snapshot();
+        long recorded = 0;
+        for (long bucket : snapshot) {
+            recorded += bucket;
+        }
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Reads the amount of values counted in each bucket, over all stripes.
+     *
+     * @return the amounts, by bucket
+     */
+    private long[] snapshot() {
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < counts.length(); i++) {
+            snapshot[i % BUCKETS] += counts.get(i);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Summarizes the durations counted: their amount, the
+     * {@link #PERCENTILES} and the maximum, in nanoseconds.
+     *
+     * @return the summary, in that order, keyed by "count", "p50" and so on
+     */
+    Map<String, Long> summary() {
+        Map<String, Long> summary = new LinkedHashMap<>();
+        summary.put("count", getCount());
+        for (double percentile : PERCENTILES) {
+            summary.put(percentileName(percentile),
+                    getValueAtPercentile(percentile));
+        }
+        summary.put("max", getMax());
+        return summary;
+    }
+
+    /**
+     * Formats the summary on a single line, with durations in microseconds.
+     *
+     * @return the formatted summary
+     */
+    String report() {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Long> entry : summary().entrySet()) {
+            if (out.length() > 0) {
+                out.append(' ');
+            }
+            out.append(entry.getKey()).append('=');
+            if (entry.getKey().equals("count")) {
+                out.append(entry.getValue());
+            } else {
+                out.append(String.format(Locale.ROOT, "%.1fus",
+                        entry.getValue() / NANOS_PER_MICRO));
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Names the given percentile, as "p50" or "p99.9".
+     *
+     * @param percentile the percentile
+     * @return its name
+     */
+    private static String percentileName(final double percentile) {
+        if (percentile == Math.rint(percentile)) {
+            return "p" + (long) percentile;
+        }
+        return "p" + percentile;
+    }
+
+}
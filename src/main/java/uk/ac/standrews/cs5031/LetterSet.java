@@ -0,0 +1,221 @@
+package uk.ac.standrews.cs5031;
+
+/**
+ * A set of lower case letters.
+ * The letters a to z are kept as bits of a single {@code long},
+ * so that the sets used by most phrases take no more than a few words
+ * and are checked without boxing or hashing.
+ * Any other characters are kept in a short sorted string,
+ * which is empty unless such characters are added.
+ *
+ * The operations on sets are also given as static primitives on a mask
+ * and a string of other characters, which never change either, so that
+ * immutable values such as {@link GameState} keep their sets as fields.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+final class LetterSet {
+
+    /** The amount of letters from a to z. */
+    static final int ALPHABET_SIZE = 26;
+
+    /**
+     * The flag set in a letter mask if the phrase also has characters
+     * other than spaces and the letters a to z.
+     *
+     * @see LetterSet#maskOf(LetterSet)
+     */
+    static final long OTHERS_FLAG = 1L << 63;
+
+    /** The other characters of a set with only letters a to z. */
+    static final String NO_OTHERS = "";
+
+    /** The bits of the letters from a to z in this set. */
+    private long mask;
+
+    /** The other characters in this set, sorted. */
+    private String others = NO_OTHERS;
+
+    /**
+     * Retrieves the bit representing the given letter,
+     * if it is a letter from a to z.
+     *
+     * @param lower the lower case letter
+     * @return the bit of the letter, or 0 if it is not from a to z
+     */
+    static long bit(final char lower) {
+        if (lower < 'a' || lower > 'z') {
+            return 0;
+        }
+        return 1L << (lower - 'a');
+    }
+
+    /**
+     * Creates the set of letters to guess in the given phrase.
+     * Letters are converted to lower case and spaces are left out.
+     *
+     * @param phrase the phrase
+     * @return the letters of the phrase
+     */
+    static LetterSet of(final CharSequence phrase) {
+        LetterSet letters = new LetterSet();
+        for (int i = 0; i < phrase.length(); ++i) {
+            char c = Character.toLowerCase(phrase.charAt(i));
+            long bit = bit(c);
+            if (bit != 0) {
+                letters.mask |= bit;
+            } else if (c != ' ') {
+                letters.others = with(letters.others, c);
+            }
+        }
+        return letters;
+    }
+
+    /**
+     * Summarises the given letters as a single {@code long}:
+     * the bits of the letters a to z, plus {@link #OTHERS_FLAG}
+     * if there are any other characters.
+     * A mask without the flag describes the set completely.
+     *
+     * @param letters the letters to summarise
+     * @return the letter mask
+     */
+    static long maskOf(final LetterSet letters) {
+        if (!letters.others.isEmpty()) {
+            return letters.mask | OTHERS_FLAG;
+        }
+        return letters.mask;
+    }
+
+    /**
+     * Retrieves the bits of the letters a to z in this set.
+     *
+     * @return the bit mask of the letters a to z
+     */
+    long getMask() {
+        return mask;
+    }
+
+    /**
+     * Retrieves the other characters in this set.
+     *
+     * @return the characters, sorted
+     */
+    String getOthers() {
+        return others;
+    }
+
+    /**
+     * Retrieves the amount of letters in this set.
+     *
+     * @return the size of the set
+     */
+    int size() {
+        return size(mask, others);
+    }
+
+    /**
+     * Retrieves the amount of letters in the given set.
+     *
+     * @param mask   the bits of the letters a to z
+     * @param others the other characters, sorted
+     * @return the size of the set
+     */
+    static int size(final long mask, final String others) {
+        return Long.bitCount(mask) + others.length();
+    }
+
+    /**
+     * Tells whether the given letter is in the given set.
+     *
+     * @param mask   the bits of the letters a to z
+     * @param others the other characters, sorted
+     * @param lower  the lower case letter
+     * @return true iff the letter is in the set
+     */
+    static boolean contains(final long mask, final String others,
+                            final char lower) {
+        long bit = bit(lower);
+        if (bit != 0) {
+            return (mask & bit) != 0;
+        }
+        return others.indexOf(lower) >= 0;
+    }
+
+    /**
+     * Adds a character to a sorted string of other characters.
+     *
+     * @param others the characters, sorted
+     * @param c      the character
+     * @return the characters with c, sorted, or others if c was there
+     */
+    static String with(final String others, final char c) {
+        int i = 0;
+        while (i < others.length() && others.charAt(i) < c) {
+            i++;
+        }
+        if (i < others.length() && others.charAt(i) == c) {
+            return others;
+        }
+        return others.substring(0, i) + c + others.substring(i);
+    }
+
+    /**
+     * Removes a character from a sorted string of other characters.
+     *
+     * @param others the characters, sorted
+     * @param c      the character
+     * @return the characters without c, sorted, or others if c was not
+     *         there
+     */
+    static String without(final String others, final char c) {
+        int i = others.indexOf(c);
+        if (i < 0) {
+            return others;
+        }
+        return others.substring(0, i) + others.substring(i + 1);
+    }
+
+    /**
+     * Merges two sorted strings of other characters.
+     *
+     * @param first  the first characters, sorted
+     * @param second the second characters, sorted
+     * @return every character of either, sorted
+     */
+    static String union(final String first, final String second) {
+        String merged = first;
+        for (int i = 0; i < second.length(); i++) {
+            merged = with(merged, second.charAt(i));
+        }
+        return merged;
+    }
+
+    /**
+     * Retrieves the letter at the given position of the given set, in
+     * alphabetical order for the letters a to z followed by the other
+     * characters.
+     *
+     * @param mask   the bits of the letters a to z
+     * @param others the other characters, sorted
+     * @param index  the position of the letter, from 0 to size - 1
+     * @return the letter at that position
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    static char get(final long mask, final String others, final int index) {
+        int letters = Long.bitCount(mask);
+        if (index < 0 || index >= letters + others.length()) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        if (index >= letters) {
+            return others.charAt(index - letters);
+        }
+        long remaining = mask;
+        for (int i = 0; i < index; i++) {
+            remaining &= remaining - 1;
+        }
+        return (char) ('a' + Long.numberOfTrailingZeros(remaining));
+    }
+
+}
@@ -0,0 +1,275 @@
+package uk.ac.standrews.cs5031;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads the player's input one line at a time, as a
+ * {@link java.util.Scanner} delimited by "\n" would, but without running
+ * a regular expression on every token.
+ *
+ * Input is read into a byte buffer that is reused between lines. Lines
+ * are found by scanning for '\n', numbers are parsed straight from the
+ * buffer, and only lines returned as text are decoded, as UTF-8.
+ * Every line is a token, including empty ones. The last line does not
+ * need a line terminator. A failure to read counts as the end of input.
+ *
+ * Readers of untrusted input, such as network connections, may limit the
+ * length of lines, so that a line without an end cannot grow the buffer
+ * without limit. A line longer than the limit also counts as the end of
+ * input, so the player is disconnected.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public final class LineReader {
+
+    /** The initial size of the buffer, in bytes. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** The length of lines allowed by default, which is unlimited. */
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+
+    /** The value of {@link #lineEnd()} when no line remains. */
+    private static final int NO_LINE = -1;
+
+    /** The stream read from, or null if all input is in the buffer. */
+    private final InputStream in;
+
+    /** Whether a '\r' before the '\n' is dropped from each line. */
+    private final boolean trimCarriageReturn;
+
+    /** The longest line accepted, in bytes, without its terminator. */
+    private final int maxLineLength;
+
+    /** The bytes read but not consumed yet, from position to limit. */
+    private byte[] buffer;
+
+    /** Where the next line starts in the buffer. */
+    private int position;
+
+    /** Where the bytes read end in the buffer. */
+    private int limit;
+
+    /** How far the buffer has been scanned for the end of the next line. */
+    private int scanned;
+
+    /** Whether the stream has ended. */
+    private boolean ended;
+
+    /**
+     * Creates a reader of the given stream, whose lines end in "\n".
+     *
+     * @param in the stream to read
+     */
+    public LineReader(final InputStream in) {
+        this(in, false);
+    }
+
+    /**
+     * Creates a reader of the given stream.
+     *
+     * @param in                 the stream to read
+     * @param trimCarriageReturn whether lines may also end in "\r\n"
+     */
+    public LineReader(final InputStream in,
+                      final boolean trimCarriageReturn) {
+        this(in, trimCarriageReturn, UNLIMITED);
+    }
+
+    /**
+     * Creates a reader of the given stream, whose input ends at the
+     * first line longer than the given length.
+     *
+     * @param in                 the stream to read
+     * @param trimCarriageReturn whether lines may also end in "\r\n"
+     * @param maxLineLength      the longest line accepted, in bytes,
+     *                           without its terminator
+     */
+    public LineReader(final InputStream in,
+                      final boolean trimCarriageReturn,
+                      final int maxLineLength) {
+        this.in = in;
+        this.trimCarriageReturn = trimCarriageReturn;
+        this.maxLineLength = maxLineLength;
+        buffer = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Creates a reader of the given text, whose lines end in "\n".
+     *
+     * @param text the text to read
+     */
+    public LineReader(final String text) {
+        in = null;
+        trimCarriageReturn = false;
+        maxLineLength = UNLIMITED;
+        buffer = text.getBytes(UTF_8);
+        limit = buffer.length;
+        ended = true;
+    }
+
+    /**
+     * Reads the next line.
+     *
+     * @return the line, without its line terminator
+     * @throws NoSuchElementException on end of input
+     */
+    public String next() throws NoSuchElementException {
+        int end = lineEnd();
+        if (end == NO_LINE) {
+            throw new NoSuchElementException();
+        }
+        String line = new String(buffer, position, trimmed(end) - position,
+                UTF_8);
+        consume(end);
+        return line;
+    }
+
+    /**
+     * Reads the next line as a decimal int, with an optional sign.
+     * If the line is not such a number, it is not consumed, so that
+     * it can be read with {@link #next()}.
+     *
+     * @return the number
+     * @throws InputMismatchException if the line is not an int
+     * @throws NoSuchElementException on end of input
+     */
+    public int nextInt()
+            throws InputMismatchException, NoSuchElementException {
+        int end = lineEnd();
+        if (end == NO_LINE) {
+            throw new NoSuchElementException();
+        }
+        int i = position;
+        int last = trimmed(end);
+        boolean negative = false;
+        if (i < last && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            i++;
+        }
+        if (i == last) {
+            throw new InputMismatchException();
+        }
+        long value = 0;
+        for (; i < last; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new InputMismatchException();
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw new InputMismatchException();
+            }
+        }
+        if (negative) {
+            value = -value;
+        }
+        if (value > Integer.MAX_VALUE) {
+            throw new InputMismatchException();
+        }
+        consume(end);
+        return (int) value;
+    }
+
+    /**
+     * Finds the end of the next line, reading more input as needed.
+     *
+     * @return the index of its '\n', {@link #limit} if the input ends
+     *         without one, or {@link #NO_LINE} if there is no next line
+     *         or it is longer than {@link #maxLineLength}
+     */
+    private int lineEnd() {
+        while (true) {
+            for (; scanned < limit; scanned++) {
+                if (buffer[scanned] == '\n') {
+                    return isTooLong(scanned) ? NO_LINE : scanned;
+                }
+            }
+            if (isTooLong(limit) || !fill()) {
+                return position < limit ? limit : NO_LINE;
+            }
+        }
+    }
+
+    /**
+     * Tells whether the line up to the given index is longer than
+     * {@link #maxLineLength}, in which case the rest of the input is
+     * dropped.
+     *
+     * @param end the end of the line, or of the bytes read so far
+     * @return true iff the line is too long
+     */
+    private boolean isTooLong(final int end) {
+        if (trimmed(end) - position <= maxLineLength) {
+            return false;
+        }
+        ended = true;
+        position = limit;
+        scanned = limit;
+        return true;
+    }
+
+    /**
+     * Finds where the text of the line ending at the given index ends.
+     *
+     * @param end the end of the line
+     * @return the end of the line without any carriage return
+     */
+    private int trimmed(final int end) {
+        if (trimCarriageReturn && end > position && buffer[end - 1] == '\r') {
+            return end - 1;
+        }
+        return end;
+    }
+
+    /**
+     * Moves past the line ending at the given index.
+     *
+     * @param end the end of the line
+     */
+    private void consume(final int end) {
+        position = Math.min(end + 1, limit);
+        scanned = position;
+    }
+
+    /**
+     * Reads more input after the bytes not consumed yet, moving them to
+     * the start of the buffer, or into a larger one if it is full.
+     *
+     * @return false iff there is no more input
+     */
+    private boolean fill() {
+        if (ended) {
+            return false;
+        }
+        int remaining = limit - position;
+        if (remaining == buffer.length) {
+            byte[] larger = new byte[buffer.length * 2];
+            System.arraycopy(buffer, position, larger, 0, remaining);
+            buffer = larger;
+        } else if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+        }
+        scanned -= position;
+        position = 0;
+        limit = remaining;
+        int read;
+        try {
+            read = in.read(buffer, limit, buffer.length - limit);
+        } catch (IOException e) {
+            read = -1;
+        }
+        if (read < 0) {
+            ended = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+}
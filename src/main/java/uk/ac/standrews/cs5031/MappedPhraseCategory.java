@@ -0,0 +1,221 @@
+package uk.ac.standrews.cs5031;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A {@link PhraseCategory} backed by a memory-mapped text file with one
+ * phrase per line. Loading only builds an index of where each line starts,
+ * so the heap holds four bytes per phrase instead of the phrases
+ * themselves. A phrase is only decoded into a {@link String} once it is
+ * actually chosen, and its metadata is computed from the mapped bytes.
+ * The difficulty of the phrases is only rated, in parallel, when it is
+ * first needed: by {@link Phrases} as it loads the phrases, if phrases of
+ * a given difficulty are to be picked, and never otherwise. The ranking
+ * then adds another four bytes per phrase.
+ *
+ * Lines are trimmed, as in {@link Phrases#loadCustom()}, and blank lines
+ * are skipped. Duplicate lines are kept, since finding them would mean
+ * holding every phrase in memory.
+ *
+ * @author 150009974
+ * @version 1.2
+ */
+final class MappedPhraseCategory implements PhraseCategory {
+
+    /** The average line length assumed when sizing the index. */
+    private static final int ESTIMATED_LINE_LENGTH = 16;
+
+    /** The name of the category. */
+    private final String name;
+
+    /** The contents of the file. */
+    private final MappedByteBuffer bytes;
+
+    /** The offset of the first non-blank byte of each phrase. */
+    private final int[] starts;
+
+    /** The phrases bucketed by difficulty, or null until first needed. */
+    private volatile Difficulties difficulties;
+
+    /**
+     * Maps a file and indexes its lines.
+     *
+     * @param name   the name of the category
+     * @param source the file with one phrase per line
+     * @return the category
+     * @throws FileNotFoundException if the file has no phrases
+     * @throws IOException           if the file cannot be mapped
+     */
+    static MappedPhraseCategory open(final String name, final Path source)
+            throws IOException {
+        MappedByteBuffer bytes;
+        try (FileChannel channel = FileChannel.open(source,
+                StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(source + " is too large to be mapped.");
+            }
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY,
+                    0, channel.size());
+        }
+        int[] starts = index(bytes);
+        if (starts.length == 0) {
+            throw new FileNotFoundException("The phrase source was empty.");
+        }
+        return new MappedPhraseCategory(name, bytes, starts);
+    }
+
+    /**
+     * Finds the start of every non-blank line.
+     *
+     * @param bytes the contents of the file
+     * @return the offset of the first non-blank byte of each non-blank line
+     */
+    private static int[] index(final MappedByteBuffer bytes) {
+        int limit = bytes.limit();
+        int[] starts = new int[Math.max(1, limit / ESTIMATED_LINE_LENGTH)];
+        int count = 0;
+        int i = 0;
+        while (i < limit) {
+            while (i < limit && isBlank(bytes.get(i))) {
+                i++;
+            }
+            if (i == limit) {
+                break;
+            }
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count + (count >> 1) + 1);
+            }
+            starts[count++] = i;
+            while (i < limit && bytes.get(i) != '\n') {
+                i++;
+            }
+        }
+        return Arrays.copyOf(starts, count);
+    }
+
+    /**
+     * Tells whether a byte is blank, as per {@link String#trim()}.
+     * Bytes of multi-byte UTF-8 characters are never blank.
+     *
+     * @param b the byte
+     * @return true iff the byte is a space or a control character
+     */
+    private static boolean isBlank(final byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    /**
+     * Creates a category over an indexed file.
+     *
+     * @param name   the name of the category
+     * @param bytes  the contents of the file
+     * @param starts the offset of each phrase
+     */
+    private MappedPhraseCategory(final String name,
+                                 final MappedByteBuffer bytes,
+                                 final int[] starts) {
+        this.name = name;
+        this.bytes = bytes;
+        this.starts = starts;
+    }
+
+    /**
+     * Finds the end of the phrase at the given index,
+     * excluding trailing blanks and the line terminator.
+     *
+     * @param index the index of the phrase
+     * @return the offset just past the last byte of the phrase
+     */
+    private int end(final int index) {
+        int start = starts[index];
+        int end = start;
+        int limit = bytes.limit();
+        while (end < limit && bytes.get(end) != '\n') {
+            end++;
+        }
+        while (end > start && isBlank(bytes.get(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int size() {
+        return starts.length;
+    }
+
+    @Override
+    public String getPhrase(final int index) {
+        int start = starts[index];
+        byte[] phrase = new byte[end(index) - start];
+        bytes.get(start, phrase);
+        return new String(phrase, UTF_8);
+    }
+
+    @Override
+    public long getLetterMask(final int index) {
+        long mask = 0;
+        for (int i = starts[index], end = end(index); i < end; i++) {
+            byte b = bytes.get(i);
+            if (b >= 'A' && b <= 'Z') {
+                mask |= LetterSet.bit((char) (b - 'A' + 'a'));
+            } else if (b >= 'a' && b <= 'z') {
+                mask |= LetterSet.bit((char) b);
+            } else if (b != ' ') {
+                mask |= LetterSet.OTHERS_FLAG;
+            }
+        }
+        return mask;
+    }
+
+    @Override
+    public int getLength(final int index) {
+        int start = starts[index];
+        int end = end(index);
+        for (int i = start; i < end; i++) {
+            if (bytes.get(i) < 0) {
+                return getPhrase(index).length();
+            }
+        }
+        return end - start;
+    }
+
+    @Override
+    public int getDistinctLetters(final int index) {
+        long mask = getLetterMask(index);
+        if ((mask & LetterSet.OTHERS_FLAG) == 0) {
+            return Long.bitCount(mask);
+        }
+        return LetterSet.of(getPhrase(index)).size();
+    }
+
+    @Override
+    public Difficulties getDifficulties() {
+        Difficulties rated = difficulties;
+        if (rated == null) {
+            // Rating decodes every phrase once, so it is only done once.
+            synchronized (this) {
+                rated = difficulties;
+                if (rated == null) {
+                    rated = Difficulties.rate(this);
+                    difficulties = rated;
+                }
+            }
+        }
+        return rated;
+    }
+
+}
@@ -5,7 +5,7 @@ package uk.ac.standrews.cs5031;
  * the options for a single execution of the system.
  *
  * @author Edwin Brady, 150009974
- * @version 3.3
+ * @version 3.16
  */
 public final class OptionsParser {
 
@@ -21,18 +21,122 @@ public final class OptionsParser {
      */
     public static final String MAX_HINTS_OPTION = "--max-hints";
 
+    /**
+     * The command line option used to serve games over TCP on a port
+     * instead of playing on the console.
+     */
+    public static final String PORT_OPTION = "--port";
+
+    /**
+     * The command line option used to choose the engine of the server,
+     * {@link #SELECTOR_ENGINE}, {@link #VIRTUAL_THREAD_ENGINE}
+     * or {@link #HTTP_ENGINE}.
+     */
+    public static final String ENGINE_OPTION = "--engine";
+
+    /**
+     * The command line option used to load the phrase source through
+     * a binary index, compiled next to it whenever it is missing or stale.
+     */
+    public static final String PHRASE_INDEX_OPTION = "--phrase-index";
+
+    /**
+     * The command line option used to reload the phrase source
+     * whenever it changes, without restarting.
+     */
+    public static final String WATCH_OPTION = "--watch";
+
+    /**
+     * The command line option used to seed the choice of phrases and hints,
+     * so that games can be replayed.
+     */
+    public static final String SEED_OPTION = "--seed";
+
+    /**
+     * The command line option used to simulate the given amount of games
+     * per category instead of playing, see {@link Simulator}.
+     */
+    public static final String SIMULATE_OPTION = "--simulate";
+
+    /**
+     * The command line option used to pick only phrases of the given
+     * {@link Difficulty}, by its option name.
+     */
+    public static final String DIFFICULTY_OPTION = "--difficulty";
+
+    /**
+     * The command line option used to replay the transcripts in the first
+     * given file into the second instead of playing, see {@link BatchReplay}.
+     */
+    public static final String BATCH_OPTION = "--batch";
+
+    /**
+     * The command line option used to write the console output on a thread
+     * of its own, so that playing never waits for slow pipes or logs.
+     */
+    public static final String ASYNC_OUTPUT_OPTION = "--async-output";
+
+    /**
+     * The command line option used to save the games served in the given
+     * directory, so that they survive a restart, see {@link SessionJournal}.
+     */
+    public static final String JOURNAL_OPTION = "--journal";
+
+    /**
+     * The command line option used to give the amount of seconds after
+     * which an idle game served is parked outside the heap, or
+     * {@link #NO_PARKING} not to park games, see {@link SessionArena}.
+     */
+    public static final String PARK_AFTER_OPTION = "--park-after";
+
+    /**
+     * The command line option used to print the {@link EngineMetrics} to
+     * standard error every given amount of seconds.
+     */
+    public static final String METRICS_OPTION = "--metrics";
+
+    /** The engine serving all connections from a single selector loop. */
+    public static final String SELECTOR_ENGINE = "selector";
+
+    /** The engine serving each connection on its own virtual thread. */
+    public static final String VIRTUAL_THREAD_ENGINE = "virtual";
+
+    /** The engine serving games as a JSON API over HTTP. */
+    public static final String HTTP_ENGINE = "http";
+
     /** The default amount of lives the player starts with. */
     public static final int DEFAULT_LIVES = 10;
 
     /** The default amount of hints the player starts with. */
     public static final int DEFAULT_MAX_HINTS = 2;
 
+    /** The default amount of idle seconds before a game is parked. */
+    public static final int DEFAULT_PARK_AFTER = 60;
+
+    /** The amount of idle seconds meaning that games are never parked. */
+    public static final int NO_PARKING = 0;
+
+    /** The period meaning that the metrics are never printed. */
+    public static final int NO_METRICS = 0;
+
     /**
      * The no name of file from which to choose phrases.
      * The system should use the built-in options.
      */
     public static final String NO_PHRASE_SOURCE = "";
 
+    /** The file name meaning that no transcripts are replayed. */
+    public static final String NO_BATCH = "";
+
+    /** The directory name meaning that games are not saved. */
+    public static final String NO_JOURNAL = "";
+
+    /** The port value meaning that games are played on the console. */
+    public static final int NO_PORT = -1;
+
+    /** The amount of simulated games meaning that games are played. */
+    public static final int NO_SIMULATION = -1;
+
     /** The message of the exception when the amount of lives is invalid. */
     public static final String INVALID_LIVES =
             "The amount of lives must be a positive number.";
@@ -41,6 +145,34 @@ public final class OptionsParser {
     public static final String INVALID_HINTS =
             "The amount of lives must be a non-negative number.";
 
+    /** The message of the exception when the port is invalid. */
+    public static final String INVALID_PORT =
+            "The port must be a number between 0 and 65535.";
+
+    /** The message of the exception when the amount of games is invalid. */
+    public static final String INVALID_SIMULATION =
+            "The amount of simulated games must be a positive number.";
+
+    /** The message of the exception when the idle time is invalid. */
+    public static final String INVALID_PARK_AFTER =
+            "The idle time before parking must be a non-negative number.";
+
+    /** The message of the exception when the metrics period is invalid. */
+    public static final String INVALID_METRICS =
+            "The period of the metrics must be a non-negative number.";
+
+    /** The message of the exception when the engine is not recognized. */
+    public static final String INVALID_ENGINE = "The engine must be either "
+            + SELECTOR_ENGINE + ", " + VIRTUAL_THREAD_ENGINE + " or "
+            + HTTP_ENGINE + ".";
+
+    /** The message of the exception when the difficulty is not recognized. */
+    public static final String INVALID_DIFFICULTY =
+            "The difficulty must be easy, medium, hard or any.";
+
+    /** The highest valid port number. */
+    private static final int MAX_PORT = 65535;
+
     /** The amount of lives the player starts with. */
     private static int lives;
 
@@ -50,6 +182,52 @@ public final class OptionsParser {
     /** The name of the file from which to choose phrases. */
     private static String phraseSource;
 
+    /** The port to serve games on, or {@link #NO_PORT}. */
+    private static int port;
+
+    /** The directory the games served are saved in, if any. */
+    private static String journalDirectory;
+
+    /** The engine of the server. */
+    private static String engine;
+
+    /** The amount of idle seconds after which a game is parked. */
+    private static int parkAfter;
+
+    /** The amount of seconds between two prints of the metrics. */
+    private static int metricsPeriod;
+
+    /** Whether the phrase source is loaded through its binary index. */
+    private static boolean phraseIndexed;
+
+    /** Whether the phrase source is reloaded whenever it changes. */
+    private static boolean watched;
+
+    /** Whether the console output is written on a thread of its own. */
+    private static boolean asyncOutput;
+
+    /** The amount of games to simulate per category, if any. */
+    private static int simulatedGames;
+
+    /** The name of the file with the transcripts to replay, if any. */
+    private static String batchTranscripts;
+
+    /** The name of the file to write the replayed output to. */
+    private static String batchOutput;
+
+    /**
+     * The difficulty of the phrases, or null if not recognized.
+     * It is ANY until options are parsed, so that phrases can be picked
+     * without parsing any.
+     */
+    private static Difficulty difficulty = Difficulty.ANY;
+
+    /** Whether a seed has been given. */
+    private static boolean seeded;
+
+    /** The seed of the choice of phrases and hints, if {@link #seeded}. */
+    private static long seed;
+
     /**
      * Retrieves the starting amount of lives the player has.
      *
@@ -77,6 +255,190 @@ public final class OptionsParser {
         return phraseSource;
     }
 
+    /**
+     * Retrieves the port to serve games on.
+     *
+     * @return the port, or {@link #NO_PORT} if playing on the console
+     */
+    public static int getPort() {
+        return port;
+    }
+
+    /**
+     * Retrieves the name of the engine to serve games with.
+     *
+     * @return the engine name
+     */
+    public static String getEngine() {
+        return engine;
+    }
+
+    /**
+     * Retrieves the directory the games served are saved in.
+     *
+     * @return the directory name, or {@link #NO_JOURNAL}
+     */
+    public static String getJournalDirectory() {
+        return journalDirectory;
+    }
+
+    /**
+     * Returns true if the games served should be saved in a journal.
+     *
+     * @return true iff the journal option has been used
+     */
+    public static boolean isJournaled() {
+        return !journalDirectory.equals(NO_JOURNAL);
+    }
+
+    /**
+     * Retrieves the amount of seconds after which an idle game served
+     * is parked outside the heap.
+     *
+     * @return the idle seconds, or {@link #NO_PARKING}
+     */
+    public static int getParkAfter() {
+        return parkAfter;
+    }
+
+    /**
+     * Returns true if idle games served should be parked outside the heap.
+     *
+     * @return true iff parking has not been turned off
+     */
+    public static boolean isParking() {
+        return parkAfter != NO_PARKING;
+    }
+
+    /**
+     * Retrieves the amount of seconds between two prints of the metrics.
+     *
+     * @return the period, or {@link #NO_METRICS}
+     */
+    public static int getMetricsPeriod() {
+        return metricsPeriod;
+    }
+
+    /**
+     * Returns true if the metrics should be printed periodically.
+     *
+     * @return true iff the metrics option has been used with a period
+     */
+    public static boolean isDumpingMetrics() {
+        return metricsPeriod != NO_METRICS;
+    }
+
+    /**
+     * Returns true if the phrase source should be loaded through its
+     * binary index.
+     *
+     * @return true iff the phrase index option has been used
+     */
+    public static boolean isPhraseIndexed() {
+        return phraseIndexed;
+    }
+
+    /**
+     * Returns true if the phrase source should be reloaded whenever
+     * it changes.
+     *
+     * @return true iff the watch option has been used
+     */
+    public static boolean isWatched() {
+        return watched;
+    }
+
+    /**
+     * Returns true if the console output should be written on a thread
+     * of its own.
+     *
+     * @return true iff the async output option has been used
+     */
+    public static boolean isAsyncOutput() {
+        return asyncOutput;
+    }
+
+    /**
+     * Returns true if phrases and hints should be chosen from a seed.
+     *
+     * @return true iff the seed option has been used
+     */
+    public static boolean isSeeded() {
+        return seeded;
+    }
+
+    /**
+     * Retrieves the seed of the choice of phrases and hints.
+     *
+     * @return the seed, only meaningful if {@link #isSeeded()}
+     */
+    public static long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Retrieves the difficulty of the phrases to pick.
+     *
+     * @return the difficulty, {@link Difficulty#ANY} by default
+     */
+    public static Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Retrieves the amount of games to simulate in each category.
+     *
+     * @return the amount of games, or {@link #NO_SIMULATION}
+     */
+    public static int getSimulatedGames() {
+        return simulatedGames;
+    }
+
+    /**
+     * Returns true if games should be simulated instead of played.
+     *
+     * @return true iff the simulate option has been used
+     */
+    public static boolean isSimulation() {
+        return simulatedGames != NO_SIMULATION;
+    }
+
+    /**
+     * Retrieves the name of the file with the transcripts to replay.
+     *
+     * @return the file name, or {@link #NO_BATCH}
+     */
+    public static String getBatchTranscripts() {
+        return batchTranscripts;
+    }
+
+    /**
+     * Retrieves the name of the file to write the replayed output to.
+     *
+     * @return the file name, only meaningful if {@link #isBatch()}
+     */
+    public static String getBatchOutput() {
+        return batchOutput;
+    }
+
+    /**
+     * Returns true if transcripts should be replayed instead of played.
+     *
+     * @return true iff the batch option has been used
+     */
+    public static boolean isBatch() {
+        return !batchTranscripts.equals(NO_BATCH);
+    }
+
+    /**
+     * Returns true if games should be served over TCP.
+     *
+     * @return true iff a port has been set
+     */
+    public static boolean isServerMode() {
+        return port != NO_PORT;
+    }
+
     /**
      * Returns true if the phrase source has been set.
      *
@@ -92,6 +454,8 @@ public final class OptionsParser {
      * @param args the command line arguments provided upon execution
      * @throws NumberFormatException if the amount of lives is not positive
      *                               or if the amount of hints is negative
+     * @throws IllegalArgumentException if the engine or the difficulty
+     *                                  is not recognized
      */
     public static void parseAndValidate(final String[] args)
             throws NumberFormatException {
@@ -108,6 +472,20 @@ public final class OptionsParser {
         lives = DEFAULT_LIVES;
         maxHints = DEFAULT_MAX_HINTS;
         phraseSource = NO_PHRASE_SOURCE;
+        port = NO_PORT;
+        engine = SELECTOR_ENGINE;
+        journalDirectory = NO_JOURNAL;
+        parkAfter = DEFAULT_PARK_AFTER;
+        metricsPeriod = NO_METRICS;
+        phraseIndexed = false;
+        watched = false;
+        asyncOutput = false;
+        seeded = false;
+        seed = 0;
+        simulatedGames = NO_SIMULATION;
+        difficulty = Difficulty.ANY;
+        batchTranscripts = NO_BATCH;
+        batchOutput = NO_BATCH;
     }
 
     /**
@@ -123,6 +501,41 @@ public final class OptionsParser {
             } else if (args[i].equals(MAX_HINTS_OPTION)) {
                 maxHints = Integer.parseInt(args[i + 1]);
                 i++;
+            } else if (args[i].equals(PORT_OPTION)) {
+                port = Integer.parseInt(args[i + 1]);
+                i++;
+            } else if (args[i].equals(ENGINE_OPTION)) {
+                engine = args[i + 1];
+                i++;
+            } else if (args[i].equals(JOURNAL_OPTION)) {
+                journalDirectory = args[i + 1];
+                i++;
+            } else if (args[i].equals(PARK_AFTER_OPTION)) {
+                parkAfter = Integer.parseInt(args[i + 1]);
+                i++;
+            } else if (args[i].equals(METRICS_OPTION)) {
+                metricsPeriod = Integer.parseInt(args[i + 1]);
+                i++;
+            } else if (args[i].equals(PHRASE_INDEX_OPTION)) {
+                phraseIndexed = true;
+            } else if (args[i].equals(SIMULATE_OPTION)) {
+                simulatedGames = Integer.parseInt(args[i + 1]);
+                i++;
+            } else if (args[i].equals(SEED_OPTION)) {
+                seed = Long.parseLong(args[i + 1]);
+                seeded = true;
+                i++;
+            } else if (args[i].equals(WATCH_OPTION)) {
+                watched = true;
+            } else if (args[i].equals(ASYNC_OUTPUT_OPTION)) {
+                asyncOutput = true;
+            } else if (args[i].equals(BATCH_OPTION)) {
+                batchTranscripts = args[i + 1];
+                batchOutput = args[i + 2];
+                i += 2;
+            } else if (args[i].equals(DIFFICULTY_OPTION)) {
+                difficulty = parseDifficulty(args[i + 1]);
+                i++;
             } else {
                 phraseSource = args[i];
             }
@@ -134,6 +547,12 @@ public final class OptionsParser {
      *
      * @throws NumberFormatException if the amount of lives is not positive
      * @throws NumberFormatException if the amount of hints is negative
+     * @throws NumberFormatException if the port is out of range
+     * @throws NumberFormatException if the amount of games is not positive
+     * @throws NumberFormatException if the idle time is negative
+     * @throws NumberFormatException if the metrics period is negative
+     * @throws IllegalArgumentException if the engine is not recognized
+     * @throws IllegalArgumentException if the difficulty is not recognized
      */
     private static void validateOptions() throws NumberFormatException {
         if (lives < 1) {
@@ -142,6 +561,41 @@ public final class OptionsParser {
         if (maxHints < 0) {
             throw new NumberFormatException(INVALID_HINTS);
         }
+        if (simulatedGames != NO_SIMULATION && simulatedGames < 1) {
+            throw new NumberFormatException(INVALID_SIMULATION);
+        }
+        if (parkAfter < 0) {
+            throw new NumberFormatException(INVALID_PARK_AFTER);
+        }
+        if (metricsPeriod < 0) {
+            throw new NumberFormatException(INVALID_METRICS);
+        }
+        if (port != NO_PORT && (port < 0 || port > MAX_PORT)) {
+            throw new NumberFormatException(INVALID_PORT);
+        }
+        if (!engine.equals(SELECTOR_ENGINE)
+                && !engine.equals(VIRTUAL_THREAD_ENGINE)
+                && !engine.equals(HTTP_ENGINE)) {
+            throw new IllegalArgumentException(INVALID_ENGINE);
+        }
+        if (difficulty == null) {
+            throw new IllegalArgumentException(INVALID_DIFFICULTY);
+        }
+    }
+
+    /**
+     * Finds the difficulty with the given option name.
+     *
+     * @param name the option name of a difficulty
+     * @return the difficulty, or null if there is none with that name
+     */
+    private static Difficulty parseDifficulty(final String name) {
+        for (Difficulty candidate : Difficulty.values()) {
+            if (candidate.getOptionName().equals(name)) {
+                return candidate;
+            }
+        }
+        return null;
     }
 
     /** Hides the constructor for this utility class. */
@@ -0,0 +1,72 @@
+package uk.ac.standrews.cs5031;
+
+/**
+ * A named category of phrases, indexed from 0 to {@link #size()} - 1.
+ * Besides the phrases themselves, a category provides metadata about each
+ * phrase that is cheap to retrieve, so that choosing and setting up games
+ * never needs to scan whole phrases as strings.
+ * It is either computed when the category is loaded,
+ * or, for very large categories, from the raw phrase on demand.
+ *
+ * @author 150009974
+ * @version 1.3
+ */
+interface PhraseCategory {
+
+    /**
+     * Retrieves the name of this category, as shown in the menu.
+     *
+     * @return the category name
+     */
+    String getName();
+
+    /**
+     * Retrieves the amount of phrases in this category.
+     *
+     * @return the amount of phrases
+     */
+    int size();
+
+    /**
+     * Retrieves the phrase at the given index.
+     *
+     * @param index the index of the phrase
+     * @return the phrase
+     */
+    String getPhrase(int index);
+
+    /**
+     * Retrieves the letters of the phrase at the given index,
+     * as computed by {@link LetterSet#maskOf(LetterSet)}.
+     *
+     * @param index the index of the phrase
+     * @return the letter mask of the phrase
+     */
+    long getLetterMask(int index);
+
+    /**
+     * Retrieves the length of the phrase at the given index.
+     *
+     * @param index the index of the phrase
+     * @return the amount of characters in the phrase
+     */
+    int getLength(int index);
+
+    /**
+     * Retrieves the amount of distinct letters to guess in the phrase
+     * at the given index.
+     *
+     * @param index the index of the phrase
+     * @return the amount of distinct letters, spaces excluded
+     */
+    int getDistinctLetters(int index);
+
+    /**
+     * Retrieves the phrases of this category bucketed by difficulty,
+     * as rated when the category was loaded, or when first needed.
+     *
+     * @return the difficulty buckets
+     */
+    Difficulties getDifficulties();
+
+}
@@ -0,0 +1,320 @@
+package uk.ac.standrews.cs5031;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashSet;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A {@link PhraseCategory} loaded from a binary index compiled from a text
+ * file with one phrase per line. The index holds the deduplicated phrases
+ * as UTF-8 together with their offsets, metadata and difficulty ranking,
+ * so loading it is a matter of mapping the file and checking its header.
+ *
+ * The index records the size and modification time of the text file it was
+ * compiled from, and is compiled again whenever they no longer match.
+ *
+ * <pre>
+ * header    magic, version, source size, source mtime, count, padding
+ * masks     count longs, the letter mask of each phrase
+ * offsets   count + 1 ints, where each phrase starts in the text block
+ * lengths   count ints, the amount of characters of each phrase
+ * distinct  count ints, the amount of distinct letters of each phrase
+ * ranked    count ints, the phrases from the easiest to the hardest
+ * text      the phrases, as UTF-8
+ * </pre>
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+final class PhraseIndex implements PhraseCategory {
+
+    /** The extension added to the name of the source to name its index. */
+    static final String EXTENSION = ".idx";
+
+    /** Identifies a file as a phrase index: "HGIX". */
+    static final int MAGIC = 0x48474958;
+
+    /** The version of the format written by this class. */
+    static final int VERSION = 2;
+
+    /** The size of the header, chosen to keep the masks 8-byte aligned. */
+    private static final int HEADER_SIZE = 32;
+
+    /** The position of the version in the header. */
+    private static final int VERSION_POSITION = 4;
+
+    /** The position of the size of the source in the header. */
+    private static final int SIZE_POSITION = 8;
+
+    /** The position of the modification time of the source in the header. */
+    private static final int MTIME_POSITION = 16;
+
+    /** The position of the amount of phrases in the header. */
+    private static final int COUNT_POSITION = 24;
+
+    /** The name of the category. */
+    private final String name;
+
+    /** The contents of the index. */
+    private final MappedByteBuffer bytes;
+
+    /** The amount of phrases. */
+    private final int count;
+
+    /** Where the offsets table starts. */
+    private final int offsets;
+
+    /** Where the lengths table starts. */
+    private final int lengths;
+
+    /** Where the distinct letters table starts. */
+    private final int distinct;
+
+    /** Where the text block starts. */
+    private final int text;
+
+    /** The phrases bucketed by difficulty, backed by the ranked table. */
+    private final Difficulties difficulties;
+
+    /**
+     * Retrieves the path of the index of the given source.
+     *
+     * @param source the phrase source file
+     * @return the path of its index
+     */
+    static Path indexOf(final Path source) {
+        return source.resolveSibling(source.getFileName() + EXTENSION);
+    }
+
+    /**
+     * Loads the index of the given source,
+     * compiling it first if it is missing or stale.
+     *
+     * @param name   the name of the category
+     * @param source the phrase source file
+     * @return the category
+     * @throws FileNotFoundException if the source has no phrases
+     * @throws IOException           if the source or index cannot be accessed
+     */
+    static PhraseIndex load(final String name, final Path source)
+            throws IOException {
+        Path index = indexOf(source);
+        PhraseIndex loaded = open(name, source, index);
+        if (loaded != null) {
+            return loaded;
+        }
+        compile(source, index);
+        loaded = open(name, source, index);
+        if (loaded == null) {
+            throw new IOException(source + " changed while being indexed.");
+        }
+        return loaded;
+    }
+
+    /**
+     * Maps the given index if it is valid and up to date with its source.
+     *
+     * @param name   the name of the category
+     * @param source the phrase source file
+     * @param index  the index file
+     * @return the category, or null if the index must be compiled
+     * @throws IOException if the source cannot be accessed
+     */
+    private static PhraseIndex open(final String name, final Path source,
+                                    final Path index) throws IOException {
+        long size = Files.size(source);
+        long mtime = Files.getLastModifiedTime(source).toMillis();
+        if (!Files.isRegularFile(index)) {
+            return null;
+        }
+        MappedByteBuffer bytes;
+        try (FileChannel channel = FileChannel.open(index,
+                StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+                return null;
+            }
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        }
+        if (bytes.getInt(0) != MAGIC
+                || bytes.getInt(VERSION_POSITION) != VERSION
+                || bytes.getLong(SIZE_POSITION) != size
+                || bytes.getLong(MTIME_POSITION) != mtime) {
+            return null;
+        }
+        int count = bytes.getInt(COUNT_POSITION);
+        long tables = HEADER_SIZE + Integer.BYTES
+                + (long) count * (Long.BYTES + 4 * Integer.BYTES);
+        if (count <= 0 || tables > bytes.limit()) {
+            return null;
+        }
+        PhraseIndex loaded = new PhraseIndex(name, bytes, count);
+        if (loaded.text + loaded.offset(count) != bytes.limit()) {
+            return null;
+        }
+        return loaded;
+    }
+
+    /**
+     * Compiles the index of the given source.
+     * The index is written next to it and then moved into place,
+     * so that a partly written index is never loaded.
+     *
+     * @param source the phrase source file
+     * @param index  the index file
+     * @throws FileNotFoundException if the source has no phrases
+     * @throws IOException           if the source or index cannot be accessed
+     */
+    static void compile(final Path source, final Path index)
+            throws IOException {
+        long size = Files.size(source);
+        long mtime = Files.getLastModifiedTime(source).toMillis();
+        LinkedHashSet<String> unique = new LinkedHashSet<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                Files.newInputStream(source), UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String phrase = line.trim();
+                if (!phrase.isEmpty()) {
+                    unique.add(phrase);
+                }
+            }
+        }
+        if (unique.isEmpty()) {
+            throw new FileNotFoundException("The phrase source was empty.");
+        }
+        String[] phrases = unique.toArray(new String[0]);
+        PhraseCategory rated = new ArrayPhraseCategory("", phrases);
+        byte[][] encoded = new byte[phrases.length][];
+        for (int i = 0; i < phrases.length; i++) {
+            encoded[i] = phrases[i].getBytes(UTF_8);
+        }
+        Path temporary = Files.createTempFile(index.toAbsolutePath()
+                .getParent(), index.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(
+                            Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(size);
+                out.writeLong(mtime);
+                out.writeInt(phrases.length);
+                out.writeInt(0);
+                for (int i = 0; i < phrases.length; i++) {
+                    out.writeLong(rated.getLetterMask(i));
+                }
+                int offset = 0;
+                out.writeInt(offset);
+                for (byte[] phrase : encoded) {
+                    offset += phrase.length;
+                    out.writeInt(offset);
+                }
+                for (int i = 0; i < phrases.length; i++) {
+                    out.writeInt(rated.getLength(i));
+                }
+                for (int i = 0; i < phrases.length; i++) {
+                    out.writeInt(rated.getDistinctLetters(i));
+                }
+                Difficulties difficulties = rated.getDifficulties();
+                for (Difficulty difficulty : Difficulties.RANKED) {
+                    IntBuffer bucket = difficulties.get(difficulty);
+                    while (bucket.hasRemaining()) {
+                        out.writeInt(bucket.get());
+                    }
+                }
+                for (byte[] phrase : encoded) {
+                    out.write(phrase);
+                }
+            }
+            Files.move(temporary, index, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Creates a category over a mapped index whose header has been checked.
+     *
+     * @param name  the name of the category
+     * @param bytes the contents of the index
+     * @param count the amount of phrases
+     */
+    private PhraseIndex(final String name, final MappedByteBuffer bytes,
+                        final int count) {
+        this.name = name;
+        this.bytes = bytes;
+        this.count = count;
+        offsets = HEADER_SIZE + count * Long.BYTES;
+        lengths = offsets + (count + 1) * Integer.BYTES;
+        distinct = lengths + count * Integer.BYTES;
+        int ranked = distinct + count * Integer.BYTES;
+        text = ranked + count * Integer.BYTES;
+        difficulties = new Difficulties(
+                bytes.slice(ranked, count * Integer.BYTES).asIntBuffer());
+    }
+
+    /**
+     * Retrieves where the phrase at the given index starts in the text block.
+     *
+     * @param index the index of the phrase, or the amount of phrases
+     *              for the end of the block
+     * @return the offset of the phrase
+     */
+    private int offset(final int index) {
+        return bytes.getInt(offsets + index * Integer.BYTES);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public String getPhrase(final int index) {
+        int start = offset(index);
+        byte[] phrase = new byte[offset(index + 1) - start];
+        bytes.get(text + start, phrase);
+        return new String(phrase, UTF_8);
+    }
+
+    @Override
+    public long getLetterMask(final int index) {
+        return bytes.getLong(HEADER_SIZE + index * Long.BYTES);
+    }
+
+    @Override
+    public int getLength(final int index) {
+        return bytes.getInt(lengths + index * Integer.BYTES);
+    }
+
+    @Override
+    public int getDistinctLetters(final int index) {
+        return bytes.getInt(distinct + index * Integer.BYTES);
+    }
+
+    @Override
+    public Difficulties getDifficulties() {
+        return difficulties;
+    }
+
+}
@@ -0,0 +1,76 @@
+package uk.ac.standrews.cs5031;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of {@link PhraseCategory}s indexed by category id.
+ * Looking up a category is a single array access. Changing the categories
+ * creates a new store, so a store can be shared between threads freely.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+final class PhraseStore {
+
+    /** The categories by id. Ids without a category hold null. */
+    private final PhraseCategory[] categories;
+
+    /**
+     * Creates a store with the given categories.
+     * The category at index i of the array gets id i.
+     *
+     * @param categories the categories by id, null where there is none
+     */
+    PhraseStore(final PhraseCategory... categories) {
+        this.categories = categories.clone();
+    }
+
+    /**
+     * Retrieves the amount of category ids, that is the highest id plus one.
+     *
+     * @return the amount of category ids
+     */
+    int size() {
+        return categories.length;
+    }
+
+    /**
+     * Tells whether there is a category with the given id.
+     *
+     * @param id the category id
+     * @return true iff a category has that id
+     */
+    boolean contains(final int id) {
+        return id >= 0 && id < categories.length && categories[id] != null;
+    }
+
+    /**
+     * Retrieves the category with the given id.
+     *
+     * @param id the category id
+     * @return the category
+     * @throws IllegalArgumentException if there is no such category
+     */
+    PhraseCategory get(final int id) throws IllegalArgumentException {
+        if (!contains(id)) {
+            throw new IllegalArgumentException("No category with id " + id);
+        }
+        return categories[id];
+    }
+
+    /**
+     * Creates a store with the same categories as this one, except that
+     * the given id has the given category.
+     *
+     * @param id       the category id
+     * @param category the category, or null to remove it
+     * @return the new store
+     */
+    PhraseStore with(final int id, final PhraseCategory category) {
+        PhraseCategory[] changed =
+                Arrays.copyOf(categories, Math.max(categories.length, id + 1));
+        changed[id] = category;
+        return new PhraseStore(changed);
+    }
+
+}
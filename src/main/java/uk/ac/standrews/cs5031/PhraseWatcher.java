@@ -0,0 +1,138 @@
+package uk.ac.standrews.cs5031;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Reloads the custom phrases whenever their source file changes,
+ * on a background thread, through {@link Phrases#loadCustom()}.
+ * The new category is swapped in as a whole, so games in progress keep
+ * their phrase and readers of {@link Phrases} never wait for a reload.
+ * If the changed source cannot be loaded, or loading it fails in any
+ * other way, the previous phrases are kept and watching goes on.
+ *
+ * Watched sources large enough to be memory-mapped are copied before they
+ * are mapped, see {@link Phrases#loadCustom()}, so that they may be
+ * rewritten in place as safely as smaller ones. Replacing a source by
+ * moving a new file over it is still best, since a source being rewritten
+ * may be loaded half written if the writer pauses for longer than the
+ * settle delay.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+final class PhraseWatcher implements Closeable {
+
+    /**
+     * How long the source must stay unchanged before it is reloaded, in ms,
+     * so that a file being written is loaded once it is complete.
+     */
+    private static final long SETTLE_DELAY = 100;
+
+    /** The phrase source file. */
+    private final Path source;
+
+    /** Reports changes to the directory of the source. */
+    private final WatchService service;
+
+    /** The thread reloading the phrases. */
+    private final Thread watcher;
+
+    /**
+     * Prepares to watch the given phrase source.
+     * Nothing is reloaded until the watcher is started.
+     *
+     * @param source the phrase source file
+     * @throws IOException if the directory of the source cannot be watched
+     */
+    PhraseWatcher(final Path source) throws IOException {
+        this.source = source.toAbsolutePath();
+        service = this.source.getFileSystem().newWatchService();
+        this.source.getParent().register(service, ENTRY_CREATE, ENTRY_MODIFY);
+        watcher = Thread.ofPlatform()
+                .name("hangman-phrase-watcher")
+                .daemon()
+                .unstarted(this::watch);
+    }
+
+    /** Starts reloading the phrases whenever the source changes. */
+    void start() {
+        watcher.start();
+    }
+
+    /**
+     * Stops watching the source.
+     *
+     * @throws IOException if the watch service cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        service.close();
+        try {
+            watcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Waits for changes to the source and reloads it, until closed. */
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                while (key != null) {
+                    changed |= isSourceChanged(key);
+                    key = service.poll(SETTLE_DELAY, TimeUnit.MILLISECONDS);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // The watcher was closed.
+        }
+    }
+
+    /**
+     * Consumes the events of the given key and tells whether any of them
+     * concern the source.
+     *
+     * @param key the key with pending events
+     * @return true iff the source may have changed
+     */
+    private boolean isSourceChanged(final WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW
+                    || source.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /** Loads the source again, keeping the previous phrases on failure. */
+    private void reload() {
+        try {
+            Phrases.loadCustom();
+        } catch (FileNotFoundException e) {
+            System.err.println("Kept the previous phrases: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Kept the previous phrases: " + e);
+        }
+    }
+
+}
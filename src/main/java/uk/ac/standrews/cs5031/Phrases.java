@@ -1,8 +1,12 @@
 package uk.ac.standrews.cs5031;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileInputStream;
-import java.util.Random;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.LinkedHashSet;
 import java.util.Scanner;
 
@@ -10,13 +14,10 @@ import java.util.Scanner;
  * This class provides methods to select phrases for the Hangman game.
  *
  * @author Edwin Brady, 150009974
- * @version 3.0
+ * @version 3.8
  */
 public final class Phrases {
 
-    /** A generator for indexes within the arrays of predefined phrases. */
-    public static final Random GENERATOR = new Random();
-
     /** The id of the Custom category. */
     public static final int CUSTOM_ID = 0;
 
@@ -29,8 +30,14 @@ public final class Phrases {
     /** The id of the Cities category. */
     public static final int CITIES_ID = 3;
 
-    /** Custom phrases loaded from file. */
-    private static String[] custom;
+    /** The name of the Custom category. */
+    public static final String CUSTOM_NAME = "Custom";
+
+    /**
+     * The size in bytes from which a phrase source is memory-mapped
+     * instead of read into memory.
+     */
+    static final long MAPPED_THRESHOLD = 16L << 20;
 
     /** Countries available by default. */
     static final String[] COUNTRIES = {"Scotland", "England", "Wales",
@@ -49,18 +56,53 @@ public final class Phrases {
             "Glasgow", "Kirkcaldy", "Perth", "Dundee", "Stirling", "Inverness",
             "Aberdeen", "Falkirk"};
 
+    /**
+     * The categories to choose phrases from, by id.
+     * Replaced as a whole whenever a category changes.
+     */
+    private static volatile PhraseStore store = new PhraseStore(null,
+            new ArrayPhraseCategory("Countries", COUNTRIES),
+            new ArrayPhraseCategory("Counties", COUNTIES),
+            new ArrayPhraseCategory("Cities", CITIES));
+
     /**
      * Loads the phrases from the phrases source file
      * if such was supplied upon running the system.
+     * If requested, the source is loaded through its {@link PhraseIndex}.
+     * Otherwise, sources of at least {@link #MAPPED_THRESHOLD} bytes are
+     * memory-mapped, see {@link MappedPhraseCategory}, or a copy of them
+     * is if they are watched.
+     * The time taken by each successful load is recorded in the
+     * {@link EngineMetrics}.
      *
      * @throws FileNotFoundException if the phrase source file is invalid
      */
     public static void loadCustom() throws FileNotFoundException {
         if (!OptionsParser.areThereCustomPhrases()) {
-            custom = null;
+            setCategory(CUSTOM_ID, null);
             return;
         }
+        long start = System.nanoTime();
+        load();
+        EngineMetrics.INSTANCE.phrasesLoaded(System.nanoTime() - start);
+    }
+
+    /**
+     * Loads the phrase source file into the Custom category.
+     *
+     * @throws FileNotFoundException if the phrase source file is invalid
+     */
+    private static void load() throws FileNotFoundException {
         String source = OptionsParser.getPhraseSource();
+        File file = new File(source);
+        if (OptionsParser.isPhraseIndexed()) {
+            loadIndexed(file);
+            return;
+        }
+        if (file.length() >= MAPPED_THRESHOLD) {
+            loadMapped(file);
+            return;
+        }
         Scanner reader = new Scanner(new FileInputStream(source), "utf-8");
         LinkedHashSet<String> customPhrases = new LinkedHashSet<>();
         while (reader.hasNextLine()) {
@@ -70,8 +112,184 @@ public final class Phrases {
         if (customPhrases.isEmpty()) {
             throw new FileNotFoundException("The phrase source was empty.");
         }
-        custom = new String[customPhrases.size()];
+        String[] custom = new String[customPhrases.size()];
         custom = customPhrases.toArray(custom);
+        setCategory(CUSTOM_ID, new ArrayPhraseCategory(CUSTOM_NAME, custom));
+    }
+
+    /**
+     * Maps the given phrase source into the Custom category.
+     * If phrases of a given difficulty are picked, the phrases are rated
+     * now, before the category replaces the previous one, rather than by
+     * the first player to pick one.
+     *
+     * A watched source is copied and the copy is mapped instead, since
+     * reading a mapped file that is rewritten in place faults once the
+     * file is truncated.
+     *
+     * @param source the phrase source file
+     * @throws FileNotFoundException if the phrase source file is invalid
+     */
+    private static void loadMapped(final File source)
+            throws FileNotFoundException {
+        MappedPhraseCategory category;
+        try {
+            if (OptionsParser.isWatched()) {
+                category = mapCopy(source.toPath());
+            } else {
+                category = MappedPhraseCategory.open(CUSTOM_NAME,
+                        source.toPath());
+            }
+        } catch (IOException e) {
+            throw invalidSource(e);
+        }
+        if (OptionsParser.getDifficulty() != Difficulty.ANY) {
+            category.getDifficulties();
+        }
+        setCategory(CUSTOM_ID, category);
+    }
+
+    /**
+     * Maps a private copy of the given phrase source. The copy is deleted
+     * once mapped, or when the system exits if it cannot be deleted while
+     * mapped.
+     *
+     * @param source the phrase source file
+     * @return the category
+     * @throws IOException if the source cannot be copied or mapped
+     */
+    private static MappedPhraseCategory mapCopy(final Path source)
+            throws IOException {
+        Path copy = Files.createTempFile("hangman-phrases", ".txt");
+        try {
+            Files.copy(source, copy, StandardCopyOption.REPLACE_EXISTING);
+            return MappedPhraseCategory.open(CUSTOM_NAME, copy);
+        } finally {
+            try {
+                Files.delete(copy);
+            } catch (IOException e) {
+                copy.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Loads the given phrase source into the Custom category through its
+     * index, compiling the index first if it is missing or stale.
+     *
+     * @param source the phrase source file
+     * @throws FileNotFoundException if the phrase source file is invalid
+     */
+    private static void loadIndexed(final File source)
+            throws FileNotFoundException {
+        try {
+            setCategory(CUSTOM_ID,
+                    PhraseIndex.load(CUSTOM_NAME, source.toPath()));
+        } catch (IOException e) {
+            throw invalidSource(e);
+        }
+    }
+
+    /**
+     * Reports a failure to load the phrase source as an invalid source.
+     *
+     * @param cause the failure
+     * @return the exception to throw
+     */
+    private static FileNotFoundException invalidSource(
+            final IOException cause) {
+        if (cause instanceof FileNotFoundException) {
+            return (FileNotFoundException) cause;
+        }
+        FileNotFoundException invalid =
+                new FileNotFoundException(cause.getMessage());
+        invalid.initCause(cause);
+        return invalid;
+    }
+
+    /**
+     * Retrieves the categories to choose phrases from.
+     *
+     * @return the current phrase store
+     */
+    static PhraseStore getStore() {
+        return store;
+    }
+
+    /**
+     * Adds, replaces, or removes the category with the given id.
+     * Games already in progress are not affected.
+     *
+     * @param id       the category id
+     * @param category the category, or null to remove it
+     */
+    static synchronized void setCategory(final int id,
+                                         final PhraseCategory category) {
+        store = store.with(id, category);
+    }
+
+    /**
+     * Retrieves the category with the given id.
+     *
+     * @param category the category id
+     * @return the category
+     * @throws IllegalArgumentException if there is no such category
+     */
+    static PhraseCategory getCategory(final int category)
+            throws IllegalArgumentException {
+        PhraseStore current = store;
+        if (category == CUSTOM_ID && !current.contains(CUSTOM_ID)) {
+            String message = "No custom phrases are provided";
+            throw new IllegalArgumentException(message);
+        }
+        return current.get(category);
+    }
+
+    /**
+     * Picks the index of a random phrase from the given category,
+     * using the default {@link RandomSource}.
+     *
+     * @param category the category
+     * @return the index of a random phrase in the category
+     */
+    static int getRandomIndex(final PhraseCategory category) {
+        return getRandomIndex(category, RandomSource.threadLocal());
+    }
+
+    /**
+     * Picks the index of a random phrase from the given category,
+     * of the difficulty chosen in {@link OptionsParser}.
+     *
+     * @param category the category
+     * @param random   the source to pick the index with
+     * @return the index of a random phrase in the category
+     */
+    static int getRandomIndex(final PhraseCategory category,
+                              final RandomSource random) {
+        return getRandomIndex(category, random, OptionsParser.getDifficulty());
+    }
+
+    /**
+     * Picks the index of a random phrase of the given difficulty
+     * from the given category, in constant time.
+     * The time taken is recorded in the {@link EngineMetrics}.
+     *
+     * @param category   the category
+     * @param random     the source to pick the index with
+     * @param difficulty the difficulty of the phrase
+     * @return the index of a random phrase in the category
+     */
+    static int getRandomIndex(final PhraseCategory category,
+                              final RandomSource random,
+                              final Difficulty difficulty) {
+        long start = System.nanoTime();
+        // Any phrase will do without rating them, which a mapped category
+        // only does when first needed.
+        int index = difficulty == Difficulty.ANY
+                ? random.nextInt(category.size())
+                : category.getDifficulties().pick(category, difficulty, random);
+        EngineMetrics.INSTANCE.phraseSelected(System.nanoTime() - start);
+        return index;
     }
 
     /**
@@ -79,30 +297,11 @@ public final class Phrases {
      *
      * @param category the category id
      * @return a random phrase from the selected category
+     * @throws IllegalArgumentException if there is no such category
      */
     public static String getRandomPhrase(final int category) {
-        int index;
-        switch (category) {
-            case CUSTOM_ID:
-                if (custom == null) {
-                    String message = "No custom phrases are provided";
-                    throw new IllegalArgumentException(message);
-                } else {
-                    index = GENERATOR.nextInt(custom.length);
-                    return custom[index];
-                }
-            case COUNTRIES_ID:
-                index = GENERATOR.nextInt(COUNTRIES.length);
-                return COUNTRIES[index];
-            case COUNTIES_ID:
-                index = GENERATOR.nextInt(COUNTIES.length);
-                return COUNTIES[index];
-            case CITIES_ID:
-                index = GENERATOR.nextInt(CITIES.length);
-                return CITIES[index];
-            default:
-                throw new IllegalArgumentException();
-        }
+        PhraseCategory phrases = getCategory(category);
+        return phrases.getPhrase(getRandomIndex(phrases));
     }
 
     /** Hides the constructor for this utility class. */
@@ -0,0 +1,53 @@
+package uk.ac.standrews.cs5031;
+
+/**
+ * A source of random numbers for picking phrases and hints.
+ * Each player is given their own source, so that players never contend
+ * for a shared generator.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public interface RandomSource {
+
+    /**
+     * Picks a random number from 0 (inclusive) to the given bound
+     * (exclusive).
+     *
+     * @param bound the upper bound, which must be positive
+     * @return the random number
+     */
+    int nextInt(int bound);
+
+    /**
+     * Creates a source for another player.
+     * Sources split from a seeded source are seeded too, so that replaying
+     * the same players in the same order picks the same numbers.
+     *
+     * @return the new source
+     */
+    RandomSource split();
+
+    /**
+     * Retrieves the default source, backed by the current thread's
+     * {@link java.util.concurrent.ThreadLocalRandom}.
+     * It can be shared by any amount of threads.
+     *
+     * @return the default source
+     */
+    static RandomSource threadLocal() {
+        return ThreadLocalRandomSource.INSTANCE;
+    }
+
+    /**
+     * Creates a deterministic source with the given seed.
+     * It must only be used by one thread at a time.
+     *
+     * @param seed the seed
+     * @return the new source
+     */
+    static RandomSource seeded(final long seed) {
+        return new SeededRandomSource(seed);
+    }
+
+}
@@ -0,0 +1,43 @@
+package uk.ac.standrews.cs5031;
+
+/**
+ * A {@link GuessStrategy} guessing letters at random,
+ * and taking a hint rather than risking its last life.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+final class RandomStrategy implements GuessStrategy {
+
+    /** The only instance, as the strategy has no state. */
+    static final RandomStrategy INSTANCE = new RandomStrategy();
+
+    /** Hides the constructor, see {@link #INSTANCE}. */
+    private RandomStrategy() {
+    }
+
+    @Override
+    public char nextGuess(final GameSession session,
+                          final RandomSource random) {
+        if (session.getLives() == 1 && session.getHints() > 0) {
+            return HINT;
+        }
+        int unguessed = 0;
+        for (char letter = 'a'; letter <= 'z'; letter++) {
+            if (!session.isGuessed(letter)) {
+                unguessed++;
+            }
+        }
+        if (unguessed == 0) {
+            return GIVE_UP;
+        }
+        int pick = random.nextInt(unguessed);
+        for (char letter = 'a'; letter <= 'z'; letter++) {
+            if (!session.isGuessed(letter) && pick-- == 0) {
+                return letter;
+            }
+        }
+        return GIVE_UP;
+    }
+
+}
@@ -0,0 +1,228 @@
+package uk.ac.standrews.cs5031;
+
+import static uk.ac.standrews.cs5031.Phrases.CUSTOM_ID;
+import static uk.ac.standrews.cs5031.Phrases.CUSTOM_NAME;
+
+/**
+ * Renders the text shown to the player.
+ * The same text is used on the console and by the servers,
+ * so every front end shows exactly the same screens.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+final class Renderer {
+
+    /** The error message displayed when an invalid category is typed. */
+    static final String CATEGORY_NOT_RECOGNIZED = "Category not recognized.";
+
+    /** Typed before the id of a game instead of a category to resume it. */
+    static final String RESUME_PREFIX = "#";
+
+    /** The error message displayed when a game to resume is not found. */
+    static final String GAME_NOT_FOUND =
+            "There is no game to resume with that id.";
+
+    /** The question asked once a game is over. */
+    static final String PLAY_AGAIN = "Would you like to play again?";
+
+    /** The error message displayed when a yes/no answer is not recognized. */
+    static final String ANSWER_NOT_PARSED =
+            "Failed to parse answer, please type again.";
+
+    /** The line separator used after each line of output. */
+    private static final String NEW_LINE = System.lineSeparator();
+
+    /**
+     * Appends the given line followed by a line separator.
+     *
+     * @param out  the buffer to append to
+     * @param line the line to append
+     */
+    static void appendLine(final StringBuilder out, final CharSequence line) {
+        out.append(line).append(NEW_LINE);
+    }
+
+    /**
+     * Appends the menu of categories and the prompt to pick one.
+     * Every category of the {@link PhraseStore} is listed, in order of id.
+     * The Custom category is listed if and only if a phrase source was
+     * given, even if it failed to load.
+     *
+     * @param out the buffer to append to
+     */
+    static void appendMenu(final StringBuilder out) {
+        PhraseStore store = Phrases.getStore();
+        int listed = 0;
+        for (int id = 0; id < store.size(); id++) {
+            if (isListed(store, id)) {
+                appendCategory(out, id, categoryName(store, id));
+                listed++;
+            }
+        }
+        out.append("Pick a category [");
+        int position = 0;
+        for (int id = 0; id < store.size(); id++) {
+            if (!isListed(store, id)) {
+                continue;
+            }
+            if (position > 0) {
+                out.append(listed > 2 ? ", " : " ");
+            }
+            if (position == listed - 1 && listed > 1) {
+                out.append("or ");
+            }
+            out.append(id);
+            position++;
+        }
+        appendLine(out, "]:");
+    }
+
+    /**
+     * Tells whether the category with the given id is listed in the menu.
+     *
+     * @param store the categories
+     * @param id    the category id
+     * @return true iff the category should be listed
+     */
+    private static boolean isListed(final PhraseStore store, final int id) {
+        if (id == CUSTOM_ID) {
+            return OptionsParser.areThereCustomPhrases();
+        }
+        return store.contains(id);
+    }
+
+    /**
+     * Retrieves the name of the category with the given id.
+     *
+     * @param store the categories
+     * @param id    the category id
+     * @return the name of the category
+     */
+    private static String categoryName(final PhraseStore store,
+                                       final int id) {
+        if (id == CUSTOM_ID) {
+            return CUSTOM_NAME;
+        }
+        return store.get(id).getName();
+    }
+
+    /**
+     * Appends a line of the category menu.
+     * The parameters should be id of category from {@link Phrases}
+     * and respective name.
+     *
+     * @param out  the buffer to append to
+     * @param id   the id of the category
+     * @param name the name of the category
+     */
+    private static void appendCategory(final StringBuilder out,
+                                       final int id, final String name) {
+        out.append("  ").append(id).append(". ");
+        appendLine(out, name);
+    }
+
+    /**
+     * Appends the id of a new game that can be resumed after a restart,
+     * and how to resume it.
+     *
+     * @param out     the buffer to append to
+     * @param session the session of the game
+     */
+    static void appendResumable(final StringBuilder out,
+                                final GameSession session) {
+        String reference = RESUME_PREFIX + session.getId();
+        out.append("Game ").append(reference)
+                .append(". If the server restarts, pick ").append(reference);
+        appendLine(out, " instead of a category to carry on.");
+    }
+
+    /**
+     * Appends the current phrase followed by the state of the game.
+     * Letters that have not yet been guessed are replaced with dashes.
+     *
+     * @param out     the buffer to append to
+     * @param session the session to render
+     */
+    static void appendTurn(final StringBuilder out,
+                           final GameSession session) {
+        String phrase = session.getPhrase();
+        for (int i = 0; i < phrase.length(); ++i) {
+            char original = phrase.charAt(i);
+            char lower = Character.toLowerCase(original);
+            if (session.isGuessed(lower)) {
+                out.append(original);
+            } else {
+                out.append('-');
+            }
+        }
+        out.append(NEW_LINE);
+        out.append(session.getRemainingLetters());
+        appendLine(out, " letters remaining.");
+        out.append("Lives remaining: ").append(session.getLives());
+        out.append(NEW_LINE);
+        out.append("Guess a letter or phrase (? for a hint [");
+        out.append(session.getHints());
+        appendLine(out, " remaining]):");
+    }
+
+    /**
+     * Appends the response to a guess made by the player.
+     * Solved phrases, repeated and empty guesses produce no output.
+     *
+     * @param out   the buffer to append to
+     * @param guess the result of the guess
+     */
+    static void appendGuess(final StringBuilder out,
+                            final GameSession.Guess guess) {
+        if (guess == GameSession.Guess.CORRECT) {
+            appendLine(out, "Correct!");
+        } else if (guess == GameSession.Guess.WRONG) {
+            appendLine(out, "Wrong!");
+        }
+    }
+
+    /**
+     * Appends a hint, or a refusal if no more hints are allowed.
+     *
+     * @param out  the buffer to append to
+     * @param hint the letter returned by {@link GameSession#takeHint()}
+     */
+    static void appendHint(final StringBuilder out, final char hint) {
+        if (hint == GameSession.NO_HINT) {
+            appendLine(out, "No more hints allowed!");
+            return;
+        }
+        out.append("Try: ").append(hint);
+        out.append(NEW_LINE);
+    }
+
+    /**
+     * Appends a Game over message.
+     * Congratulates if the game was won.
+     * Reveals the phrase if the game was lost.
+     * Appends nothing if the game is not over.
+     *
+     * @param out     the buffer to append to
+     * @param session the session to render
+     */
+    static void appendGameOver(final StringBuilder out,
+                               final GameSession session) {
+        if (session.hasWon()) {
+            appendLine(out, "You won!");
+            out.append("You took ").append(session.getGuessesMade());
+            appendLine(out, " guesses.");
+        } else if (session.hasLost()) {
+            appendLine(out, "You lost!");
+        } else {
+            return;
+        }
+        out.append("Phrase: ");
+        appendLine(out, session.getPhrase());
+    }
+
+    /** Hides the constructor for this utility class. */
+    private Renderer() {
+    }
+
+}
@@ -0,0 +1,101 @@
+package uk.ac.standrews.cs5031;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A reusable buffer for the output shown to one player.
+ * Output is rendered into the text of the screen by {@link Renderer},
+ * then encoded and written in a single call once per turn.
+ * The buffers are kept between turns, so that once they have grown to
+ * fit a turn, rendering and writing a turn allocates nothing.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+final class Screen {
+
+    /** The initial capacity of the buffers, in characters. */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** The text rendered since the last flush. */
+    private final StringBuilder text = new StringBuilder(INITIAL_CAPACITY);
+
+    /** The encoder converting the text to bytes. */
+    private final CharsetEncoder encoder = UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    /** The characters of the text, copied out to be encoded. */
+    private char[] chars = new char[INITIAL_CAPACITY];
+
+    /** A view of {@link #chars}, as required by the encoder. */
+    private CharBuffer charView = CharBuffer.wrap(chars);
+
+    /** The encoded bytes of the text. */
+    private ByteBuffer bytes = ByteBuffer.allocate(INITIAL_CAPACITY);
+
+    /**
+     * Retrieves the text to render output into.
+     *
+     * @return the text of the screen
+     */
+    StringBuilder text() {
+        return text;
+    }
+
+    /**
+     * Tells whether any text was rendered since the last flush.
+     *
+     * @return true iff there is no text to write
+     */
+    boolean isEmpty() {
+        return text.length() == 0;
+    }
+
+    /**
+     * Encodes the rendered text and clears it.
+     * The returned buffer is reused, so it is only valid until the next
+     * call to this method or to {@link #flushTo(GameOutput)}.
+     *
+     * @return a buffer containing the encoded text, ready to be read
+     */
+    ByteBuffer encode() {
+        int length = text.length();
+        if (chars.length < length) {
+            chars = new char[Integer.highestOneBit(length) << 1];
+            charView = CharBuffer.wrap(chars);
+        }
+        text.getChars(0, length, chars, 0);
+        text.setLength(0);
+        charView.clear();
+        charView.limit(length);
+
+        int maxBytes = (int) Math.ceil(length * encoder.maxBytesPerChar());
+        if (bytes.capacity() < maxBytes) {
+            bytes = ByteBuffer.allocate(Integer.highestOneBit(maxBytes) << 1);
+        }
+        bytes.clear();
+        encoder.reset();
+        encoder.encode(charView, bytes, true);
+        encoder.flush(bytes);
+        bytes.flip();
+        return bytes;
+    }
+
+    /**
+     * Writes the rendered text to the given output as one turn,
+     * and clears the text.
+     *
+     * @param out the output to write to
+     */
+    void flushTo(final GameOutput out) {
+        ByteBuffer encoded = encode();
+        out.write(encoded.array(), encoded.arrayOffset(), encoded.limit());
+    }
+
+}
@@ -0,0 +1,46 @@
+package uk.ac.standrews.cs5031;
+
+import java.util.SplittableRandom;
+
+/**
+ * A deterministic {@link RandomSource} backed by a {@link SplittableRandom},
+ * used to replay the same games from the same seed.
+ * Like its generator, it must only be used by one thread at a time.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+final class SeededRandomSource implements RandomSource {
+
+    /** The generator of the numbers. */
+    private final SplittableRandom generator;
+
+    /**
+     * Creates a source with the given seed.
+     *
+     * @param seed the seed
+     */
+    SeededRandomSource(final long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    /**
+     * Creates a source over the given generator.
+     *
+     * @param generator the generator
+     */
+    private SeededRandomSource(final SplittableRandom generator) {
+        this.generator = generator;
+    }
+
+    @Override
+    public int nextInt(final int bound) {
+        return generator.nextInt(bound);
+    }
+
+    @Override
+    public RandomSource split() {
+        return new SeededRandomSource(generator.split());
+    }
+
+}
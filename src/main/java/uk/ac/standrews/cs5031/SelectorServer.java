@@ -0,0 +1,365 @@
+package uk.ac.standrews.cs5031;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Serves the Hangman line protocol to many players over TCP.
+ * All connections are multiplexed on a single {@link Selector} loop,
+ * so idle connections only cost a few small buffers each.
+ *
+ * A connection is not read from while it has output that the player
+ * has not taken yet, so a player who sends lines without reading the
+ * responses only ever has the responses to one read pending. A failure
+ * while serving a connection only closes that connection.
+ *
+ * @author 150009974
+ * @version 1.5
+ */
+final class SelectorServer implements GameServer {
+
+    /** The name of this engine, as used in reports. */
+    static final String ENGINE = OptionsParser.SELECTOR_ENGINE;
+
+    /** The maximum amount of pending connections. */
+    private static final int BACKLOG = 1024;
+
+    /** The initial size of the input buffer of each connection. */
+    private static final int READ_BUFFER_SIZE = 256;
+
+    /** The selector multiplexing all connections. */
+    private final Selector selector;
+
+    /** The channel accepting new connections. */
+    private final ServerSocketChannel server;
+
+    /** The registry hosting the games played on this server. */
+    private final SessionRegistry registry;
+
+    /** The counters describing the activity of this server. */
+    private final ServerMetrics metrics = new ServerMetrics();
+
+    /** The source from which each player's source is split. */
+    private final RandomSource random;
+
+    /** The buffer responses are rendered into, reused by all connections. */
+    private final Screen screen = new Screen();
+
+    /** The text of {@link #screen}, which responses are rendered into. */
+    private final StringBuilder text = screen.text();
+
+    /** The thread running the selector loop. */
+    private final Thread loop;
+
+    /** Whether the selector loop should keep running. */
+    private volatile boolean running;
+
+    /** The state of a single connection. */
+    private static final class Connection {
+
+        /** The conversation with the player on this connection. */
+        private final Conversation conversation;
+
+        /** The bytes read but not yet processed as complete lines. */
+        private ByteBuffer input = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+        /** The bytes waiting to be written, or null if there are none. */
+        private ByteBuffer output;
+
+        /**
+         * Creates the state of a new connection.
+         *
+         * @param conversation the conversation with the player
+         */
+        Connection(final Conversation conversation) {
+            this.conversation = conversation;
+        }
+
+    }
+
+    /**
+     * Opens a server on the given port.
+     * The server does not accept connections until it is started.
+     *
+     * @param port     the port to listen on, or 0 for any free port
+     * @param random   the source from which each player's source is split
+     * @param registry the registry to host the games in
+     * @throws IOException if the port cannot be bound
+     */
+    SelectorServer(final int port, final RandomSource random,
+                   final SessionRegistry registry) throws IOException {
+        this.random = random;
+        this.registry = registry;
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port), BACKLOG);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        loop = new Thread(this::run, "hangman-" + ENGINE);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        loop.start();
+    }
+
+    @Override
+    public String getEngine() {
+        return ENGINE;
+    }
+
+    @Override
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    @Override
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void awaitTermination() throws InterruptedException {
+        loop.join();
+    }
+
+    /**
+     * Stops the selector loop and closes all connections.
+     *
+     * @throws IOException if closing the selector fails
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            loop.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() != null) {
+                disconnect(key);
+            }
+        }
+        server.close();
+        selector.close();
+    }
+
+    /** The selector loop. Dispatches ready channels until closed. */
+    private void run() {
+        while (running) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+                return;
+            }
+            Iterator<SelectionKey> ready = selector.selectedKeys().iterator();
+            while (ready.hasNext()) {
+                SelectionKey key = ready.next();
+                ready.remove();
+                try {
+                    dispatch(key);
+                } catch (IOException e) {
+                    // The player went away, nothing else to do.
+                    disconnect(key);
+                } catch (RuntimeException e) {
+                    System.err.println("Closed a connection that failed: "
+                            + e);
+                    text.setLength(0);
+                    if (key.attachment() != null) {
+                        disconnect(key);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Handles a channel that is ready for an operation.
+     *
+     * @param key the key of the ready channel
+     * @throws IOException if reading or writing fails
+     */
+    private void dispatch(final SelectionKey key) throws IOException {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        if (key.isWritable()) {
+            flush(key);
+        }
+        // Reading waits while output is pending, see flush.
+        if (key.isValid() && key.isReadable()
+                && (key.interestOps() & SelectionKey.OP_READ) != 0) {
+            read(key);
+        }
+    }
+
+    /**
+     * Accepts all pending connections and greets them with the menu.
+     *
+     * @throws IOException if accepting fails
+     */
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            Connection connection =
+                    new Connection(new Conversation(registry, metrics,
+                            random.split()));
+            SelectionKey key = channel.register(selector,
+                    SelectionKey.OP_READ, connection);
+            metrics.connectionOpened();
+            connection.conversation.start(text);
+            try {
+                send(key, connection);
+            } catch (IOException e) {
+                disconnect(key);
+            }
+        }
+    }
+
+    /**
+     * Reads from a channel and processes every complete line.
+     *
+     * @param key the key of the readable channel
+     * @throws IOException if reading fails
+     */
+    private void read(final SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        SocketChannel channel = (SocketChannel) key.channel();
+        if (channel.read(connection.input) < 0) {
+            disconnect(key);
+            return;
+        }
+        ByteBuffer input = connection.input;
+        input.flip();
+        int start = input.position();
+        for (int i = start; i < input.limit(); i++) {
+            if (input.get(i) != '\n') {
+                continue;
+            }
+            int end = i;
+            if (end > start && input.get(end - 1) == '\r') {
+                end--;
+            }
+            String line = new String(input.array(),
+                    input.arrayOffset() + start, end - start, UTF_8);
+            start = i + 1;
+            if (!connection.conversation.isFinished()) {
+                connection.conversation.accept(line, text);
+            }
+        }
+        input.position(start);
+        input.compact();
+        if (!input.hasRemaining()) {
+            if (input.capacity() >= MAX_LINE_LENGTH) {
+                disconnect(key);
+                return;
+            }
+            ByteBuffer larger = ByteBuffer.allocate(input.capacity() * 2);
+            input.flip();
+            larger.put(input);
+            connection.input = larger;
+        }
+        send(key, connection);
+    }
+
+    /**
+     * Writes the rendered text to the connection.
+     * Pending output is written first; whatever the channel does not
+     * accept is copied into the connection's own buffer, so the shared
+     * screen can be reused straight away.
+     *
+     * @param key        the key of the connection's channel
+     * @param connection the connection
+     * @throws IOException if writing fails
+     */
+    private void send(final SelectionKey key, final Connection connection)
+            throws IOException {
+        if (!screen.isEmpty()) {
+            ByteBuffer bytes = screen.encode();
+            if (connection.output == null) {
+                ((SocketChannel) key.channel()).write(bytes);
+            }
+            if (bytes.hasRemaining()) {
+                int pending = 0;
+                if (connection.output != null) {
+                    pending = connection.output.remaining();
+                }
+                ByteBuffer queued =
+                        ByteBuffer.allocate(pending + bytes.remaining());
+                if (connection.output != null) {
+                    queued.put(connection.output);
+                }
+                queued.put(bytes).flip();
+                connection.output = queued;
+            }
+        }
+        flush(key);
+    }
+
+    /**
+     * Writes as much pending output as the channel accepts.
+     * While some output remains, registers interest in writing instead of
+     * reading, so that no more responses pile up for a player who does
+     * not read them. Closes the connection once the conversation is over
+     * and all output has been written.
+     *
+     * @param key the key of the connection's channel
+     * @throws IOException if writing fails
+     */
+    private void flush(final SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        ByteBuffer output = connection.output;
+        if (output != null) {
+            ((SocketChannel) key.channel()).write(output);
+            if (output.hasRemaining()) {
+                key.interestOps(SelectionKey.OP_WRITE);
+                return;
+            }
+            connection.output = null;
+            key.interestOps(SelectionKey.OP_READ);
+        }
+        if (connection.conversation.isFinished()) {
+            disconnect(key);
+        }
+    }
+
+    /**
+     * Closes a connection and releases its game.
+     *
+     * @param key the key of the connection's channel
+     */
+    private void disconnect(final SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        Connection connection = (Connection) key.attachment();
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+            // The connection is being discarded anyway.
+        }
+        if (connection != null) {
+            connection.conversation.close();
+            metrics.connectionClosed();
+        }
+    }
+
+}
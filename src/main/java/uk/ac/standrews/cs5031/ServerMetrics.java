@@ -0,0 +1,111 @@
+package uk.ac.standrews.cs5031;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing the activity of a server.
+ * Every server engine reports the same counters, so that engines
+ * can be compared on the same machine.
+ * The counters can be updated from any thread.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+final class ServerMetrics {
+
+    /** The amount of connections accepted so far. */
+    private final LongAdder accepted = new LongAdder();
+
+    /** The amount of connections currently open. */
+    private final LongAdder open = new LongAdder();
+
+    /** The amount of lines of input processed so far. */
+    private final LongAdder lines = new LongAdder();
+
+    /** The amount of games started so far. */
+    private final LongAdder started = new LongAdder();
+
+    /** The amount of games won so far. */
+    private final LongAdder won = new LongAdder();
+
+    /** The amount of games lost so far. */
+    private final LongAdder lost = new LongAdder();
+
+    /** Records that a connection was accepted. */
+    void connectionOpened() {
+        accepted.increment();
+        open.increment();
+    }
+
+    /** Records that a connection was closed. */
+    void connectionClosed() {
+        open.decrement();
+    }
+
+    /** Records that a line of input was processed. */
+    void lineProcessed() {
+        lines.increment();
+    }
+
+    /** Records that a game was started. */
+    void gameStarted() {
+        started.increment();
+    }
+
+    /**
+     * Records that a game has ended.
+     *
+     * @param hasWon true iff the player won the game
+     */
+    void gameFinished(final boolean hasWon) {
+        if (hasWon) {
+            won.increment();
+        } else {
+            lost.increment();
+        }
+    }
+
+    /**
+     * Retrieves the amount of connections currently open.
+     *
+     * @return the amount of open connections
+     */
+    long getOpenConnections() {
+        return open.sum();
+    }
+
+    /**
+     * Retrieves the amount of lines of input processed so far.
+     *
+     * @return the amount of lines processed
+     */
+    long getLinesProcessed() {
+        return lines.sum();
+    }
+
+    /**
+     * Retrieves the amount of games that have ended so far.
+     *
+     * @return the amount of games won or lost
+     */
+    long getGamesFinished() {
+        return won.sum() + lost.sum();
+    }
+
+    /**
+     * Formats the counters as a single line of text.
+     *
+     * @param engine the name of the engine the counters belong to
+     * @return the formatted counters
+     */
+    String report(final String engine) {
+        return engine
+                + ": connections=" + accepted.sum()
+                + " open=" + open.sum()
+                + " lines=" + lines.sum()
+                + " games=" + started.sum()
+                + " won=" + won.sum()
+                + " lost=" + lost.sum();
+    }
+
+}
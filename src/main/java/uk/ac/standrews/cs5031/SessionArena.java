@@ -0,0 +1,330 @@
+package uk.ac.standrews.cs5031;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps idle {@link GameSession}s outside the heap, encoded by
+ * {@link SessionCodec}, until their player comes back.
+ *
+ * The records live in a direct buffer laid out as an open addressing
+ * hash table keyed by session id, with linear probing, so a parked
+ * session takes no heap at all. Slots with a session id of 0 are free.
+ * The buffer is only allocated once a session is parked. The table
+ * doubles once it is half full, and removals shift later records back,
+ * so no tombstones are left behind.
+ *
+ * Records refer to their phrase by an id. Each distinct phrase of the
+ * parked sessions is kept once, and its id is reused once no parked
+ * session refers to it, so parked sessions keep their phrase even when
+ * the phrases are reloaded.
+ *
+ * An arena is not thread-safe, it should be used by one thread at a time.
+ *
+ * @author 150009974
+ * @version 1.2
+ */
+final class SessionArena {
+
+    /** The amount of slots allocated when the first session is parked. */
+    static final int INITIAL_SLOTS = 1 << 10;
+
+    /** Spreads session ids over the slots. */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** The session id of a free slot. */
+    private static final long FREE = 0;
+
+    /**
+     * The records, {@link SessionCodec#SIZE} bytes per slot,
+     * or null until a session is parked.
+     */
+    private ByteBuffer slots;
+
+    /** The amount of slots, a power of two once allocated. */
+    private int capacity;
+
+    /** The amount of parked sessions. */
+    private int size;
+
+    /** The phrases of the parked sessions, by phrase id. */
+    private final List<String> phrases = new ArrayList<>();
+
+    /** The ids of the phrases of the parked sessions. */
+    private final Map<String, Integer> phraseIds = new HashMap<>();
+
+    /** The amount of parked sessions referring to each phrase id. */
+    private int[] references = new int[INITIAL_SLOTS];
+
+    /** The phrase ids no longer referred to, to be reused first. */
+    private int[] freePhraseIds = new int[INITIAL_SLOTS];
+
+    /** The amount of reusable phrase ids. */
+    private int freePhraseCount;
+
+    /**
+     * Parks the given session, replacing any parked session with its id.
+     *
+     * @param session the session, which {@link SessionCodec#canEncode}
+     *                must accept
+     */
+    void park(final GameSession session) {
+        remove(session.getId());
+        if (2 * (size + 1) > capacity) {
+            grow();
+        }
+        int slot = home(session.getId());
+        while (SessionCodec.readId(slots, offset(slot)) != FREE) {
+            slot = next(slot);
+        }
+        SessionCodec.write(slots, offset(slot), session,
+                acquirePhrase(session.getPhrase()));
+        size++;
+    }
+
+    /**
+     * Removes the parked session with the given id and recreates it.
+     *
+     * @param id the session id
+     * @return the session, or null if it is not parked
+     */
+    GameSession take(final long id) {
+        int slot = find(id);
+        if (slot < 0) {
+            return null;
+        }
+        int phraseId = SessionCodec.readPhraseId(slots, offset(slot));
+        GameSession session = SessionCodec.read(slots, offset(slot),
+                phrases.get(phraseId));
+        release(slot);
+        return session;
+    }
+
+    /**
+     * Recreates the parked session with the given id, leaving it parked.
+     *
+     * @param id the session id
+     * @return the session, or null if it is not parked
+     */
+    GameSession get(final long id) {
+        int slot = find(id);
+        if (slot < 0) {
+            return null;
+        }
+        int phraseId = SessionCodec.readPhraseId(slots, offset(slot));
+        return SessionCodec.read(slots, offset(slot), phrases.get(phraseId));
+    }
+
+    /**
+     * Removes the parked session with the given id.
+     *
+     * @param id the session id
+     * @return true iff the session was parked
+     */
+    boolean remove(final long id) {
+        int slot = find(id);
+        if (slot < 0) {
+            return false;
+        }
+        release(slot);
+        return true;
+    }
+
+    /**
+     * Tells whether the session with the given id is parked.
+     *
+     * @param id the session id
+     * @return true iff the session is parked
+     */
+    boolean contains(final long id) {
+        return find(id) >= 0;
+    }
+
+    /**
+     * Retrieves the amount of parked sessions.
+     *
+     * @return the amount of sessions
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Lists the ids of the parked sessions.
+     *
+     * @return the session ids, in no particular order
+     */
+    long[] getIds() {
+        long[] ids = new long[size];
+        int found = 0;
+        for (int slot = 0; slot < capacity && found < size; slot++) {
+            long id = SessionCodec.readId(slots, offset(slot));
+            if (id != FREE) {
+                ids[found++] = id;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Retrieves the amount of memory taken by the records, outside the heap.
+     *
+     * @return the size of the buffer, in bytes
+     */
+    long getCapacityBytes() {
+        return (long) capacity * SessionCodec.SIZE;
+    }
+
+    /**
+     * Finds the slot of the parked session with the given id.
+     *
+     * @param id the session id
+     * @return the slot, or -1 if the session is not parked
+     */
+    private int find(final long id) {
+        if (size == 0) {
+            return -1;
+        }
+        for (int slot = home(id);; slot = next(slot)) {
+            long found = SessionCodec.readId(slots, offset(slot));
+            if (found == id) {
+                return slot;
+            }
+            if (found == FREE) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Frees the given slot and its phrase, shifting back the records
+     * after it that would no longer be found otherwise.
+     *
+     * @param slot the slot of a parked session
+     */
+    private void release(final int slot) {
+        releasePhrase(SessionCodec.readPhraseId(slots, offset(slot)));
+        int hole = slot;
+        for (int later = next(slot);; later = next(later)) {
+            long id = SessionCodec.readId(slots, offset(later));
+            if (id == FREE) {
+                break;
+            }
+            int wanted = home(id);
+            // Move the record if the hole lies between its home and it.
+            boolean movable = hole <= later
+                    ? wanted <= hole || wanted > later
+                    : wanted <= hole && wanted > later;
+            if (movable) {
+                slots.put(offset(hole), slots, offset(later),
+                        SessionCodec.SIZE);
+                hole = later;
+            }
+        }
+        slots.putLong(offset(hole), FREE);
+        size--;
+    }
+
+    /** Doubles the amount of slots, placing every record again. */
+    private void grow() {
+        ByteBuffer old = slots;
+        int oldCapacity = capacity;
+        capacity = Math.max(INITIAL_SLOTS, 2 * capacity);
+        slots = ByteBuffer.allocateDirect(capacity * SessionCodec.SIZE);
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int from = slot * SessionCodec.SIZE;
+            long id = SessionCodec.readId(old, from);
+            if (id == FREE) {
+                continue;
+            }
+            int target = home(id);
+            while (SessionCodec.readId(slots, offset(target)) != FREE) {
+                target = next(target);
+            }
+            slots.put(offset(target), old, from, SessionCodec.SIZE);
+        }
+    }
+
+    /**
+     * Retrieves the id of the given phrase, giving it one if no parked
+     * session refers to it yet, and counts a reference to it.
+     *
+     * @param phrase the phrase
+     * @return the phrase id
+     */
+    private int acquirePhrase(final String phrase) {
+        Integer known = phraseIds.get(phrase);
+        int phraseId;
+        if (known != null) {
+            phraseId = known;
+        } else if (freePhraseCount > 0) {
+            phraseId = freePhraseIds[--freePhraseCount];
+            phrases.set(phraseId, phrase);
+            phraseIds.put(phrase, phraseId);
+        } else {
+            phraseId = phrases.size();
+            phrases.add(phrase);
+            phraseIds.put(phrase, phraseId);
+            if (phraseId == references.length) {
+                references = Arrays.copyOf(references,
+                        2 * references.length);
+            }
+        }
+        references[phraseId]++;
+        return phraseId;
+    }
+
+    /**
+     * Counts a reference to the phrase with the given id less,
+     * freeing the id once there are none.
+     *
+     * @param phraseId the phrase id
+     */
+    private void releasePhrase(final int phraseId) {
+        if (--references[phraseId] > 0) {
+            return;
+        }
+        phraseIds.remove(phrases.get(phraseId));
+        phrases.set(phraseId, null);
+        if (freePhraseCount == freePhraseIds.length) {
+            freePhraseIds = Arrays.copyOf(freePhraseIds,
+                    2 * freePhraseIds.length);
+        }
+        freePhraseIds[freePhraseCount++] = phraseId;
+    }
+
+    /**
+     * Retrieves the first slot probed for the given session id.
+     *
+     * @param id the session id
+     * @return the slot
+     */
+    private int home(final long id) {
+        return (int) ((id * GOLDEN_GAMMA) >>> 32) & (capacity - 1);
+    }
+
+    /**
+     * Retrieves the slot probed after the given one.
+     *
+     * @param slot the slot
+     * @return the next slot, wrapping around
+     */
+    private int next(final int slot) {
+        return (slot + 1) & (capacity - 1);
+    }
+
+    /**
+     * Retrieves the offset of the record in the given slot.
+     *
+     * @param slot the slot
+     * @return the offset in {@link #slots}
+     */
+    private static int offset(final int slot) {
+        return slot * SessionCodec.SIZE;
+    }
+
+}
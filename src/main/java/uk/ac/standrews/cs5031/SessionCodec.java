@@ -0,0 +1,150 @@
+package uk.ac.standrews.cs5031;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes the state of a {@link GameSession} into a fixed-size record,
+ * so that idle sessions can be kept outside the heap, see
+ * {@link SessionArena}. The phrase is not part of the record, only the
+ * id it was given by whoever keeps the phrases.
+ *
+ * The remaining letters are not stored either, since they are the
+ * letters of the phrase that have not been guessed. Guessed characters
+ * other than the letters a to z are stored inline, up to
+ * {@link #MAX_OTHERS} of them; sessions with more cannot be encoded.
+ * <pre>
+ * offset  0  long   session id, never 0
+ * offset  8  long   guessed letters a to z, as by {@link LetterSet#bit}
+ * offset 16  int    phrase id
+ * offset 20  int    lives
+ * offset 24  int    hints
+ * offset 28  int    guesses made
+ * offset 32  char[] other guessed characters, padded with '\0'
+ * </pre>
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+final class SessionCodec {
+
+    /** The amount of other guessed characters a record holds. */
+    static final int MAX_OTHERS = 4;
+
+    /** The size of a record, in bytes. */
+    static final int SIZE = 2 * Long.BYTES + 4 * Integer.BYTES
+            + MAX_OTHERS * Character.BYTES;
+
+    /** The offset of the session id. */
+    private static final int ID = 0;
+
+    /** The offset of the guessed letters a to z. */
+    private static final int GUESSED = ID + Long.BYTES;
+
+    /** The offset of the phrase id. */
+    private static final int PHRASE = GUESSED + Long.BYTES;
+
+    /** The offset of the lives. */
+    private static final int LIVES = PHRASE + Integer.BYTES;
+
+    /** The offset of the hints. */
+    private static final int HINTS = LIVES + Integer.BYTES;
+
+    /** The offset of the amount of guesses made. */
+    private static final int GUESSES = HINTS + Integer.BYTES;
+
+    /** The offset of the other guessed characters. */
+    private static final int OTHERS = GUESSES + Integer.BYTES;
+
+    /** The padding after the last other guessed character. */
+    private static final char NO_OTHER = '\0';
+
+    /**
+     * Tells whether the given session fits in a record.
+     *
+     * @param session the session
+     * @return true iff at most {@link #MAX_OTHERS} characters other than
+     *         the letters a to z have been guessed, none of them '\0'
+     */
+    static boolean canEncode(final GameSession session) {
+        String others = session.getGuessedOthers();
+        return others.length() <= MAX_OTHERS
+                && others.indexOf(NO_OTHER) < 0;
+    }
+
+    /**
+     * Writes the record of the given session at the given offset.
+     *
+     * @param buffer   the buffer to write to
+     * @param offset   the offset of the record
+     * @param session  the session, which {@link #canEncode} must accept
+     * @param phraseId the id of the phrase of the session
+     */
+    static void write(final ByteBuffer buffer, final int offset,
+                      final GameSession session, final int phraseId) {
+        buffer.putLong(offset + ID, session.getId());
+        buffer.putLong(offset + GUESSED, session.getGuessedMask());
+        buffer.putInt(offset + PHRASE, phraseId);
+        buffer.putInt(offset + LIVES, session.getLives());
+        buffer.putInt(offset + HINTS, session.getHints());
+        buffer.putInt(offset + GUESSES, session.getGuessesMade());
+        String others = session.getGuessedOthers();
+        for (int i = 0; i < MAX_OTHERS; i++) {
+            char other = i < others.length() ? others.charAt(i) : NO_OTHER;
+            buffer.putChar(offset + OTHERS + i * Character.BYTES, other);
+        }
+    }
+
+    /**
+     * Reads the session id of the record at the given offset.
+     *
+     * @param buffer the buffer to read from
+     * @param offset the offset of the record
+     * @return the session id
+     */
+    static long readId(final ByteBuffer buffer, final int offset) {
+        return buffer.getLong(offset + ID);
+    }
+
+    /**
+     * Reads the phrase id of the record at the given offset.
+     *
+     * @param buffer the buffer to read from
+     * @param offset the offset of the record
+     * @return the phrase id
+     */
+    static int readPhraseId(final ByteBuffer buffer, final int offset) {
+        return buffer.getInt(offset + PHRASE);
+    }
+
+    /**
+     * Recreates the session whose record is at the given offset.
+     *
+     * @param buffer the buffer to read from
+     * @param offset the offset of the record
+     * @param phrase the phrase with the id in the record
+     * @return the session
+     */
+    static GameSession read(final ByteBuffer buffer, final int offset,
+                            final String phrase) {
+        long mask = buffer.getLong(offset + GUESSED);
+        StringBuilder guessed = new StringBuilder(LetterSet.ALPHABET_SIZE);
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            guessed.append((char) ('a' + Long.numberOfTrailingZeros(rest)));
+        }
+        for (int i = 0; i < MAX_OTHERS; i++) {
+            char other = buffer.getChar(offset + OTHERS + i * Character.BYTES);
+            if (other == NO_OTHER) {
+                break;
+            }
+            guessed.append(other);
+        }
+        return new GameSession(readId(buffer, offset), phrase,
+                buffer.getInt(offset + LIVES), buffer.getInt(offset + HINTS),
+                buffer.getInt(offset + GUESSES), guessed);
+    }
+
+    /** Hides the constructor for this utility class. */
+    private SessionCodec() {
+    }
+
+}
@@ -0,0 +1,770 @@
+package uk.ac.standrews.cs5031;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * An append-only journal of the changes to the {@link GameSession}s of a
+ * {@link SessionRegistry}, kept on local disk so that games in progress
+ * survive a restart.
+ *
+ * Sessions append a record whenever they are created, change or end,
+ * without waiting for the disk, nor for each other: records are handed
+ * to the committer through a lock-free queue, which the committer sleeps
+ * on only while it is empty. A single committer thread takes every
+ * record queued so far, writes them in one call and forces them to disk
+ * once, so the cost of forcing is shared by all records of the batch.
+ * A crash may lose the batch being committed, but records are checksummed,
+ * so a torn write is never replayed.
+ *
+ * The committer also applies each record to a replica of every session
+ * in progress. The replicas are kept encoded in a {@link SessionArena},
+ * outside the heap, and only recreated to apply a record to them, so
+ * journaling does not double the heap taken by each session, nor keep
+ * parked sessions on it. The rare sessions too large to encode are
+ * kept as they are. Every {@link #DEFAULT_SNAPSHOT_INTERVAL} records,
+ * the replicas are written to a snapshot and a new journal file is
+ * started, so restoring replays at most that many records, however long
+ * the journal has run.
+ *
+ * The directory holds the snapshot, which names the current generation,
+ * and the journal file of that generation:
+ * <pre>
+ * snapshot     magic, version, generation, count, sessions, CRC-32
+ * journal-N    records: length, CRC-32, type, session id, fields
+ * </pre>
+ *
+ * @author 150009974
+ * @version 1.3
+ */
+final class SessionJournal implements Closeable {
+
+    /** The name of the snapshot file. */
+    static final String SNAPSHOT = "snapshot";
+
+    /** The name of a journal file, followed by its generation. */
+    static final String JOURNAL_PREFIX = "journal-";
+
+    /** The amount of records between two snapshots, by default. */
+    static final int DEFAULT_SNAPSHOT_INTERVAL = 1 << 20;
+
+    /** The first bytes of a snapshot, "HGJS" in ASCII. */
+    static final int MAGIC = 0x48474A53;
+
+    /** The version of the format of the files. */
+    static final int VERSION = 1;
+
+    /** The amount of records that may wait for the committer. */
+    private static final int QUEUE_CAPACITY = 1 << 16;
+
+    /** The length and checksum before the body of each record. */
+    private static final int RECORD_HEADER = 2 * Integer.BYTES;
+
+    /** The type and session id starting the body of each record. */
+    private static final int BODY_HEADER = 1 + Long.BYTES;
+
+    /** The type of the record of a new session. */
+    private static final byte CREATED = 1;
+
+    /** The type of the record of a guessed letter. */
+    private static final byte LETTER = 2;
+
+    /** The type of the record of a guessed phrase. */
+    private static final byte PHRASE = 3;
+
+    /** The type of the record of a hint taken. */
+    private static final byte HINT = 4;
+
+    /** The type of the record of a session removed from its registry. */
+    private static final byte ENDED = 5;
+
+    /** Queued to stop the committer, compared by identity. */
+    private static final byte[] CLOSE = new byte[0];
+
+    /** The directory holding the files of the journal. */
+    private final Path directory;
+
+    /** The amount of records between two snapshots. */
+    private final int snapshotInterval;
+
+    /** The records waiting to be committed. */
+    private final Queue<byte[]> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The replicas of the sessions in progress, encoded, used by the
+     * committer only.
+     */
+    private final SessionArena replicas = new SessionArena();
+
+    /**
+     * The replicas that {@link SessionCodec#canEncode} refuses, by id,
+     * used by the committer only.
+     */
+    private final Map<Long, GameSession> largeReplicas = new HashMap<>();
+
+    /** The sessions restored when the journal was opened. */
+    private final List<GameSession> recovered;
+
+    /** The thread committing the records. */
+    private final Thread committer;
+
+    /** The journal file of the current generation. */
+    private FileChannel channel;
+
+    /** The current generation. */
+    private long generation;
+
+    /** The amount of records committed since the last snapshot. */
+    private int sinceSnapshot;
+
+    /** The buffer a batch is written from, reused between batches. */
+    private ByteBuffer batchBuffer = ByteBuffer.allocate(QUEUE_CAPACITY);
+
+    /** The amount of records appended. */
+    private final AtomicLong appended = new AtomicLong();
+
+    /**
+     * The amount of records committed, written by the committer only.
+     * Threads waiting for it to grow wait on this journal.
+     */
+    private volatile long committed;
+
+    /** Whether the committer is about to sleep until a record is queued. */
+    private volatile boolean sleeping;
+
+    /** Whether the journal is closed, set under this journal's lock. */
+    private volatile boolean closed;
+
+    /** Whether writing has failed. */
+    private volatile boolean failed;
+
+    /**
+     * Opens the journal in the given directory, restoring the sessions
+     * it holds, and starts committing.
+     *
+     * @param directory the directory of the journal, created if missing
+     * @return the journal
+     * @throws IOException if the journal cannot be read or started
+     */
+    static SessionJournal open(final Path directory) throws IOException {
+        return new SessionJournal(directory, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Opens the journal in the given directory with the given interval
+     * between snapshots.
+     *
+     * @param directory        the directory of the journal
+     * @param snapshotInterval the amount of records between two snapshots
+     * @return the journal
+     * @throws IOException if the journal cannot be read or started
+     */
+    static SessionJournal open(final Path directory,
+                               final int snapshotInterval)
+            throws IOException {
+        return new SessionJournal(directory, snapshotInterval);
+    }
+
+    /**
+     * Restores the sessions from the snapshot and journal in the given
+     * directory, compacts them into a new snapshot and starts committing.
+     *
+     * @param directory        the directory of the journal
+     * @param snapshotInterval the amount of records between two snapshots
+     * @throws IOException if the journal cannot be read or started
+     */
+    private SessionJournal(final Path directory, final int snapshotInterval)
+            throws IOException {
+        this.directory = directory;
+        this.snapshotInterval = snapshotInterval;
+        Files.createDirectories(directory);
+        Path snapshot = directory.resolve(SNAPSHOT);
+        if (Files.exists(snapshot)) {
+            readSnapshot(snapshot);
+        }
+        Path journal = journalPath(generation);
+        if (Files.exists(journal)) {
+            replay(ByteBuffer.wrap(Files.readAllBytes(journal)));
+        }
+        recovered = Collections.unmodifiableList(getReplicas());
+        rotate();
+        deleteStaleJournals();
+        committer = Thread.ofPlatform()
+                .name("hangman-journal")
+                .daemon()
+                .start(this::commit);
+    }
+
+    /**
+     * Retrieves the sessions restored when the journal was opened,
+     * leaving out those whose game was over.
+     *
+     * @return the restored sessions, not journaled yet
+     */
+    List<GameSession> getRecovered() {
+        return recovered;
+    }
+
+    /**
+     * Appends the record of a new session.
+     *
+     * @param id         the session id
+     * @param phrase     the phrase to be guessed
+     * @param letterMask the letter mask of the phrase
+     * @param lives      the amount of lives the player starts with
+     * @param hints      the amount of hints the player starts with
+     */
+    void created(final long id, final String phrase, final long letterMask,
+                 final int lives, final int hints) {
+        byte[] text = phrase.getBytes(UTF_8);
+        ByteBuffer record = record(CREATED, id,
+                Integer.BYTES + text.length + Long.BYTES + 2 * Integer.BYTES);
+        record.putInt(text.length).put(text).putLong(letterMask)
+                .putInt(lives).putInt(hints);
+        append(record);
+    }
+
+    /**
+     * Appends the record of a letter guessed for the first time.
+     *
+     * @param id    the session id
+     * @param lower the lower case letter
+     */
+    void guessedLetter(final long id, final char lower) {
+        append(record(LETTER, id, Character.BYTES).putChar(lower));
+    }
+
+    /**
+     * Appends the record of a guess of the whole phrase.
+     *
+     * @param id    the session id
+     * @param guess the guessed phrase
+     */
+    void guessedPhrase(final long id, final String guess) {
+        byte[] text = guess.getBytes(UTF_8);
+        append(record(PHRASE, id, Integer.BYTES + text.length)
+                .putInt(text.length).put(text));
+    }
+
+    /**
+     * Appends the record of a hint taken.
+     *
+     * @param id the session id
+     */
+    void tookHint(final long id) {
+        append(record(HINT, id, 0));
+    }
+
+    /**
+     * Appends the record of a session removed from its registry,
+     * which is then no longer restored.
+     *
+     * @param id the session id
+     */
+    void ended(final long id) {
+        append(record(ENDED, id, 0));
+    }
+
+    /**
+     * Waits until every record appended so far is on disk,
+     * or writing has failed, or the journal is closed.
+     */
+    void sync() {
+        awaitCommitted(appended.get());
+    }
+
+    /**
+     * Waits until the given amount of records has been committed,
+     * or writing has failed, or the committer has stopped.
+     *
+     * @param target the amount of records
+     */
+    private void awaitCommitted(final long target) {
+        boolean interrupted = false;
+        synchronized (this) {
+            while (committed < target && !failed && committer.isAlive()) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Commits every record appended so far and stops the committer.
+     * Records appended later are ignored, so that the sessions released
+     * as a server shuts down are still restored when it starts again.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        enqueue(CLOSE);
+        boolean interrupted = false;
+        while (committer.isAlive()) {
+            try {
+                committer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Starts a record with the given body size, leaving the checksum
+     * to be filled in by {@link #append(ByteBuffer)}.
+     *
+     * @param type    the type of the record
+     * @param id      the session id
+     * @param payload the amount of bytes of the fields of the record
+     * @return the record, positioned at its fields
+     */
+    private static ByteBuffer record(final byte type, final long id,
+                                     final int payload) {
+        int length = BODY_HEADER + payload;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + length);
+        return record.putInt(length).putInt(0).put(type).putLong(id);
+    }
+
+    /**
+     * Checksums the given record and queues it to be committed, waiting
+     * for room only if {@link #QUEUE_CAPACITY} records are already
+     * waiting for the committer.
+     *
+     * @param record the complete record
+     */
+    private void append(final ByteBuffer record) {
+        if (closed || failed) {
+            return;
+        }
+        long position = appended.incrementAndGet();
+        byte[] bytes = record.array();
+        CRC32 crc = new CRC32();
+        crc.update(bytes, RECORD_HEADER, bytes.length - RECORD_HEADER);
+        record.putInt(Integer.BYTES, (int) crc.getValue());
+        enqueue(bytes);
+        if (position - committed > QUEUE_CAPACITY) {
+            awaitCommitted(position - QUEUE_CAPACITY);
+        }
+    }
+
+    /**
+     * Queues a record and wakes the committer if it sleeps.
+     *
+     * @param record the record to queue
+     */
+    private void enqueue(final byte[] record) {
+        queue.offer(record);
+        // The committer sets sleeping before checking the queue again,
+        // so either it sees this record or this sees it sleeping.
+        if (sleeping) {
+            LockSupport.unpark(committer);
+        }
+    }
+
+    /**
+     * Waits until a record is queued. Only the committer calls this.
+     */
+    private void awaitRecord() {
+        sleeping = true;
+        while (queue.isEmpty()) {
+            LockSupport.park(this);
+            // Interrupts do not stop the committer, only closing does.
+            Thread.interrupted();
+        }
+        sleeping = false;
+    }
+
+    /** Commits records in batches as they are queued, until closed. */
+    private void commit() {
+        List<byte[]> batch = new ArrayList<>();
+        boolean closing = false;
+        while (!closing) {
+            awaitRecord();
+            for (byte[] record = queue.poll(); record != null;
+                 record = queue.poll()) {
+                batch.add(record);
+            }
+            closing = batch.remove(CLOSE);
+            if (!failed) {
+                try {
+                    write(batch);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+            synchronized (this) {
+                committed += batch.size();
+                notifyAll();
+            }
+            batch.clear();
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Everything committed has already been forced to disk.
+        }
+    }
+
+    /**
+     * Writes a batch of records to the journal file in one call, forces
+     * it to disk, then applies the records to the replicas, taking a
+     * snapshot if one is due.
+     *
+     * @param batch the records
+     * @throws IOException if the journal cannot be written
+     */
+    private void write(final List<byte[]> batch) throws IOException {
+        int size = 0;
+        for (byte[] record : batch) {
+            size += record.length;
+        }
+        if (batchBuffer.capacity() < size) {
+            batchBuffer = ByteBuffer.allocate(Integer.highestOneBit(size) << 1);
+        }
+        batchBuffer.clear();
+        for (byte[] record : batch) {
+            batchBuffer.put(record);
+        }
+        batchBuffer.flip();
+        while (batchBuffer.hasRemaining()) {
+            channel.write(batchBuffer);
+        }
+        channel.force(false);
+        for (byte[] record : batch) {
+            apply(ByteBuffer.wrap(record, RECORD_HEADER,
+                    record.length - RECORD_HEADER));
+        }
+        sinceSnapshot += batch.size();
+        if (sinceSnapshot >= snapshotInterval) {
+            rotate();
+        }
+    }
+
+    /**
+     * Stops writing records after the journal could not be written.
+     * Games go on, but they are no longer saved.
+     *
+     * @param e the cause of the failure
+     */
+    private void fail(final IOException e) {
+        synchronized (this) {
+            failed = true;
+            notifyAll();
+        }
+        System.err.println("Games are no longer saved: " + e.getMessage());
+    }
+
+    /**
+     * Applies each complete record of a journal file to the replicas.
+     * Replay stops at the first torn or corrupt record, which can only be
+     * the last one written before a crash.
+     *
+     * @param journal the contents of the journal file
+     */
+    private void replay(final ByteBuffer journal) {
+        CRC32 crc = new CRC32();
+        while (journal.remaining() >= RECORD_HEADER) {
+            int length = journal.getInt();
+            int checksum = journal.getInt();
+            if (length < BODY_HEADER || length > journal.remaining()) {
+                return;
+            }
+            ByteBuffer body = journal.slice(journal.position(), length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                return;
+            }
+            apply(body);
+            journal.position(journal.position() + length);
+        }
+    }
+
+    /**
+     * Applies the body of a record to the replicas. Replicas whose game
+     * is over are dropped, since they are never restored.
+     * Records of unknown sessions are skipped.
+     *
+     * @param body the body of the record
+     */
+    private void apply(final ByteBuffer body) {
+        byte type = body.get();
+        long id = body.getLong();
+        if (type == CREATED) {
+            String phrase = getString(body);
+            long letterMask = body.getLong();
+            int lives = body.getInt();
+            int hints = body.getInt();
+            keep(new GameSession(id, phrase, letterMask, lives, hints));
+            return;
+        }
+        GameSession replica = take(id);
+        if (replica == null) {
+            return;
+        }
+        switch (type) {
+            case LETTER:
+                replica.apply(GameEvent.letter(body.getChar()));
+                break;
+            case PHRASE:
+                replica.apply(GameEvent.phrase(getString(body)));
+                break;
+            case HINT:
+                // Only the amount of hints is saved, not the letter,
+                // so any remaining letter will do.
+                replica.apply(GameEvent.hint(0));
+                break;
+            case ENDED:
+                return;
+            default:
+                break;
+        }
+        keep(replica);
+    }
+
+    /**
+     * Keeps the given replica, encoded if it can be, unless its game
+     * is over.
+     *
+     * @param replica the replica, not kept already
+     */
+    private void keep(final GameSession replica) {
+        if (replica.isOver()) {
+            return;
+        }
+        if (SessionCodec.canEncode(replica)) {
+            replicas.park(replica);
+        } else {
+            largeReplicas.put(replica.getId(), replica);
+        }
+    }
+
+    /**
+     * Removes the replica with the given id, recreating it if encoded.
+     *
+     * @param id the session id
+     * @return the replica, or null if there is none
+     */
+    private GameSession take(final long id) {
+        GameSession replica = replicas.take(id);
+        return replica != null ? replica : largeReplicas.remove(id);
+    }
+
+    /**
+     * Recreates every replica, leaving them kept.
+     *
+     * @return new sessions with the states of the replicas
+     */
+    private List<GameSession> getReplicas() {
+        List<GameSession> sessions = new ArrayList<>();
+        for (long id : replicas.getIds()) {
+            sessions.add(replicas.get(id));
+        }
+        for (GameSession replica : largeReplicas.values()) {
+            sessions.add(copy(replica));
+        }
+        return sessions;
+    }
+
+    /**
+     * Reads a string written as its length followed by its UTF-8 bytes.
+     *
+     * @param in the buffer to read from
+     * @return the string
+     */
+    private static String getString(final ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Copies the state of a session into a new one, which is not journaled.
+     *
+     * @param session the session
+     * @return the copy
+     */
+    private static GameSession copy(final GameSession session) {
+        return new GameSession(session.getId(), session.getPhrase(),
+                session.getLives(), session.getHints(),
+                session.getGuessesMade(), session.getGuessedLetters());
+    }
+
+    /**
+     * Retrieves the path of the journal file of the given generation.
+     *
+     * @param number the generation
+     * @return the path of the journal file
+     */
+    private Path journalPath(final long number) {
+        return directory.resolve(JOURNAL_PREFIX + number);
+    }
+
+    /**
+     * Reads the replicas and the generation from the given snapshot.
+     *
+     * @param snapshot the snapshot file
+     * @throws IOException if the snapshot is corrupt or unreadable
+     */
+    private void readSnapshot(final Path snapshot) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+        int end = in.limit() - Long.BYTES;
+        if (end < 2 * Integer.BYTES + Long.BYTES + Integer.BYTES) {
+            throw new IOException("The journal snapshot is truncated.");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(in.array(), 0, end);
+        if (crc.getValue() != in.getLong(end)) {
+            throw new IOException("The journal snapshot is corrupt.");
+        }
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+            throw new IOException("The journal snapshot is not supported.");
+        }
+        generation = in.getLong();
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            long id = in.getLong();
+            String phrase = getString(in);
+            int lives = in.getInt();
+            int hints = in.getInt();
+            int guessesMade = in.getInt();
+            String guessed = getString(in);
+            keep(new GameSession(id, phrase, lives, hints, guessesMade,
+                    guessed));
+        }
+    }
+
+    /**
+     * Writes the replicas to a snapshot of the next generation and
+     * starts the journal file of that generation.
+     * The snapshot is written to a temporary file and moved over the
+     * previous one, so a crash leaves either snapshot complete.
+     *
+     * @throws IOException if the snapshot or journal cannot be written
+     */
+    private void rotate() throws IOException {
+        long next = generation + 1;
+        Path temp = directory.resolve(SNAPSHOT + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileChannel file = FileChannel.open(temp,
+                CREATE, TRUNCATE_EXISTING, WRITE);
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(new CheckedOutputStream(
+                             Channels.newOutputStream(file), crc)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(next);
+            List<GameSession> live = getReplicas();
+            out.writeInt(live.size());
+            for (GameSession replica : live) {
+                out.writeLong(replica.getId());
+                writeString(out, replica.getPhrase());
+                out.writeInt(replica.getLives());
+                out.writeInt(replica.getHints());
+                out.writeInt(replica.getGuessesMade());
+                writeString(out, replica.getGuessedLetters());
+            }
+            out.flush();
+            out.writeLong(crc.getValue());
+            out.flush();
+            file.force(true);
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT),
+                ATOMIC_MOVE, REPLACE_EXISTING);
+        forceDirectory();
+        FileChannel previous = channel;
+        channel = FileChannel.open(journalPath(next),
+                CREATE, TRUNCATE_EXISTING, WRITE);
+        if (previous != null) {
+            previous.close();
+        }
+        Files.deleteIfExists(journalPath(generation));
+        generation = next;
+        sinceSnapshot = 0;
+    }
+
+    /**
+     * Writes a string as its length followed by its UTF-8 bytes.
+     *
+     * @param out  the stream to write to
+     * @param text the string
+     * @throws IOException if the stream cannot be written
+     */
+    private static void writeString(final DataOutputStream out,
+                                    final String text) throws IOException {
+        byte[] bytes = text.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Forces the directory to disk, so that a moved snapshot stays moved.
+     * Not every platform allows this, in which case it is skipped.
+     */
+    private void forceDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, READ)) {
+            dir.force(true);
+        } catch (IOException ignored) {
+            // The platform does not support forcing directories.
+        }
+    }
+
+    /**
+     * Deletes the journal files of generations other than the current one,
+     * left behind by a crash during a snapshot.
+     *
+     * @throws IOException if the directory cannot be listed
+     */
+    private void deleteStaleJournals() throws IOException {
+        Path current = journalPath(generation);
+        try (DirectoryStream<Path> journals = Files.newDirectoryStream(
+                directory, JOURNAL_PREFIX + "*")) {
+            for (Path journal : journals) {
+                if (!journal.equals(current)) {
+                    Files.deleteIfExists(journal);
+                }
+            }
+        }
+    }
+
+}
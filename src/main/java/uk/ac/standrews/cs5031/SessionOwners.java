@@ -0,0 +1,99 @@
+package uk.ac.standrews.cs5031;
+
+import java.io.Closeable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Gives every {@link GameSession} an owner thread, so that sessions are
+ * only ever changed by one thread and need no locks, as actors.
+ *
+ * There is one owner per core, each with its own mailbox of work, and a
+ * session belongs to the owner its id maps to. Work on a session is
+ * posted to the mailbox of its owner, and done in the order posted.
+ * Work on sessions of different owners runs in parallel.
+ *
+ * On the line protocol, a connection plays one game at a time, so the
+ * thread serving the connection already owns its session. Owners are for
+ * engines where requests for the same session may arrive on different
+ * threads, such as {@link HttpGameServer}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+final class SessionOwners implements Closeable {
+
+    /** The owner threads, each running the work of its mailbox in order. */
+    private final ExecutorService[] owners;
+
+    /** Creates an owner per core. */
+    SessionOwners() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates the given amount of owners.
+     *
+     * @param count the amount of owners, at least 1
+     */
+    SessionOwners(final int count) {
+        ThreadFactory factory = Thread.ofPlatform()
+                .name("hangman-owner-", 0)
+                .daemon()
+                .factory();
+        owners = new ExecutorService[count];
+        for (int i = 0; i < count; i++) {
+            owners[i] = Executors.newSingleThreadExecutor(factory);
+        }
+    }
+
+    /**
+     * Does the given work on the owner of the given session and waits
+     * for its result.
+     *
+     * @param id   the session id
+     * @param work the work, which may use the session without locking it
+     * @param <T>  the type of the result
+     * @return the result of the work
+     * @throws InterruptedException if interrupted while waiting
+     */
+    <T> T call(final long id, final Callable<T> work)
+            throws InterruptedException {
+        Future<T> result = owners[ownerOf(id)].submit(work);
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Retrieves the owner of the given session.
+     *
+     * @param id the session id
+     * @return the index of the owner
+     */
+    int ownerOf(final long id) {
+        return (int) Math.floorMod(id, (long) owners.length);
+    }
+
+    /** Stops the owners once they have done the work already posted. */
+    @Override
+    public void close() {
+        for (ExecutorService owner : owners) {
+            owner.shutdown();
+        }
+    }
+
+}
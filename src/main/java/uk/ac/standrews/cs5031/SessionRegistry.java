@@ -0,0 +1,461 @@
+package uk.ac.standrews.cs5031;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps track of the {@link GameSession}s hosted by this process.
+ * Sessions are created with unique ids and can be looked up by id
+ * from any thread.
+ *
+ * The id of a session is all a player needs to play it, over HTTP or to
+ * resume it, so ids are drawn at random from a secure source rather than
+ * counted, and cannot be guessed from the ids of other sessions.
+ *
+ * A registry may keep a {@link SessionJournal} of its sessions, so that
+ * they can be restored after a restart. Restored sessions have no player
+ * until one claims them by id.
+ *
+ * Sessions left idle may be parked in a {@link SessionArena}, outside the
+ * heap, and are recreated by the next {@link #get(long)}. Players should
+ * therefore only keep the id of their session while waiting for input,
+ * and get the session again afterwards.
+ *
+ * The registry does not lock sessions: each session should only be
+ * changed by one thread at a time, its owner, see {@link SessionOwners}.
+ *
+ * The sessions are split into {@link SessionShard}s, one per core by
+ * default, and ids are mapped to shards by a {@link HashRing}. Shards can
+ * be added while sessions are played, moving only the sessions the new
+ * shard takes over.
+ *
+ * @author 150009974
+ * @version 1.5
+ */
+public final class SessionRegistry {
+
+    /** The amount of sessions the registry is sized for by default. */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /** The id that no session is given. */
+    public static final long NO_ID = 0;
+
+    /**
+     * The bound on session ids, which are below 2<sup>53</sup> so that
+     * they are exact as JSON numbers in browsers.
+     */
+    static final long ID_BOUND = 1L << 53;
+
+    /** The least amount of sessions a registry is sized for per shard. */
+    public static final int MIN_SHARD_CAPACITY = 1 << 10;
+
+    /**
+     * The amount of stripes of the lock guarding the ring and the shards,
+     * a power of two.
+     */
+    private static final int LAYOUT_STRIPES = 64;
+
+    /**
+     * Guards the ring and the shards, written only to add a shard.
+     * Readers only lock the stripe of their thread, so that look ups on
+     * many threads do not contend on a single lock, while adding a shard
+     * locks every stripe.
+     */
+    private final ReadWriteLock[] layout = new ReadWriteLock[LAYOUT_STRIPES];
+
+    /** Maps session ids to shards. */
+    private HashRing ring;
+
+    /** The shards, in the order of the ring. */
+    private SessionShard[] shards;
+
+    /** The amount of sessions the registry is sized for per shard. */
+    private final int shardCapacity;
+
+    /** The source session ids are drawn from. */
+    private final SecureRandom ids = new SecureRandom();
+
+    /** The journal of the sessions, or null if they are not journaled. */
+    private final SessionJournal journal;
+
+    /** The ids of the restored sessions that no player has claimed. */
+    private final Set<Long> unclaimed = ConcurrentHashMap.newKeySet();
+
+    /** Creates a registry sized for {@link #DEFAULT_CAPACITY} sessions. */
+    public SessionRegistry() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a registry sized for the given amount of sessions, with a
+     * shard per core, but no more than one per
+     * {@link #MIN_SHARD_CAPACITY} sessions.
+     *
+     * @param capacity the expected amount of concurrent sessions
+     */
+    public SessionRegistry(final int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * Creates a registry sized for the given amount of sessions, split into
+     * the given amount of shards.
+     *
+     * @param capacity the expected amount of concurrent sessions
+     * @param shards   the amount of shards, at least 1
+     */
+    public SessionRegistry(final int capacity, final int shards) {
+        this(capacity, shards, null);
+    }
+
+    /**
+     * Creates a registry sized for the given amount of sessions,
+     * appending every change to its sessions to the given journal.
+     *
+     * @param capacity the expected amount of concurrent sessions
+     * @param journal  the journal, or null not to keep one
+     */
+    SessionRegistry(final int capacity, final SessionJournal journal) {
+        this(capacity, Math.max(1, Math.min(
+                Runtime.getRuntime().availableProcessors(),
+                capacity / MIN_SHARD_CAPACITY)), journal);
+    }
+
+    /**
+     * Creates a registry sized for the given amount of sessions, split into
+     * the given amount of shards, appending every change to its sessions
+     * to the given journal.
+     *
+     * @param capacity the expected amount of concurrent sessions
+     * @param shards   the amount of shards, at least 1
+     * @param journal  the journal, or null not to keep one
+     */
+    SessionRegistry(final int capacity, final int shards,
+                    final SessionJournal journal) {
+        if (shards < 1) {
+            String message = "A registry needs at least one shard";
+            throw new IllegalArgumentException(message);
+        }
+        this.journal = journal;
+        for (int i = 0; i < LAYOUT_STRIPES; i++) {
+            layout[i] = new ReentrantReadWriteLock();
+        }
+        shardCapacity = Math.max(1, capacity / shards);
+        ring = new HashRing(shards);
+        this.shards = new SessionShard[shards];
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = new SessionShard(shardCapacity, journal);
+        }
+    }
+
+    /**
+     * Tells whether the sessions are journaled, and so may be resumed
+     * after a restart.
+     *
+     * @return true iff the registry has a journal
+     */
+    public boolean isJournaled() {
+        return journal != null;
+    }
+
+    /**
+     * Creates and registers a new session.
+     *
+     * @param phrase the phrase to be guessed
+     * @param lives  the amount of lives the player starts with
+     * @param hints  the amount of hints the player starts with
+     * @return the new session
+     */
+    public GameSession create(final String phrase,
+                              final int lives, final int hints) {
+        return create(phrase, LetterSet.OTHERS_FLAG, lives, hints);
+    }
+
+    /**
+     * Creates and registers a new session for a phrase whose letters have
+     * been computed in advance.
+     *
+     * @param phrase     the phrase to be guessed
+     * @param letterMask the letter mask of the phrase
+     * @param lives      the amount of lives the player starts with
+     * @param hints      the amount of hints the player starts with
+     * @return the new session
+     * @see GameSession#GameSession(long, String, long, int, int)
+     */
+    public GameSession create(final String phrase, final long letterMask,
+                              final int lives, final int hints) {
+        long id = newId();
+        GameSession session =
+                new GameSession(id, phrase, letterMask, lives, hints);
+        if (journal != null) {
+            journal.created(id, phrase, letterMask, lives, hints);
+            session.journalTo(journal);
+        }
+        Lock read = readLock();
+        read.lock();
+        try {
+            shardOf(id).put(session);
+        } finally {
+            read.unlock();
+        }
+        return session;
+    }
+
+    /**
+     * Draws the id of a new session at random, among the ids from 1 to
+     * {@link #ID_BOUND} that no session hosted has, parked or not.
+     *
+     * @return the id
+     */
+    private long newId() {
+        while (true) {
+            long id = ids.nextLong(NO_ID + 1, ID_BOUND);
+            Lock read = readLock();
+            read.lock();
+            try {
+                if (!shardOf(id).contains(id)) {
+                    return id;
+                }
+            } finally {
+                read.unlock();
+            }
+        }
+    }
+
+    /**
+     * Retrieves the session with the given id, recreating it if it was
+     * parked, and records that it is in use.
+     *
+     * @param id the session id
+     * @return the session, or null if there is no such session
+     */
+    public GameSession get(final long id) {
+        long now = System.nanoTime();
+        Lock read = readLock();
+        read.lock();
+        try {
+            return shardOf(id).get(id, now);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Removes the session with the given id, whether parked or not.
+     *
+     * @param id the session id
+     * @return the removed session, or null if there was no such session
+     */
+    public GameSession remove(final long id) {
+        GameSession removed;
+        Lock read = readLock();
+        read.lock();
+        try {
+            removed = shardOf(id).remove(id);
+        } finally {
+            read.unlock();
+        }
+        unclaimed.remove(id);
+        if (removed != null && journal != null) {
+            journal.ended(id);
+        }
+        return removed;
+    }
+
+    /**
+     * Retrieves the amount of sessions currently parked.
+     *
+     * @return the amount of parked sessions
+     */
+    public int getParked() {
+        int parked = 0;
+        Lock read = readLock();
+        read.lock();
+        try {
+            for (SessionShard shard : shards) {
+                parked += shard.getParked();
+            }
+        } finally {
+            read.unlock();
+        }
+        return parked;
+    }
+
+    /**
+     * Parks every session that has not been used for at least the given
+     * time, unless it guessed too many characters other than letters to
+     * be encoded. Sessions are recreated by {@link #get(long)}.
+     *
+     * @param idleNanos the idle time, in nanoseconds
+     */
+    void parkIdle(final long idleNanos) {
+        long now = System.nanoTime();
+        Lock read = readLock();
+        read.lock();
+        try {
+            for (SessionShard shard : shards) {
+                shard.parkIdle(now, idleNanos);
+            }
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Starts a daemon thread that parks the sessions left idle for at
+     * least the given time, checking twice per that time.
+     *
+     * @param idleNanos the idle time, in nanoseconds
+     */
+    void startParking(final long idleNanos) {
+        long period =
+                Math.max(1, TimeUnit.NANOSECONDS.toMillis(idleNanos / 2));
+        Thread.ofPlatform()
+                .name("hangman-session-parker")
+                .daemon()
+                .start(() -> {
+                    try {
+                        while (true) {
+                            Thread.sleep(period);
+                            parkIdle(idleNanos);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+    }
+
+    /**
+     * Retrieves the amount of shards.
+     *
+     * @return the amount of shards
+     */
+    public int getShards() {
+        Lock read = readLock();
+        read.lock();
+        try {
+            return shards.length;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Adds a shard, moving to it the sessions it takes over from the
+     * others, whether parked or not. Look ups wait for the move.
+     *
+     * @return the amount of sessions moved
+     */
+    public int addShard() {
+        for (ReadWriteLock stripe : layout) {
+            stripe.writeLock().lock();
+        }
+        try {
+            HashRing grown = ring.withShard();
+            SessionShard[] added =
+                    Arrays.copyOf(shards, shards.length + 1);
+            added[shards.length] = new SessionShard(shardCapacity, journal);
+            int moved = 0;
+            for (int i = 0; i < shards.length; i++) {
+                moved += shards[i].rebalance(grown, i, added);
+            }
+            ring = grown;
+            shards = added;
+            return moved;
+        } finally {
+            for (int i = LAYOUT_STRIPES - 1; i >= 0; i--) {
+                layout[i].writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Retrieves the read lock of the stripe of the current thread.
+     *
+     * @return the read lock
+     */
+    private Lock readLock() {
+        long thread = Thread.currentThread().threadId();
+        return layout[(int) thread & (LAYOUT_STRIPES - 1)].readLock();
+    }
+
+    /**
+     * Retrieves the shard of the given session id.
+     * The caller must hold a read lock of {@link #layout}.
+     *
+     * @param id the session id
+     * @return the shard
+     */
+    private SessionShard shardOf(final long id) {
+        return shards[ring.shardOf(id)];
+    }
+
+    /**
+     * Hosts the given sessions, restored from the journal, until players
+     * claim them. New sessions are not given their ids.
+     *
+     * @param restored the restored sessions
+     */
+    void restore(final Collection<GameSession> restored) {
+        for (GameSession session : restored) {
+            session.journalTo(journal);
+            Lock read = readLock();
+            read.lock();
+            try {
+                shardOf(session.getId()).put(session);
+            } finally {
+                read.unlock();
+            }
+            unclaimed.add(session.getId());
+        }
+    }
+
+    /**
+     * Hands a restored session over to the player resuming it.
+     * Each session can only be claimed once.
+     *
+     * @param reference the session id after {@link Renderer#RESUME_PREFIX}
+     * @return the session, or null if the reference is not the id of an
+     *         unclaimed restored session
+     */
+    public GameSession claim(final String reference) {
+        if (!reference.startsWith(Renderer.RESUME_PREFIX)) {
+            return null;
+        }
+        long id;
+        try {
+            id = Long.parseLong(
+                    reference.substring(Renderer.RESUME_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return unclaimed.remove(id) ? get(id) : null;
+    }
+
+    /**
+     * Retrieves the amount of sessions currently hosted, parked or not.
+     *
+     * @return the amount of sessions
+     */
+    public int size() {
+        int size = 0;
+        Lock read = readLock();
+        read.lock();
+        try {
+            for (SessionShard shard : shards) {
+                size += shard.size();
+            }
+        } finally {
+            read.unlock();
+        }
+        return size;
+    }
+
+}
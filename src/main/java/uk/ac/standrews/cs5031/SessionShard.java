@@ -0,0 +1,203 @@
+package uk.ac.standrews.cs5031;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One shard of a {@link SessionRegistry}: the sessions whose ids the
+ * {@link HashRing} of the registry maps to it, live or parked.
+ *
+ * Each shard has its own table and its own {@link SessionArena}, so that
+ * threads working on sessions of different shards share nothing, and
+ * parking only ever holds the lock of one shard's arena.
+ *
+ * @author 150009974
+ * @version 1.2
+ */
+final class SessionShard {
+
+    /** The live sessions of the shard, by id. */
+    private final ConcurrentHashMap<Long, GameSession> sessions;
+
+    /** The sessions parked while idle, guarded by its own lock. */
+    private final SessionArena arena = new SessionArena();
+
+    /** The journal of the sessions, or null if they are not journaled. */
+    private final SessionJournal journal;
+
+    /**
+     * Creates an empty shard sized for the given amount of sessions.
+     *
+     * @param capacity the expected amount of concurrent sessions
+     * @param journal  the journal to re-attach unparked sessions to,
+     *                 or null if they are not journaled
+     */
+    SessionShard(final int capacity, final SessionJournal journal) {
+        sessions = new ConcurrentHashMap<>(capacity);
+        this.journal = journal;
+    }
+
+    /**
+     * Adds the given live session.
+     *
+     * @param session the session
+     */
+    void put(final GameSession session) {
+        sessions.put(session.getId(), session);
+    }
+
+    /**
+     * Retrieves the session with the given id, recreating it if it was
+     * parked, and records that it is in use at the given time.
+     *
+     * @param id  the session id
+     * @param now the time, as by {@link System#nanoTime}
+     * @return the session, or null if it is not in this shard
+     */
+    GameSession get(final long id, final long now) {
+        // Touching within compute keeps parkIdle from parking the session
+        // between its look up and its use.
+        return sessions.compute(id, (key, session) -> {
+            GameSession found = session != null ? session : unpark(key);
+            if (found != null) {
+                found.touch(now);
+            }
+            return found;
+        });
+    }
+
+    /**
+     * Removes the session with the given id, whether parked or not.
+     *
+     * @param id the session id
+     * @return the removed session, or null if it is not in this shard
+     */
+    GameSession remove(final long id) {
+        GameSession removed = sessions.remove(id);
+        return removed != null ? removed : unpark(id);
+    }
+
+    /**
+     * Tells whether the session with the given id is in this shard,
+     * parked or not.
+     *
+     * @param id the session id
+     * @return true iff the session is in this shard
+     */
+    boolean contains(final long id) {
+        if (sessions.containsKey(id)) {
+            return true;
+        }
+        synchronized (arena) {
+            return arena.contains(id);
+        }
+    }
+
+    /**
+     * Retrieves the amount of sessions parked in this shard.
+     *
+     * @return the amount of parked sessions
+     */
+    int getParked() {
+        synchronized (arena) {
+            return arena.size();
+        }
+    }
+
+    /**
+     * Retrieves the amount of sessions in this shard, parked or not.
+     *
+     * @return the amount of sessions
+     */
+    int size() {
+        return sessions.size() + getParked();
+    }
+
+    /**
+     * Parks every session of this shard that has not been used since
+     * the given time, unless it cannot be encoded. A session is parked
+     * with the last turn applied to it, even if its owner thread applied
+     * the turn outside of the table, as its state is volatile.
+     *
+     * @param now       the time, as by {@link System#nanoTime}
+     * @param idleNanos the idle time, in nanoseconds
+     * @see SessionRegistry#parkIdle(long)
+     */
+    void parkIdle(final long now, final long idleNanos) {
+        for (Long id : sessions.keySet()) {
+            sessions.computeIfPresent(id, (key, session) -> {
+                if (!session.isIdle(now, idleNanos)
+                        || !SessionCodec.canEncode(session)) {
+                    return session;
+                }
+                synchronized (arena) {
+                    arena.park(session);
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Moves the sessions that the given ring no longer maps to this
+     * shard to the shards it maps them to. Live sessions move as they
+     * are, so that players holding them keep the same session. Parked
+     * sessions move in their encoded form, staying parked.
+     *
+     * @param ring   the new ring
+     * @param index  the index of this shard in the ring
+     * @param shards the shards of the new ring
+     * @return the amount of sessions moved
+     */
+    int rebalance(final HashRing ring, final int index,
+                  final SessionShard[] shards) {
+        int moved = 0;
+        for (GameSession session : sessions.values()) {
+            int target = ring.shardOf(session.getId());
+            if (target != index) {
+                shards[target].put(session);
+                sessions.remove(session.getId());
+                moved++;
+            }
+        }
+        synchronized (arena) {
+            for (long id : arena.getIds()) {
+                int target = ring.shardOf(id);
+                if (target != index) {
+                    shards[target].park(arena.take(id));
+                    moved++;
+                }
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Parks the given session as it is, however recently it was used.
+     *
+     * @param session the session, which {@link SessionCodec#canEncode}
+     *                must accept
+     */
+    private void park(final GameSession session) {
+        synchronized (arena) {
+            arena.park(session);
+        }
+    }
+
+    /**
+     * Recreates the parked session with the given id, no longer parked.
+     *
+     * @param id the session id
+     * @return the session, or null if it was not parked
+     */
+    private GameSession unpark(final long id) {
+        GameSession session;
+        synchronized (arena) {
+            session = arena.take(id);
+        }
+        if (session != null && journal != null) {
+            session.journalTo(journal);
+        }
+        return session;
+    }
+
+}
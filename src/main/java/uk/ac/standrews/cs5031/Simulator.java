@@ -0,0 +1,308 @@
+package uk.ac.standrews.cs5031;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays games with no input or output, to tune the rules by simulation.
+ * The guesses are made by a {@link GuessStrategy}, and games are spread
+ * across all cores with fork/join.
+ *
+ * Each batch of games draws from its own source seeded from the seed of
+ * the simulator, so the results only depend on the seed and not on how
+ * the games were scheduled.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class Simulator {
+
+    /** The amount of games played on one thread before splitting. */
+    private static final int BATCH_SIZE = 1024;
+
+    /** Spreads the seeds of the batches over the range of a long. */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** The strategy of the simulated player. */
+    private final GuessStrategy strategy;
+
+    /** The amount of lives the player starts with. */
+    private final int lives;
+
+    /** The amount of hints the player starts with. */
+    private final int hints;
+
+    /** The seed of the simulation. */
+    private final long seed;
+
+    /** The pool playing the games. */
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    /** The outcome of the games simulated in a category. */
+    public static final class Result {
+
+        /** The name of the category. */
+        private final String category;
+
+        /** The amount of games played. */
+        private long games;
+
+        /** The amount of games won. */
+        private long won;
+
+        /** The amount of guesses made, over all games. */
+        private long guesses;
+
+        /** The amount of hints taken, over all games. */
+        private long hintsTaken;
+
+        /**
+         * Creates an empty result.
+         *
+         * @param category the name of the category
+         */
+        Result(final String category) {
+            this.category = category;
+        }
+
+        /**
+         * Records the outcome of a game.
+         *
+         * @param session the game, which is over or given up
+         * @param taken   the amount of hints taken in the game
+         */
+        void record(final GameSession session, final int taken) {
+            games++;
+            if (session.hasWon()) {
+                won++;
+            }
+            guesses += session.getGuessesMade();
+            hintsTaken += taken;
+        }
+
+        /**
+         * Adds the games of another result to this one.
+         *
+         * @param other the other result
+         * @return this result
+         */
+        Result merge(final Result other) {
+            games += other.games;
+            won += other.won;
+            guesses += other.guesses;
+            hintsTaken += other.hintsTaken;
+            return this;
+        }
+
+        /**
+         * Retrieves the name of the category.
+         *
+         * @return the category name
+         */
+        public String getCategory() {
+            return category;
+        }
+
+        /**
+         * Retrieves the amount of games played.
+         *
+         * @return the amount of games
+         */
+        public long getGames() {
+            return games;
+        }
+
+        /**
+         * Retrieves the amount of games won.
+         *
+         * @return the amount of wins
+         */
+        public long getWon() {
+            return won;
+        }
+
+        /**
+         * Retrieves the fraction of games won.
+         *
+         * @return the win rate, from 0 to 1
+         */
+        public double getWinRate() {
+            return games == 0 ? 0 : (double) won / games;
+        }
+
+        /**
+         * Retrieves the average amount of guesses made per game,
+         * as counted by {@link GameSession#getGuessesMade()}.
+         *
+         * @return the average amount of guesses
+         */
+        public double getAverageGuesses() {
+            return games == 0 ? 0 : (double) guesses / games;
+        }
+
+        /**
+         * Retrieves the average amount of hints taken per game.
+         *
+         * @return the average amount of hints
+         */
+        public double getAverageHints() {
+            return games == 0 ? 0 : (double) hintsTaken / games;
+        }
+
+    }
+
+    /** Plays a range of games in a category, splitting it if large. */
+    @SuppressWarnings("serial") // Tasks are never serialized.
+    private final class Batch extends RecursiveTask<Result> {
+
+        /** The category to play. */
+        private final PhraseCategory category;
+
+        /** The number of the first game of the batch. */
+        private final int first;
+
+        /** The number just past the last game of the batch. */
+        private final int last;
+
+        /**
+         * Creates a batch of games.
+         *
+         * @param category the category to play
+         * @param first    the number of the first game
+         * @param last     the number just past the last game
+         */
+        Batch(final PhraseCategory category, final int first,
+              final int last) {
+            this.category = category;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected Result compute() {
+            if (last - first > BATCH_SIZE) {
+                int middle = (first + last) >>> 1;
+                Batch left = new Batch(category, first, middle);
+                left.fork();
+                Result right = new Batch(category, middle, last).compute();
+                return left.join().merge(right);
+            }
+            Result result = new Result(category.getName());
+            RandomSource random =
+                    RandomSource.seeded(seed + GOLDEN_GAMMA * (first + 1));
+            for (int game = first; game < last; game++) {
+                int index = Phrases.getRandomIndex(category, random);
+                GameSession session = new GameSession(game,
+                        category.getPhrase(index),
+                        category.getLetterMask(index), lives, hints);
+                result.record(session, play(session, random));
+            }
+            return result;
+        }
+
+    }
+
+    /**
+     * Creates a simulator.
+     *
+     * @param strategy the strategy of the simulated player
+     * @param lives    the amount of lives the player starts with
+     * @param hints    the amount of hints the player starts with
+     * @param seed     the seed of the simulation
+     */
+    public Simulator(final GuessStrategy strategy, final int lives,
+                     final int hints, final long seed) {
+        this.strategy = strategy;
+        this.lives = lives;
+        this.hints = hints;
+        this.seed = seed;
+    }
+
+    /**
+     * Plays the given amount of games in each category of {@link Phrases},
+     * all categories at once.
+     *
+     * @param games the amount of games per category
+     * @return the results, in order of category id
+     */
+    public List<Result> run(final int games) {
+        PhraseStore store = Phrases.getStore();
+        List<ForkJoinTask<Result>> tasks = new ArrayList<>();
+        for (int id = 0; id < store.size(); id++) {
+            if (store.contains(id)) {
+                tasks.add(pool.submit(new Batch(store.get(id), 0, games)));
+            }
+        }
+        List<Result> results = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<Result> task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    /**
+     * Plays the given amount of games in a single category.
+     *
+     * @param category the category
+     * @param games    the amount of games
+     * @return the result
+     */
+    Result simulate(final PhraseCategory category, final int games) {
+        return pool.invoke(new Batch(category, 0, games));
+    }
+
+    /**
+     * Plays a game until it is over or the strategy gives up.
+     * A hinted letter is guessed straight away.
+     *
+     * @param session the game
+     * @param random  the source of random choices
+     * @return the amount of hints taken
+     * @throws IllegalStateException if the strategy asks for a hint
+     *                               when none remain
+     */
+    private int play(final GameSession session, final RandomSource random) {
+        int taken = 0;
+        while (!session.isOver()) {
+            char guess = strategy.nextGuess(session, random);
+            if (guess == GuessStrategy.GIVE_UP) {
+                break;
+            }
+            if (guess == GuessStrategy.HINT) {
+                guess = session.takeHint(random);
+                if (guess == GameSession.NO_HINT) {
+                    throw new IllegalStateException("No hints remain.");
+                }
+                taken++;
+            }
+            session.checkLetter(guess);
+        }
+        return taken;
+    }
+
+    /**
+     * Formats the given results as a table, one category per line.
+     *
+     * @param results the results
+     * @return the table
+     */
+    public static String report(final List<Result> results) {
+        StringBuilder out = new StringBuilder();
+        Renderer.appendLine(out, String.format(Locale.ROOT,
+                "%-20s %10s %8s %8s %6s",
+                "Category", "Games", "Won", "Guesses", "Hints"));
+        for (Result result : results) {
+            Renderer.appendLine(out, String.format(Locale.ROOT,
+                    "%-20s %10d %7.2f%% %8.2f %6.2f",
+                    result.getCategory(), result.getGames(),
+                    100 * result.getWinRate(), result.getAverageGuesses(),
+                    result.getAverageHints()));
+        }
+        return out.toString();
+    }
+
+}
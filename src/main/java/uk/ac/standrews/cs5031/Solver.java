@@ -0,0 +1,311 @@
+package uk.ac.standrews.cs5031;
+
+import java.util.Arrays;
+
+/**
+ * Picks the best next letter in a game, given only what the player sees:
+ * the masked phrase and the letters guessed so far. The best letter is the
+ * one found in the most phrases of the category that are still consistent
+ * with the masked phrase.
+ *
+ * Consistent phrases are found without scanning the category. Phrases are
+ * bucketed by length, and each bucket keeps, for every position and
+ * symbol, the set of its phrases having that symbol at that position,
+ * as a bitset. Filtering then takes a few bitset operations per revealed
+ * position and guessed letter.
+ *
+ * A solver is immutable, so it can be shared by any amount of threads.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public final class Solver {
+
+    /** The character standing for a hidden letter in a masked phrase. */
+    public static final char HIDDEN = '-';
+
+    /** The value returned when there is no letter left to guess. */
+    public static final char NO_LETTER = '\0';
+
+    /** The symbol of a space. */
+    private static final int SPACE = LetterSet.ALPHABET_SIZE;
+
+    /** The symbol of any character other than a letter a to z or a space. */
+    private static final int OTHER = SPACE + 1;
+
+    /** The amount of symbols. */
+    private static final int SYMBOLS = OTHER + 1;
+
+    /** The amount of phrases in a word of a bitset. */
+    private static final int WORD_BITS = Long.SIZE;
+
+    /** The phrases of a category having the same length. */
+    private static final class Bucket {
+
+        /** The indexes of the phrases in the category. */
+        private final int[] members;
+
+        /** The amount of words of each bitset over the members. */
+        private final int words;
+
+        /**
+         * The members having each symbol at each position,
+         * or null where none do.
+         */
+        private final long[][][] positions;
+
+        /** The members having each letter a to z anywhere. */
+        private final long[][] letters;
+
+        /**
+         * Indexes the phrases of the given length.
+         *
+         * @param category the category
+         * @param members  the indexes of the phrases in the bucket
+         * @param length   the length of the phrases
+         */
+        Bucket(final PhraseCategory category, final int[] members,
+               final int length) {
+            this.members = members;
+            words = (members.length + WORD_BITS - 1) / WORD_BITS;
+            positions = new long[length][SYMBOLS][];
+            letters = new long[LetterSet.ALPHABET_SIZE][words];
+            for (int m = 0; m < members.length; m++) {
+                String phrase = category.getPhrase(members[m]);
+                long bit = 1L << (m % WORD_BITS);
+                int word = m / WORD_BITS;
+                for (int p = 0; p < length; p++) {
+                    int symbol = symbolOf(phrase.charAt(p));
+                    if (positions[p][symbol] == null) {
+                        positions[p][symbol] = new long[words];
+                    }
+                    positions[p][symbol][word] |= bit;
+                    if (symbol < LetterSet.ALPHABET_SIZE) {
+                        letters[symbol][word] |= bit;
+                    }
+                }
+            }
+        }
+
+    }
+
+    /** The buckets of phrases, by length, or null where there are none. */
+    private final Bucket[] buckets;
+
+    /**
+     * Indexes the phrases of the category with the given id,
+     * as currently loaded in {@link Phrases}.
+     *
+     * @param id the category id
+     * @return the solver of the category
+     * @throws IllegalArgumentException if there is no such category
+     */
+    public static Solver forCategory(final int id) {
+        return new Solver(Phrases.getCategory(id));
+    }
+
+    /**
+     * Indexes the phrases of the given category.
+     *
+     * @param category the category
+     */
+    Solver(final PhraseCategory category) {
+        int longest = 0;
+        for (int i = 0; i < category.size(); i++) {
+            longest = Math.max(longest, category.getLength(i));
+        }
+        int[] counts = new int[longest + 1];
+        for (int i = 0; i < category.size(); i++) {
+            counts[category.getLength(i)]++;
+        }
+        int[][] members = new int[longest + 1][];
+        for (int length = 0; length <= longest; length++) {
+            members[length] = new int[counts[length]];
+            counts[length] = 0;
+        }
+        for (int i = 0; i < category.size(); i++) {
+            int length = category.getLength(i);
+            members[length][counts[length]++] = i;
+        }
+        buckets = new Bucket[longest + 1];
+        for (int length = 0; length <= longest; length++) {
+            if (members[length].length > 0) {
+                buckets[length] =
+                        new Bucket(category, members[length], length);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the symbol indexing the given character.
+     *
+     * @param c the character of a phrase
+     * @return the symbol of the character
+     */
+    private static int symbolOf(final char c) {
+        char lower = Character.toLowerCase(c);
+        if (lower >= 'a' && lower <= 'z') {
+            return lower - 'a';
+        }
+        if (lower == ' ') {
+            return SPACE;
+        }
+        return OTHER;
+    }
+
+    /**
+     * Masks the phrase of the given game as the player sees it,
+     * with {@link #HIDDEN} in place of the letters not yet guessed.
+     *
+     * @param session the game
+     * @return the masked phrase
+     */
+    public static String mask(final GameSession session) {
+        String phrase = session.getPhrase();
+        char[] masked = new char[phrase.length()];
+        for (int i = 0; i < masked.length; i++) {
+            char original = phrase.charAt(i);
+            char lower = Character.toLowerCase(original);
+            masked[i] = session.isGuessed(lower) ? original : HIDDEN;
+        }
+        return new String(masked);
+    }
+
+    /**
+     * Retrieves the letters a to z guessed in the given game.
+     *
+     * @param session the game
+     * @return the bits of the guessed letters, as by {@link LetterSet#bit}
+     */
+    public static long guessedLetters(final GameSession session) {
+        long guessed = 0;
+        for (char letter = 'a'; letter <= 'z'; letter++) {
+            if (session.isGuessed(letter)) {
+                guessed |= LetterSet.bit(letter);
+            }
+        }
+        return guessed;
+    }
+
+    /**
+     * Counts the phrases consistent with what the player sees.
+     *
+     * @param masked  the masked phrase
+     * @param guessed the bits of the letters guessed so far
+     * @return the amount of candidate phrases
+     */
+    public int countCandidates(final CharSequence masked,
+                               final long guessed) {
+        long[] candidates = filter(masked, guessed);
+        int count = 0;
+        if (candidates != null) {
+            for (long word : candidates) {
+                count += Long.bitCount(word);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Picks the letter found in the most candidate phrases.
+     * Ties are broken in favour of the more common letter in English.
+     *
+     * @param masked  the masked phrase
+     * @param guessed the bits of the letters guessed so far
+     * @return the best letter, or {@link #NO_LETTER} if no candidate
+     *         has a letter that is not guessed yet
+     */
+    public char bestLetter(final CharSequence masked, final long guessed) {
+        long[] candidates = filter(masked, guessed);
+        if (candidates == null) {
+            return NO_LETTER;
+        }
+        Bucket bucket = buckets[masked.length()];
+        char best = NO_LETTER;
+        int bestCount = 0;
+        String order = FrequencyStrategy.LETTERS_BY_FREQUENCY;
+        for (int i = 0; i < order.length(); i++) {
+            char letter = order.charAt(i);
+            if ((guessed & LetterSet.bit(letter)) != 0) {
+                continue;
+            }
+            long[] having = bucket.letters[letter - 'a'];
+            int count = 0;
+            for (int w = 0; w < candidates.length; w++) {
+                count += Long.bitCount(candidates[w] & having[w]);
+            }
+            if (count > bestCount) {
+                best = letter;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the members of the bucket of the masked phrase's length that
+     * have the revealed characters where they are revealed, and none of
+     * the guessed letters where characters are hidden.
+     *
+     * @param masked  the masked phrase
+     * @param guessed the bits of the letters guessed so far
+     * @return the bitset of the candidates in their bucket,
+     *         or null if there are none
+     */
+    private long[] filter(final CharSequence masked, final long guessed) {
+        int length = masked.length();
+        if (length >= buckets.length || buckets[length] == null) {
+            return null;
+        }
+        Bucket bucket = buckets[length];
+        long[] candidates = new long[bucket.words];
+        Arrays.fill(candidates, -1L);
+        int tail = bucket.members.length % WORD_BITS;
+        if (tail != 0) {
+            candidates[bucket.words - 1] = (1L << tail) - 1;
+        }
+        for (int p = 0; p < length; p++) {
+            char c = masked.charAt(p);
+            long[][] symbols = bucket.positions[p];
+            if (c != HIDDEN) {
+                if (!retain(candidates, symbols[symbolOf(c)])) {
+                    return null;
+                }
+                continue;
+            }
+            for (long rest = guessed; rest != 0; rest &= rest - 1) {
+                long[] having = symbols[Long.numberOfTrailingZeros(rest)];
+                if (having != null) {
+                    for (int w = 0; w < candidates.length; w++) {
+                        candidates[w] &= ~having[w];
+                    }
+                }
+            }
+        }
+        for (long word : candidates) {
+            if (word != 0) {
+                return candidates;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Keeps only the candidates in the given set.
+     *
+     * @param candidates the candidates, which are updated
+     * @param having     the set to keep, or null if empty
+     * @return false iff no candidates can remain
+     */
+    private static boolean retain(final long[] candidates,
+                                  final long[] having) {
+        if (having == null) {
+            return false;
+        }
+        for (int w = 0; w < candidates.length; w++) {
+            candidates[w] &= having[w];
+        }
+        return true;
+    }
+
+}
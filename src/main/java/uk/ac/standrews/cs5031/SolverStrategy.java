@@ -0,0 +1,40 @@
+package uk.ac.standrews.cs5031;
+
+/**
+ * A {@link GuessStrategy} guessing the letter picked by a {@link Solver}
+ * for the category being played, and taking a hint rather than risking its
+ * last life. If the phrase is not in the solver's category, it falls back
+ * to {@link FrequencyStrategy}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+final class SolverStrategy implements GuessStrategy {
+
+    /** The solver of the category being played. */
+    private final Solver solver;
+
+    /**
+     * Creates a strategy for the category of the given solver.
+     *
+     * @param solver the solver
+     */
+    SolverStrategy(final Solver solver) {
+        this.solver = solver;
+    }
+
+    @Override
+    public char nextGuess(final GameSession session,
+                          final RandomSource random) {
+        if (session.getLives() == 1 && session.getHints() > 0) {
+            return HINT;
+        }
+        char letter = solver.bestLetter(Solver.mask(session),
+                Solver.guessedLetters(session));
+        if (letter == Solver.NO_LETTER) {
+            return FrequencyStrategy.INSTANCE.nextGuess(session, random);
+        }
+        return letter;
+    }
+
+}
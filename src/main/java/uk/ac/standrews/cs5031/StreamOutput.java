@@ -0,0 +1,55 @@
+package uk.ac.standrews.cs5031;
+
+import java.io.PrintStream;
+
+/**
+ * A {@link GameOutput} writing each turn straight to a stream,
+ * on the thread of the player.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+final class StreamOutput implements GameOutput {
+
+    /** The stream written to. */
+    private final PrintStream out;
+
+    /** Whether the stream is flushed after every turn. */
+    private final boolean flushEachTurn;
+
+    /**
+     * Creates an output writing to the given stream.
+     *
+     * @param out           the stream to write to
+     * @param flushEachTurn whether to flush the stream after every turn
+     */
+    StreamOutput(final PrintStream out, final boolean flushEachTurn) {
+        this.out = out;
+        this.flushEachTurn = flushEachTurn;
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset,
+                      final int length) {
+        out.write(bytes, offset, length);
+        if (flushEachTurn) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
+
+    @Override
+    public void close() {
+        out.flush();
+    }
+
+    @Override
+    public boolean checkError() {
+        return out.checkError();
+    }
+
+}
@@ -0,0 +1,37 @@
+package uk.ac.standrews.cs5031;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The default {@link RandomSource}, which draws from the generator of
+ * whichever thread calls it, so it is never contended.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+final class ThreadLocalRandomSource implements RandomSource {
+
+    /** The only instance, as the source has no state of its own. */
+    static final ThreadLocalRandomSource INSTANCE =
+            new ThreadLocalRandomSource();
+
+    /** Hides the constructor, see {@link #INSTANCE}. */
+    private ThreadLocalRandomSource() {
+    }
+
+    @Override
+    public int nextInt(final int bound) {
+        return ThreadLocalRandom.current().nextInt(bound);
+    }
+
+    /**
+     * Returns this source, which is already safe to share.
+     *
+     * @return this source
+     */
+    @Override
+    public RandomSource split() {
+        return this;
+    }
+
+}
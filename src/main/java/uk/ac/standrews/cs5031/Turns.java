@@ -0,0 +1,223 @@
+package uk.ac.standrews.cs5031;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies what a player types during a game: a guess, a request for a
+ * hint, or, on the servers, a batch of both. Every engine applies its
+ * turns here, so that they are applied and measured alike.
+ *
+ * A batch is a sequence of guesses and hint requests, which
+ * {@link Conversation} reads as a line starting with {@link #BATCH_PREFIX}
+ * and separated by {@link #BATCH_SEPARATOR}, such as {@code !e,a,s,t,?},
+ * and {@link HttpGameServer} as a request of its own. Its turns are
+ * applied in order in one step, stopping early once the game is over,
+ * and their responses are given together, so that bots are not limited
+ * to a turn per round trip.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+final class Turns {
+
+    /** Typed instead of a guess to take a hint. */
+    static final String HINT = "?";
+
+    /** Typed before a batch of guesses. */
+    static final String BATCH_PREFIX = "!";
+
+    /** Separates the guesses of a batch. */
+    static final String BATCH_SEPARATOR = ",";
+
+    /** The outcome of a single turn. */
+    static final class Turn {
+
+        /** The guess, or {@link #HINT}. */
+        private final String guess;
+
+        /** The result of the guess, or null if a hint was requested. */
+        private final GameSession.Guess result;
+
+        /** The letter hinted, if a hint was requested. */
+        private final char hint;
+
+        /**
+         * Creates the outcome of a turn.
+         *
+         * @param guess  the guess, or {@link #HINT}
+         * @param result the result of the guess, or null for a hint
+         * @param hint   the letter hinted, if a hint was requested
+         */
+        private Turn(final String guess, final GameSession.Guess result,
+                     final char hint) {
+            this.guess = guess;
+            this.result = result;
+            this.hint = hint;
+        }
+
+        /**
+         * Retrieves what the player typed.
+         *
+         * @return the guess, or {@link #HINT}
+         */
+        String getGuess() {
+            return guess;
+        }
+
+        /**
+         * Tells whether a hint was requested in this turn.
+         *
+         * @return true iff this turn is a hint request
+         */
+        boolean isHint() {
+            return result == null;
+        }
+
+        /**
+         * Retrieves the result of the guess.
+         *
+         * @return the result, or null if a hint was requested
+         */
+        GameSession.Guess getResult() {
+            return result;
+        }
+
+        /**
+         * Retrieves the letter hinted.
+         *
+         * @return the letter, or {@link GameSession#NO_HINT} if none
+         *         was given
+         */
+        char getHint() {
+            return hint;
+        }
+
+    }
+
+    /**
+     * Tells whether the given line is a batch of guesses rather than a
+     * single guess. A lone {@link #BATCH_PREFIX} is a guess.
+     *
+     * @param line the line
+     * @return true iff the line is a batch
+     */
+    static boolean isBatch(final String line) {
+        return line.length() > BATCH_PREFIX.length()
+                && line.startsWith(BATCH_PREFIX);
+    }
+
+    /**
+     * Splits a batch into its guesses, ignoring the spaces around each.
+     *
+     * @param batch the guesses, without the {@link #BATCH_PREFIX}
+     * @return the guesses and hint requests, in order
+     */
+    static String[] split(final String batch) {
+        String[] guesses = batch.split(BATCH_SEPARATOR, -1);
+        for (int i = 0; i < guesses.length; i++) {
+            guesses[i] = guesses[i].strip();
+        }
+        return guesses;
+    }
+
+    /**
+     * Applies a single guess or hint request to the given game.
+     * The time taken is recorded in the {@link EngineMetrics}.
+     *
+     * @param session the game, not over
+     * @param guess   the guess, or {@link #HINT}
+     * @param random  the source to pick a hint with
+     * @return the outcome of the turn
+     */
+    static Turn turn(final GameSession session, final String guess,
+                     final RandomSource random) {
+        long start = System.nanoTime();
+        Turn turn;
+        if (guess.equals(HINT)) {
+            char hint = session.takeHint(random);
+            EngineMetrics.INSTANCE.hintRequested(hint);
+            turn = new Turn(guess, null, hint);
+        } else {
+            turn = new Turn(guess, session.checkGuess(guess),
+                    GameSession.NO_HINT);
+        }
+        EngineMetrics.INSTANCE.turnProcessed(System.nanoTime() - start);
+        return turn;
+    }
+
+    /**
+     * Applies a batch of guesses and hint requests to the given game,
+     * in order, until the game is over.
+     *
+     * @param session the game
+     * @param guesses the guesses and hint requests
+     * @param random  the source to pick hints with
+     * @return the outcomes of the turns taken, in order, which are fewer
+     *         than the guesses if the game ended early
+     */
+    static List<Turn> batch(final GameSession session,
+                            final String[] guesses,
+                            final RandomSource random) {
+        List<Turn> turns = new ArrayList<>(guesses.length);
+        for (int i = 0; i < guesses.length && !session.isOver(); i++) {
+            turns.add(turn(session, guesses[i], random));
+        }
+        return turns;
+    }
+
+    /**
+     * Applies a single guess or hint request to the given game, appending
+     * the response, but not the next turn itself.
+     *
+     * @param session the game, not over
+     * @param guess   the guess, or {@link #HINT}
+     * @param random  the source to pick a hint with
+     * @param out     the buffer to append to
+     */
+    static void play(final GameSession session, final String guess,
+                     final RandomSource random, final StringBuilder out) {
+        append(out, turn(session, guess, random));
+    }
+
+    /**
+     * Applies a line typed on the line protocol to the given game,
+     * appending the response to each turn, but not the next turn itself.
+     *
+     * @param session the game, not over
+     * @param line    a guess, {@link #HINT} or a batch
+     * @param random  the source to pick hints with
+     * @param out     the buffer to append to
+     */
+    static void playLine(final GameSession session, final String line,
+                         final RandomSource random,
+                         final StringBuilder out) {
+        if (!isBatch(line)) {
+            play(session, line, random, out);
+            return;
+        }
+        String[] guesses = split(line.substring(BATCH_PREFIX.length()));
+        for (Turn turn : batch(session, guesses, random)) {
+            append(out, turn);
+        }
+    }
+
+    /**
+     * Appends the response to a turn.
+     *
+     * @param out  the buffer to append to
+     * @param turn the outcome of the turn
+     */
+    private static void append(final StringBuilder out, final Turn turn) {
+        if (turn.isHint()) {
+            Renderer.appendHint(out, turn.getHint());
+        } else {
+            Renderer.appendGuess(out, turn.getResult());
+        }
+    }
+
+    /** Hides the constructor for this utility class. */
+    private Turns() {
+    }
+
+}
@@ -0,0 +1,172 @@
+package uk.ac.standrews.cs5031;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the Hangman line protocol over TCP with one virtual thread
+ * per connection. Each thread runs the same blocking flow as the
+ * console, {@link LineReader} reads included, over the connection's streams.
+ * Lines longer than {@link #MAX_LINE_LENGTH} close the connection, as on
+ * the selector engine.
+ *
+ * @author 150009974
+ * @version 1.5
+ */
+final class VirtualThreadServer implements GameServer {
+
+    /** The name of this engine, as used in reports. */
+    static final String ENGINE = OptionsParser.VIRTUAL_THREAD_ENGINE;
+
+    /** The maximum amount of pending connections. */
+    private static final int BACKLOG = 1024;
+
+    /** How long to wait for players' threads to finish on close, in ms. */
+    private static final long SHUTDOWN_TIMEOUT = 5000;
+
+    /** The socket accepting new connections. */
+    private final ServerSocket server;
+
+    /** Runs a virtual thread for each connection. */
+    private final ExecutorService players =
+            Executors.newVirtualThreadPerTaskExecutor();
+
+    /** The connections currently open, so that they can be closed. */
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    /** The registry hosting the games played on this server. */
+    private final SessionRegistry registry;
+
+    /** The counters describing the activity of this server. */
+    private final ServerMetrics metrics = new ServerMetrics();
+
+    /** The source from which each player's source is split. */
+    private final RandomSource random;
+
+    /** The thread accepting connections. */
+    private final Thread acceptor;
+
+    /**
+     * Opens a server on the given port.
+     * The server does not accept connections until it is started.
+     *
+     * @param port     the port to listen on, or 0 for any free port
+     * @param random   the source from which each player's source is split
+     * @param registry the registry to host the games in
+     * @throws IOException if the port cannot be bound
+     */
+    VirtualThreadServer(final int port, final RandomSource random,
+                        final SessionRegistry registry) throws IOException {
+        this.random = random;
+        this.registry = registry;
+        server = new ServerSocket(port, BACKLOG);
+        acceptor = Thread.ofPlatform()
+                .name("hangman-" + ENGINE)
+                .unstarted(this::acceptConnections);
+    }
+
+    @Override
+    public void start() {
+        acceptor.start();
+    }
+
+    @Override
+    public String getEngine() {
+        return ENGINE;
+    }
+
+    @Override
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    @Override
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void awaitTermination() throws InterruptedException {
+        acceptor.join();
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones.
+     *
+     * @throws IOException if closing the server socket fails
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        for (Socket socket : connections) {
+            socket.close();
+        }
+        players.shutdown();
+        try {
+            players.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Accepts connections until the server socket is closed. */
+    private void acceptConnections() {
+        while (!server.isClosed()) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                // The server socket was closed.
+                return;
+            }
+            connections.add(socket);
+            metrics.connectionOpened();
+            RandomSource player = random.split();
+            players.execute(() -> serve(socket, player));
+        }
+    }
+
+    /**
+     * Plays games with the player on the given connection until they quit
+     * or disconnect.
+     *
+     * @param socket the connection to the player
+     * @param random the source to pick the player's phrases and hints with
+     */
+    private void serve(final Socket socket, final RandomSource random) {
+        BlockingGame game = null;
+        try {
+            LineReader reader = new LineReader(socket.getInputStream(),
+                    true, MAX_LINE_LENGTH);
+            // Each turn is written in a single call, so no buffering.
+            PrintStream out = new PrintStream(socket.getOutputStream(),
+                    false, "utf-8");
+            game = new BlockingGame(reader, GameOutput.of(out), registry,
+                    metrics, random);
+            game.playGamesUntilQuit();
+        } catch (IOException | NoSuchElementException ignored) {
+            // The player went away, nothing else to do.
+        } finally {
+            if (game != null) {
+                game.close();
+            }
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // The connection is being discarded anyway.
+            }
+            connections.remove(socket);
+            metrics.connectionClosed();
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A test suite for {@link BatchReplay}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public class BatchReplayTest {
+
+    /** Holds the transcripts and outputs written by the tests. */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Loads the single custom phrase "Word".
+     *
+     * @throws FileNotFoundException if the phrase source is missing
+     */
+    @Before
+    public void loadPhrases() throws FileNotFoundException {
+        String[] args = {"resources/phrase_sources/single.txt"};
+        OptionsParser.parseAndValidate(args);
+        Phrases.loadCustom();
+    }
+
+    /**
+     * Replays the given transcripts and splits their output.
+     *
+     * @param transcripts the contents of the transcripts file
+     * @return the output of each transcript
+     * @throws IOException if a file cannot be read or written
+     */
+    private String[] replay(final String transcripts) throws IOException {
+        Path source = folder.newFile().toPath();
+        Path target = folder.newFile().toPath();
+        Files.write(source, transcripts.getBytes(UTF_8));
+        new BatchReplay(RandomSource.seeded(1)).replay(source, target);
+        String output = new String(Files.readAllBytes(target), UTF_8);
+        return output.split(BatchReplay.DELIMITER + "\n", -1);
+    }
+
+    /** Each transcript is played as it would be on the console. */
+    @Test
+    public void outputMatchesConsole() throws IOException {
+        String[] outputs = replay("0\nWord\nno\n%%\n"
+                + "0\nWord\ninvalid\nanswers\nno\n");
+        assertEquals(3, outputs.length);
+        TestingUtils.expectOutput("execution_ends_on_no.txt", outputs[0]);
+        TestingUtils.expectOutput("execution_invalid_answer.txt", outputs[1]);
+        assertEquals("", outputs[2]);
+    }
+
+    /** A transcript may end in the middle of a game. */
+    @Test
+    public void transcriptsMayEndEarly() throws IOException {
+        BatchReplay batch = new BatchReplay(RandomSource.seeded(1));
+        Path source = folder.newFile().toPath();
+        Files.write(source, ("0\nW\n%%\n0\nWord\nyes\n0\nWord\nno\n%%\n")
+                .getBytes(UTF_8));
+        batch.replay(source, folder.newFile().toPath());
+        assertEquals(2, batch.getTranscripts());
+        assertEquals(2, batch.getGamesFinished());
+    }
+
+    /** A trailing delimiter does not add an empty transcript. */
+    @Test
+    public void trailingDelimiterIsOptional() throws IOException {
+        assertEquals(2, replay("0\nWord\nno\n").length);
+        assertEquals(2, replay("0\nWord\nno\n%%\n").length);
+    }
+
+}
@@ -0,0 +1,112 @@
+package uk.ac.standrews.cs5031;
+
+import java.nio.IntBuffer;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A test suite for {@link Difficulties} and difficulty-filtered picking.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public class DifficultiesTest {
+
+    /** A few phrases, from the obviously easy to the obviously hard. */
+    private final PhraseCategory words = new ArrayPhraseCategory("Words",
+            new String[]{"tea", "eat", "tee", "sea", "rain", "nest",
+                "jazz", "quiz", "fjord", "sphinx", "xylophone", "zephyr"});
+
+    /**
+     * Retrieves the indexes of a bucket as a set.
+     *
+     * @param difficulty the difficulty of the bucket
+     * @return the indexes in the bucket
+     */
+    private Set<Integer> bucket(final Difficulty difficulty) {
+        IntBuffer indexes = words.getDifficulties().get(difficulty);
+        Set<Integer> set = new HashSet<>();
+        while (indexes.hasRemaining()) {
+            set.add(indexes.get());
+        }
+        return set;
+    }
+
+    /** Every phrase is in exactly one bucket, and buckets are thirds. */
+    @Test
+    public void bucketsPartitionTheCategory() {
+        Set<Integer> all = new HashSet<>();
+        for (Difficulty difficulty : Difficulties.RANKED) {
+            Set<Integer> bucket = bucket(difficulty);
+            assertEquals(words.size() / 3, bucket.size());
+            all.addAll(bucket);
+        }
+        assertEquals(words.size(), all.size());
+    }
+
+    /** Every easy phrase scores no higher than any hard phrase. */
+    @Test
+    public void easyPhrasesScoreLower() {
+        Solver solver = new Solver(words);
+        float easiest = Float.MAX_VALUE;
+        for (int index : bucket(Difficulty.HARD)) {
+            easiest = Math.min(easiest,
+                    Difficulties.score(words, index, solver));
+        }
+        for (int index : bucket(Difficulty.EASY)) {
+            assertTrue(Difficulties.score(words, index, solver) <= easiest);
+        }
+    }
+
+    /** The shortest phrases with common letters are easy. */
+    @Test
+    public void commonLettersAreEasy() {
+        Set<Integer> easy = bucket(Difficulty.EASY);
+        assertTrue(easy.contains(0));
+        assertTrue(easy.contains(1));
+        assertTrue(bucket(Difficulty.HARD).contains(10));
+    }
+
+    /** Picked phrases are always of the chosen difficulty. */
+    @Test
+    public void picksFromTheBucket() {
+        RandomSource random = RandomSource.seeded(7);
+        for (Difficulty difficulty : Difficulties.RANKED) {
+            Set<Integer> bucket = bucket(difficulty);
+            for (int i = 0; i < 100; i++) {
+                int index = Phrases.getRandomIndex(words, random, difficulty);
+                assertTrue(bucket.contains(index));
+            }
+        }
+    }
+
+    /** Categories too small to have a difficulty pick any phrase. */
+    @Test
+    public void smallCategoriesPickAnyPhrase() {
+        PhraseCategory pair = new ArrayPhraseCategory("Pair",
+                new String[]{"yes", "no"});
+        RandomSource random = RandomSource.seeded(7);
+        for (int i = 0; i < 100; i++) {
+            int index = Phrases.getRandomIndex(pair, random, Difficulty.HARD);
+            assertTrue(index >= 0 && index < pair.size());
+        }
+    }
+
+    /** Categories larger than the solver limit are rated by frequencies. */
+    @Test
+    public void largeCategoriesAreRated() {
+        String[] phrases = new String[Difficulties.SOLVER_LIMIT + 3];
+        for (int i = 0; i < phrases.length; i++) {
+            phrases[i] = Integer.toString(i, Character.MAX_RADIX) + " e";
+        }
+        PhraseCategory large = new ArrayPhraseCategory("Large", phrases);
+        IntBuffer easy = large.getDifficulties().get(Difficulty.EASY);
+        assertEquals(phrases.length / 3, easy.remaining());
+    }
+
+}
@@ -0,0 +1,116 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A test suite for {@link EngineMetrics}.
+ * The metrics are shared by the whole process, so only their changes
+ * are checked.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public class EngineMetricsTest {
+
+    /** The metrics under test. */
+    private final EngineMetrics metrics = EngineMetrics.INSTANCE;
+
+    /** Hints are counted as taken or refused. */
+    @Test
+    public void countsHints() {
+        long taken = metrics.getHintsTaken();
+        long refused = metrics.getHintsRefused();
+        metrics.hintRequested('e');
+        metrics.hintRequested(GameSession.NO_HINT);
+        metrics.hintRequested('a');
+        assertEquals(taken + 2, metrics.getHintsTaken());
+        assertEquals(refused + 1, metrics.getHintsRefused());
+    }
+
+    /** Outcomes are counted per category. */
+    @Test
+    public void countsOutcomesPerCategory() {
+        String category = "Outcomes test";
+        metrics.gameFinished(category, true);
+        metrics.gameFinished(category, false);
+        metrics.gameFinished(category, true);
+        metrics.gameFinished(category, true);
+        assertEquals(Long.valueOf(4), metrics.getGamesFinished().get(category));
+        assertEquals(0.75, metrics.getWinRates().get(category), 1e-9);
+        assertTrue(metrics.getReport()
+                .contains(category + ": games=4 won=75.0%"));
+    }
+
+    /** Console games record their turns and outcome. */
+    @Test
+    public void gamesRecordTurns() {
+        long turns = metrics.getTurnNanos().get("count");
+        long selections = metrics.getPhraseSelectionNanos().get("count");
+        OptionsParser.parseAndValidate(
+                new String[]{OptionsParser.LIVES_OPTION, "1"});
+        new BlockingGame(new LineReader("1\nzzzz\n"),
+                GameOutput.of(new PrintStream(OutputStream.nullOutputStream())),
+                RandomSource.seeded(1)).play();
+        OptionsParser.parseAndValidate(new String[]{});
+        assertEquals(turns + 1, (long) metrics.getTurnNanos().get("count"));
+        assertEquals(selections + 1,
+                (long) metrics.getPhraseSelectionNanos().get("count"));
+        assertTrue(metrics.getGamesFinished().get("Countries") > 0);
+    }
+
+    /**
+     * The metrics can be read through JMX.
+     *
+     * @throws Exception if the metrics cannot be read
+     */
+    @Test
+    public void exposedThroughJmx() throws Exception {
+        EngineMetrics.register();
+        EngineMetrics.register();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(EngineMetrics.OBJECT_NAME);
+        metrics.hintRequested('e');
+        assertEquals(metrics.getHintsTaken(),
+                server.getAttribute(name, "HintsTaken"));
+        assertTrue(server.getAttribute(name, "Report").toString()
+                .startsWith("turns: count="));
+    }
+
+    /** Recording does not allocate once a category has been seen. */
+    @Test
+    public void recordingDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean)
+                        ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        record(1000);
+        long before = threads.getThreadAllocatedBytes(thread);
+        record(100000);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        assertTrue(allocated + " bytes", allocated < 1024);
+    }
+
+    /**
+     * Records the given amount of turns, selections, hints and games.
+     *
+     * @param times the amount of each
+     */
+    private void record(final int times) {
+        for (int i = 0; i < times; i++) {
+            metrics.turnProcessed(i);
+            metrics.phraseSelected(i);
+            metrics.hintRequested('e');
+            metrics.gameFinished("Allocation test", (i & 1) == 0);
+        }
+    }
+
+}
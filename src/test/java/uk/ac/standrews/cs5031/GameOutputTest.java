@@ -0,0 +1,126 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * A test suite for {@link GameOutput} and its implementations.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public class GameOutputTest {
+
+    /** A stream counting how many times it is flushed. */
+    private static final class CountingStream extends OutputStream {
+
+        /** The bytes written. */
+        private final ByteArrayOutputStream bytes =
+                new ByteArrayOutputStream();
+
+        /** The amount of flushes. */
+        private int flushes;
+
+        @Override
+        public synchronized void write(final int b) {
+            bytes.write(b);
+        }
+
+        @Override
+        public synchronized void flush() {
+            flushes++;
+        }
+
+        /**
+         * Retrieves the text written so far.
+         *
+         * @return the text
+         */
+        synchronized String text() {
+            return new String(bytes.toByteArray(), UTF_8);
+        }
+
+    }
+
+    /**
+     * Writes the given text as a turn.
+     *
+     * @param out  the output
+     * @param text the text of the turn
+     */
+    private static void write(final GameOutput out, final String text) {
+        byte[] bytes = ("[" + text + "]").getBytes(UTF_8);
+        out.write(bytes, 1, bytes.length - 2);
+    }
+
+    /** A plain output flushes the stream after every turn. */
+    @Test
+    public void plainOutputFlushesEachTurn() {
+        CountingStream stream = new CountingStream();
+        GameOutput out = GameOutput.of(new PrintStream(stream));
+        write(out, "one ");
+        write(out, "two");
+        assertEquals("one two", stream.text());
+        assertEquals(2, stream.flushes);
+    }
+
+    /** A buffered output only flushes when asked to. */
+    @Test
+    public void bufferedOutputFlushesOnRequest() {
+        CountingStream stream = new CountingStream();
+        GameOutput out = GameOutput.buffered(new PrintStream(stream));
+        write(out, "one ");
+        write(out, "two");
+        assertEquals(0, stream.flushes);
+        out.close();
+        assertEquals("one two", stream.text());
+        assertEquals(1, stream.flushes);
+    }
+
+    /** An async output writes every turn, in order, by the time it flushes. */
+    @Test
+    public void asyncOutputKeepsOrder() {
+        CountingStream stream = new CountingStream();
+        GameOutput out = new AsyncOutput(new PrintStream(stream), 4);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            write(out, i + "\n");
+            expected.append(i).append('\n');
+        }
+        out.flush();
+        assertEquals(expected.toString(), stream.text());
+        assertFalse(out.checkError());
+        out.close();
+        out.close();
+        assertEquals(expected.toString(), stream.text());
+    }
+
+    /** The bytes of a turn may be reused once it is written. */
+    @Test
+    public void asyncOutputCopiesTurns() {
+        CountingStream stream = new CountingStream();
+        GameOutput out = GameOutput.async(new PrintStream(stream));
+        byte[] bytes = "first".getBytes(UTF_8);
+        out.write(bytes, 0, bytes.length);
+        bytes[0] = 'F';
+        out.close();
+        assertEquals("first", stream.text());
+    }
+
+    /** Nothing may be written once an async output is closed. */
+    @Test(expected = IllegalStateException.class)
+    public void asyncOutputRejectsWritesWhenClosed() {
+        GameOutput out = GameOutput.async(new PrintStream(
+                new ByteArrayOutputStream()));
+        out.close();
+        write(out, "late");
+    }
+
+}
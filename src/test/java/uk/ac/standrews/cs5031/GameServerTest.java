@@ -0,0 +1,211 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * A test suite for the {@link GameServer} engines.
+ * Every test is run against each engine,
+ * with players simulated by loopback sockets.
+ *
+ * @author 150009974
+ * @version 1.2
+ */
+@RunWith(Parameterized.class)
+public class GameServerTest {
+
+    /** The amount of idle connections opened at the same time. */
+    private static final int IDLE_CONNECTIONS = 500;
+
+    /** How long to wait for the server to catch up, in milliseconds. */
+    private static final long TIMEOUT = 5000;
+
+    /** The name of the engine under test. */
+    private final String engine;
+
+    /** The server under test. */
+    private GameServer server;
+
+    /**
+     * Creates the test suite for the given engine.
+     *
+     * @param engine the name of the engine under test
+     */
+    public GameServerTest(final String engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Lists the engines to test.
+     *
+     * @return the names of all engines
+     */
+    @Parameterized.Parameters(name = "{0}")
+    public static List<String> engines() {
+        return Arrays.asList(OptionsParser.SELECTOR_ENGINE,
+                OptionsParser.VIRTUAL_THREAD_ENGINE);
+    }
+
+    /**
+     * Loads the single word phrase source and starts a server.
+     *
+     * @throws IOException if the phrase source or the port are not available
+     */
+    @Before
+    public void startServer() throws IOException {
+        String[] args = {"resources/phrase_sources/single.txt"};
+        OptionsParser.parseAndValidate(args);
+        Phrases.loadCustom();
+        server = GameServer.open(engine, 0);
+        server.start();
+    }
+
+    /**
+     * Stops the server.
+     *
+     * @throws IOException if closing the server fails
+     */
+    @After
+    public void stopServer() throws IOException {
+        server.close();
+    }
+
+    /**
+     * Connects to the server, sends the input, and reads until the server
+     * closes the connection.
+     *
+     * @param input the lines the player types
+     * @return everything the server sent
+     * @throws IOException if the connection fails
+     */
+    private String play(final String input) throws IOException {
+        try (Socket socket = connect()) {
+            socket.getOutputStream().write(input.getBytes(UTF_8));
+            InputStream in = socket.getInputStream();
+            ByteArrayOutputStream received = new ByteArrayOutputStream();
+            byte[] chunk = new byte[1024];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                received.write(chunk, 0, read);
+            }
+            return new String(received.toByteArray(), UTF_8);
+        }
+    }
+
+    /**
+     * Opens a connection to the server.
+     *
+     * @return the connected socket
+     * @throws IOException if the connection fails
+     */
+    private Socket connect() throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(),
+                server.getPort());
+        socket.setSoTimeout((int) TIMEOUT);
+        return socket;
+    }
+
+    /**
+     * Waits until the server reports the given amount of open connections.
+     *
+     * @param expected the amount of open connections to wait for
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private void awaitOpenConnections(final long expected)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (server.getMetrics().getOpenConnections() != expected
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, server.getMetrics().getOpenConnections());
+    }
+
+    /**
+     * A game over TCP produces the same output as on the console,
+     * and the connection is closed when the player answers no.
+     *
+     * @throws IOException if the connection fails
+     */
+    @Test
+    public void sameOutputAsConsole() throws IOException {
+        String output = play("0\nWord\nno\n");
+        TestingUtils.expectOutput("execution_ends_on_no.txt", output);
+    }
+
+    /**
+     * Lines terminated by carriage return and line feed are accepted,
+     * and invalid categories and answers are reported as on the console.
+     *
+     * @throws IOException if the connection fails
+     */
+    @Test
+    public void invalidInputOverTcp() throws IOException {
+        String output = play("-1\r\n0\r\nWord\r\nyes\r\n0\r\nWord\r\nn\r\n");
+        String console = play("0\nWord\nno\n");
+        String menuEnd = "3]:" + System.lineSeparator();
+        int split = console.indexOf(menuEnd) + menuEnd.length();
+        String menu = console.substring(0, split);
+        String game = console.substring(split);
+        String invalid = Renderer.CATEGORY_NOT_RECOGNIZED
+                + System.lineSeparator();
+        assertEquals(menu + invalid + game + menu + game, output);
+    }
+
+    /**
+     * Many idle connections are held open at the same time,
+     * and a game can still be played while they are open.
+     *
+     * @throws IOException          if a connection fails
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Test
+    public void holdsManyIdleConnections()
+            throws IOException, InterruptedException {
+        List<Socket> idle = new ArrayList<>();
+        try {
+            for (int i = 0; i < IDLE_CONNECTIONS; i++) {
+                idle.add(connect());
+            }
+            awaitOpenConnections(IDLE_CONNECTIONS);
+            String output = play("0\nWord\nno\n");
+            TestingUtils.expectOutput("execution_ends_on_no.txt", output);
+        } finally {
+            for (Socket socket : idle) {
+                socket.close();
+            }
+        }
+        awaitOpenConnections(0);
+    }
+
+    /**
+     * A line longer than {@link GameServer#MAX_LINE_LENGTH} closes the
+     * connection.
+     *
+     * @throws IOException if the connection fails
+     */
+    @Test
+    public void closesOnLongLines() throws IOException {
+        String output = play("x".repeat(GameServer.MAX_LINE_LENGTH + 1)
+                + "\n0\n");
+        assertFalse(output, output.contains(
+                Renderer.CATEGORY_NOT_RECOGNIZED));
+    }
+
+}
@@ -0,0 +1,92 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static uk.ac.standrews.cs5031.GameSession.Guess;
+
+/**
+ * A test suite for {@link GameSession}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public class GameSessionTest {
+
+    /**
+     * Creates a session with the given phrase, 3 lives and 1 hint.
+     *
+     * @param phrase the phrase to be guessed
+     * @return the new session
+     */
+    private GameSession session(final String phrase) {
+        return new GameSession(1, phrase, 3, 1);
+    }
+
+    /** Spaces are not counted as letters to guess. */
+    @Test
+    public void spacesAreNotRemaining() {
+        GameSession session = session("ab ba");
+        assertEquals(2, session.getRemainingLetters());
+        assertTrue(session.isGuessed(' '));
+    }
+
+    /** Guessing every letter wins the game. */
+    @Test
+    public void guessingAllLettersWins() {
+        GameSession session = session("Ab");
+        assertEquals(Guess.CORRECT, session.checkLetter('a'));
+        assertEquals(Guess.CORRECT, session.checkLetter('B'));
+        assertTrue(session.hasWon());
+        assertEquals(2, session.getGuessesMade());
+    }
+
+    /** Repeated letters neither count as guesses nor cost lives. */
+    @Test
+    public void repeatedLetterHasNoEffect() {
+        GameSession session = session("ab");
+        assertEquals(Guess.WRONG, session.checkLetter('c'));
+        assertEquals(Guess.REPEATED, session.checkLetter('C'));
+        assertEquals(2, session.getLives());
+        assertEquals(1, session.getGuessesMade());
+    }
+
+    /** Wrong guesses use up all lives and lose the game. */
+    @Test
+    public void wrongGuessesLose() {
+        GameSession session = session("ab");
+        session.checkGuess("x");
+        session.checkGuess("xyz");
+        assertFalse(session.isOver());
+        session.checkGuess("y");
+        assertTrue(session.hasLost());
+    }
+
+    /** Guessing the whole phrase, in any case, solves it. */
+    @Test
+    public void fullPhraseSolves() {
+        GameSession session = session("Ab Cd");
+        assertEquals(Guess.SOLVED, session.checkGuess("aB cD"));
+        assertTrue(session.hasWon());
+    }
+
+    /** Empty guesses are ignored. */
+    @Test
+    public void emptyGuessIsIgnored() {
+        GameSession session = session("ab");
+        assertEquals(Guess.IGNORED, session.checkGuess(""));
+        assertEquals(0, session.getGuessesMade());
+    }
+
+    /** Hints reveal a remaining letter until they run out. */
+    @Test
+    public void hintsRunOut() {
+        GameSession session = session("aaa");
+        assertEquals('a', session.takeHint());
+        assertEquals(0, session.getHints());
+        assertEquals(GameSession.NO_HINT, session.takeHint());
+    }
+
+}
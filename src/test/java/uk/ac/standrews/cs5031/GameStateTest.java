@@ -0,0 +1,129 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static uk.ac.standrews.cs5031.GameSession.Guess;
+
+/**
+ * A test suite for {@link GameState}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public class GameStateTest {
+
+    /**
+     * Creates the state of a new game with the given phrase, 3 lives
+     * and 1 hint.
+     *
+     * @param phrase the phrase to be guessed
+     * @return the state
+     */
+    private static GameState start(final String phrase) {
+        return GameState.start(phrase, LetterSet.OTHERS_FLAG, 3, 1);
+    }
+
+    /** Applying an event leaves the state it was applied to unchanged. */
+    @Test
+    public void statesAreImmutable() {
+        GameState start = start("Oslo");
+        GameState.Transition transition =
+                start.apply(GameEvent.letter('O'));
+        assertEquals(Guess.CORRECT, transition.getGuess());
+        assertTrue(transition.getState().isGuessed('o'));
+        assertEquals(1, transition.getState().getGuessesMade());
+        assertFalse(start.isGuessed('o'));
+        assertEquals(0, start.getGuessesMade());
+        assertEquals(3, start.getRemainingLetters());
+    }
+
+    /** Events that change nothing give the same state. */
+    @Test
+    public void noChangeGivesSameState() {
+        GameState state = start("Oslo").guessLetter('s').getState();
+        GameState.Transition repeated = state.guessLetter('S');
+        assertEquals(Guess.REPEATED, repeated.getGuess());
+        assertSame(state, repeated.getState());
+        GameState hinted = state.takeHint(0).getState();
+        GameState.Transition refused = hinted.takeHint(0);
+        assertEquals(GameSession.NO_HINT, refused.getHint());
+        assertSame(hinted, refused.getState());
+    }
+
+    /**
+     * Characters other than the letters a to z are guessed like letters,
+     * and hinted after them.
+     */
+    @Test
+    public void otherCharacters() {
+        GameState state = start("T\u00f8 2");
+        assertEquals(3, state.getRemainingLetters());
+        assertEquals('t', state.getRemainingLetter(0));
+        assertEquals('2', state.getRemainingLetter(1));
+        assertEquals('\u00f8', state.getRemainingLetter(2));
+        GameState.Transition hint = state.takeHint(2);
+        assertEquals('\u00f8', hint.getHint());
+        assertEquals(0, hint.getState().getHints());
+        assertFalse(hint.getState().isGuessed('\u00f8'));
+        state = state.guessLetter('\u00d8').getState();
+        state = state.guessLetter('!').getState();
+        assertEquals(2, state.getLives());
+        assertEquals("!\u00f8", state.getGuessedOthers());
+        assertEquals(Guess.SOLVED, state.guessPhrase("t\u00d8 2").getGuess());
+    }
+
+    /**
+     * Replaying the events of a game gives the state of a session that
+     * played them, and a restored state matches it.
+     */
+    @Test
+    public void replayMatchesSession() {
+        List<GameEvent> events = Arrays.asList(GameEvent.letter('e'),
+                GameEvent.letter('x'), GameEvent.hint(1),
+                GameEvent.phrase("Wrong"), GameEvent.letter('E'),
+                GameEvent.letter('n'));
+        GameSession session = new GameSession(1, "Pine tree", 3, 1);
+        GameState state = start("Pine tree");
+        for (GameEvent event : events) {
+            session.apply(event);
+            state = state.apply(event).getState();
+        }
+        GameState restored = GameState.restore("Pine tree",
+                state.getLives(), state.getHints(), state.getGuessesMade(),
+                state.getGuessedLetters());
+        for (GameState replayed : Arrays.asList(session.getState(),
+                restored)) {
+            assertEquals(state.getLives(), replayed.getLives());
+            assertEquals(state.getHints(), replayed.getHints());
+            assertEquals(state.getGuessesMade(), replayed.getGuessesMade());
+            assertEquals(state.getGuessedLetters(),
+                    replayed.getGuessedLetters());
+            assertEquals(state.getRemainingLetters(),
+                    replayed.getRemainingLetters());
+        }
+        assertEquals(1, state.getLives());
+        assertEquals(0, state.getHints());
+        assertEquals(4, state.getGuessesMade());
+        assertEquals("enx", state.getGuessedLetters());
+    }
+
+    /** A right phrase reveals every character and wins. */
+    @Test
+    public void solvingRevealsAll() {
+        GameState.Transition solved =
+                start("Rome").guessLetter('r').getState()
+                        .guessPhrase("ROME");
+        assertEquals(Guess.SOLVED, solved.getGuess());
+        assertTrue(solved.getState().hasWon());
+        assertEquals("emor", solved.getState().getGuessedLetters());
+        assertEquals(2, solved.getState().getGuessesMade());
+    }
+
+}
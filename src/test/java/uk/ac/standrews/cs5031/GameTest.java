@@ -13,7 +13,7 @@ import static org.junit.Assert.fail;
  * A test suite for {@link Game}.
  *
  * @author Edwin Brady, 150009974
- * @version 2.0
+ * @version 2.1
  */
 public class GameTest {
 
@@ -88,8 +88,8 @@ public class GameTest {
             simulateExecution(args);
             fail("The execution should cause an exception given the input.");
         } catch (NoSuchElementException e) {
-            // This exception is thrown by the Scanner object.
-            // On end of input, the Scanner fails to read.
+            // This exception is thrown by the LineReader.
+            // On end of input, the LineReader fails to read.
             // That is fine for this test.
         }
         TestingUtils.expectOutput("multi_word_phrase_auto_spaces.txt");
@@ -195,8 +195,8 @@ public class GameTest {
             simulateExecution();
             fail("The execution should cause an exception given the input.");
         } catch (NoSuchElementException e) {
-            // This exception is thrown by the Scanner object.
-            // On end of input, the Scanner fails to read.
+            // This exception is thrown by the LineReader.
+            // On end of input, the LineReader fails to read.
             // That is fine for this test.
         }
         TestingUtils.expectOutput("single_repeat_letter.txt");
@@ -245,8 +245,8 @@ public class GameTest {
             Game.play(null);
             fail("The execution should cause an exception given the input.");
         } catch (NoSuchElementException e) {
-            // This exception is thrown by the Scanner object.
-            // On end of input, the Scanner fails to read.
+            // This exception is thrown by the LineReader.
+            // On end of input, the LineReader fails to read.
             // That is fine for this test.
         }
         Game.printGameOverMessage();
@@ -293,8 +293,8 @@ public class GameTest {
             simulateExecution(args);
             fail("The execution should cause an exception given the input.");
         } catch (NoSuchElementException e) {
-            // This exception is thrown by the Scanner object.
-            // On end of input, the Scanner fails to read.
+            // This exception is thrown by the LineReader.
+            // On end of input, the LineReader fails to read.
             // That is fine for this test.
         }
         TestingUtils.expectOutput("one_letter_run_out_of_hints.txt");
@@ -10,7 +10,7 @@ import java.io.FileNotFoundException;
  * A test suite for {@link Hangman}.
  *
  * @author 150009974
- * @version 1.4
+ * @version 1.5
  */
 public class HangmanTest {
 
@@ -116,6 +116,23 @@ public class HangmanTest {
         TestingUtils.expectOutput("execution_repeat_on_yes.txt");
     }
 
+    /**
+     * Output written on a thread of its own is the same as on the console.
+     *
+     * @throws FileNotFoundException        if the expected output file
+     *                                      is not found.
+     * @throws UnsupportedEncodingException if the String conversion does not
+     *                                      support utf-8. Should not happen.
+     */
+    @Test
+    public void asyncOutputRepeatsOnYes()
+            throws FileNotFoundException, UnsupportedEncodingException {
+        TestingUtils.redirectInput("0\nWord\nyes\n0\nWord\nyes\n0\nWord\nno\n");
+        simulateExecution(new String[]{OptionsParser.ASYNC_OUTPUT_OPTION,
+            "resources/phrase_sources/single.txt"});
+        TestingUtils.expectOutput("execution_repeat_on_yes.txt");
+    }
+
     /**
      * "Yep" and "Nope" are accepted as "yes" and "no".
      *
@@ -0,0 +1,63 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A test suite for the {@link HashRing}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public class HashRingTest {
+
+    /** The amount of ids mapped in each test. */
+    private static final int IDS = 100_000;
+
+    /** Consecutive ids are spread evenly over the shards. */
+    @Test
+    public void spreadsIdsEvenly() {
+        HashRing ring = new HashRing(8);
+        assertEquals(8, ring.getShards());
+        int[] counts = new int[ring.getShards()];
+        for (long id = 1; id <= IDS; id++) {
+            counts[ring.shardOf(id)]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > IDS / 8 * 2 / 3 && count < IDS / 8 * 3 / 2);
+        }
+    }
+
+    /**
+     * Adding a shard moves ids only to the new shard,
+     * and about the share of ids the new shard should own.
+     */
+    @Test
+    public void addingShardMovesOnlyToIt() {
+        HashRing ring = new HashRing(8);
+        HashRing grown = ring.withShard();
+        assertEquals(9, grown.getShards());
+        int moved = 0;
+        for (long id = 1; id <= IDS; id++) {
+            int before = ring.shardOf(id);
+            int after = grown.shardOf(id);
+            if (before != after) {
+                assertEquals(8, after);
+                moved++;
+            }
+        }
+        assertTrue(moved > IDS / 9 * 2 / 3 && moved < IDS / 9 * 3 / 2);
+    }
+
+    /** A ring of one shard maps every id to it. */
+    @Test
+    public void singleShard() {
+        HashRing ring = new HashRing(1);
+        for (long id = 1; id <= 1000; id++) {
+            assertEquals(0, ring.shardOf(id));
+        }
+    }
+
+}
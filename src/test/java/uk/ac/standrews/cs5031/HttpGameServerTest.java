@@ -0,0 +1,299 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A test suite for the {@link HttpGameServer}.
+ * Requests are written by hand on loopback sockets, so that keep-alive
+ * and pipelining are exercised as a client would.
+ *
+ * @author 150009974
+ * @version 1.4
+ */
+public class HttpGameServerTest {
+
+    /** How long to wait for the server, in milliseconds. */
+    private static final int TIMEOUT = 5000;
+
+    /** Finds the id of a game in a response. */
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+    /** The server under test. */
+    private GameServer server;
+
+    /** The connection to the server. */
+    private Socket socket;
+
+    /**
+     * Loads the single word phrase source, starts a server and
+     * connects to it.
+     *
+     * @throws IOException if the phrase source or the port are not available
+     */
+    @Before
+    public void startServer() throws IOException {
+        String[] args = {"--lives", "2", "--max-hints", "1",
+                "resources/phrase_sources/single.txt"};
+        OptionsParser.parseAndValidate(args);
+        Phrases.loadCustom();
+        server = GameServer.open(OptionsParser.HTTP_ENGINE, 0);
+        server.start();
+        socket = new Socket(InetAddress.getLoopbackAddress(),
+                server.getPort());
+        socket.setSoTimeout(TIMEOUT);
+    }
+
+    /**
+     * Disconnects and stops the server.
+     *
+     * @throws IOException if closing fails
+     */
+    @After
+    public void stopServer() throws IOException {
+        socket.close();
+        server.close();
+    }
+
+    /**
+     * Formats a request.
+     *
+     * @param method the method
+     * @param path   the path
+     * @param body   the body, possibly empty
+     * @return the request
+     */
+    private static String request(final String method, final String path,
+                                  final String body) {
+        return method + " " + path + " HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "Content-Length: " + body.getBytes(UTF_8).length + "\r\n"
+                + "\r\n" + body;
+    }
+
+    /**
+     * Sends the given requests in a single write, then reads as many
+     * responses on the same connection.
+     *
+     * @param requests the requests
+     * @return the responses, each as its status line and body
+     * @throws IOException if the connection fails
+     */
+    private String[] send(final String... requests) throws IOException {
+        socket.getOutputStream().write(String.join("", requests)
+                .getBytes(UTF_8));
+        InputStream in = socket.getInputStream();
+        String[] responses = new String[requests.length];
+        for (int i = 0; i < requests.length; i++) {
+            String status = readLine(in);
+            int length = 0;
+            for (String header = readLine(in); !header.isEmpty();
+                 header = readLine(in)) {
+                if (header.toLowerCase().startsWith("content-length:")) {
+                    length = Integer.parseInt(header.substring(
+                            "content-length:".length()).trim());
+                }
+            }
+            responses[i] = status + "\n"
+                    + new String(in.readNBytes(length), UTF_8);
+        }
+        return responses;
+    }
+
+    /**
+     * Reads a line terminated by a carriage return and a line feed.
+     *
+     * @param in the stream
+     * @return the line, without its terminator
+     * @throws IOException if the stream ends first
+     */
+    private static String readLine(final InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int c;
+        while ((c = in.read()) != '\n') {
+            if (c == -1) {
+                throw new IOException("The connection was closed.");
+            }
+            if (c != '\r') {
+                line.write(c);
+            }
+        }
+        return new String(line.toByteArray(), UTF_8);
+    }
+
+    /**
+     * A game is created, guessed, hinted and won on a single connection
+     * kept alive, and then no longer exists.
+     *
+     * @throws IOException if the connection fails
+     */
+    @Test
+    public void playsOnOneConnection() throws IOException {
+        String created = send(request("POST", "/games",
+                "{\"category\": 0}"))[0];
+        long id = idOf(created);
+        String game = "/games/" + id;
+        assertEquals("HTTP/1.1 201 Created\n{\"id\":" + id + ","
+                + "\"phrase\":\"----\",\"lives\":2,\"hints\":1,"
+                + "\"guesses\":0,\"status\":\"playing\"}", created);
+        assertEquals("HTTP/1.1 200 OK\n{\"result\":\"wrong\",\"id\":" + id
+                        + ",\"phrase\":\"----\",\"lives\":1,\"hints\":1,"
+                        + "\"guesses\":1,\"status\":\"playing\"}",
+                send(request("POST", game + "/guess",
+                        "{\"guess\": \"z\"}"))[0]);
+        String hinted = send(request("POST", game + "/hint", ""))[0];
+        assertTrue(hinted, hinted.matches("HTTP/1.1 200 OK\n"
+                + "\\{\"hint\":\"[word]\",.*\"hints\":0,.*"));
+        assertEquals("HTTP/1.1 200 OK\n{\"result\":\"solved\",\"id\":"
+                        + id + ",\"phrase\":\"Word\",\"lives\":1,"
+                        + "\"hints\":0,\"guesses\":2,\"status\":\"won\","
+                        + "\"answer\":\"Word\"}",
+                send(request("POST", game + "/guess",
+                        "{\"guess\": \"word\"}"))[0]);
+        assertEquals("HTTP/1.1 404 Not Found\n{\"error\":\""
+                        + HttpGameServer.NO_SUCH_GAME + "\"}",
+                send(request("GET", game, ""))[0]);
+        assertEquals(1, server.getMetrics().getGamesFinished());
+    }
+
+    /**
+     * Requests pipelined in a single write are all answered, in order.
+     *
+     * @throws IOException if the connection fails
+     */
+    @Test
+    public void answersPipelinedRequests() throws IOException {
+        String game = "/games/" + idOf(send(request("POST", "/games",
+                "{\"category\":0}"))[0]);
+        String[] responses = send(
+                request("POST", game + "/guess", "{\"guess\":\"w\"}"),
+                request("POST", game + "/guess", "{\"guess\":\"w\"}"),
+                request("GET", game, ""),
+                request("DELETE", game, ""),
+                request("GET", game, ""));
+        assertTrue(responses[0].contains("\"result\":\"correct\""));
+        assertTrue(responses[1].contains("\"result\":\"repeated\""));
+        assertTrue(responses[2].contains("\"phrase\":\"W---\""));
+        assertEquals("HTTP/1.1 204 No Content\n", responses[3]);
+        assertTrue(responses[4].startsWith("HTTP/1.1 404"));
+    }
+
+    /**
+     * A batch of guesses is answered with a single response, which stops
+     * at the end of the game.
+     *
+     * @throws IOException if the connection fails
+     */
+    @Test
+    public void playsBatches() throws IOException {
+        long id = idOf(send(request("POST", "/games",
+                "{\"category\":0}"))[0]);
+        String game = "/games/" + id;
+        String[] responses = send(
+                request("POST", game + "/guesses", "{}"),
+                request("POST", game + "/guesses",
+                        "{\"guesses\": \"z, w,o,r,d,x\"}"),
+                request("GET", game, ""));
+        assertEquals("HTTP/1.1 400 Bad Request\n{\"error\":\""
+                + HttpGameServer.NO_GUESSES + "\"}", responses[0]);
+        assertEquals("HTTP/1.1 200 OK\n{\"results\":["
+                        + "{\"guess\":\"z\",\"result\":\"wrong\"},"
+                        + "{\"guess\":\"w\",\"result\":\"correct\"},"
+                        + "{\"guess\":\"o\",\"result\":\"correct\"},"
+                        + "{\"guess\":\"r\",\"result\":\"correct\"},"
+                        + "{\"guess\":\"d\",\"result\":\"correct\"}],"
+                        + "\"id\":" + id + ",\"phrase\":\"Word\","
+                        + "\"lives\":1,\"hints\":1,\"guesses\":5,"
+                        + "\"status\":\"won\",\"answer\":\"Word\"}",
+                responses[1]);
+        assertTrue(responses[2].startsWith("HTTP/1.1 404"));
+        assertEquals(1, server.getMetrics().getGamesFinished());
+    }
+
+    /**
+     * Invalid requests are answered with an error, and the connection is
+     * kept alive for the next request.
+     *
+     * @throws IOException if the connection fails
+     */
+    @Test
+    public void reportsInvalidRequests() throws IOException {
+        String[] responses = send(
+                request("POST", "/games", "{\"category\":7}"),
+                request("POST", "/games", "{}"),
+                request("POST", "/games", "{\"category\":\"x\"}"),
+                request("PUT", "/games", ""),
+                request("GET", "/games/x", ""),
+                request("POST", "/games/1/guess", "{}"),
+                request("POST", "/games/1/guess", "x".repeat(5000)),
+                request("POST", "/games", "{\"category\":0}"));
+        String notRecognized = "HTTP/1.1 404 Not Found\n{\"error\":\""
+                + Renderer.CATEGORY_NOT_RECOGNIZED + "\"}";
+        String noCategory = "HTTP/1.1 400 Bad Request\n{\"error\":\""
+                + HttpGameServer.NO_CATEGORY + "\"}";
+        assertEquals(notRecognized, responses[0]);
+        assertEquals(noCategory, responses[1]);
+        assertEquals(noCategory, responses[2]);
+        assertTrue(responses[3].startsWith("HTTP/1.1 405"));
+        assertTrue(responses[4].startsWith("HTTP/1.1 404"));
+        assertTrue(responses[5].startsWith("HTTP/1.1 400"));
+        assertTrue(responses[6].startsWith("HTTP/1.1 413"));
+        assertTrue(responses[7].startsWith("HTTP/1.1 201"));
+    }
+
+    /**
+     * Finds the id of the game in the given response.
+     *
+     * @param response the response, describing a game
+     * @return the id of the game
+     */
+    private static long idOf(final String response) {
+        Matcher matcher = ID.matcher(response);
+        assertTrue(response, matcher.find());
+        return Long.parseLong(matcher.group(1));
+    }
+
+    /**
+     * A game left without requests is removed once it is abandoned.
+     *
+     * @throws IOException          if the connection fails
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Test
+    public void removesAbandonedGames()
+            throws IOException, InterruptedException {
+        stopServer();
+        SessionRegistry registry = new SessionRegistry();
+        server = new HttpGameServer(0, RandomSource.seeded(1), registry,
+                TimeUnit.MILLISECONDS.toNanos(100));
+        server.start();
+        socket = new Socket(InetAddress.getLoopbackAddress(),
+                server.getPort());
+        socket.setSoTimeout(TIMEOUT);
+        long id = idOf(send(request("POST", "/games",
+                "{\"category\": 0}"))[0]);
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (registry.size() > 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, registry.size());
+        assertTrue(send(request("GET", "/games/" + id, ""))[0]
+                .startsWith("HTTP/1.1 404"));
+    }
+
+}
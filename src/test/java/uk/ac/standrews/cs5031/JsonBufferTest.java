@@ -0,0 +1,150 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A test suite for the {@link JsonBuffer}.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public class JsonBufferTest {
+
+    /**
+     * Retrieves the content of the given buffer as text.
+     *
+     * @param json the buffer
+     * @return the content
+     * @throws IOException never, the stream is in memory
+     */
+    private static String text(final JsonBuffer json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        json.writeTo(out);
+        assertEquals(json.length(), out.size());
+        return new String(out.toByteArray(), UTF_8);
+    }
+
+    /**
+     * Reads the given text into a new buffer.
+     *
+     * @param text the text
+     * @return the buffer
+     * @throws IOException never, the stream is in memory
+     */
+    private static JsonBuffer read(final String text) throws IOException {
+        JsonBuffer json = new JsonBuffer();
+        assertTrue(json.readFrom(
+                new ByteArrayInputStream(text.getBytes(UTF_8)), 1024));
+        return json;
+    }
+
+    /**
+     * Members are separated by commas, and every kind of value is written.
+     *
+     * @throws IOException never, the stream is in memory
+     */
+    @Test
+    public void writesObjects() throws IOException {
+        JsonBuffer json = new JsonBuffer().beginObject();
+        json.name("a").value(0).name("b").value(-1234567890123L);
+        json.name("c").value(true).name("d").value((CharSequence) null);
+        json.name("e").value(Long.MIN_VALUE).endObject();
+        assertEquals("{\"a\":0,\"b\":-1234567890123,\"c\":true,\"d\":null,"
+                + "\"e\":" + Long.MIN_VALUE + "}", text(json));
+    }
+
+    /**
+     * Elements of arrays are separated by commas, as are the members
+     * around them.
+     *
+     * @throws IOException never, the stream is in memory
+     */
+    @Test
+    public void writesArrays() throws IOException {
+        JsonBuffer json = new JsonBuffer().beginObject().name("a");
+        json.beginArray().element().value(1).element().beginObject();
+        json.name("b").value(2).endObject().endArray();
+        json.name("c").beginArray().endArray().endObject();
+        assertEquals("{\"a\":[1,{\"b\":2}],\"c\":[]}", text(json));
+    }
+
+    /**
+     * Strings are written in ASCII, escaping quotes, backslashes and
+     * other characters.
+     *
+     * @throws IOException never, the stream is in memory
+     */
+    @Test
+    public void escapesStrings() throws IOException {
+        JsonBuffer json = new JsonBuffer().value("\"\\\n\u00f8 ok");
+        assertEquals("\"\\\"\\\\\\u000a\\u00f8 ok\"", text(json));
+        assertEquals("\"\\\n\u00f8 ok",
+                read("{\"s\": " + text(json) + "}").getString("s"));
+    }
+
+    /**
+     * Clearing keeps nothing of the previous content,
+     * and the buffer grows as needed.
+     *
+     * @throws IOException never, the stream is in memory
+     */
+    @Test
+    public void clearsAndGrows() throws IOException {
+        JsonBuffer json = new JsonBuffer().beginObject();
+        json.name("long").value("x".repeat(1000)).endObject();
+        assertEquals(1000 + "{\"long\":\"\"}".length(), json.length());
+        json.clear().beginObject().name("a").value(1).endObject();
+        assertEquals("{\"a\":1}", text(json));
+    }
+
+    /**
+     * Members are read by name, whatever the spacing, and missing ones
+     * are reported.
+     *
+     * @throws IOException never, the stream is in memory
+     */
+    @Test
+    public void readsMembers() throws IOException {
+        JsonBuffer json = read("{ \"guess\" : \"e\", \"category\" :-2 }");
+        assertEquals("e", json.getString("guess"));
+        assertEquals(-2, json.getInt("category"));
+        assertNull(json.getString("category"));
+        assertNull(json.getString("missing"));
+        assertNull(read("{\"guess\":").getString("guess"));
+    }
+
+    /**
+     * Integers that are missing are reported as not being numbers.
+     *
+     * @throws IOException never, the stream is in memory
+     */
+    @Test(expected = NumberFormatException.class)
+    public void readsMissingInt() throws IOException {
+        read("{\"guess\":\"e\"}").getInt("category");
+    }
+
+    /**
+     * Bodies larger than the limit are refused.
+     *
+     * @throws IOException never, the stream is in memory
+     */
+    @Test
+    public void refusesLargeBodies() throws IOException {
+        JsonBuffer json = new JsonBuffer();
+        byte[] body = new byte[2000];
+        assertFalse(json.readFrom(new ByteArrayInputStream(body), 1000));
+        assertTrue(json.readFrom(new ByteArrayInputStream(body), 2000));
+        assertEquals(2000, json.length());
+    }
+
+}
@@ -0,0 +1,102 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A test suite for {@link LatencyHistogram}.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public class LatencyHistogramTest {
+
+    /** Buckets follow each other, and are at most 1 / 32 wider than values. */
+    @Test
+    public void bucketsAreContiguousAndNarrow() {
+        for (long value = 0; value < 1 << 20; value++) {
+            int index = LatencyHistogram.indexOf(value);
+            long highest = LatencyHistogram.highestValueOf(index);
+            assertTrue(highest >= value);
+            assertTrue(highest - value <= value / 32);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestValueOf(index - 1) < value);
+            }
+        }
+        int last = LatencyHistogram.indexOf(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueOf(last));
+    }
+
+    /** Percentiles are read within the precision of the buckets. */
+    @Test
+    public void percentilesOfUniformValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(10000, histogram.getCount());
+        assertEquals(10000, histogram.getMax());
+        assertEquals(5000.5, histogram.getMean(), 1e-9);
+        assertEquals(5000, histogram.getValueAtPercentile(50), 5000 / 32);
+        assertEquals(9900, histogram.getValueAtPercentile(99), 9900 / 32);
+        assertEquals(10000, histogram.getValueAtPercentile(100));
+    }
+
+    /** An empty histogram reports zeros, and negative values count as 0. */
+    @Test
+    public void emptyAndNegative() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0, histogram.getMean(), 0);
+        histogram.record(-5);
+        assertEquals(0, histogram.getMax());
+        assertEquals(1, histogram.getCount());
+    }
+
+    /** The summary holds the count, the percentiles and the maximum. */
+    @Test
+    public void summaryAndReport() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(2000);
+        Map<String, Long> summary = histogram.summary();
+        assertEquals("[count, p50, p90, p99, p99.9, max]",
+                summary.keySet().toString());
+        assertEquals(Long.valueOf(1), summary.get("count"));
+        assertEquals(Long.valueOf(2000), summary.get("max"));
+        assertEquals("count=1 p50=2.0us p90=2.0us p99=2.0us p99.9=2.0us"
+                + " max=2.0us", histogram.report());
+    }
+
+    /**
+     * Values recorded on many threads at once are all counted,
+     * whichever stripe each thread counts them in.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Test
+    public void recordsFromManyThreads() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (long value = 1; value <= 10000; value++) {
+                    histogram.record(value);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(80000, histogram.getCount());
+        assertEquals(5000.5, histogram.getMean(), 1e-9);
+        assertEquals(10000, histogram.getValueAtPercentile(100));
+        assertEquals(5000, histogram.getValueAtPercentile(50), 5000 / 32);
+    }
+
+}
@@ -0,0 +1,70 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A test suite for {@link LetterSet}.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public class LetterSetTest {
+
+    /** Letters from a to z are kept in the mask, in any case. */
+    @Test
+    public void asciiLettersUseTheMask() {
+        LetterSet set = LetterSet.of("A za");
+        assertEquals(1L | 1L << 25, set.getMask());
+        assertEquals(1L | 1L << 25, LetterSet.maskOf(set));
+        assertEquals("", set.getOthers());
+        assertEquals(2, set.size());
+        assertTrue(LetterSet.contains(set.getMask(), "", 'z'));
+        assertFalse(LetterSet.contains(set.getMask(), "", 'b'));
+    }
+
+    /** Other characters are kept sorted alongside the mask. */
+    @Test
+    public void otherCharactersAreKept() {
+        LetterSet set = LetterSet.of("\u00e9a-\u00fc'\u00e9");
+        assertEquals("'-\u00e9\u00fc", set.getOthers());
+        assertEquals(5, set.size());
+        assertTrue((LetterSet.maskOf(set) & LetterSet.OTHERS_FLAG) != 0);
+        assertTrue(LetterSet.contains(0, set.getOthers(), '-'));
+        String others = LetterSet.without(set.getOthers(), '-');
+        assertEquals("'\u00e9\u00fc", others);
+        assertSame(others, LetterSet.without(others, '-'));
+        assertSame(others, LetterSet.with(others, '\u00e9'));
+        assertEquals("'-\u00e9\u00fc", LetterSet.with(others, '-'));
+    }
+
+    /** Merging keeps every character once, sorted. */
+    @Test
+    public void unionMerges() {
+        assertEquals("-\u00e9\u00f8\u00fc",
+                LetterSet.union("\u00e9\u00fc", "-\u00f8\u00fc"));
+        assertEquals("-", LetterSet.union("", "-"));
+    }
+
+    /** Letters are indexed alphabetically, followed by other characters. */
+    @Test
+    public void getIndexesInOrder() {
+        LetterSet set = LetterSet.of("\u00fcmca");
+        StringBuilder letters = new StringBuilder();
+        for (int i = 0; i < set.size(); i++) {
+            letters.append(LetterSet.get(set.getMask(), set.getOthers(), i));
+        }
+        assertEquals("acm\u00fc", letters.toString());
+    }
+
+    /** Retrieving a letter beyond the size causes an exception. */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getOutOfRange() {
+        LetterSet.get(0, "", 0);
+    }
+
+}
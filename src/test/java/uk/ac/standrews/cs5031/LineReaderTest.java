@@ -0,0 +1,154 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * A test suite for {@link LineReader}.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public class LineReaderTest {
+
+    /** A stream returning at most one byte per read, like a slow pipe. */
+    private static final class TrickleStream extends InputStream {
+
+        /** The bytes to return. */
+        private final ByteArrayInputStream bytes;
+
+        /**
+         * Creates a stream of the given text.
+         *
+         * @param text the text to return
+         */
+        TrickleStream(final String text) {
+            bytes = new ByteArrayInputStream(text.getBytes(UTF_8));
+        }
+
+        @Override
+        public int read() {
+            return bytes.read();
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            return bytes.read(b, off, Math.min(len, 1));
+        }
+
+    }
+
+    /** Every line is a token, empty ones included. */
+    @Test
+    public void readsEveryLine() {
+        LineReader reader = new LineReader("a\n\nK\u00f8benhavn\nlast");
+        assertEquals("a", reader.next());
+        assertEquals("", reader.next());
+        assertEquals("K\u00f8benhavn", reader.next());
+        assertEquals("last", reader.next());
+    }
+
+    /** The end of input is reported as by a Scanner. */
+    @Test(expected = NoSuchElementException.class)
+    public void failsOnEndOfInput() {
+        LineReader reader = new LineReader("a\n");
+        reader.next();
+        reader.next();
+    }
+
+    /** Numbers with an optional sign are parsed, up to the int range. */
+    @Test
+    public void parsesInts() {
+        LineReader reader = new LineReader("3\n-12\n+7\n-2147483648\n007\n");
+        assertEquals(3, reader.nextInt());
+        assertEquals(-12, reader.nextInt());
+        assertEquals(7, reader.nextInt());
+        assertEquals(Integer.MIN_VALUE, reader.nextInt());
+        assertEquals(7, reader.nextInt());
+    }
+
+    /** A line that is not an int is left to be read as text. */
+    @Test
+    public void keepsMismatchedLines() {
+        String[] lines = {"a", "", " 3", "3 ", "-", "2147483648", "1,000"};
+        LineReader reader = new LineReader(String.join("\n", lines));
+        for (String line : lines) {
+            try {
+                reader.nextInt();
+                fail("\"" + line + "\" should not be an int.");
+            } catch (InputMismatchException e) {
+                assertEquals(line, reader.next());
+            }
+        }
+    }
+
+    /** Lines split across reads and longer than the buffer are joined. */
+    @Test
+    public void joinsPartialReads() {
+        StringBuilder longLine = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            longLine.append((char) ('a' + i % 26));
+        }
+        String text = "12\n" + longLine + "\nend";
+        LineReader reader = new LineReader(new ByteArrayInputStream(
+                text.getBytes(UTF_8)));
+        assertEquals(12, reader.nextInt());
+        assertEquals(longLine.toString(), reader.next());
+        assertEquals("end", reader.next());
+        LineReader trickle = new LineReader(new TrickleStream(text));
+        assertEquals(12, trickle.nextInt());
+        assertEquals(longLine.toString(), trickle.next());
+        assertEquals("end", trickle.next());
+    }
+
+    /**
+     * Lines up to the limit are read, with or without a carriage return,
+     * and a longer line ends the input, even if it never ends.
+     */
+    @Test
+    public void endsInputOnLongLines() {
+        String limit = "x".repeat(10);
+        LineReader reader = new LineReader(new TrickleStream(
+                limit + "\r\n" + limit + "x\nnext\n"), true, 10);
+        assertEquals(limit, reader.next());
+        try {
+            reader.next();
+            fail("A line longer than the limit was read.");
+        } catch (NoSuchElementException expected) {
+            // The rest of the input is dropped.
+        }
+        LineReader endless = new LineReader(new InputStream() {
+            @Override
+            public int read() {
+                return 'x';
+            }
+        }, true, GameServer.MAX_LINE_LENGTH);
+        try {
+            endless.next();
+            fail("A line without an end was read.");
+        } catch (NoSuchElementException expected) {
+            // The line is dropped once it is longer than the limit.
+        }
+    }
+
+    /** Lines ending in "\r\n" are trimmed only when asked to. */
+    @Test
+    public void trimsCarriageReturns() {
+        byte[] bytes = "4\r\nguess\r\n".getBytes(UTF_8);
+        LineReader network = new LineReader(new ByteArrayInputStream(bytes),
+                true);
+        assertEquals(4, network.nextInt());
+        assertEquals("guess", network.next());
+        LineReader console = new LineReader(new ByteArrayInputStream(bytes));
+        assertEquals("4\r", console.next());
+    }
+
+}
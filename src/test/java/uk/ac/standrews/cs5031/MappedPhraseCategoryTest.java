@@ -0,0 +1,95 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * A test suite for {@link MappedPhraseCategory}.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public class MappedPhraseCategoryTest {
+
+    /** Holds the phrase files written by the tests. */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Writes the given text to a new file and maps it.
+     *
+     * @param text the contents of the file
+     * @return the mapped category
+     * @throws IOException if the file cannot be written or mapped
+     */
+    private PhraseCategory map(final String text) throws IOException {
+        Path source = folder.newFile().toPath();
+        Files.write(source, text.getBytes(UTF_8));
+        return MappedPhraseCategory.open("Mapped", source);
+    }
+
+    /** Lines are trimmed and blank lines are skipped. */
+    @Test
+    public void indexesNonBlankLines() throws IOException {
+        PhraseCategory mapped = map("\n  St Andrews \r\n\r\n\tPerth\nDundee");
+        assertEquals("Mapped", mapped.getName());
+        assertEquals(3, mapped.size());
+        assertEquals("St Andrews", mapped.getPhrase(0));
+        assertEquals("Perth", mapped.getPhrase(1));
+        assertEquals("Dundee", mapped.getPhrase(2));
+    }
+
+    /** The metadata matches that computed for phrases held in memory. */
+    @Test
+    public void metadataMatchesArrayCategory() throws IOException {
+        String[] phrases = {"St Andrews", "PERTH", "K\u00f8benhavn",
+                "Dumfries and Galloway", "\u00c5lesund 2"};
+        PhraseCategory expected = new ArrayPhraseCategory("Array", phrases);
+        PhraseCategory mapped = map(String.join("\n", phrases) + "\n");
+        assertEquals(expected.size(), mapped.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getPhrase(i), mapped.getPhrase(i));
+            assertEquals(expected.getLetterMask(i), mapped.getLetterMask(i));
+            assertEquals(expected.getLength(i), mapped.getLength(i));
+            assertEquals(expected.getDistinctLetters(i),
+                    mapped.getDistinctLetters(i));
+        }
+    }
+
+    /**
+     * Difficulties are rated once, when first needed, as they would be
+     * for phrases held in memory.
+     *
+     * @throws IOException if the file cannot be written or mapped
+     */
+    @Test
+    public void ratesDifficultiesOnce() throws IOException {
+        String[] phrases = {"St Andrews", "Perth", "Dundee", "Oban",
+                "Dumfries and Galloway", "Inverness"};
+        PhraseCategory expected = new ArrayPhraseCategory("Array", phrases);
+        PhraseCategory mapped = map(String.join("\n", phrases));
+        Difficulties difficulties = mapped.getDifficulties();
+        assertSame(difficulties, mapped.getDifficulties());
+        for (Difficulty difficulty : Difficulties.RANKED) {
+            assertEquals(expected.getDifficulties().get(difficulty),
+                    difficulties.get(difficulty));
+        }
+    }
+
+    /** A file with no phrases is rejected, as by the in-memory loader. */
+    @Test(expected = FileNotFoundException.class)
+    public void rejectsBlankFile() throws IOException {
+        map(" \n\r\n\t\n");
+    }
+
+}
@@ -8,6 +8,22 @@ import static uk.ac.standrews.cs5031.OptionsParser.DEFAULT_LIVES;
 import static uk.ac.standrews.cs5031.OptionsParser.MAX_HINTS_OPTION;
 import static uk.ac.standrews.cs5031.OptionsParser.DEFAULT_MAX_HINTS;
 import static uk.ac.standrews.cs5031.OptionsParser.NO_PHRASE_SOURCE;
+import static uk.ac.standrews.cs5031.OptionsParser.ENGINE_OPTION;
+import static uk.ac.standrews.cs5031.OptionsParser.NO_PORT;
+import static uk.ac.standrews.cs5031.OptionsParser.SELECTOR_ENGINE;
+import static uk.ac.standrews.cs5031.OptionsParser.VIRTUAL_THREAD_ENGINE;
+import static uk.ac.standrews.cs5031.OptionsParser.PORT_OPTION;
+import static uk.ac.standrews.cs5031.OptionsParser.PHRASE_INDEX_OPTION;
+import static uk.ac.standrews.cs5031.OptionsParser.WATCH_OPTION;
+import static uk.ac.standrews.cs5031.OptionsParser.SEED_OPTION;
+import static uk.ac.standrews.cs5031.OptionsParser.SIMULATE_OPTION;
+import static uk.ac.standrews.cs5031.OptionsParser.DIFFICULTY_OPTION;
+import static uk.ac.standrews.cs5031.OptionsParser.BATCH_OPTION;
+import static uk.ac.standrews.cs5031.OptionsParser.ASYNC_OUTPUT_OPTION;
+import static uk.ac.standrews.cs5031.OptionsParser.JOURNAL_OPTION;
+import static uk.ac.standrews.cs5031.OptionsParser.PARK_AFTER_OPTION;
+import static uk.ac.standrews.cs5031.OptionsParser.DEFAULT_PARK_AFTER;
+import static uk.ac.standrews.cs5031.OptionsParser.METRICS_OPTION;
 
 import org.junit.Test;
 
@@ -15,7 +31,7 @@ import org.junit.Test;
  * A test suite for {@link OptionsParser}.
  *
  * @author Edwin Brady, 150009974
- * @version 2.7
+ * @version 2.10
  */
 public class OptionsParserTest {
 
@@ -158,4 +174,198 @@ public class OptionsParserTest {
         assertTrue(OptionsParser.areThereCustomPhrases());
     }
 
+    /** When the '--port' option is not used, games are played locally. */
+    @Test
+    public void providedNoPort() {
+        OptionsParser.parseAndValidate(new String[]{});
+        assertEquals(NO_PORT, OptionsParser.getPort());
+        assertFalse(OptionsParser.isServerMode());
+    }
+
+    /** When a port is provided, games should be served on it. */
+    @Test
+    public void providedPort() {
+        String[] args = {PORT_OPTION, "8080"};
+        OptionsParser.parseAndValidate(args);
+        assertEquals(8080, OptionsParser.getPort());
+        assertTrue(OptionsParser.isServerMode());
+    }
+
+    /**
+     * When a port out of range is provided,
+     * the system should throw an exception.
+     */
+    @Test(expected = NumberFormatException.class)
+    public void providedInvalidPort() {
+        String[] args = {PORT_OPTION, "65536"};
+        OptionsParser.parseAndValidate(args);
+    }
+
+    /** When the '--engine' option is not used, the selector is used. */
+    @Test
+    public void providedNoEngine() {
+        OptionsParser.parseAndValidate(new String[]{});
+        assertEquals(SELECTOR_ENGINE, OptionsParser.getEngine());
+    }
+
+    /** When an engine is provided, it should be saved. */
+    @Test
+    public void providedEngine() {
+        String[] args = {ENGINE_OPTION, VIRTUAL_THREAD_ENGINE};
+        OptionsParser.parseAndValidate(args);
+        assertEquals(VIRTUAL_THREAD_ENGINE, OptionsParser.getEngine());
+    }
+
+    /**
+     * When an unknown engine is provided,
+     * the system should throw an exception.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void providedUnknownEngine() {
+        String[] args = {ENGINE_OPTION, "carrier pigeon"};
+        OptionsParser.parseAndValidate(args);
+    }
+
+    /** The phrase index is only used when asked for. */
+    @Test
+    public void providedPhraseIndex() {
+        OptionsParser.parseAndValidate(new String[]{"phrases.txt"});
+        assertFalse(OptionsParser.isPhraseIndexed());
+        String[] args = {PHRASE_INDEX_OPTION, "phrases.txt"};
+        OptionsParser.parseAndValidate(args);
+        assertTrue(OptionsParser.isPhraseIndexed());
+        assertEquals("phrases.txt", OptionsParser.getPhraseSource());
+    }
+
+    /** The phrase source is only watched when asked for. */
+    @Test
+    public void providedWatch() {
+        OptionsParser.parseAndValidate(new String[]{"phrases.txt"});
+        assertFalse(OptionsParser.isWatched());
+        String[] args = {"phrases.txt", WATCH_OPTION};
+        OptionsParser.parseAndValidate(args);
+        assertTrue(OptionsParser.isWatched());
+        assertEquals("phrases.txt", OptionsParser.getPhraseSource());
+    }
+
+    /** When a seed is provided, it should be saved. */
+    @Test
+    public void providedSeed() {
+        OptionsParser.parseAndValidate(new String[]{});
+        assertFalse(OptionsParser.isSeeded());
+        OptionsParser.parseAndValidate(new String[]{SEED_OPTION, "-42"});
+        assertTrue(OptionsParser.isSeeded());
+        assertEquals(-42, OptionsParser.getSeed());
+    }
+
+    /** The console output is only written asynchronously when asked to. */
+    @Test
+    public void providedAsyncOutput() {
+        OptionsParser.parseAndValidate(new String[]{});
+        assertFalse(OptionsParser.isAsyncOutput());
+        OptionsParser.parseAndValidate(new String[]{ASYNC_OUTPUT_OPTION});
+        assertTrue(OptionsParser.isAsyncOutput());
+    }
+
+    /** When transcripts to replay are provided, both files are saved. */
+    @Test
+    public void providedBatch() {
+        OptionsParser.parseAndValidate(new String[]{});
+        assertFalse(OptionsParser.isBatch());
+        String[] args = {BATCH_OPTION, "in.txt", "out.txt", "phrases.txt"};
+        OptionsParser.parseAndValidate(args);
+        assertTrue(OptionsParser.isBatch());
+        assertEquals("in.txt", OptionsParser.getBatchTranscripts());
+        assertEquals("out.txt", OptionsParser.getBatchOutput());
+        assertEquals("phrases.txt", OptionsParser.getPhraseSource());
+    }
+
+    /** Games are only journaled when a journal directory is provided. */
+    @Test
+    public void providedJournal() {
+        OptionsParser.parseAndValidate(new String[]{});
+        assertFalse(OptionsParser.isJournaled());
+        OptionsParser.parseAndValidate(new String[]{JOURNAL_OPTION, "games"});
+        assertTrue(OptionsParser.isJournaled());
+        assertEquals("games", OptionsParser.getJournalDirectory());
+    }
+
+    /** Idle games are parked after a minute, unless told otherwise. */
+    @Test
+    public void providedParkAfter() {
+        OptionsParser.parseAndValidate(new String[]{});
+        assertTrue(OptionsParser.isParking());
+        assertEquals(DEFAULT_PARK_AFTER, OptionsParser.getParkAfter());
+        OptionsParser.parseAndValidate(new String[]{PARK_AFTER_OPTION, "0"});
+        assertFalse(OptionsParser.isParking());
+    }
+
+    /**
+     * When a negative idle time before parking is provided,
+     * the system should throw an exception.
+     */
+    @Test(expected = NumberFormatException.class)
+    public void providedNegativeParkAfter() {
+        String[] args = {PARK_AFTER_OPTION, "-1"};
+        OptionsParser.parseAndValidate(args);
+    }
+
+    /** Metrics are only printed when a period is provided. */
+    @Test
+    public void providedMetrics() {
+        OptionsParser.parseAndValidate(new String[]{});
+        assertFalse(OptionsParser.isDumpingMetrics());
+        OptionsParser.parseAndValidate(new String[]{METRICS_OPTION, "10"});
+        assertTrue(OptionsParser.isDumpingMetrics());
+        assertEquals(10, OptionsParser.getMetricsPeriod());
+    }
+
+    /**
+     * When a negative metrics period is provided,
+     * the system should throw an exception.
+     */
+    @Test(expected = NumberFormatException.class)
+    public void providedNegativeMetrics() {
+        OptionsParser.parseAndValidate(new String[]{METRICS_OPTION, "-1"});
+    }
+
+    /** Any phrase is picked unless a difficulty is provided. */
+    @Test
+    public void providedDifficulty() {
+        OptionsParser.parseAndValidate(new String[]{});
+        assertEquals(Difficulty.ANY, OptionsParser.getDifficulty());
+        String[] args = {DIFFICULTY_OPTION, "hard"};
+        OptionsParser.parseAndValidate(args);
+        assertEquals(Difficulty.HARD, OptionsParser.getDifficulty());
+    }
+
+    /**
+     * When an unknown difficulty is provided,
+     * the system should throw an exception.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void providedUnknownDifficulty() {
+        String[] args = {DIFFICULTY_OPTION, "HARD"};
+        OptionsParser.parseAndValidate(args);
+    }
+
+    /** When an amount of games to simulate is provided, it is saved. */
+    @Test
+    public void providedSimulation() {
+        OptionsParser.parseAndValidate(new String[]{});
+        assertFalse(OptionsParser.isSimulation());
+        OptionsParser.parseAndValidate(new String[]{SIMULATE_OPTION, "1000"});
+        assertTrue(OptionsParser.isSimulation());
+        assertEquals(1000, OptionsParser.getSimulatedGames());
+    }
+
+    /**
+     * When no games are to be simulated,
+     * the system should throw an exception.
+     */
+    @Test(expected = NumberFormatException.class)
+    public void providedInvalidSimulation() {
+        OptionsParser.parseAndValidate(new String[]{SIMULATE_OPTION, "0"});
+    }
+
 }
@@ -0,0 +1,128 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A test suite for {@link PhraseIndex}.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public class PhraseIndexTest {
+
+    /** Holds the phrase files written by the tests. */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** The phrase source file. */
+    private Path source;
+
+    /**
+     * Creates an empty phrase source.
+     *
+     * @throws IOException if the file cannot be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        source = folder.newFile("phrases.txt").toPath();
+    }
+
+    /**
+     * Replaces the contents of the phrase source.
+     *
+     * @param text  the new contents
+     * @param mtime the new modification time, in ms since the epoch
+     * @throws IOException if the file cannot be written
+     */
+    private void write(final String text, final long mtime)
+            throws IOException {
+        Files.write(source, text.getBytes(UTF_8));
+        Files.setLastModifiedTime(source, FileTime.fromMillis(mtime));
+    }
+
+    /** Phrases are trimmed and deduplicated, blank lines are skipped. */
+    @Test
+    public void compilesUniquePhrases() throws IOException {
+        write(" Perth\n\nSt Andrews\r\nPerth \nK\u00f8benhavn\n", 1000);
+        PhraseCategory index = PhraseIndex.load("Indexed", source);
+        assertTrue(Files.isRegularFile(PhraseIndex.indexOf(source)));
+        PhraseCategory expected = new ArrayPhraseCategory("Array",
+                new String[]{"Perth", "St Andrews", "K\u00f8benhavn"});
+        assertEquals("Indexed", index.getName());
+        assertEquals(expected.size(), index.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getPhrase(i), index.getPhrase(i));
+            assertEquals(expected.getLetterMask(i), index.getLetterMask(i));
+            assertEquals(expected.getLength(i), index.getLength(i));
+            assertEquals(expected.getDistinctLetters(i),
+                    index.getDistinctLetters(i));
+        }
+    }
+
+    /** The difficulty ranking is stored in the index as compiled. */
+    @Test
+    public void storesDifficulties() throws IOException {
+        write("Perth\nParis\nDundee\nSt Andrews\nRome\nOban\n", 1000);
+        PhraseIndex.load("Indexed", source);
+        PhraseCategory index = PhraseIndex.load("Indexed", source);
+        PhraseCategory expected = new ArrayPhraseCategory("Array",
+                new String[]{"Perth", "Paris", "Dundee", "St Andrews",
+                    "Rome", "Oban"});
+        for (Difficulty difficulty : Difficulties.RANKED) {
+            assertEquals(expected.getDifficulties().get(difficulty),
+                    index.getDifficulties().get(difficulty));
+        }
+    }
+
+    /** An index that is up to date is loaded as is. */
+    @Test
+    public void reusesFreshIndex() throws IOException {
+        write("Perth\n", 1000);
+        PhraseIndex.load("Indexed", source);
+        Path index = PhraseIndex.indexOf(source);
+        FileTime compiled = FileTime.fromMillis(5000);
+        Files.setLastModifiedTime(index, compiled);
+        assertEquals("Perth", PhraseIndex.load("Indexed", source).getPhrase(0));
+        assertEquals(compiled, Files.getLastModifiedTime(index));
+    }
+
+    /** An index is compiled again once its source changes. */
+    @Test
+    public void rebuildsStaleIndex() throws IOException {
+        write("Perth\n", 1000);
+        PhraseIndex.load("Indexed", source);
+        write("Dundee\n", 2000);
+        PhraseCategory index = PhraseIndex.load("Indexed", source);
+        assertEquals(1, index.size());
+        assertEquals("Dundee", index.getPhrase(0));
+    }
+
+    /** An index that is not recognised is compiled again. */
+    @Test
+    public void rebuildsCorruptIndex() throws IOException {
+        write("Perth\n", 1000);
+        Files.write(PhraseIndex.indexOf(source), new byte[64]);
+        assertEquals("Perth", PhraseIndex.load("Indexed", source).getPhrase(0));
+    }
+
+    /** A source with no phrases is rejected, as by the in-memory loader. */
+    @Test(expected = FileNotFoundException.class)
+    public void rejectsBlankSource() throws IOException {
+        write("\n  \n", 1000);
+        PhraseIndex.load("Indexed", source);
+    }
+
+}
@@ -0,0 +1,67 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A test suite for {@link PhraseStore} and {@link ArrayPhraseCategory}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public class PhraseStoreTest {
+
+    /** A small category used by the tests. */
+    private final PhraseCategory cities = new ArrayPhraseCategory("Cities",
+            new String[]{"St Andrews", "Perth", "K\u00f8benhavn"});
+
+    /** Categories are looked up by id; missing ids are rejected. */
+    @Test
+    public void lookUpById() {
+        PhraseStore store = new PhraseStore(null, cities);
+        assertEquals(2, store.size());
+        assertFalse(store.contains(0));
+        assertTrue(store.contains(1));
+        assertSame(cities, store.get(1));
+    }
+
+    /** Retrieving a category that does not exist causes an exception. */
+    @Test(expected = IllegalArgumentException.class)
+    public void getMissing() {
+        new PhraseStore(cities).get(1);
+    }
+
+    /** Changing a category creates a new store, leaving the old one as is. */
+    @Test
+    public void withCreatesNewStore() {
+        PhraseStore store = new PhraseStore(cities);
+        PhraseStore changed = store.with(3, cities);
+        assertEquals(1, store.size());
+        assertEquals(4, changed.size());
+        assertTrue(changed.contains(3));
+        assertFalse(changed.with(0, null).contains(0));
+    }
+
+    /** The metadata of each phrase is computed on load. */
+    @Test
+    public void metadataIsPrecomputed() {
+        assertEquals(3, cities.size());
+        assertEquals("Perth", cities.getPhrase(1));
+        assertEquals(5, cities.getLength(1));
+        assertEquals(5, cities.getDistinctLetters(1));
+        long perth = LetterSet.bit('p') | LetterSet.bit('e')
+                | LetterSet.bit('r') | LetterSet.bit('t') | LetterSet.bit('h');
+        assertEquals(perth, cities.getLetterMask(1));
+        // St Andrews has 8 distinct letters once the space is left out.
+        assertEquals(8, cities.getDistinctLetters(0));
+        // Characters beyond a to z are flagged.
+        long kobenhavn = cities.getLetterMask(2);
+        assertTrue((kobenhavn & LetterSet.OTHERS_FLAG) != 0);
+        assertEquals(8, cities.getDistinctLetters(2));
+    }
+
+}
@@ -0,0 +1,143 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static uk.ac.standrews.cs5031.Phrases.CUSTOM_ID;
+
+/**
+ * A test suite for {@link PhraseWatcher}.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public class PhraseWatcherTest {
+
+    /** How long to wait for a reload before failing, in ms. */
+    private static final long TIMEOUT = 10000;
+
+    /** How often to check whether a reload happened, in ms. */
+    private static final long POLL_INTERVAL = 20;
+
+    /** Holds the phrase files written by the tests. */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** The phrase source file. */
+    private Path source;
+
+    /** The watcher under test. */
+    private PhraseWatcher watcher;
+
+    /**
+     * Loads a single phrase and starts watching its source.
+     *
+     * @throws IOException if the source cannot be written or watched
+     */
+    @Before
+    public void setUp() throws IOException {
+        source = folder.newFile("phrases.txt").toPath();
+        Files.write(source, "Perth\n".getBytes(UTF_8));
+        OptionsParser.parseAndValidate(new String[]{source.toString()});
+        Phrases.loadCustom();
+        watcher = new PhraseWatcher(source);
+        watcher.start();
+    }
+
+    /**
+     * Stops watching and forgets the custom phrases.
+     *
+     * @throws IOException if the watcher cannot be closed
+     */
+    @After
+    public void tearDown() throws IOException {
+        watcher.close();
+        OptionsParser.parseAndValidate(new String[]{});
+        Phrases.loadCustom();
+    }
+
+    /**
+     * Waits until the first custom phrase is the given one.
+     *
+     * @param expected the phrase expected after the reload
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private void awaitFirstPhrase(final String expected)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (System.currentTimeMillis() < deadline
+                && !expected.equals(firstPhrase())) {
+            Thread.sleep(POLL_INTERVAL);
+        }
+        assertEquals(expected, firstPhrase());
+    }
+
+    /**
+     * Retrieves the first of the custom phrases currently loaded.
+     *
+     * @return the first custom phrase
+     */
+    private static String firstPhrase() {
+        return Phrases.getCategory(CUSTOM_ID).getPhrase(0);
+    }
+
+    /** Rewriting the source swaps in the new phrases. */
+    @Test
+    public void reloadsRewrittenSource() throws Exception {
+        Files.write(source, "Dundee\nStirling\n".getBytes(UTF_8));
+        awaitFirstPhrase("Dundee");
+        assertEquals(2, Phrases.getCategory(CUSTOM_ID).size());
+    }
+
+    /** Moving a new file over the source swaps in the new phrases. */
+    @Test
+    public void reloadsReplacedSource() throws Exception {
+        Path replacement = folder.newFile("replacement.txt").toPath();
+        Files.write(replacement, "Inverness\n".getBytes(UTF_8));
+        Files.move(replacement, source, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        awaitFirstPhrase("Inverness");
+    }
+
+    /** A source that cannot be loaded leaves the previous phrases. */
+    @Test
+    public void keepsPhrasesOnInvalidSource() throws Exception {
+        Files.write(source, new byte[0]);
+        Thread.sleep(POLL_INTERVAL * 20);
+        assertEquals("Perth", firstPhrase());
+        Files.write(source, "Falkirk\n".getBytes(UTF_8));
+        awaitFirstPhrase("Falkirk");
+    }
+
+    /**
+     * A watched source large enough to be mapped can be rewritten in
+     * place while its phrases are still read.
+     *
+     * @throws IOException if the source cannot be written
+     */
+    @Test
+    public void largeSourceRewrittenInPlace() throws IOException {
+        Path large = folder.newFile("large.txt").toPath();
+        byte[] line = "Perth\n".getBytes(UTF_8);
+        int lines = (int) (Phrases.MAPPED_THRESHOLD / line.length) + 1;
+        Files.write(large, "Perth\n".repeat(lines).getBytes(UTF_8));
+        OptionsParser.parseAndValidate(new String[]{
+                OptionsParser.WATCH_OPTION, large.toString()});
+        Phrases.loadCustom();
+        PhraseCategory loaded = Phrases.getCategory(CUSTOM_ID);
+        assertEquals(lines, loaded.size());
+        Files.write(large, "Dundee\n".getBytes(UTF_8));
+        assertEquals("Perth", loaded.getPhrase(lines - 1));
+    }
+
+}
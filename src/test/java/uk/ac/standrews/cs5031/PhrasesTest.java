@@ -7,11 +7,15 @@ import java.io.FileNotFoundException;
 import java.io.FileInputStream;
 import java.io.InputStreamReader;
 import java.io.BufferedReader;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.List;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static uk.ac.standrews.cs5031.Phrases.COUNTRIES_ID;
 import static uk.ac.standrews.cs5031.Phrases.COUNTRIES;
@@ -25,7 +29,7 @@ import static uk.ac.standrews.cs5031.Phrases.CUSTOM_ID;
  * A test suite for {@link Phrases}.
  *
  * @author 150009974
- * @version 2.2
+ * @version 2.3
  */
 public class PhrasesTest {
 
@@ -55,6 +59,25 @@ public class PhrasesTest {
         assertTrue(cities.contains(phrase));
     }
 
+    /**
+     * Phrases can be picked without parsing any options. The classes are
+     * loaded afresh, so that options parsed by other tests do not count.
+     *
+     * @throws Exception if the classes cannot be loaded afresh
+     */
+    @Test
+    public void getWithoutOptions() throws Exception {
+        URL classes = Phrases.class.getProtectionDomain()
+                .getCodeSource().getLocation();
+        try (URLClassLoader fresh = new URLClassLoader(new URL[]{classes},
+                ClassLoader.getPlatformClassLoader())) {
+            Method getRandomPhrase = fresh.loadClass(Phrases.class.getName())
+                    .getMethod("getRandomPhrase", int.class);
+            Object phrase = getRandomPhrase.invoke(null, CITIES_ID);
+            assertTrue(Arrays.asList(CITIES).contains(phrase));
+        }
+    }
+
     /** Retrieving a phrase from an invalid category causes an exception. */
     @Test(expected = IllegalArgumentException.class)
     public void getIllegal() {
@@ -126,4 +149,26 @@ public class PhrasesTest {
         Phrases.loadCustom();
     }
 
+    /**
+     * Categories can be plugged in with any id,
+     * and are then listed in the menu.
+     */
+    @Test
+    public void pluggedInCategory() {
+        int id = CITIES_ID + 1;
+        String[] lochs = {"Loch Ness"};
+        OptionsParser.parseAndValidate(new String[]{});
+        Phrases.setCategory(id, new ArrayPhraseCategory("Lochs", lochs));
+        try {
+            assertEquals("Loch Ness", Phrases.getRandomPhrase(id));
+            StringBuilder menu = new StringBuilder();
+            Renderer.appendMenu(menu);
+            String newLine = System.lineSeparator();
+            assertTrue(menu.toString().endsWith("  4. Lochs" + newLine
+                    + "Pick a category [1, 2, 3, or 4]:" + newLine));
+        } finally {
+            Phrases.setCategory(id, null);
+        }
+    }
+
 }
@@ -0,0 +1,101 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A test suite for {@link RandomSource}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public class RandomSourceTest {
+
+    /** The amount of numbers drawn when comparing sources. */
+    private static final int DRAWS = 64;
+
+    /** The bound of the numbers drawn when comparing sources. */
+    private static final int BOUND = 1000;
+
+    /**
+     * Draws numbers from the given source.
+     *
+     * @param random the source
+     * @return the numbers drawn
+     */
+    private static int[] draw(final RandomSource random) {
+        int[] numbers = new int[DRAWS];
+        for (int i = 0; i < DRAWS; i++) {
+            numbers[i] = random.nextInt(BOUND);
+            assertTrue(numbers[i] >= 0 && numbers[i] < BOUND);
+        }
+        return numbers;
+    }
+
+    /** Sources with the same seed draw the same numbers. */
+    @Test
+    public void sameSeedSameNumbers() {
+        int[] expected = draw(RandomSource.seeded(42));
+        assertArrayEquals(expected, draw(RandomSource.seeded(42)));
+    }
+
+    /** Splitting is deterministic too, and yields independent sources. */
+    @Test
+    public void splitIsDeterministic() {
+        RandomSource first = RandomSource.seeded(7);
+        RandomSource second = RandomSource.seeded(7);
+        int[] a = draw(first.split());
+        int[] b = draw(first.split());
+        assertArrayEquals(a, draw(second.split()));
+        assertFalse(Arrays.equals(a, b));
+    }
+
+    /** The default source is shared rather than split. */
+    @Test
+    public void threadLocalIsShared() {
+        RandomSource random = RandomSource.threadLocal();
+        assertSame(random, random.split());
+        draw(random);
+    }
+
+    /**
+     * Plays a game picking a category and asking for every hint.
+     *
+     * @param seed the seed of the game
+     * @return the output of the game
+     * @throws UnsupportedEncodingException never, UTF-8 is supported
+     */
+    private static String playWithSeed(final long seed)
+            throws UnsupportedEncodingException {
+        LineReader reader = new LineReader("3\n?\n?\n?\n");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, false, "utf-8");
+        BlockingGame game = new BlockingGame(reader, GameOutput.of(out),
+                RandomSource.seeded(seed));
+        try {
+            game.play();
+        } catch (NoSuchElementException ignored) {
+            // The script ends before the game does.
+        }
+        return bytes.toString("utf-8");
+    }
+
+    /** A seeded game picks the same phrase and hints when replayed. */
+    @Test
+    public void seededGamesReplay() throws UnsupportedEncodingException {
+        OptionsParser.parseAndValidate(new String[]{});
+        assertEquals(playWithSeed(2024), playWithSeed(2024));
+    }
+
+}
@@ -0,0 +1,62 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A test suite for {@link Screen}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public class ScreenTest {
+
+    /** Text is encoded as UTF-8, including characters beyond ASCII. */
+    @Test
+    public void encodesUtf8() {
+        Screen screen = new Screen();
+        String text = "Try: \u00e9\nPhrase: K\u00f6ln \ud83d\ude00\n";
+        screen.text().append(text);
+        ByteBuffer encoded = screen.encode();
+        byte[] bytes = new byte[encoded.remaining()];
+        encoded.get(bytes);
+        assertArrayEquals(text.getBytes(UTF_8), bytes);
+        assertTrue(screen.isEmpty());
+    }
+
+    /** Once grown, the buffers are reused from one turn to the next. */
+    @Test
+    public void reusesBuffers() {
+        Screen screen = new Screen();
+        screen.text().append("first turn");
+        ByteBuffer first = screen.encode();
+        screen.text().append("second");
+        ByteBuffer second = screen.encode();
+        assertSame(first, second);
+        assertEquals("second".length(), second.remaining());
+    }
+
+    /** Text longer than the initial buffers is written in full. */
+    @Test
+    public void flushesLongText() {
+        Screen screen = new Screen();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append("Lives remaining: ").append(i).append('\n');
+        }
+        screen.text().append(text);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        screen.flushTo(GameOutput.of(new PrintStream(bytes)));
+        assertEquals(text.toString(), new String(bytes.toByteArray(), UTF_8));
+    }
+
+}
@@ -0,0 +1,122 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A test suite for {@link SessionArena} and {@link SessionCodec}.
+ *
+ * @author 150009974
+ * @version 1.1
+ */
+public class SessionArenaTest {
+
+    /**
+     * Asserts that two sessions have the same state.
+     *
+     * @param expected the parked session
+     * @param actual   the recreated session
+     */
+    private static void assertSameState(final GameSession expected,
+                                        final GameSession actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getPhrase(), actual.getPhrase());
+        assertEquals(expected.getLives(), actual.getLives());
+        assertEquals(expected.getHints(), actual.getHints());
+        assertEquals(expected.getGuessesMade(), actual.getGuessesMade());
+        assertEquals(expected.getGuessedLetters(),
+                actual.getGuessedLetters());
+        assertEquals(expected.getRemainingLetters(),
+                actual.getRemainingLetters());
+        assertEquals(expected.isOver(), actual.isOver());
+    }
+
+    /**
+     * A parked session is recreated with the same state, as often as it
+     * is looked at, but taken only once.
+     */
+    @Test
+    public void takeRecreatesParkedSession() {
+        SessionArena arena = new SessionArena();
+        GameSession session = new GameSession(7, "K\u00f8benhavn 2", 10, 2);
+        session.checkLetter('k');
+        session.checkLetter('\u00f8');
+        session.checkLetter('2');
+        session.checkLetter('z');
+        session.takeHint(RandomSource.seeded(1));
+        arena.park(session);
+        assertTrue(arena.contains(7));
+        assertEquals(1, arena.size());
+        assertSameState(session, arena.get(7));
+        assertEquals(1, arena.size());
+        assertSameState(session, arena.take(7));
+        assertNull(arena.take(7));
+        assertNull(arena.get(7));
+        assertEquals(0, arena.size());
+    }
+
+    /** Finished games are recreated finished. */
+    @Test
+    public void takeKeepsOutcome() {
+        SessionArena arena = new SessionArena();
+        GameSession won = new GameSession(1, "Rome", 10, 2);
+        won.checkFullPhrase("rome");
+        GameSession lost = new GameSession(2, "Rome", 1, 2);
+        lost.checkLetter('z');
+        arena.park(won);
+        arena.park(lost);
+        assertTrue(arena.take(1).hasWon());
+        assertTrue(arena.take(2).hasLost());
+    }
+
+    /** Sessions guessing too many other characters cannot be encoded. */
+    @Test
+    public void tooManyOthersCannotBeEncoded() {
+        GameSession session = new GameSession(1, "Rome", 10, 2);
+        for (char other = '0'; other < '0' + SessionCodec.MAX_OTHERS;
+             other++) {
+            session.checkLetter(other);
+        }
+        assertTrue(SessionCodec.canEncode(session));
+        session.checkLetter('!');
+        assertFalse(SessionCodec.canEncode(session));
+    }
+
+    /**
+     * Many sessions parked and removed in any order are all found,
+     * as the table grows and records are shifted back.
+     */
+    @Test
+    public void parkAndRemoveMany() {
+        SessionArena arena = new SessionArena();
+        Map<Long, GameSession> expected = new HashMap<>();
+        RandomSource random = RandomSource.seeded(3);
+        for (long id = 1; id <= 5 * SessionArena.INITIAL_SLOTS; id++) {
+            GameSession session = new GameSession(id,
+                    "Phrase " + (id % 100), 10, 2);
+            session.checkLetter((char) ('a' + id % 26));
+            arena.park(session);
+            expected.put(id, session);
+            long victim = 1 + random.nextInt((int) id);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(victim) != null,
+                        arena.remove(victim));
+            }
+        }
+        assertEquals(expected.size(), arena.size());
+        assertTrue(arena.getCapacityBytes()
+                >= 2L * arena.size() * SessionCodec.SIZE);
+        for (GameSession session : expected.values()) {
+            assertSameState(session, arena.take(session.getId()));
+        }
+        assertEquals(0, arena.size());
+    }
+
+}
@@ -0,0 +1,239 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A test suite for {@link SessionJournal} and the restoring of sessions
+ * in a {@link SessionRegistry}.
+ *
+ * @author 150009974
+ * @version 1.2
+ */
+public class SessionJournalTest {
+
+    /** Holds the journal directory. */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** The journal directory. */
+    private Path directory;
+
+    /** The journal currently open. */
+    private SessionJournal journal;
+
+    /**
+     * Opens an empty journal.
+     *
+     * @throws IOException if the journal cannot be opened
+     */
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.getRoot().toPath().resolve("journal");
+        journal = SessionJournal.open(directory);
+    }
+
+    /** Closes the journal. */
+    @After
+    public void tearDown() {
+        journal.close();
+    }
+
+    /**
+     * Closes the journal and opens it again, as after a restart.
+     *
+     * @return the sessions restored
+     * @throws IOException if the journal cannot be opened
+     */
+    private List<GameSession> restart() throws IOException {
+        journal.close();
+        journal = SessionJournal.open(directory);
+        return journal.getRecovered();
+    }
+
+    /**
+     * Asserts that two sessions have the same state.
+     *
+     * @param expected the original session
+     * @param actual   the restored session
+     */
+    private static void assertSameState(final GameSession expected,
+                                        final GameSession actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getPhrase(), actual.getPhrase());
+        assertEquals(expected.getLives(), actual.getLives());
+        assertEquals(expected.getHints(), actual.getHints());
+        assertEquals(expected.getGuessesMade(), actual.getGuessesMade());
+        assertEquals(expected.getGuessedLetters(),
+                actual.getGuessedLetters());
+        assertEquals(expected.getRemainingLetters(),
+                actual.getRemainingLetters());
+    }
+
+    /**
+     * Games in progress are restored, ended and finished ones are not.
+     *
+     * @throws IOException if the journal cannot be opened
+     */
+    @Test
+    public void restoresGamesInProgress() throws IOException {
+        SessionRegistry registry = new SessionRegistry(16, journal);
+        GameSession playing = registry.create("St Andrews", 10, 2);
+        playing.checkLetter('s');
+        playing.checkLetter('z');
+        playing.checkFullPhrase("St Andrew");
+        playing.takeHint(RandomSource.seeded(1));
+        playing.checkLetter('s');
+        GameSession ended = registry.create("Perth", 10, 2);
+        registry.remove(ended.getId());
+        GameSession won = registry.create("Rome", 10, 2);
+        won.checkFullPhrase("rome");
+        List<GameSession> restored = restart();
+        assertEquals(1, restored.size());
+        assertSameState(playing, restored.get(0));
+    }
+
+    /**
+     * A record torn by a crash is not replayed, earlier ones are.
+     *
+     * @throws IOException if the journal cannot be opened
+     */
+    @Test
+    public void ignoresTornRecords() throws IOException {
+        SessionRegistry registry = new SessionRegistry(16, journal);
+        GameSession session = registry.create("Perth", 10, 2);
+        session.checkLetter('p');
+        journal.close();
+        Path file;
+        try (Stream<Path> files = Files.list(directory)) {
+            file = files.filter(path -> path.getFileName().toString()
+                    .startsWith(SessionJournal.JOURNAL_PREFIX))
+                    .findFirst().get();
+        }
+        Files.write(file, new byte[]{0, 0, 0, 64, 1, 2, 3},
+                StandardOpenOption.APPEND);
+        List<GameSession> restored = restart();
+        assertEquals(1, restored.size());
+        assertSameState(session, restored.get(0));
+    }
+
+    /**
+     * Snapshots keep a single short journal file, whatever is played.
+     *
+     * @throws IOException if the journal cannot be opened
+     */
+    @Test
+    public void snapshotsBoundTheJournal() throws IOException {
+        journal.close();
+        journal = SessionJournal.open(directory, 4);
+        SessionRegistry registry = new SessionRegistry(16, journal);
+        GameSession session = registry.create("Dumfries and Galloway", 30, 2);
+        for (char letter = 'a'; letter <= 'z'; letter++) {
+            if (letter != 'y') {
+                session.checkLetter(letter);
+            }
+            registry.remove(registry.create("Rome", 10, 2).getId());
+        }
+        journal.sync();
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+        List<GameSession> restored = restart();
+        assertEquals(1, restored.size());
+        assertSameState(session, restored.get(0));
+    }
+
+    /**
+     * Games guessing too many characters to be encoded are restored too,
+     * from the journal and from a snapshot, whether or not they have
+     * guessed that many yet.
+     *
+     * @throws IOException if the journal cannot be opened
+     */
+    @Test
+    public void restoresGamesTooLargeToEncode() throws IOException {
+        journal.close();
+        journal = SessionJournal.open(directory, 4);
+        SessionRegistry registry = new SessionRegistry(16, journal);
+        String others = "\u00e6\u00f8\u00e5\u00e9\u00fc";
+        GameSession large = registry.create(others + " x", 10, 2);
+        GameSession small = registry.create("Perth", 10, 2);
+        small.checkLetter('p');
+        for (int i = 0; i < others.length(); i++) {
+            large.checkLetter(others.charAt(i));
+        }
+        assertFalse(SessionCodec.canEncode(large));
+        List<GameSession> restored = restart();
+        assertEquals(2, restored.size());
+        for (GameSession session : restored) {
+            assertSameState(session.getId() == large.getId() ? large : small,
+                    session);
+        }
+        // Opening took a snapshot, which the next restart reads.
+        assertEquals(2, restart().size());
+    }
+
+    /**
+     * Restored games are claimed once, and new games get new ids.
+     *
+     * @throws IOException if the journal cannot be opened
+     */
+    @Test
+    public void restoredGamesAreClaimedOnce() throws IOException {
+        SessionRegistry before = new SessionRegistry(16, journal);
+        before.create("Perth", 10, 2);
+        long id = before.create("Paris", 10, 2).getId();
+        SessionRegistry after = new SessionRegistry(16, journal);
+        after.restore(restart());
+        assertNull(after.claim(Long.toString(id)));
+        assertNull(after.claim(Renderer.RESUME_PREFIX + "x"));
+        GameSession claimed = after.claim(Renderer.RESUME_PREFIX + id);
+        assertEquals("Paris", claimed.getPhrase());
+        assertNull(after.claim(Renderer.RESUME_PREFIX + id));
+        assertNotEquals(id, after.create("Rome", 10, 2).getId());
+    }
+
+    /**
+     * A player can carry on a restored game over the line protocol.
+     *
+     * @throws IOException if the journal cannot be opened
+     */
+    @Test
+    public void conversationResumesGame() throws IOException {
+        SessionRegistry before = new SessionRegistry(16, journal);
+        GameSession perth = before.create("Perth", 10, 2);
+        perth.checkLetter('e');
+        SessionRegistry after = new SessionRegistry(16, journal);
+        after.restore(restart());
+        Conversation conversation = new Conversation(after,
+                new ServerMetrics(), RandomSource.seeded(1));
+        StringBuilder out = new StringBuilder();
+        conversation.accept(Renderer.RESUME_PREFIX + "0", out);
+        assertEquals(Renderer.GAME_NOT_FOUND + System.lineSeparator(),
+                out.toString());
+        out.setLength(0);
+        conversation.accept(Renderer.RESUME_PREFIX + perth.getId(), out);
+        assertTrue(out.toString().startsWith("-e---"));
+        out.setLength(0);
+        conversation.accept("Perth", out);
+        assertSame(null, after.get(perth.getId()));
+    }
+
+}
@@ -0,0 +1,82 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * A test suite for {@link SessionOwners}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public class SessionOwnersTest {
+
+    /**
+     * Work on a session is always done by the same thread, and work on
+     * sessions of different owners by different threads.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Test
+    public void sessionsHaveOneOwner() throws InterruptedException {
+        try (SessionOwners owners = new SessionOwners(2)) {
+            Thread first = owners.call(1, Thread::currentThread);
+            assertEquals(first, owners.call(1, Thread::currentThread));
+            assertEquals(first, owners.call(3, Thread::currentThread));
+            assertNotEquals(first, owners.call(2, Thread::currentThread));
+        }
+    }
+
+    /**
+     * Guesses posted to a session from many threads at once are all
+     * applied, with no lock on the session.
+     *
+     * @throws Exception if a guess fails
+     */
+    @Test
+    public void concurrentGuessesAreApplied() throws Exception {
+        SessionRegistry registry = new SessionRegistry();
+        long id = registry.create("abcdefghijklmnopqrstuvwxyz", 1, 0)
+                .getId();
+        ExecutorService players = Executors.newFixedThreadPool(8);
+        try (SessionOwners owners = new SessionOwners(4)) {
+            List<Future<GameSession.Guess>> guesses = new ArrayList<>();
+            for (char c = 'a'; c <= 'z'; c++) {
+                char letter = c;
+                guesses.add(players.submit(() -> owners.call(id,
+                        () -> registry.get(id).checkLetter(letter))));
+            }
+            for (Future<GameSession.Guess> guess : guesses) {
+                guess.get();
+            }
+            GameSession session = owners.call(id, () -> registry.get(id));
+            assertEquals(26, session.getGuessesMade());
+            assertEquals(0, session.getRemainingLetters());
+        } finally {
+            players.shutdown();
+        }
+    }
+
+    /**
+     * Exceptions thrown by the work are thrown to the caller.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void rethrowsExceptions() throws InterruptedException {
+        try (SessionOwners owners = new SessionOwners(1)) {
+            owners.call(1, () -> {
+                throw new IllegalArgumentException("bad guess");
+            });
+        }
+    }
+
+}
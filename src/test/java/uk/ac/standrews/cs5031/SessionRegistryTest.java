@@ -0,0 +1,187 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A test suite for {@link SessionRegistry}.
+ *
+ * @author 150009974
+ * @version 1.3
+ */
+public class SessionRegistryTest {
+
+    /** Created sessions can be looked up and removed by id. */
+    @Test
+    public void createLookUpRemove() {
+        SessionRegistry registry = new SessionRegistry();
+        GameSession session = registry.create("Word", 10, 2);
+        assertSame(session, registry.get(session.getId()));
+        assertSame(session, registry.remove(session.getId()));
+        assertNull(registry.get(session.getId()));
+        assertEquals(0, registry.size());
+    }
+
+    /**
+     * Sessions created concurrently all get distinct ids.
+     *
+     * @throws InterruptedException if interrupted while waiting for threads
+     */
+    @Test
+    public void concurrentCreationGivesDistinctIds()
+            throws InterruptedException {
+        SessionRegistry registry = new SessionRegistry();
+        int threads = 8;
+        int perThread = 5000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    registry.create("Word", 10, 2);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(threads * perThread, registry.size());
+    }
+
+    /** Idle sessions are parked and recreated by the next look up. */
+    @Test
+    public void idleSessionsAreParked() {
+        SessionRegistry registry = new SessionRegistry();
+        GameSession session = registry.create("Rome", 10, 2);
+        session.checkLetter('r');
+        long id = session.getId();
+        registry.parkIdle(Long.MAX_VALUE);
+        assertEquals(0, registry.getParked());
+        registry.parkIdle(0);
+        assertEquals(1, registry.getParked());
+        assertEquals(1, registry.size());
+        GameSession unparked = registry.get(id);
+        assertEquals(0, registry.getParked());
+        assertTrue(unparked.isGuessed('r'));
+        assertEquals(3, unparked.getRemainingLetters());
+        assertSame(unparked, registry.get(id));
+    }
+
+    /**
+     * Sessions parked by another thread while their owner thread applies
+     * turns are parked with the last turn applied, and never lose one.
+     * The owner touches a session far in the future while applying a
+     * turn, and at time 0 once done, so it is only ever parked between
+     * turns.
+     *
+     * @throws InterruptedException if interrupted while waiting for threads
+     */
+    @Test
+    public void parkingWhileOwnerPlays() throws InterruptedException {
+        String alphabet = "abcdefghijklmnopqrstuvwxyz";
+        SessionShard shard = new SessionShard(16, null);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong parked = new AtomicLong();
+        Thread parker = new Thread(() -> {
+            while (!done.get()) {
+                shard.parkIdle(0, 0);
+                parked.addAndGet(shard.getParked());
+            }
+        });
+        parker.start();
+        try {
+            for (long id = 0; id < 2000; id++) {
+                shard.put(new GameSession(id, alphabet, 1, 0));
+                for (int turn = 0; turn < alphabet.length(); turn++) {
+                    GameSession session = shard.get(id, 1);
+                    assertEquals(turn, session.getGuessesMade());
+                    assertEquals(alphabet.substring(0, turn),
+                            session.getGuessedLetters());
+                    session.checkLetter(alphabet.charAt(turn));
+                    shard.get(id, 0);
+                }
+                assertTrue(shard.get(id, 1).hasWon());
+            }
+        } finally {
+            done.set(true);
+            parker.join();
+        }
+        assertTrue(parked.get() > 0);
+    }
+
+    /** Parked sessions can be removed without being looked up. */
+    @Test
+    public void parkedSessionsCanBeRemoved() {
+        SessionRegistry registry = new SessionRegistry();
+        long id = registry.create("Rome", 10, 2).getId();
+        registry.parkIdle(0);
+        assertEquals("Rome", registry.remove(id).getPhrase());
+        assertEquals(0, registry.size());
+        assertNull(registry.get(id));
+    }
+
+    /** A player's game carries on after being parked between two lines. */
+    @Test
+    public void conversationSurvivesParking() {
+        SessionRegistry registry = new SessionRegistry();
+        Conversation conversation = new Conversation(registry,
+                new ServerMetrics(), RandomSource.seeded(1));
+        StringBuilder out = new StringBuilder();
+        conversation.accept("1", out);
+        registry.parkIdle(0);
+        assertEquals(1, registry.getParked());
+        conversation.accept("e", out);
+        assertEquals(0, registry.getParked());
+        assertEquals(1, registry.size());
+        registry.parkIdle(0);
+        conversation.close();
+        assertEquals(0, registry.size());
+    }
+
+    /**
+     * Adding a shard keeps every session, parked or not, moves only the
+     * sessions the new shard takes over, and parked ones stay parked.
+     */
+    @Test
+    public void addingShardKeepsSessions() {
+        SessionRegistry registry = new SessionRegistry(1, 4);
+        List<GameSession> live = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            live.add(registry.create("Rome", 10, 2));
+        }
+        List<Long> parked = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            GameSession session = registry.create("Oslo", 10, 2);
+            session.checkLetter('o');
+            parked.add(session.getId());
+        }
+        registry.parkIdle(0);
+        for (int i = 0; i < live.size(); i++) {
+            live.set(i, registry.get(live.get(i).getId()));
+        }
+        int moved = registry.addShard();
+        assertEquals(5, registry.getShards());
+        assertTrue(moved > 2000 / 10 && moved < 2000 / 3);
+        assertEquals(2000, registry.size());
+        assertEquals(1000, registry.getParked());
+        for (GameSession session : live) {
+            assertSame(session, registry.get(session.getId()));
+        }
+        for (long id : parked) {
+            GameSession session = registry.get(id);
+            assertEquals("Oslo", session.getPhrase());
+            assertTrue(session.isGuessed('o'));
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A test suite for {@link Simulator} and the {@link GuessStrategy}s.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public class SimulatorTest {
+
+    /** The amount of games simulated by the tests. */
+    private static final int GAMES = 5000;
+
+    /** A category with a single phrase. */
+    private final PhraseCategory perth =
+            new ArrayPhraseCategory("Perth", new String[]{"Perth"});
+
+    /**
+     * Guessing by frequency, Perth is solved in the same 19 guesses
+     * every time, p being the 19th letter tried, after 14 wrong guesses.
+     */
+    @Test
+    public void frequencyStrategyIsPredictable() {
+        Simulator simulator =
+                new Simulator(FrequencyStrategy.INSTANCE, 15, 0, 1);
+        Simulator.Result result = simulator.simulate(perth, GAMES);
+        assertEquals("Perth", result.getCategory());
+        assertEquals(GAMES, result.getGames());
+        assertEquals(GAMES, result.getWon());
+        assertEquals(19, result.getAverageGuesses(), 0);
+        assertEquals(0, result.getAverageHints(), 0);
+    }
+
+    /** With a single life, the strategy spends its hints. */
+    @Test
+    public void hintsAreTakenOnLastLife() {
+        Simulator simulator =
+                new Simulator(FrequencyStrategy.INSTANCE, 1, 2, 1);
+        Simulator.Result result = simulator.simulate(perth, GAMES);
+        assertEquals(2, result.getAverageHints(), 0);
+        assertEquals(0, result.getWinRate(), 0);
+    }
+
+    /**
+     * The results only depend on the seed.
+     *
+     * @throws FileNotFoundException never, there is no phrase source
+     */
+    @Test
+    public void sameSeedSameResults() throws FileNotFoundException {
+        OptionsParser.parseAndValidate(new String[]{});
+        Phrases.loadCustom();
+        List<Simulator.Result> first =
+                new Simulator(RandomStrategy.INSTANCE, 5, 1, 42).run(GAMES);
+        List<Simulator.Result> second =
+                new Simulator(RandomStrategy.INSTANCE, 5, 1, 42).run(GAMES);
+        assertEquals(3, first.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getCategory(),
+                    second.get(i).getCategory());
+            assertEquals(first.get(i).getWon(), second.get(i).getWon());
+            assertEquals(first.get(i).getAverageGuesses(),
+                    second.get(i).getAverageGuesses(), 0);
+            assertEquals(first.get(i).getAverageHints(),
+                    second.get(i).getAverageHints(), 0);
+        }
+    }
+
+    /**
+     * The report has a header and a line per category.
+     *
+     * @throws FileNotFoundException never, there is no phrase source
+     */
+    @Test
+    public void reportListsCategories() throws FileNotFoundException {
+        OptionsParser.parseAndValidate(new String[]{});
+        Phrases.loadCustom();
+        String report = Simulator.report(
+                new Simulator(FrequencyStrategy.INSTANCE, 10, 2, 7).run(10));
+        String[] lines = report.split(System.lineSeparator());
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].startsWith("Category"));
+        assertTrue(lines[1].startsWith("Countries"));
+    }
+
+}
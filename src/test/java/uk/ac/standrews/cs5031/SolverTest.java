@@ -0,0 +1,88 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A test suite for {@link Solver} and {@link SolverStrategy}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public class SolverTest {
+
+    /** A few cities, two of which have five letters. */
+    private final PhraseCategory cities = new ArrayPhraseCategory("Cities",
+            new String[]{"Perth", "Paris", "Dundee", "St Andrews", "Rome"});
+
+    /** The solver of {@link #cities}. */
+    private final Solver solver = new Solver(cities);
+
+    /** Candidates are narrowed down by length before anything is guessed. */
+    @Test
+    public void candidatesHaveTheSameLength() {
+        assertEquals(2, solver.countCandidates("-----", 0));
+        assertEquals(1, solver.countCandidates("----", 0));
+        assertEquals(0, solver.countCandidates("-------", 0));
+    }
+
+    /** Spaces are always revealed, so they narrow down the candidates. */
+    @Test
+    public void spacesMustMatch() {
+        assertEquals(1, solver.countCandidates("-- -------", 0));
+        assertEquals(0, solver.countCandidates("--- ------", 0));
+    }
+
+    /** The letter shared by most candidates is picked, by frequency on ties. */
+    @Test
+    public void bestLetterIsInMostCandidates() {
+        // Perth and Paris both have p and r; r is the more common letter.
+        assertEquals('r', solver.bestLetter("-----", 0));
+    }
+
+    /** A wrong guess rules out every candidate with that letter. */
+    @Test
+    public void wrongGuessRulesOutCandidates() {
+        long e = LetterSet.bit('e');
+        assertEquals(1, solver.countCandidates("-----", e));
+        // Only Paris is left, so any of its letters will do: a is first.
+        assertEquals('a', solver.bestLetter("-----", e));
+    }
+
+    /** Revealed letters must match, and may not appear where hidden. */
+    @Test
+    public void revealedLettersMustMatch() {
+        long r = LetterSet.bit('r');
+        assertEquals(2, solver.countCandidates("--r--", r));
+        assertEquals(0, solver.countCandidates("-r---", r));
+        long d = LetterSet.bit('d');
+        // Dundee has a second d, which would have been revealed.
+        assertEquals(0, solver.countCandidates("D-----", d));
+        assertEquals(1, solver.countCandidates("D--d--", d));
+    }
+
+    /** No letter is suggested once every candidate is solved. */
+    @Test
+    public void noLetterForUnknownPhrases() {
+        assertEquals(Solver.NO_LETTER, solver.bestLetter("Oslo", 0));
+        assertEquals(Solver.NO_LETTER, solver.bestLetter("-------", 0));
+    }
+
+    /** The solver strategy wins every built-in game without any hints. */
+    @Test
+    public void solverStrategyWinsBuiltInCategories() {
+        int[] ids = {Phrases.COUNTRIES_ID, Phrases.COUNTIES_ID,
+                Phrases.CITIES_ID};
+        for (int id : ids) {
+            Solver categorySolver = Solver.forCategory(id);
+            Simulator simulator = new Simulator(
+                    new SolverStrategy(categorySolver),
+                    OptionsParser.DEFAULT_LIVES, 0, 3);
+            Simulator.Result result =
+                    simulator.simulate(Phrases.getCategory(id), 1000);
+            assertEquals(1, result.getWinRate(), 0);
+        }
+    }
+
+}
@@ -15,7 +15,7 @@ import static org.junit.Assert.assertEquals;
  * Contains several methods to support testing.
  *
  * @author 150009974
- * @version 1.1
+ * @version 1.2
  */
 public final class TestingUtils {
 
@@ -74,12 +74,26 @@ public final class TestingUtils {
      */
     public static void expectOutput(final String filename)
             throws FileNotFoundException, UnsupportedEncodingException {
+        expectOutput(filename, out.toString(UTF_8));
+    }
+
+    /**
+     * Reads the contents of the specified file and
+     * asserts that they equal the given output.
+     * The file should be located in the folder containing the expected outputs.
+     *
+     * @param filename the name of the file containing the expected output
+     * @param actual   the output produced
+     * @throws FileNotFoundException if the specified file is not found
+     * @see TestingUtils#EXPECTED_OUTPUTS_FOLDER
+     */
+    public static void expectOutput(final String filename, final String actual)
+            throws FileNotFoundException {
         String filePath = EXPECTED_OUTPUTS_FOLDER + filename;
         Scanner sc = new Scanner(new FileInputStream(filePath), UTF_8);
         sc.useDelimiter(EOF);
         String expected = sc.next();
         sc.close();
-        String actual = out.toString(UTF_8);
         assertEquals(expected, actual);
     }
 
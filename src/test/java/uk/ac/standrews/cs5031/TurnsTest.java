@@ -0,0 +1,98 @@
+package uk.ac.standrews.cs5031;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A test suite for {@link Turns}.
+ *
+ * @author 150009974
+ * @version 1.0
+ */
+public class TurnsTest {
+
+    /** The line separator used by the {@link Renderer}. */
+    private static final String NL = System.lineSeparator();
+
+    /**
+     * Plays the given line in a new game of the given phrase,
+     * with 2 lives and 1 hint.
+     *
+     * @param phrase the phrase
+     * @param line   the line typed
+     * @return the response
+     */
+    private static String play(final String phrase, final String line) {
+        GameSession session = new GameSession(1, phrase, 2, 1);
+        StringBuilder out = new StringBuilder();
+        Turns.playLine(session, line, RandomSource.seeded(1), out);
+        return out.toString();
+    }
+
+    /** Only lines with guesses after the prefix are batches. */
+    @Test
+    public void recognizesBatches() {
+        assertTrue(Turns.isBatch("!e"));
+        assertTrue(Turns.isBatch("!e,a"));
+        assertFalse(Turns.isBatch("!"));
+        assertFalse(Turns.isBatch("e,a"));
+        assertArrayEquals(new String[]{"e", "a", "?", "", "rome"},
+                Turns.split(" e,a ,?,,rome"));
+    }
+
+    /** The turns of a batch are answered together, in order. */
+    @Test
+    public void batchIsAnsweredTogether() {
+        assertEquals("Correct!" + NL + "Wrong!" + NL + "Correct!" + NL
+                + "Try: m" + NL, play("Rom", "!r,x,o,?"));
+    }
+
+    /** A batch stops once the game is over. */
+    @Test
+    public void batchStopsWhenOver() {
+        assertEquals("Wrong!" + NL + "Wrong!" + NL, play("Rome", "!x,y,r"));
+        assertEquals("Correct!" + NL + "Correct!" + NL,
+                play("Ro", "!r,o,x"));
+    }
+
+    /** The outcomes of a batch are given in order, one per turn taken. */
+    @Test
+    public void batchGivesOutcomes() {
+        GameSession session = new GameSession(1, "Rom", 2, 1);
+        List<Turns.Turn> turns = Turns.batch(session,
+                new String[]{"r", "?", "o", "m", "x"},
+                RandomSource.seeded(1));
+        assertEquals(4, turns.size());
+        assertEquals(GameSession.Guess.CORRECT, turns.get(0).getResult());
+        assertTrue(turns.get(1).isHint());
+        assertEquals("?", turns.get(1).getGuess());
+        assertFalse(turns.get(2).isHint());
+        assertEquals("m", turns.get(3).getGuess());
+        assertTrue(session.hasWon());
+    }
+
+    /** A single turn is never a batch, as on the console. */
+    @Test
+    public void playsSingleTurns() {
+        GameSession session = new GameSession(1, "Rome", 2, 1);
+        StringBuilder out = new StringBuilder();
+        Turns.play(session, "!r,o", RandomSource.seeded(1), out);
+        assertEquals("Wrong!" + NL, out.toString());
+        assertEquals(1, session.getLives());
+    }
+
+    /** Lines that are not batches are single turns. */
+    @Test
+    public void singleTurns() {
+        assertEquals("Wrong!" + NL, play("Rome", "!"));
+        assertEquals("Wrong!" + NL, play("Rome", "x,y"));
+        assertEquals("Try: m" + NL, play("M", "?"));
+    }
+
+}